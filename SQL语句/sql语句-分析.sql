@@ -78,3 +78,21 @@ SELECT COUNT(eecn) AS cc, ercn FROM
 GROUP BY ercn
 HAVING cc > 1
 ORDER BY cc DESC
+
+-- ұ಻ֱͬӵõķ󣩣ʹ÷ͳϢH2ݿ﷨
+SELECT "full_method", "in_degree", "caller_class_num", "caller_jar_spread"
+FROM "jacg"."method_stats_xxx"
+ORDER BY "in_degree" DESC
+LIMIT 100
+
+-- ֱӵ಻ͬķ󣩣ʹ÷ͳϢH2ݿ﷨
+SELECT "full_method", "out_degree"
+FROM "jacg"."method_stats_xxx"
+ORDER BY "out_degree" DESC
+LIMIT 100
+
+-- ұ಻ֱͬӵõķʹ÷ͳϢH2ݿ﷨
+SELECT "full_method", "caller_class_num", "in_degree"
+FROM "jacg"."method_stats_xxx"
+ORDER BY "caller_class_num" DESC
+LIMIT 100
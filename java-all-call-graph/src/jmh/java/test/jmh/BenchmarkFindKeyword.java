@@ -0,0 +1,136 @@
+package test.jmh;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.find_stack.MultiKeywordMatcher;
+import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
+import com.adrninistrator.javacg.util.JavaCGFileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 性能测试，在方法完整调用链文件中查找多个关键字，比较逐个关键字判断与使用多关键字匹配对象的耗时
+ * 文件大小及关键字数量可通过参数指定，例如 gradlew jmh -Pjmh.include=BenchmarkFindKeyword
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BenchmarkFindKeyword {
+
+    // 关键字数量
+    @Param({"1000"})
+    private int keywordNum;
+
+    // 生成的方法完整调用链文件大小，单位为MB
+    @Param({"1024"})
+    private int fileSizeMb;
+
+    // 查找的关键字列表
+    private List<String> keywordList;
+
+    // 多关键字匹配对象
+    private MultiKeywordMatcher multiKeywordMatcher;
+
+    // 生成的方法完整调用链文件
+    private File callGraphFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(0L);
+        keywordList = new ArrayList<>(keywordNum);
+        for (int i = 0; i < keywordNum; i++) {
+            keywordList.add("test.mapper.TestMapper" + i + ":select" + i + "(");
+        }
+        multiKeywordMatcher = new MultiKeywordMatcher(keywordList);
+
+        // 生成方法完整调用链文件，少量的行包含关键字
+        callGraphFile = Files.createTempFile(BenchmarkFindKeyword.class.getSimpleName(), JACGConstants.EXT_TXT).toFile();
+        long maxFileSize = fileSizeMb * 1024L * 1024L;
+        long fileSize = 0;
+        try (BufferedWriter writer = JavaCGFileUtil.genBufferedWriter(callGraphFile.getAbsolutePath())) {
+            int lineNum = 0;
+            while (fileSize < maxFileSize) {
+                int methodLevel = 1 + random.nextInt(20);
+                String callee;
+                if (random.nextInt(1000) == 0) {
+                    int keywordIndex = random.nextInt(keywordNum);
+                    callee = "test.mapper.TestMapper" + keywordIndex + ":select" + keywordIndex + "(java.lang.String)";
+                } else {
+                    callee = "test.service.TestService" + random.nextInt(10000) + ":method" + random.nextInt(100) + "(java.lang.String,int)";
+                }
+                String line = JACGCallGraphFileUtil.genOutputPrefix(methodLevel) + "[TestCaller" + (lineNum++ % 10000) + ":" + random.nextInt(500) + "]\t" + callee;
+                writer.write(line);
+                writer.write(JACGConstants.NEW_LINE);
+                fileSize += line.length() + 1L;
+            }
+        }
+
+        // 两种方式查找的结果需要相同
+        int matchedNumContains = findByStringContains();
+        int matchedNumMatcher = findByMultiKeywordMatcher();
+        if (matchedNumContains == 0 || matchedNumContains != matchedNumMatcher) {
+            throw new IllegalStateException("两种方式查找关键字的结果不同 " + matchedNumContains + " " + matchedNumMatcher);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(callGraphFile.toPath());
+    }
+
+    @Benchmark
+    public int findByStringContains() throws IOException {
+        int matchedNum = 0;
+        try (BufferedReader br = JavaCGFileUtil.genBufferedReader(callGraphFile.getAbsolutePath())) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                for (String keyword : keywordList) {
+                    if (line.contains(keyword)) {
+                        matchedNum++;
+                        break;
+                    }
+                }
+            }
+        }
+        return matchedNum;
+    }
+
+    @Benchmark
+    public int findByMultiKeywordMatcher() throws IOException {
+        int matchedNum = 0;
+        try (BufferedReader br = JavaCGFileUtil.genBufferedReader(callGraphFile.getAbsolutePath())) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (multiKeywordMatcher.match(line)) {
+                    matchedNum++;
+                }
+            }
+        }
+        return matchedNum;
+    }
+}
@@ -0,0 +1,75 @@
+package test.jmh;
+
+import com.adrninistrator.jacg.util.JACGUtil;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import test.jmh.base.JmhConfigGenerator;
+import test.jmh.base.JmhDataPrepareUtil;
+import test.jmh.base.JmhRunnerGenAllGraph4Caller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试，从数据库查询并生成向下的方法完整调用链，输出内容直接丢弃，不包含写文件的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BenchmarkGenAllGraph4Caller {
+
+    private JmhRunnerGenAllGraph4Caller jmhRunnerGenAllGraph4Caller;
+
+    private List<String> fullMethodList;
+
+    private String[] methodHashArray;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        JmhDataPrepareUtil.prepareDb();
+
+        jmhRunnerGenAllGraph4Caller = new JmhRunnerGenAllGraph4Caller();
+        if (!jmhRunnerGenAllGraph4Caller.run(JmhConfigGenerator.genConfigureWrapper())) {
+            throw new IllegalStateException("初始化失败");
+        }
+
+        fullMethodList = JmhConfigGenerator.genSampleFullMethodList();
+        methodHashArray = new String[fullMethodList.size()];
+        for (int i = 0; i < fullMethodList.size(); i++) {
+            methodHashArray[i] = JACGUtil.genHashWithLen(fullMethodList.get(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jmhRunnerGenAllGraph4Caller.close();
+    }
+
+    @Benchmark
+    public void genAllGraph4Caller(Blackhole blackhole) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(NullWriter.NULL_WRITER)) {
+            for (int i = 0; i < methodHashArray.length; i++) {
+                blackhole.consume(jmhRunnerGenAllGraph4Caller.genAllGraph(methodHashArray[i], fullMethodList.get(i), writer));
+            }
+        }
+    }
+}
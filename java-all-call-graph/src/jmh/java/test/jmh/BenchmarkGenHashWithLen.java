@@ -0,0 +1,47 @@
+package test.jmh;
+
+import com.adrninistrator.jacg.util.JACGUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import test.jmh.base.JmhConfigGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试，生成方法HASH+长度
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BenchmarkGenHashWithLen {
+
+    private List<String> fullMethodList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fullMethodList = JmhConfigGenerator.genSampleFullMethodList();
+    }
+
+    @Benchmark
+    public void genHashWithLen(Blackhole blackhole) {
+        for (String fullMethod : fullMethodList) {
+            blackhole.consume(JACGUtil.genHashWithLen(fullMethod));
+        }
+    }
+}
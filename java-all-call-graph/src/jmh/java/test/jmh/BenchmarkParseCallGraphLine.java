@@ -0,0 +1,97 @@
+package test.jmh;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
+import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.javacg.util.JavaCGFileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import test.jmh.base.JmhConfigGenerator;
+import test.jmh.base.JmhDataPrepareUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试，解析方法完整调用链文件中的行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BenchmarkParseCallGraphLine {
+
+    // 向下的方法完整调用链文件中的行
+    private List<String> callerLineList;
+
+    // 向上的方法完整调用链文件中的行
+    private List<String> calleeLineList;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        JmhDataPrepareUtil.prepareDb();
+
+        callerLineList = genCallGraphLineList(new RunnerGenAllGraph4Caller());
+        calleeLineList = genCallGraphLineList(new RunnerGenAllGraph4Callee());
+    }
+
+    @Benchmark
+    public void parseCallGraphLine4er(Blackhole blackhole) {
+        for (String line : callerLineList) {
+            blackhole.consume(JACGCallGraphFileUtil.parseCallGraphLine4er(line));
+        }
+    }
+
+    @Benchmark
+    public void parseCallGraphLine4ee(Blackhole blackhole) {
+        for (String line : calleeLineList) {
+            blackhole.consume(JACGCallGraphFileUtil.parseCallGraphLine4ee(line));
+        }
+    }
+
+    // 生成方法完整调用链文件，并读取其中的方法调用行
+    private List<String> genCallGraphLineList(AbstractRunnerGenCallGraph runner) throws IOException {
+        if (!runner.run(JmhConfigGenerator.genConfigureWrapper())) {
+            throw new IllegalStateException("生成方法完整调用链失败 " + runner.getClass().getSimpleName());
+        }
+
+        List<String> filePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(runner.getCurrentOutputDirPath(), null, filePathList, JACGConstants.EXT_TXT);
+
+        List<String> lineList = new ArrayList<>();
+        for (String filePath : filePathList) {
+            try (BufferedReader br = JavaCGFileUtil.genBufferedReader(filePath)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (JACGCallGraphFileUtil.isCallGraphLine(line)) {
+                        lineList.add(line);
+                    }
+                }
+            }
+        }
+        if (lineList.isEmpty()) {
+            throw new IllegalStateException("未找到方法完整调用链中的行 " + runner.getClass().getSimpleName());
+        }
+        return lineList;
+    }
+}
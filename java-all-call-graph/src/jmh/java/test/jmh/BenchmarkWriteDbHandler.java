@@ -0,0 +1,117 @@
+package test.jmh;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.method.MethodHashFlags;
+import com.adrninistrator.jacg.handler.write_db.WriteDbHandler4MethodCall;
+import com.adrninistrator.jacg.thread.ThreadFactory4TPE;
+import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.javacg.dto.output.JavaCGOutputInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.jmh.base.JmhConfigGenerator;
+import test.jmh.base.JmhDataPrepareUtil;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试，读取java-callgraph2生成的方法调用文件并写入数据库
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class BenchmarkWriteDbHandler {
+
+    private JavaCGOutputInfo javaCGOutputInfo;
+
+    private DbOperWrapper dbOperWrapper;
+
+    private ThreadPoolExecutor threadPoolExecutor;
+
+    private int taskQueueMaxSize;
+
+    private int batchSize;
+
+    private Set<String> allowedClassPrefixSet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        javaCGOutputInfo = JmhDataPrepareUtil.prepareDb();
+
+        ConfigureWrapper configureWrapper = JmhConfigGenerator.genConfigureWrapper();
+        dbOperWrapper = DbOperWrapper.genInstance(configureWrapper, BenchmarkWriteDbHandler.class.getSimpleName());
+        batchSize = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_DB_INSERT_BATCH_SIZE);
+        allowedClassPrefixSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_ALLOWED_CLASS_PREFIX, true);
+
+        int threadNum = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_THREAD_NUM);
+        taskQueueMaxSize = threadNum * 2;
+        threadPoolExecutor = new ThreadPoolExecutor(threadNum, threadNum, 10L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(taskQueueMaxSize), new ThreadFactory4TPE(JACGConstants.THREAD_NAME_PREFIX_WORKER));
+    }
+
+    @Setup(Level.Invocation)
+    public void truncateTable() {
+        if (!dbOperWrapper.getDbOperator().truncateTable(DbTableInfoEnum.DTIE_METHOD_CALL.getTableName())) {
+            throw new IllegalStateException("清理数据库表失败");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        threadPoolExecutor.shutdown();
+        dbOperWrapper.getDbOperator().closeDs();
+    }
+
+    @Benchmark
+    public int writeMethodCall() {
+        WriteDbHandler4MethodCall writeDbHandler4MethodCall = new WriteDbHandler4MethodCall();
+        writeDbHandler4MethodCall.setDbOperWrapper(dbOperWrapper);
+        writeDbHandler4MethodCall.setDbOperator(dbOperWrapper.getDbOperator());
+        writeDbHandler4MethodCall.setBatchSize(batchSize);
+        writeDbHandler4MethodCall.setAllowedClassPrefixSet(allowedClassPrefixSet);
+        writeDbHandler4MethodCall.setTaskExecutor(task -> {
+            JACGUtil.wait4TPEExecute(threadPoolExecutor, taskQueueMaxSize);
+            threadPoolExecutor.execute(task);
+        });
+        writeDbHandler4MethodCall.setMethodHashFlags(new MethodHashFlags());
+        writeDbHandler4MethodCall.setWithInfoCallIdBitSet(new BitSet());
+        writeDbHandler4MethodCall.setMyBatisMapperSet(Collections.emptySet());
+        writeDbHandler4MethodCall.setMyBatisMapperMethodWriteSet(Collections.emptySet());
+
+        if (!writeDbHandler4MethodCall.handle(javaCGOutputInfo)) {
+            throw new IllegalStateException("写数据库失败");
+        }
+        // 等待直到任务执行完毕
+        while (threadPoolExecutor.getActiveCount() > 0 || !threadPoolExecutor.getQueue().isEmpty()) {
+            JACGUtil.sleep(1L);
+        }
+        if (writeDbHandler4MethodCall.checkFailed()) {
+            throw new IllegalStateException("写数据库失败");
+        }
+        return writeDbHandler4MethodCall.getWriteRecordNum();
+    }
+}
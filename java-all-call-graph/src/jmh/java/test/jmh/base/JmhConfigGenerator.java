@@ -0,0 +1,79 @@
+package test.jmh.base;
+
+import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.javacg.util.JavaCGMethodUtil;
+import test.call_graph.argument.TestArgument1;
+import test.call_graph.cycle_call.TestCycleCall1;
+import test.call_graph.extend_complex.TestExtendComplex;
+import test.call_graph.method_call.TestMCCallee;
+import test.call_graph.method_call.TestMCCaller;
+import test.call_graph.spring.bean.use.complex.TestUseComplexService;
+import test.call_graph.spring.mvc.TestSpringController1;
+import test.run_by_code.config.TestConfigGenerator;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 生成JMH性能测试使用的参数配置
+ */
+public class JmhConfigGenerator {
+
+    // 性能测试使用的H2数据库文件路径，与单元测试使用的数据库文件区分
+    public static final String JMH_H2_FILE_PATH = "./build/jacg_h2db_jmh";
+
+    // 性能测试生成文件的根目录
+    public static final String JMH_OUTPUT_ROOT_PATH = "./build/jmh_output";
+
+    // 用于生成性能测试数据的示例类
+    public static final Class<?>[] SAMPLE_CLASSES = new Class<?>[]{
+            TestMCCaller.class,
+            TestMCCallee.class,
+            TestArgument1.class,
+            TestCycleCall1.class,
+            TestExtendComplex.class,
+            TestSpringController1.class,
+            TestUseComplexService.class
+    };
+
+    /**
+     * 生成性能测试使用的参数配置
+     * 在单元测试使用的配置基础上修改，使用单独的H2数据库文件与输出目录，全部离线执行
+     *
+     * @return
+     */
+    public static ConfigureWrapper genConfigureWrapper() {
+        ConfigureWrapper configureWrapper = TestConfigGenerator.genConfigureWrapper();
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_APP_NAME, "test_jmh");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_ROOT_PATH, JMH_OUTPUT_ROOT_PATH);
+
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH, JMH_H2_FILE_PATH);
+        return configureWrapper;
+    }
+
+    /**
+     * 获取示例类中的全部完整方法，作为性能测试的输入数据
+     *
+     * @return
+     */
+    public static List<String> genSampleFullMethodList() {
+        List<String> fullMethodList = new ArrayList<>();
+        for (Class<?> sampleClass : SAMPLE_CLASSES) {
+            for (Method method : sampleClass.getDeclaredMethods()) {
+                fullMethodList.add(JavaCGMethodUtil.formatFullMethod(sampleClass.getName(), method.getName(), method.getParameterTypes()));
+            }
+        }
+        return fullMethodList;
+    }
+
+    private JmhConfigGenerator() {
+        throw new IllegalStateException("illegal");
+    }
+}
@@ -0,0 +1,35 @@
+package test.jmh.base;
+
+import com.adrninistrator.javacg.dto.output.JavaCGOutputInfo;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试数据准备，在每个JMH fork进程中只执行一次写数据库操作
+ */
+public class JmhDataPrepareUtil {
+
+    private static JavaCGOutputInfo javaCGOutputInfo;
+
+    /**
+     * 执行写数据库操作，若当前进程中已执行过则直接返回
+     *
+     * @return java-callgraph2输出文件信息
+     */
+    public static synchronized JavaCGOutputInfo prepareDb() {
+        if (javaCGOutputInfo != null) {
+            return javaCGOutputInfo;
+        }
+
+        JmhRunnerWriteDb jmhRunnerWriteDb = new JmhRunnerWriteDb();
+        if (!jmhRunnerWriteDb.run(JmhConfigGenerator.genConfigureWrapper())) {
+            throw new IllegalStateException("性能测试写数据库失败");
+        }
+        javaCGOutputInfo = jmhRunnerWriteDb.getJavaCGOutputInfo();
+        return javaCGOutputInfo;
+    }
+
+    private JmhDataPrepareUtil() {
+        throw new IllegalStateException("illegal");
+    }
+}
@@ -0,0 +1,43 @@
+package test.jmh.base;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试使用，完成初始化后保持数据源可用，用于多次执行生成向下的完整方法调用链
+ */
+public class JmhRunnerGenAllGraph4Caller extends RunnerGenAllGraph4Caller {
+
+    @Override
+    public void handle() {
+        // 执行run()方法时只完成初始化，不执行任务
+    }
+
+    @Override
+    protected void beforeExit() {
+        // 执行run()方法结束时不关闭数据源，在close()方法中关闭
+    }
+
+    /**
+     * 根据指定的调用者方法HASH，查找所有被调用方法信息
+     *
+     * @param entryCallerMethodHash
+     * @param entryCallerFullMethod
+     * @param writer
+     * @return
+     * @throws IOException
+     */
+    public boolean genAllGraph(String entryCallerMethodHash, String entryCallerFullMethod, BufferedWriter writer) throws IOException {
+        return genAllGraph4Caller(entryCallerMethodHash, entryCallerFullMethod, JACGConstants.LINE_NUM_NONE, JACGConstants.LINE_NUM_NONE, writer);
+    }
+
+    // 关闭数据源
+    public void close() {
+        super.beforeExit();
+    }
+}
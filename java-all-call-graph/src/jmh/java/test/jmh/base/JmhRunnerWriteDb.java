@@ -0,0 +1,16 @@
+package test.jmh.base;
+
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import com.adrninistrator.javacg.dto.output.JavaCGOutputInfo;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/12
+ * @description: 性能测试使用，写入数据库后可获取java-callgraph2输出文件信息
+ */
+public class JmhRunnerWriteDb extends RunnerWriteDb {
+
+    public JavaCGOutputInfo getJavaCGOutputInfo() {
+        return javaCGOutputInfo;
+    }
+}
@@ -0,0 +1,55 @@
+package com.adrninistrator.jacg.call_graph_binary;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/16
+ * @description: 二进制格式的调用链文件使用的常量
+ * 文件格式：文件头（魔数、版本号），之后为连续的记录，每条记录以1个字节的记录类型开始
+ * 字符串在首次使用前通过字符串记录写入，序号从0开始递增，调用链行记录中的方法、注解、业务功能数据均使用字符串序号表示
+ */
+public class CallGraphBinaryConstants {
+
+    // 文件魔数
+    public static final int FILE_MAGIC = 0x4A434742;
+
+    // 文件版本号
+    public static final int FILE_VERSION = 2;
+
+    // 记录类型：文件结束，仅在调用链生成成功时写入，读取时未遇到该记录说明文件不完整
+    public static final byte RECORD_END = 0;
+
+    // 记录类型：字符串，格式：长度+UTF-8字节
+    public static final byte RECORD_STRING = 1;
+
+    /*
+        记录类型：调用链行，格式：
+        方法级别、方法字符串序号、方法调用ID、调用者代码行号、调用者简单类名字符串序号（入口方法为-1）、标志、[循环调用对应的方法级别]、[引用之前出现的子树对应的行号]、
+        注解数量、注解字符串序号...、业务功能数据数量、[业务功能数据类型字符串序号、业务功能数据值字符串序号]...
+     */
+    public static final byte RECORD_LINE = 2;
+
+    // 记录类型：调用链因为数据库查询次数超过限制被截断
+    public static final byte RECORD_TRUNCATED = 3;
+
+    // 调用链行标志：出现循环调用
+    public static final int LINE_FLAG_CYCLE_CALL = 1;
+
+    // 调用链行标志：入口方法
+    public static final int LINE_FLAG_ENTRY_METHOD = 1 << 1;
+
+    // 调用链行标志：在其他线程执行
+    public static final int LINE_FLAG_RUN_IN_OTHER_THREAD = 1 << 2;
+
+    // 调用链行标志：在事务中执行
+    public static final int LINE_FLAG_RUN_IN_TRANSACTION = 1 << 3;
+
+    // 调用链行标志：引用之前出现的子树
+    public static final int LINE_FLAG_SUBTREE_REF = 1 << 4;
+
+    // 不存在字符串时使用的序号
+    public static final int STRING_ID_NONE = -1;
+
+    private CallGraphBinaryConstants() {
+        throw new IllegalStateException("illegal");
+    }
+}
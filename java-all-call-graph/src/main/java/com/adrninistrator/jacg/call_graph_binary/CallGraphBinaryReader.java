@@ -0,0 +1,165 @@
+package com.adrninistrator.jacg.call_graph_binary;
+
+import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
+import com.adrninistrator.jacg.dto.method.MethodDetail;
+import com.adrninistrator.jacg.handler.dto.business_data.BaseBusinessData;
+import com.adrninistrator.jacg.util.JACGClassMethodUtil;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/16
+ * @description: 读取二进制格式的调用链文件，逐行返回解析后的内容，不需要对文本进行解析
+ * 文件使用gzip压缩时自动解压
+ */
+public class CallGraphBinaryReader implements Closeable {
+
+    private final String filePath;
+
+    private final DataInputStream in;
+
+    // 已读取的字符串，下标为字符串序号
+    private final List<String> stringList = new ArrayList<>();
+
+    // 方法字符串序号对应的方法详细信息，下标为字符串序号
+    private final List<MethodDetail> methodDetailList = new ArrayList<>();
+
+    // 调用链是否因为数据库查询次数超过限制被截断
+    private boolean truncated = false;
+
+    // 是否已读取到文件结束
+    private boolean finished = false;
+
+    public CallGraphBinaryReader(String filePath) throws IOException {
+        this.filePath = filePath;
+        in = new DataInputStream(new BufferedInputStream(JACGFileUtil.genInputStream(new File(filePath)), 1024 * 64));
+        try {
+            if (in.readInt() != CallGraphBinaryConstants.FILE_MAGIC || in.readInt() != CallGraphBinaryConstants.FILE_VERSION) {
+                throw new JavaCGRuntimeException("二进制格式的调用链文件格式不匹配 " + filePath);
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取下一个调用链行
+     *
+     * @return 调用链行解析后的内容，为null时代表已读取完毕
+     * @throws IOException
+     */
+    public CallGraphLineParsed next() throws IOException {
+        while (!finished) {
+            byte recordType;
+            try {
+                recordType = in.readByte();
+            } catch (EOFException e) {
+                throw new JavaCGRuntimeException("二进制格式的调用链文件不完整，生成调用链时可能出现异常 " + filePath);
+            }
+            switch (recordType) {
+                case CallGraphBinaryConstants.RECORD_STRING:
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    stringList.add(new String(bytes, StandardCharsets.UTF_8));
+                    methodDetailList.add(null);
+                    break;
+                case CallGraphBinaryConstants.RECORD_LINE:
+                    return readLine();
+                case CallGraphBinaryConstants.RECORD_TRUNCATED:
+                    truncated = true;
+                    break;
+                case CallGraphBinaryConstants.RECORD_END:
+                    finished = true;
+                    break;
+                default:
+                    throw new JavaCGRuntimeException("二进制格式的调用链文件记录类型非法 " + recordType + " " + filePath);
+            }
+        }
+        return null;
+    }
+
+    // 读取调用链行记录
+    private CallGraphLineParsed readLine() throws IOException {
+        CallGraphLineParsed callGraphLineParsed = new CallGraphLineParsed();
+        callGraphLineParsed.setMethodLevel(in.readInt());
+        callGraphLineParsed.setMethodDetail(getMethodDetail(in.readInt()));
+        callGraphLineParsed.setCallId(in.readInt());
+        callGraphLineParsed.setCallerLineNumber(in.readInt());
+        int callerSimpleClassNameId = in.readInt();
+        if (callerSimpleClassNameId != CallGraphBinaryConstants.STRING_ID_NONE) {
+            callGraphLineParsed.setCallerSimpleClassName(stringList.get(callerSimpleClassNameId));
+        }
+
+        int flags = in.readByte();
+        if ((flags & CallGraphBinaryConstants.LINE_FLAG_CYCLE_CALL) != 0) {
+            callGraphLineParsed.setCycleCall(true);
+            callGraphLineParsed.setCycleCallLevel(in.readInt());
+        }
+        if ((flags & CallGraphBinaryConstants.LINE_FLAG_SUBTREE_REF) != 0) {
+            callGraphLineParsed.setSubtreeRefLineNum(in.readInt());
+        }
+        callGraphLineParsed.setEntryMethod((flags & CallGraphBinaryConstants.LINE_FLAG_ENTRY_METHOD) != 0);
+        callGraphLineParsed.setRunInOtherThread((flags & CallGraphBinaryConstants.LINE_FLAG_RUN_IN_OTHER_THREAD) != 0);
+        callGraphLineParsed.setRunInTransaction((flags & CallGraphBinaryConstants.LINE_FLAG_RUN_IN_TRANSACTION) != 0);
+
+        int annotationNum = in.readInt();
+        if (annotationNum > 0) {
+            String[] annotations = new String[annotationNum];
+            for (int i = 0; i < annotationNum; i++) {
+                annotations[i] = stringList.get(in.readInt());
+            }
+            callGraphLineParsed.setAnnotations(annotations);
+        }
+
+        int businessDataNum = in.readInt();
+        if (businessDataNum == 0) {
+            callGraphLineParsed.setBusinessDataList(Collections.emptyList());
+        } else {
+            List<BaseBusinessData> businessDataList = new ArrayList<>(businessDataNum);
+            for (int i = 0; i < businessDataNum; i++) {
+                String dataType = stringList.get(in.readInt());
+                String dataValue = stringList.get(in.readInt());
+                businessDataList.add(new BaseBusinessData(dataType, dataValue));
+            }
+            callGraphLineParsed.setBusinessDataList(businessDataList);
+        }
+        return callGraphLineParsed;
+    }
+
+    // 获取方法字符串序号对应的方法详细信息，同一个方法只解析一次
+    private MethodDetail getMethodDetail(int methodId) {
+        MethodDetail methodDetail = methodDetailList.get(methodId);
+        if (methodDetail == null) {
+            methodDetail = JACGClassMethodUtil.genMethodDetail(stringList.get(methodId));
+            methodDetailList.set(methodId, methodDetail);
+        }
+        return methodDetail;
+    }
+
+    /**
+     * 调用链是否因为数据库查询次数超过限制被截断，需要在读取完毕后判断
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,143 @@
+package com.adrninistrator.jacg.call_graph_binary;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
+import com.adrninistrator.jacg.handler.dto.business_data.BaseBusinessData;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/16
+ * @description: 生成二进制格式的调用链文件，每个文件由一个线程写入
+ * 调用链生成成功时需要先调用finish()写入文件结束记录，再调用close()；未调用finish()时生成的文件在读取时会被认为不完整
+ */
+public class CallGraphBinaryWriter implements Closeable {
+
+    private final DataOutputStream out;
+
+    // 已写入的字符串及对应的序号
+    private final Map<String, Integer> stringIdMap = new HashMap<>();
+
+    /**
+     * @param outputStream 写文件使用的输出流，需要压缩时由输出流负责压缩，关闭当前对象时会关闭输出流
+     * @throws IOException
+     */
+    public CallGraphBinaryWriter(OutputStream outputStream) throws IOException {
+        out = new DataOutputStream(outputStream);
+        out.writeInt(CallGraphBinaryConstants.FILE_MAGIC);
+        out.writeInt(CallGraphBinaryConstants.FILE_VERSION);
+    }
+
+    /**
+     * 写入调用链行
+     *
+     * @param callGraphLineParsed 调用链行内容，方法详细信息中需要包含完整方法
+     */
+    public void writeLine(CallGraphLineParsed callGraphLineParsed) throws IOException {
+        // 先写入未写入过的字符串
+        int methodId = getStringId(callGraphLineParsed.getMethodDetail().getFullMethod());
+        String callerSimpleClassName = callGraphLineParsed.getCallerSimpleClassName();
+        int callerSimpleClassNameId = callerSimpleClassName == null ? CallGraphBinaryConstants.STRING_ID_NONE : getStringId(callerSimpleClassName);
+        String[] annotations = callGraphLineParsed.getAnnotations();
+        int[] annotationIds = null;
+        if (annotations != null) {
+            annotationIds = new int[annotations.length];
+            for (int i = 0; i < annotations.length; i++) {
+                annotationIds[i] = getStringId(annotations[i]);
+            }
+        }
+        List<BaseBusinessData> businessDataList = callGraphLineParsed.getBusinessDataList();
+        int businessDataNum = businessDataList == null ? 0 : businessDataList.size();
+        int[] businessDataIds = new int[businessDataNum * 2];
+        for (int i = 0; i < businessDataNum; i++) {
+            BaseBusinessData businessData = businessDataList.get(i);
+            businessDataIds[i * 2] = getStringId(businessData.getDataType());
+            businessDataIds[i * 2 + 1] = getStringId(businessData.getDataValue());
+        }
+
+        int flags = 0;
+        if (callGraphLineParsed.isCycleCall()) {
+            flags |= CallGraphBinaryConstants.LINE_FLAG_CYCLE_CALL;
+        }
+        if (callGraphLineParsed.isEntryMethod()) {
+            flags |= CallGraphBinaryConstants.LINE_FLAG_ENTRY_METHOD;
+        }
+        if (callGraphLineParsed.isRunInOtherThread()) {
+            flags |= CallGraphBinaryConstants.LINE_FLAG_RUN_IN_OTHER_THREAD;
+        }
+        if (callGraphLineParsed.isRunInTransaction()) {
+            flags |= CallGraphBinaryConstants.LINE_FLAG_RUN_IN_TRANSACTION;
+        }
+        boolean subtreeRef = callGraphLineParsed.getSubtreeRefLineNum() != JACGConstants.NO_SUBTREE_REF_FLAG;
+        if (subtreeRef) {
+            flags |= CallGraphBinaryConstants.LINE_FLAG_SUBTREE_REF;
+        }
+
+        out.writeByte(CallGraphBinaryConstants.RECORD_LINE);
+        out.writeInt(callGraphLineParsed.getMethodLevel());
+        out.writeInt(methodId);
+        out.writeInt(callGraphLineParsed.getCallId());
+        out.writeInt(callGraphLineParsed.getCallerLineNumber());
+        out.writeInt(callerSimpleClassNameId);
+        out.writeByte(flags);
+        if (callGraphLineParsed.isCycleCall()) {
+            out.writeInt(callGraphLineParsed.getCycleCallLevel());
+        }
+        if (subtreeRef) {
+            out.writeInt(callGraphLineParsed.getSubtreeRefLineNum());
+        }
+        out.writeInt(annotationIds == null ? 0 : annotationIds.length);
+        if (annotationIds != null) {
+            for (int annotationId : annotationIds) {
+                out.writeInt(annotationId);
+            }
+        }
+        out.writeInt(businessDataNum);
+        for (int businessDataId : businessDataIds) {
+            out.writeInt(businessDataId);
+        }
+    }
+
+    /**
+     * 记录调用链因为数据库查询次数超过限制被截断
+     */
+    public void writeTruncated() throws IOException {
+        out.writeByte(CallGraphBinaryConstants.RECORD_TRUNCATED);
+    }
+
+    /**
+     * 调用链生成成功时写入文件结束记录
+     */
+    public void finish() throws IOException {
+        out.writeByte(CallGraphBinaryConstants.RECORD_END);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // 获取字符串对应的序号，若未写入过则先写入
+    private int getStringId(String str) throws IOException {
+        Integer id = stringIdMap.get(str);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(CallGraphBinaryConstants.RECORD_STRING);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        id = stringIdMap.size();
+        stringIdMap.put(str, id);
+        return id;
+    }
+}
@@ -76,6 +76,22 @@ public class DC {
     public static final String MLN_SIMPLE_CLASS_NAME = COMMON_SIMPLE_CLASS_NAME;
     public static final String MLN_FULL_METHOD = COMMON_FULL_METHOD;
 
+    public static final String MS_METHOD_HASH = COMMON_METHOD_HASH;
+    public static final String MS_SIMPLE_CLASS_NAME = COMMON_SIMPLE_CLASS_NAME;
+    public static final String MS_METHOD_NAME = "method_name";
+    public static final String MS_OUT_DEGREE = "out_degree";
+    public static final String MS_IN_DEGREE = "in_degree";
+    public static final String MS_EST_CALLEE_NUM = "est_callee_num";
+    public static final String MS_EST_CALLER_NUM = "est_caller_num";
+    public static final String MS_CALLER_CLASS_NUM = "caller_class_num";
+    public static final String MS_CALLER_JAR_SPREAD = "caller_jar_spread";
+    public static final String MS_FULL_METHOD = COMMON_FULL_METHOD;
+
+    public static final String MCH_METHOD_HASH = COMMON_METHOD_HASH;
+    public static final String MCH_SIMPLE_CLASS_NAME = COMMON_SIMPLE_CLASS_NAME;
+    public static final String MCH_CODE_HASH = "code_hash";
+    public static final String MCH_FULL_METHOD = COMMON_FULL_METHOD;
+
     public static final String JI_JAR_NUM = "jar_num";
     public static final String JI_JAR_TYPE = "jar_type";
     public static final String JI_JAR_PATH_HASH = "jar_path_hash";
@@ -139,6 +155,12 @@ public class DC {
     public static final String SPT_CLASS_NAME = COMMON_CLASS_NAME;
     public static final String SPT_METHOD_NAME = "method_name";
 
+    public static final String WDC_CHECKPOINT_NAME = "checkpoint_name";
+    public static final String WDC_CHECKPOINT_TYPE = "checkpoint_type";
+    public static final String WDC_INPUT_HASH = "input_hash";
+    public static final String WDC_RECORD_NUM = "record_num";
+    public static final String WDC_DONE = "done";
+
     public static final String CSEI1_RECORD_ID = "record_id";
     public static final String CSEI1_SIMPLE_CLASS_NAME = "simple_class_name";
     public static final String CSEI1_TYPE = "type";
@@ -19,6 +19,14 @@ public class JACGConstants {
     // 保存当前有使用的配置参数信息文件
     public static final String FILE_JACG_USED_CONFIG_MD = "_jacg_used_config.md";
     public static final String FILE_JAVACG_USED_CONFIG_MD = "_javacg_used_config.md";
+    // 保存性能报告的文件，不包含文件后缀，会分别生成.md与.json文件
+    public static final String FILE_JACG_PERF_REPORT = "_jacg_perf_report";
+    public static final String FILE_JACG_EMBEDDED_KV_PREFIX = "_jacg_method_call_";
+    // 记录生成调用链时已完成的任务的清单文件
+    public static final String FILE_JACG_GEN_MANIFEST = "_jacg_gen_manifest.txt";
+
+    // 写数据库检查点表中记录数据库内容版本的检查点名称
+    public static final String CHECKPOINT_DATA_VERSION = "data_version";
 
     public static final String USED_CONFIG_FLAG_FILE_KEY = "配置文件名称";
     public static final String USED_CONFIG_FLAG_FILE_DESC = "配置文件说明";
@@ -59,7 +67,11 @@ public class JACGConstants {
     public static final String EXT_MD = ".md";
     public static final String EXT_EMPTY_MD = FLAG_EMPTY + EXT_MD;
     public static final String EXT_SQL = ".sql";
+    public static final String EXT_JSON = ".json";
     public static final String EXT_CLASS = ".class";
+    public static final String EXT_TMP = ".tmp";
+    public static final String EXT_EMBEDDED_KV = ".jacg_kv";
+    public static final String EXT_CALL_GRAPH_BINARY = ".jacg_bin";
 
     public static final String NEW_LINE = "\n";
 
@@ -76,6 +88,9 @@ public class JACGConstants {
     public static final String CALL_FLAG_RUN_IN_OTHER_THREAD = FLAG_TAB + CALL_FLAG_RUN_IN_OTHER_THREAD_NO_TAB;
     public static final String CALL_FLAG_RUN_IN_TRANSACTION_NO_TAB = "!run_in_transaction!";
     public static final String CALL_FLAG_RUN_IN_TRANSACTION = FLAG_TAB + CALL_FLAG_RUN_IN_TRANSACTION_NO_TAB;
+    public static final String CALL_FLAG_SUBTREE_REF_START = "[see L";
+    public static final String CALL_FLAG_SUBTREE_REF_END = JACGConstants.FLAG_RIGHT_PARENTHESES;
+    public static final String CALL_FLAG_SUBTREE_REF = CALL_FLAG_SUBTREE_REF_START + "%d" + CALL_FLAG_SUBTREE_REF_END;
 
     public static final String MYSQL_FLAG = "mysql";
     public static final String MYSQL_REWRITEBATCHEDSTATEMENTS = "rewriteBatchedStatements=true";
@@ -83,14 +98,24 @@ public class JACGConstants {
     // 代表不存在循环的方法调用的值
     public static final int NO_CYCLE_CALL_FLAG = -1;
 
+    // 代表未引用之前出现的子树的值
+    public static final int NO_SUBTREE_REF_FLAG = -1;
+
+    // 向下的调用链文件中，第1行为入口方法，第2行为入口方法的调用链信息，之后为被调用方法
+    public static final int CALL_GRAPH_4ER_HEADER_LINE_NUM = 2;
+
     // 允许使用的最大线程数
     public static final int MAX_THREAD_NUM = 100;
     // 生成调用链文件时，记录数达到多少以后打印日志
     public static final int NOTICE_LINE_NUM = 5000;
+    // 任务的数据库查询次数超过限制，截断调用链时在调用链文件中写入的提示
+    public static final String CALL_GRAPH_TRUNCATED_BY_QUERY_BUDGET = "!truncated! 数据库查询次数超过限制，以下调用链已截断";
     // 批量写入数据库时每次插入的数量允许的最大值
     public static final int MAX_DB_INSERT_BATCH_SIZE = 5000;
     // 数据库分页操作数量
     public static final int DB_PAGE_HANDLE_SIZE = 1000;
+    // 并行处理数据库分页数据时，每批处理的页数为线程数乘以该值
+    public static final int DB_PAGE_NUM_PER_THREAD = 4;
 
     // 代表分页查询失败
     public static final int PAGE_QUERY_FAIL = -2;
@@ -137,8 +162,34 @@ public class JACGConstants {
     public static final String H2_PROTOCOL = "jdbc:h2:file:";
     public static final String H2_SCHEMA = "jacg";
     public static final String H2_FILE_EXT = ".mv.db";
+    public static final String H2_TRACE_FILE_EXT = ".trace.db";
+    public static final String H2_MEM_PROTOCOL = "jdbc:h2:mem:";
+    public static final String H2_SCRIPT_FILE_EXT = ".sql.gz";
+    public static final String H2_TMP_DB_FILE_SUFFIX = "_tmp";
+    public static final String H2_FOREIGN_SCRIPT_FILE_SUFFIX = "_foreign";
+    // 使用H2内存数据库写入时，预估的内存占用与需要处理的jar包大小的倍数
+    public static final int H2_MEM_DB_SIZE_RATE = 4;
+    public static final int H2_MEM_DB_DEFAULT_HEAP_PERCENT = 50;
+    public static final int H2_MEM_DB_MAX_HEAP_PERCENT = 90;
 
     public static final String THREAD_NAME_PREFIX_WORKER = "jacg_worker";
+    public static final String THREAD_NAME_PREFIX_VIRTUAL_WORKER = "jacg_virtual_worker";
+    public static final String THREAD_NAME_PREFIX_OUTPUT_WRITER = "jacg_output_writer";
+    public static final String THREAD_NAME_PREFIX_FIND_STACK = "jacg_find_stack";
+    public static final String THREAD_NAME_PREFIX_PAGE_WORKER = "jacg_page_worker";
+    public static final String THREAD_NAME_PREFIX_DAEMON = "jacg_daemon";
+    public static final String THREAD_NAME_PREFIX_DAEMON_RELOAD = "jacg_daemon_reload";
+
+    // 常驻分析进程默认的HTTP端口
+    public static final int DAEMON_DEFAULT_PORT = 8123;
+    // 常驻分析进程默认的检查jar包是否有更新的时间间隔，单位为秒
+    public static final int DAEMON_DEFAULT_RELOAD_CHECK_INTERVAL = 60;
+    // 常驻分析进程查询调用关系时默认的深度
+    public static final int DAEMON_DEFAULT_DEPTH = 1;
+    // 常驻分析进程查询调用关系时允许的最大深度
+    public static final int DAEMON_MAX_DEPTH = 50;
+    // 常驻分析进程查询调用关系时返回的最大记录数
+    public static final int DAEMON_MAX_RESULT_NUM = 10000;
 
     // Spring事务类型，使用注解
     public static final String SPRING_TX_TYPE_ANNOTATION = "annotation";
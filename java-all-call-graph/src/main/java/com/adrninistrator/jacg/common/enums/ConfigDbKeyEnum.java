@@ -10,6 +10,9 @@ import com.adrninistrator.jacg.common.enums.interfaces.MainConfigInterface;
 public enum ConfigDbKeyEnum implements MainConfigInterface {
     CDKE_DB_USE_H2("db.use.h2", "是否使用H2数据库", Boolean.class),
     CDKE_DB_H2_FILE_PATH("db.h2.file.path", "H2数据库文件路径（仅当使用H2数据库时需要指定）", String.class),
+    CDKE_DB_H2_IMPORT_IN_MEMORY("db.h2.import.in.memory", "使用H2数据库时，写入数据库是否先写入H2内存数据库，完成后再一次性保存到H2数据库文件，默认为false", Boolean.class),
+    CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT("db.h2.import.max.heap.percent", "使用H2内存数据库写入时，预估的内存占用超过JVM最大堆内存的该百分比时，直接写入H2数据库文件，默认为50",
+            Integer.class),
     CDKE_DB_DRIVER_NAME("db.driver.name", "数据库配置（仅当使用非H2数据库时需要指定），驱动类名", String.class),
     CDKE_DB_URL("db.url", "数据库配置（仅当使用非H2数据库时需要指定），URL", String.class),
     CDKE_DB_USERNAME("db.username", "数据库配置（仅当使用非H2数据库时需要指定），用户名", String.class),
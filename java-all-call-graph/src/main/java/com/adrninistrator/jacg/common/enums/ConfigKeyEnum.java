@@ -11,11 +11,25 @@ public enum ConfigKeyEnum implements MainConfigInterface {
     CKE_APP_NAME("app.name", "当前应用的调用关系写入数据库里的表名后缀", String.class),
     CKE_CALL_GRAPH_OUTPUT_DETAIL("call.graph.output.detail", "生成调用链时的详细程度，1: 最详细，2: 中等，3: 最简单", String.class),
     CKE_THREAD_NUM("thread.num", "并发处理线程数量/数据源连接池数量", Integer.class),
+    CKE_THREAD_USE_VIRTUAL("thread.use.virtual", "是否使用虚拟线程执行任务，仅在Java 21及以上版本生效，使用时同时执行数据库操作的数量由thread.num限制（默认为false）", Boolean.class),
     CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER("ignore.dup.callee.in.one.caller", "生成向下的调用链时，在一个调用方法中出现多次的被调用方法（包含方法调用业务功能数据），是否需要忽略", Boolean.class),
     CKE_OUTPUT_ROOT_PATH("output.root.path", "生成调用链文件的根目录路径，以\"/\"或\"\\\\\"作为分隔符，末尾是否为分隔符不影响（默认为当前目录）", String.class),
     CKE_OUTPUT_SUB_DIR_NAME("output.sub.dir.name", "生成调用链文件的子目录名（默认为当前时间）", String.class),
     CKE_DB_INSERT_BATCH_SIZE("db.insert.batch.size", "批量写入数据库时每次插入的数量", Integer.class),
     CKE_CHECK_JAR_FILE_UPDATED("check.jar.file.updated", "检查jar包文件是否有更新", Boolean.class),
+    CKE_TASK_QUERY_RATIO_THRESHOLD("task.query.ratio.threshold", "生成调用链时，每个任务的数据库查询次数与生成的调用链行数的比例超过该值时进行提示（为0时不检查）", Integer.class),
+    CKE_TASK_QUERY_BUDGET("task.query.budget", "生成调用链时，每个任务允许执行的最大数据库查询次数，超过后截断当前任务的调用链（为0时不限制）", Integer.class),
+    CKE_OUTPUT_COMPRESS_TYPE("output.compress.type", "生成的调用链文件的压缩方式，none: 不压缩，gzip: 使用gzip压缩（默认为none）", String.class),
+    CKE_CALL_GRAPH_GEN_BINARY("call.graph.gen.binary", "生成向下的调用链时，是否生成二进制格式的调用链文件代替文本格式的调用链文件（默认为false）", Boolean.class),
+    CKE_CALL_GRAPH_SUBTREE_REF("call.graph.subtree.ref", "生成向下的调用链时，对于重复出现的子树（不包含循环调用），是否仅在第一次出现时输出，之后输出对第一次出现的行号的引用", Boolean.class),
+    CKE_TASK_ORDER_BY_COST("task.order.by.cost", "生成调用链时，是否按照写数据库时记录的预估开销从大到小的顺序执行任务（默认为false）", Boolean.class),
+    CKE_STORAGE_TYPE("storage.type", "方法调用关系的存储方式，sql: 仅使用数据库，embedded_kv: 额外使用本地文件及内存存储，生成调用链时不查询数据库（默认为sql）", String.class),
+    CKE_DAEMON_PORT("daemon.port", "常驻分析进程提供查询服务的HTTP端口，仅监听本机地址（默认为8123）", Integer.class),
+    CKE_DAEMON_RELOAD_CHECK_INTERVAL("daemon.reload.check.interval", "常驻分析进程检查jar包是否有更新的时间间隔，单位为秒，有更新时重新写入数据库并加载方法调用关系，为0时不检查（默认为60）", Integer.class),
+    CKE_DAEMON_RELOAD_TOKEN("daemon.reload.token", "常驻分析进程通过HTTP接口重新加载时，需要在请求头X-JACG-Token中指定的令牌，为空时不允许通过HTTP接口重新加载", String.class),
+    CKE_DAEMON_RELOAD_WRITE_DB("daemon.reload.write.db", "常驻分析进程是否允许通过HTTP接口重新写入数据库（默认为false）", Boolean.class),
+    CKE_WRITE_DB_RESUME("write.db.resume", "写数据库时，是否根据上一次执行时记录的检查点恢复执行，跳过已完成的阶段，已写入部分数据的阶段从最后提交的批次之后继续写入（默认为false）", Boolean.class),
+    CKE_GEN_CALL_GRAPH_RESUME("gen.call.graph.resume", "生成调用链时，是否根据输出目录中的清单文件恢复执行，只执行未完成或已失效的任务，需要指定output.sub.dir.name（默认为false）", Boolean.class),
     ;
 
     // 参数key
@@ -161,6 +161,30 @@ public enum DbTableInfoEnum {
             DC.MLN_MAX_LINE_NUMBER,
             DC.MLN_FULL_METHOD
     }),
+    DTIE_METHOD_STATS("method_stats", new String[]{
+            DC.MS_METHOD_HASH,
+            DC.MS_SIMPLE_CLASS_NAME,
+            DC.MS_METHOD_NAME,
+            DC.MS_OUT_DEGREE,
+            DC.MS_IN_DEGREE,
+            DC.MS_EST_CALLEE_NUM,
+            DC.MS_EST_CALLER_NUM,
+            DC.MS_CALLER_CLASS_NUM,
+            DC.MS_CALLER_JAR_SPREAD,
+            DC.MS_FULL_METHOD
+    }),
+    DTIE_METHOD_CODE_HASH("method_code_hash", new String[]{
+            DC.MCH_METHOD_HASH,
+            DC.MCH_SIMPLE_CLASS_NAME,
+            DC.MCH_CODE_HASH,
+            DC.MCH_FULL_METHOD
+    }),
+    DTIE_METHOD_CODE_HASH_LAST("method_code_hash_last", new String[]{
+            DC.MCH_METHOD_HASH,
+            DC.MCH_SIMPLE_CLASS_NAME,
+            DC.MCH_CODE_HASH,
+            DC.MCH_FULL_METHOD
+    }),
     DTIE_METHOD_RETURN_GENERICS_TYPE("method_return_generics_type", new String[]{
             DC.MRGT_RECORD_ID,
             DC.MRGT_METHOD_HASH,
@@ -210,6 +234,13 @@ public enum DbTableInfoEnum {
             DC.SPT_CLASS_NAME,
             DC.SPT_METHOD_NAME,
     }),
+    DTIE_WRITE_DB_CHECKPOINT("write_db_checkpoint", new String[]{
+            DC.WDC_CHECKPOINT_NAME,
+            DC.WDC_CHECKPOINT_TYPE,
+            DC.WDC_INPUT_HASH,
+            DC.WDC_RECORD_NUM,
+            DC.WDC_DONE
+    }),
     DTIE_ILLEGAL("illegal", null),
     ;
 
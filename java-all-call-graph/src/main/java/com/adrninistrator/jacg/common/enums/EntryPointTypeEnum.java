@@ -0,0 +1,27 @@
+package com.adrninistrator.jacg.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 入口方法类型
+ */
+public enum EntryPointTypeEnum {
+    EPTE_SPRING_CONTROLLER("Spring Controller方法"),
+    EPTE_SPRING_TASK("Spring定时任务方法"),
+    ;
+
+    EntryPointTypeEnum(String desc) {
+        this.desc = desc;
+    }
+
+    private final String desc;
+
+    public String getDesc() {
+        return desc;
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
@@ -0,0 +1,28 @@
+package com.adrninistrator.jacg.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 与上一次写入数据库时相比，方法的变化类型
+ */
+public enum MethodChangeTypeEnum {
+    MCTE_ADDED("新增"),
+    MCTE_MODIFIED("修改"),
+    MCTE_REMOVED("删除"),
+    ;
+
+    MethodChangeTypeEnum(String desc) {
+        this.desc = desc;
+    }
+
+    private final String desc;
+
+    public String getDesc() {
+        return desc;
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
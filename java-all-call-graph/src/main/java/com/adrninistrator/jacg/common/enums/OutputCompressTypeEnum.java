@@ -0,0 +1,90 @@
+package com.adrninistrator.jacg.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/15
+ * @description: 调用链文件压缩方式枚举
+ */
+public enum OutputCompressTypeEnum {
+    OCTE_NONE("none", "", "不压缩"),
+    OCTE_GZIP("gzip", ".gz", "使用gzip压缩"),
+    OCTE_ILLEGAL("ILLEGAL", "", "非法"),
+    ;
+
+    private final String type;
+    // 压缩后的文件在原有文件名后增加的后缀
+    private final String ext;
+    private final String desc;
+
+    OutputCompressTypeEnum(String type, String ext, String desc) {
+        this.type = type;
+        this.ext = ext;
+        this.desc = desc;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getExt() {
+        return ext;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static OutputCompressTypeEnum getFromType(String type) {
+        for (OutputCompressTypeEnum outputCompressTypeEnum : OutputCompressTypeEnum.values()) {
+            if (outputCompressTypeEnum.getType().equals(type)) {
+                return outputCompressTypeEnum;
+            }
+        }
+        return OutputCompressTypeEnum.OCTE_ILLEGAL;
+    }
+
+    public static String getValidValues() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (OutputCompressTypeEnum outputCompressTypeEnum : OutputCompressTypeEnum.values()) {
+            if (OutputCompressTypeEnum.OCTE_ILLEGAL == outputCompressTypeEnum) {
+                continue;
+            }
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(" ");
+            }
+            stringBuilder.append(outputCompressTypeEnum.getType());
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 去掉文件名中的压缩后缀，例如 a.txt.gz -> a.txt
+     *
+     * @param fileName
+     * @return
+     */
+    public static String removeCompressExt(String fileName) {
+        for (OutputCompressTypeEnum outputCompressTypeEnum : OutputCompressTypeEnum.values()) {
+            String ext = outputCompressTypeEnum.getExt();
+            if (!ext.isEmpty() && fileName.endsWith(ext)) {
+                return fileName.substring(0, fileName.length() - ext.length());
+            }
+        }
+        return fileName;
+    }
+
+    /**
+     * 获取指定文件后缀及其压缩后的文件后缀，用于查找文件
+     *
+     * @param fileExt
+     * @return
+     */
+    public static String[] genFileExtsWithCompress(String fileExt) {
+        return new String[]{fileExt, fileExt + OCTE_GZIP.getExt()};
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+}
@@ -30,11 +30,12 @@ public enum SqlKeyEnum {
     MC_QUERY_CHECK_NORMAL_MC_BY_EE_HASH,
     MC_QUERY_FLAG_4EE,
     MC_QUERY_FLAG_4ER,
-    MC_QUERY_FLAG_BY_ID,
+    MC_QUERY_BY_ID,
+    MC_QUERY_FLAGS_BY_IDS,
     MC_QUERY_MC_PAIR_BY_CALLEE,
-    MC_QUERY_BY_PAGE_MAX_CALL_ID,
+    MC_QUERY_ALL_BY_PAGE,
+    MC_QUERY_ENABLED_BY_PAGE,
     MC_QUERY_CALL_ID_BY_CALLEE,
-    MC_QUERY_CALL_ID_BY_CALLEE_LAST,
     MC_UPDATE_ENABLED,
     MC_UPDATE_FLAGS,
     MI_QUERY_METHOD_HASH,
@@ -66,6 +67,7 @@ public enum SqlKeyEnum {
     CSEI1_QUERY_SUPER_INTERFACE_CLASS_NAME,
     CSEI1_QUERY_SIGNATURE_CLASS_NAME,
     MCI_QUERY_VALUE,
+    MCI_QUERY_VALUE_BY_IDS,
     LMI_QUERY_BY_PAGE_MAX_CALL_ID,
     LMI_QUERY_CALLEE_INFO,
     MMT_QUERY_TABLE,
@@ -78,4 +80,23 @@ public enum SqlKeyEnum {
     SPC_QUERY_BY_METHOD,
     SPT_QUERY,
     SPT_QUERY_BY_CLASS_METHOD,
+    MS_QUERY_BY_CLASS,
+    MS_QUERY_TOP_IN_DEGREE,
+    MS_QUERY_TOP_OUT_DEGREE,
+    MS_QUERY_TOP_CALLER_CLASS_NUM,
+    MCH_BACKUP,
+    MCH_QUERY_ADDED_MODIFIED,
+    MCH_QUERY_REMOVED,
+    MCH_QUERY_LAST_COUNT,
+    MCH_QUERY_COUNT,
+    SPC_QUERY_HASH_URI,
+    MC_QUERY_CALLER_BY_CALLEE_HASH,
+    JI_QUERY_ALL_ORDER_BY_NUM,
+    WDC_QUERY_ALL,
+    MC_DELETE_BY_CALL_TYPE,
+    JI_QUERY_JAR_HASH,
+    MC_QUERY_STORAGE_BY_PAGE,
+    WDC_QUERY_INPUT_HASH_BY_NAME,
+    MC_QUERY_COUNT,
+    BD_QUERY_COUNT,
 }
@@ -0,0 +1,57 @@
+package com.adrninistrator.jacg.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 方法调用关系存储方式枚举
+ */
+public enum StorageTypeEnum {
+    STE_SQL("sql", "使用数据库（H2或MySQL）存储"),
+    STE_EMBEDDED_KV("embedded_kv", "数据库存储之外，将方法调用关系额外保存到本地文件，生成调用链时从内存中查询，适用于单机执行"),
+    STE_ILLEGAL("ILLEGAL", "非法"),
+    ;
+
+    private final String type;
+    private final String desc;
+
+    StorageTypeEnum(String type, String desc) {
+        this.type = type;
+        this.desc = desc;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static StorageTypeEnum getFromType(String type) {
+        for (StorageTypeEnum storageTypeEnum : StorageTypeEnum.values()) {
+            if (storageTypeEnum.getType().equals(type)) {
+                return storageTypeEnum;
+            }
+        }
+        return StorageTypeEnum.STE_ILLEGAL;
+    }
+
+    public static String getValidValues() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (StorageTypeEnum storageTypeEnum : StorageTypeEnum.values()) {
+            if (StorageTypeEnum.STE_ILLEGAL == storageTypeEnum) {
+                continue;
+            }
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(" ");
+            }
+            stringBuilder.append(storageTypeEnum.getType());
+        }
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+}
@@ -0,0 +1,34 @@
+package com.adrninistrator.jacg.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 写数据库检查点类型枚举
+ */
+public enum WriteDbCheckpointTypeEnum {
+    WDCTE_STAGE("stage", "写数据库的阶段"),
+    WDCTE_HANDLER("handler", "写入数据库的处理类"),
+    WDCTE_DATA_VERSION("data_version", "数据库内容的版本"),
+    ;
+
+    private final String type;
+    private final String desc;
+
+    WriteDbCheckpointTypeEnum(String type, String desc) {
+        this.type = type;
+        this.desc = desc;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+}
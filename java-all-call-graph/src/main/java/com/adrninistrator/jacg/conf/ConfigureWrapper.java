@@ -8,7 +8,9 @@ import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
 import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
 import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
+import com.adrninistrator.jacg.common.enums.StorageTypeEnum;
 import com.adrninistrator.jacg.common.enums.interfaces.ConfigInterface;
 import com.adrninistrator.jacg.common.enums.interfaces.MainConfigInterface;
 import com.adrninistrator.jacg.markdown.writer.MarkdownWriter;
@@ -416,6 +418,15 @@ public class ConfigureWrapper {
             return handleDbH2FilePath(strValue);
         }
 
+        if (ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_IN_MEMORY == mainConfig && StringUtils.isBlank(strValue)) {
+            // 当前参数允许为空，默认为false
+            return Boolean.FALSE;
+        }
+
+        if (ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT == mainConfig) {
+            return handleDbH2ImportMaxHeapPercent(strValue);
+        }
+
         if (ConfigKeyEnum.CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER == mainConfig && StringUtils.isBlank(strValue)) {
             // 当前参数允许为空，默认为false
             return Boolean.FALSE;
@@ -426,6 +437,42 @@ public class ConfigureWrapper {
             return Boolean.FALSE;
         }
 
+        if ((ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY == mainConfig || ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF == mainConfig ||
+                ConfigKeyEnum.CKE_TASK_ORDER_BY_COST == mainConfig || ConfigKeyEnum.CKE_THREAD_USE_VIRTUAL == mainConfig ||
+                ConfigKeyEnum.CKE_WRITE_DB_RESUME == mainConfig || ConfigKeyEnum.CKE_GEN_CALL_GRAPH_RESUME == mainConfig ||
+                ConfigKeyEnum.CKE_DAEMON_RELOAD_WRITE_DB == mainConfig) && StringUtils.isBlank(strValue)) {
+            // 当前参数允许为空，默认为false
+            return Boolean.FALSE;
+        }
+
+        if ((ConfigKeyEnum.CKE_TASK_QUERY_RATIO_THRESHOLD == mainConfig || ConfigKeyEnum.CKE_TASK_QUERY_BUDGET == mainConfig) && StringUtils.isBlank(strValue)) {
+            // 当前参数允许为空，默认为0，代表不检查
+            return 0;
+        }
+
+        if (ConfigKeyEnum.CKE_DAEMON_PORT == mainConfig && StringUtils.isBlank(strValue)) {
+            // 当前参数允许为空，使用默认端口
+            return JACGConstants.DAEMON_DEFAULT_PORT;
+        }
+
+        if (ConfigKeyEnum.CKE_DAEMON_RELOAD_CHECK_INTERVAL == mainConfig && StringUtils.isBlank(strValue)) {
+            // 当前参数允许为空，使用默认时间间隔
+            return JACGConstants.DAEMON_DEFAULT_RELOAD_CHECK_INTERVAL;
+        }
+
+        if (ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN == mainConfig && StringUtils.isBlank(strValue)) {
+            // 当前参数允许为空，默认为""，代表不允许通过HTTP接口重新加载
+            return "";
+        }
+
+        if (ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE == mainConfig) {
+            return handleOutputCompressType(strValue);
+        }
+
+        if (ConfigKeyEnum.CKE_STORAGE_TYPE == mainConfig) {
+            return handleStorageType(strValue);
+        }
+
         if (ConfigKeyEnum.CKE_THREAD_NUM == mainConfig) {
             // 处理线程数
             return handleThreadNum(strValue);
@@ -494,6 +541,28 @@ public class ConfigureWrapper {
         return dbInsertBatchSize;
     }
 
+    // 处理使用H2内存数据库写入时允许使用的最大堆内存百分比
+    private Integer handleDbH2ImportMaxHeapPercent(String strMaxHeapPercent) {
+        if (StringUtils.isBlank(strMaxHeapPercent)) {
+            // 当前参数允许为空，使用默认值
+            return JACGConstants.H2_MEM_DB_DEFAULT_HEAP_PERCENT;
+        }
+        int maxHeapPercent;
+        try {
+            maxHeapPercent = Integer.parseInt(strMaxHeapPercent);
+        } catch (NumberFormatException e) {
+            logger.error("使用H2内存数据库写入时允许使用的最大堆内存百分比非法 {} {} {}", ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT.getFileName(),
+                    ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT.getKey(), strMaxHeapPercent);
+            return null;
+        }
+        if (maxHeapPercent <= 0 || maxHeapPercent > JACGConstants.H2_MEM_DB_MAX_HEAP_PERCENT) {
+            logger.error("参数配置非法\n{} {}\n应在以下范围: (0,{}]", ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT.getFileName(),
+                    ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT.getKey(), JACGConstants.H2_MEM_DB_MAX_HEAP_PERCENT);
+            return null;
+        }
+        return maxHeapPercent;
+    }
+
     // 处理生成调用链时的详细程度
     private String handleOutputDetail(String outputDetail) {
         if (OutputDetailEnum.ODE_ILLEGAL == OutputDetailEnum.getFromDetail(outputDetail)) {
@@ -504,6 +573,34 @@ public class ConfigureWrapper {
         return outputDetail;
     }
 
+    // 处理生成的调用链文件的压缩方式
+    private String handleOutputCompressType(String outputCompressType) {
+        if (StringUtils.isBlank(outputCompressType)) {
+            // 当前参数允许为空，默认不压缩
+            return OutputCompressTypeEnum.OCTE_NONE.getType();
+        }
+        if (OutputCompressTypeEnum.OCTE_ILLEGAL == OutputCompressTypeEnum.getFromType(outputCompressType)) {
+            logger.error("参数配置非法\n{} {} {}\n可选值如下: {}", ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE.getFileName(), ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE.getKey(),
+                    outputCompressType, OutputCompressTypeEnum.getValidValues());
+            return null;
+        }
+        return outputCompressType;
+    }
+
+    // 处理方法调用关系的存储方式
+    private String handleStorageType(String storageType) {
+        if (StringUtils.isBlank(storageType)) {
+            // 当前参数允许为空，默认使用数据库存储
+            return StorageTypeEnum.STE_SQL.getType();
+        }
+        if (StorageTypeEnum.STE_ILLEGAL == StorageTypeEnum.getFromType(storageType)) {
+            logger.error("参数配置非法\n{} {} {}\n可选值如下: {}", ConfigKeyEnum.CKE_STORAGE_TYPE.getFileName(), ConfigKeyEnum.CKE_STORAGE_TYPE.getKey(), storageType,
+                    StorageTypeEnum.getValidValues());
+            return null;
+        }
+        return storageType;
+    }
+
     // 处理H2数据库文件路径
     private String handleDbH2FilePath(String dbH2FilePath) {
         if (StringUtils.endsWithIgnoreCase(dbH2FilePath, JACGConstants.H2_FILE_EXT)) {
@@ -0,0 +1,574 @@
+package com.adrninistrator.jacg.daemon;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.method.MethodCallEdge;
+import com.adrninistrator.jacg.find_stack.MultiKeywordMatcher;
+import com.adrninistrator.jacg.handler.annotation.AnnotationHandler;
+import com.adrninistrator.jacg.handler.extends_impl.JACGExtendsImplHandler;
+import com.adrninistrator.jacg.handler.method.MethodCallGraphHandler;
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import com.adrninistrator.jacg.thread.ThreadFactory4TPE;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.jacg.util.JACGJsonUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 常驻分析进程，启动后保持数据库连接、注解及继承与实现相关的处理类，以及内存中的方法调用关系
+ * 通过本机地址的HTTP接口查询向下/向上的调用关系及调用堆栈，不需要每次重新执行生成调用链的步骤
+ * 支持的接口：
+ * /callee?method=xxx&depth=n       查询方法向下的调用关系
+ * /caller?method=xxx&depth=n       查询方法向上的调用关系
+ * /stack?method=xxx&keyword=yyy&depth=n&up=false  查询方法到完整方法包含关键字的方法的最短调用堆栈，keyword可以指定多个
+ * /annotations?method=xxx          查询方法的注解信息
+ * /children?class=xxx              查询类或接口的子类与实现类
+ * /status                          查询当前状态
+ * /reload?writeDb=true             重新加载，writeDb为true时先重新写入数据库，需要使用POST方法，并在请求头X-JACG-Token中指定配置的令牌
+ * 方法支持以下格式：完整方法；{完整类名}:{方法名}，包含所有的重载方法；方法HASH+长度
+ * jar包有更新，且下一次检查时未再变化时，会自动重新写入数据库并加载
+ * 重新写入数据库期间，查询内存中方法调用关系的接口可以继续使用，需要查询数据库的接口（/annotations、/children）不可用
+ */
+public class JACGDaemon implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(JACGDaemon.class);
+
+    public static final String PARAM_METHOD = "method";
+    public static final String PARAM_DEPTH = "depth";
+    public static final String PARAM_KEYWORD = "keyword";
+    public static final String PARAM_UP = "up";
+    public static final String PARAM_CLASS = "class";
+    public static final String PARAM_WRITE_DB = "writeDb";
+
+    public static final String HEADER_TOKEN = "X-JACG-Token";
+
+    public static final String RESULT_ERROR = "error";
+
+    private static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
+
+    private static final String HTTP_METHOD_POST = "POST";
+
+    private static final int HTTP_STATUS_OK = 200;
+    private static final int HTTP_STATUS_BAD_REQUEST = 400;
+    private static final int HTTP_STATUS_FORBIDDEN = 403;
+    private static final int HTTP_STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_STATUS_INTERNAL_ERROR = 500;
+    private static final int HTTP_STATUS_SERVICE_UNAVAILABLE = 503;
+
+    private final ConfigureWrapper configureWrapper;
+
+    // 查询时使用读锁，关闭数据库连接及替换加载的对象时使用写锁，避免查询时使用已关闭的数据库连接
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    // 重新加载时使用，同一时间只执行一次重新加载
+    private final Lock reloadLock = new ReentrantLock();
+
+    // 需要查询数据库的接口是否不可用，重新写入数据库期间，以及重新写入数据库或加载失败后为true
+    private volatile boolean dbUnavailable;
+
+    private DbOperWrapper dbOperWrapper;
+
+    private AnnotationHandler annotationHandler;
+
+    private JACGExtendsImplHandler jacgExtendsImplHandler;
+
+    private MethodCallGraph methodCallGraph;
+
+    // jar包标识，用于判断jar包是否有更新
+    private volatile String jarFingerprint;
+
+    // 检查到jar包有更新时的jar包标识，下一次检查时未变化才重新加载，避免jar包正在复制时重新加载，仅在检查jar包是否有更新的线程中使用
+    private String pendingJarFingerprint;
+
+    // 最近一次加载完成的时间戳
+    private long loadTimestamp;
+
+    // 最近一次加载的耗时，单位为毫秒
+    private long loadSpendTime;
+
+    // 加载次数
+    private int loadTimes;
+
+    private HttpServer httpServer;
+
+    private ThreadPoolExecutor httpThreadPoolExecutor;
+
+    private ScheduledThreadPoolExecutor reloadCheckExecutor;
+
+    public JACGDaemon(ConfigureWrapper configureWrapper) {
+        this.configureWrapper = configureWrapper;
+    }
+
+    /**
+     * 启动常驻分析进程，使用已写入数据库的方法调用关系，不会先写入数据库
+     *
+     * @return true: 启动成功 false: 启动失败
+     */
+    public boolean start() {
+        jarFingerprint = genJarFingerprint();
+        if (!load()) {
+            return false;
+        }
+
+        int port = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_DAEMON_PORT);
+        int threadNum = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_THREAD_NUM);
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            logger.error("常驻分析进程监听端口失败 {} ", port, e);
+            close();
+            return false;
+        }
+
+        httpThreadPoolExecutor = new ThreadPoolExecutor(threadNum, threadNum, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactory4TPE(JACGConstants.THREAD_NAME_PREFIX_DAEMON));
+        httpServer.setExecutor(httpThreadPoolExecutor);
+        createContext("/callee", paramMap -> queryCallEdges(paramMap, true), false);
+        createContext("/caller", paramMap -> queryCallEdges(paramMap, false), false);
+        createContext("/stack", this::queryStack, false);
+        createContext("/annotations", this::queryAnnotations, true);
+        createContext("/children", this::queryChildren, true);
+        createContext("/status", paramMap -> queryStatus(), false);
+        httpServer.createContext("/reload", this::handleReloadExchange);
+        httpServer.start();
+
+        int reloadCheckInterval = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_CHECK_INTERVAL);
+        if (reloadCheckInterval > 0) {
+            reloadCheckExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory4TPE(JACGConstants.THREAD_NAME_PREFIX_DAEMON_RELOAD));
+            reloadCheckExecutor.scheduleWithFixedDelay(this::checkJarUpdated, reloadCheckInterval, reloadCheckInterval, TimeUnit.SECONDS);
+        }
+        logger.info("常驻分析进程启动成功，监听地址 {}", httpServer.getAddress());
+        return true;
+    }
+
+    /**
+     * 获取实际监听的端口
+     *
+     * @return
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * 重新加载数据库连接及内存中的方法调用关系
+     * 重新写入数据库及加载期间，查询内存中方法调用关系的接口使用原有的方法调用关系，加载完成后替换
+     *
+     * @param writeDb true: 先重新写入数据库 false: 使用已写入数据库的方法调用关系
+     * @return true: 加载成功 false: 加载失败
+     */
+    public boolean reload(boolean writeDb) {
+        reloadLock.lock();
+        try {
+            if (writeDb) {
+                // 重新写入数据库前先关闭当前的数据库连接，需要查询数据库的接口在加载完成前不可用
+                readWriteLock.writeLock().lock();
+                try {
+                    dbUnavailable = true;
+                    closeDb();
+                } finally {
+                    readWriteLock.writeLock().unlock();
+                }
+                if (!new RunnerWriteDb().run(configureWrapper)) {
+                    logger.error("常驻分析进程重新写入数据库失败，继续使用内存中原有的方法调用关系，需要查询数据库的接口不可用");
+                    return false;
+                }
+            }
+            return load();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // 打开新的数据库连接并加载内存中的方法调用关系，加载完成后在写锁中替换原有的对象
+    private boolean load() {
+        long startTime = System.currentTimeMillis();
+        DbOperWrapper newDbOperWrapper;
+        try {
+            newDbOperWrapper = DbOperWrapper.genInstance(configureWrapper, this.getClass().getSimpleName());
+        } catch (Exception e) {
+            logger.error("常驻分析进程初始化数据库失败 ", e);
+            return false;
+        }
+        MethodCallGraph newMethodCallGraph;
+        // 当前处理类使用外部传入的数据库操作对象，关闭时不会关闭数据库
+        try (MethodCallGraphHandler methodCallGraphHandler = new MethodCallGraphHandler(newDbOperWrapper)) {
+            newMethodCallGraph = methodCallGraphHandler.loadMethodCallGraph();
+        }
+        if (newMethodCallGraph == null) {
+            logger.error("常驻分析进程加载方法调用关系失败");
+            closeDb(newDbOperWrapper);
+            return false;
+        }
+
+        readWriteLock.writeLock().lock();
+        try {
+            closeDb();
+            dbOperWrapper = newDbOperWrapper;
+            annotationHandler = new AnnotationHandler(newDbOperWrapper);
+            jacgExtendsImplHandler = new JACGExtendsImplHandler(newDbOperWrapper);
+            methodCallGraph = newMethodCallGraph;
+            dbUnavailable = false;
+            loadTimestamp = System.currentTimeMillis();
+            loadSpendTime = loadTimestamp - startTime;
+            loadTimes++;
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    // 关闭当前的数据库连接，内存中的方法调用关系保留，需要在写锁中执行
+    private void closeDb() {
+        annotationHandler = null;
+        jacgExtendsImplHandler = null;
+        closeDb(dbOperWrapper);
+        dbOperWrapper = null;
+    }
+
+    // 关闭指定的数据库连接
+    private void closeDb(DbOperWrapper dbOperWrapper) {
+        if (dbOperWrapper != null) {
+            dbOperWrapper.getStorage().close();
+            dbOperWrapper.getDbOperator().closeDs();
+        }
+    }
+
+    // 检查jar包是否有更新，有更新时重新写入数据库并加载
+    private void checkJarUpdated() {
+        try {
+            String newJarFingerprint = genJarFingerprint();
+            if (newJarFingerprint == null || newJarFingerprint.equals(jarFingerprint)) {
+                pendingJarFingerprint = null;
+                return;
+            }
+            if (!newJarFingerprint.equals(pendingJarFingerprint)) {
+                // jar包可能正在复制，下一次检查时未变化再重新加载
+                logger.info("常驻分析进程发现jar包有更新，下一次检查时未变化再重新写入数据库并加载");
+                pendingJarFingerprint = newJarFingerprint;
+                return;
+            }
+
+            pendingJarFingerprint = null;
+            logger.info("常驻分析进程发现jar包有更新，重新写入数据库并加载");
+            if (reload(true)) {
+                jarFingerprint = newJarFingerprint;
+            }
+        } catch (Exception e) {
+            // 定时执行的任务出现异常时，之后不会再执行，需要捕获
+            logger.error("常驻分析进程检查jar包是否有更新失败 ", e);
+        }
+    }
+
+    // 根据jar包或目录中各文件的相对路径、大小及修改时间生成jar包标识
+    private String genJarFingerprint() {
+        return JACGFileUtil.genJarDirFingerprint(configureWrapper.getOtherConfigList(OtherConfigFileUseListEnum.OCFULE_JAR_DIR, true));
+    }
+
+    // 创建查询的HTTP接口
+    private void createContext(String path, Function<Map<String, List<String>>, Map<String, Object>> handler, boolean queryDb) {
+        httpServer.createContext(path, httpExchange -> handleExchange(httpExchange, handler, queryDb));
+    }
+
+    // 处理查询的HTTP请求
+    private void handleExchange(HttpExchange httpExchange, Function<Map<String, List<String>>, Map<String, Object>> handler, boolean queryDb) throws IOException {
+        Map<String, Object> resultMap;
+        int statusCode;
+        try {
+            Map<String, List<String>> paramMap = parseQuery(httpExchange.getRequestURI().getRawQuery());
+            readWriteLock.readLock().lock();
+            try {
+                if (methodCallGraph == null) {
+                    resultMap = genErrorResult("方法调用关系未加载");
+                    statusCode = HTTP_STATUS_SERVICE_UNAVAILABLE;
+                } else if (queryDb && dbUnavailable) {
+                    resultMap = genErrorResult("正在重新写入数据库，或重新写入数据库失败，需要查询数据库的接口暂不可用");
+                    statusCode = HTTP_STATUS_SERVICE_UNAVAILABLE;
+                } else {
+                    resultMap = handler.apply(paramMap);
+                    statusCode = resultMap.containsKey(RESULT_ERROR) ? HTTP_STATUS_BAD_REQUEST : HTTP_STATUS_OK;
+                }
+            } finally {
+                readWriteLock.readLock().unlock();
+            }
+        } catch (Exception e) {
+            logger.error("常驻分析进程处理请求失败 {} ", httpExchange.getRequestURI(), e);
+            resultMap = genErrorResult(e.getClass().getName() + " " + e.getMessage());
+            statusCode = HTTP_STATUS_INTERNAL_ERROR;
+        }
+        sendResponse(httpExchange, statusCode, resultMap);
+    }
+
+    // 处理重新加载的HTTP请求，需要使用POST方法，并在请求头中指定配置的令牌，重新写入数据库需要配置允许
+    private void handleReloadExchange(HttpExchange httpExchange) throws IOException {
+        if (!HTTP_METHOD_POST.equalsIgnoreCase(httpExchange.getRequestMethod())) {
+            sendResponse(httpExchange, HTTP_STATUS_METHOD_NOT_ALLOWED, genErrorResult("需要使用POST方法"));
+            return;
+        }
+
+        String token = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN);
+        if (StringUtils.isBlank(token)) {
+            sendResponse(httpExchange, HTTP_STATUS_FORBIDDEN, genErrorResult("未配置参数 " + ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN.getKey() +
+                    "，不允许通过HTTP接口重新加载"));
+            return;
+        }
+        String requestToken = StringUtils.defaultString(httpExchange.getRequestHeaders().getFirst(HEADER_TOKEN));
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8))) {
+            sendResponse(httpExchange, HTTP_STATUS_FORBIDDEN, genErrorResult("请求头 " + HEADER_TOKEN + " 中的令牌不正确"));
+            return;
+        }
+
+        Map<String, Object> resultMap;
+        int statusCode;
+        try {
+            Map<String, List<String>> paramMap = parseQuery(httpExchange.getRequestURI().getRawQuery());
+            boolean writeDb = Boolean.parseBoolean(getParam(paramMap, PARAM_WRITE_DB));
+            if (writeDb && !Boolean.TRUE.equals(configureWrapper.getMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_WRITE_DB))) {
+                resultMap = genErrorResult("未配置参数 " + ConfigKeyEnum.CKE_DAEMON_RELOAD_WRITE_DB.getKey() + " 为true，不允许通过HTTP接口重新写入数据库");
+                statusCode = HTTP_STATUS_FORBIDDEN;
+            } else {
+                resultMap = handleReload(writeDb);
+                statusCode = resultMap.containsKey(RESULT_ERROR) ? HTTP_STATUS_INTERNAL_ERROR : HTTP_STATUS_OK;
+            }
+        } catch (Exception e) {
+            logger.error("常驻分析进程处理重新加载请求失败 {} ", httpExchange.getRequestURI(), e);
+            resultMap = genErrorResult(e.getClass().getName() + " " + e.getMessage());
+            statusCode = HTTP_STATUS_INTERNAL_ERROR;
+        }
+        sendResponse(httpExchange, statusCode, resultMap);
+    }
+
+    // 返回HTTP响应
+    private void sendResponse(HttpExchange httpExchange, int statusCode, Map<String, Object> resultMap) throws IOException {
+        String resultJson = JACGJsonUtil.getJsonStr(resultMap);
+        byte[] resultBytes = (resultJson == null ? "" : resultJson).getBytes(StandardCharsets.UTF_8);
+        httpExchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_JSON);
+        httpExchange.sendResponseHeaders(statusCode, resultBytes.length);
+        try (OutputStream outputStream = httpExchange.getResponseBody()) {
+            outputStream.write(resultBytes);
+        }
+    }
+
+    // 解析HTTP请求参数，同一个参数可以出现多次
+    private Map<String, List<String>> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, List<String>> paramMap = new HashMap<>();
+        if (StringUtils.isBlank(rawQuery)) {
+            return paramMap;
+        }
+        for (String param : StringUtils.split(rawQuery, "&")) {
+            String key = URLDecoder.decode(StringUtils.substringBefore(param, "="), StandardCharsets.UTF_8.name());
+            String value = URLDecoder.decode(StringUtils.substringAfter(param, "="), StandardCharsets.UTF_8.name());
+            paramMap.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+        return paramMap;
+    }
+
+    private String getParam(Map<String, List<String>> paramMap, String key) {
+        List<String> valueList = paramMap.get(key);
+        return valueList == null ? null : valueList.get(0);
+    }
+
+    // 获取查询深度参数，未指定时使用默认值，不合法时返回null
+    private Integer getDepth(Map<String, List<String>> paramMap, int defaultDepth) {
+        String depthStr = getParam(paramMap, PARAM_DEPTH);
+        if (StringUtils.isBlank(depthStr)) {
+            return defaultDepth;
+        }
+        if (!StringUtils.isNumeric(depthStr)) {
+            return null;
+        }
+        int depth = Integer.parseInt(depthStr);
+        if (depth <= 0 || depth > JACGConstants.DAEMON_MAX_DEPTH) {
+            return null;
+        }
+        return depth;
+    }
+
+    private Map<String, Object> genErrorResult(String error) {
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put(RESULT_ERROR, error);
+        return resultMap;
+    }
+
+    // 查询方法序号，未找到时返回null
+    private int[] findMethodIds(String method) {
+        int[] methodIds = methodCallGraph.findMethodIds(method);
+        return methodIds.length == 0 ? null : methodIds;
+    }
+
+    private List<String> getFullMethodList(int[] methodIds) {
+        List<String> fullMethodList = new ArrayList<>(methodIds.length);
+        for (int methodId : methodIds) {
+            fullMethodList.add(methodCallGraph.getFullMethod(methodId));
+        }
+        return fullMethodList;
+    }
+
+    // 查询向下或向上的调用关系
+    private Map<String, Object> queryCallEdges(Map<String, List<String>> paramMap, boolean down) {
+        String method = getParam(paramMap, PARAM_METHOD);
+        if (StringUtils.isBlank(method)) {
+            return genErrorResult("未指定参数 " + PARAM_METHOD);
+        }
+        Integer depth = getDepth(paramMap, JACGConstants.DAEMON_DEFAULT_DEPTH);
+        if (depth == null) {
+            return genErrorResult("参数 " + PARAM_DEPTH + " 需要为1到" + JACGConstants.DAEMON_MAX_DEPTH + "之间的整数");
+        }
+        int[] methodIds = findMethodIds(method);
+        if (methodIds == null) {
+            return genErrorResult("未找到方法 " + method);
+        }
+
+        List<MethodCallEdge> edgeList = new ArrayList<>();
+        boolean truncated = methodCallGraph.queryCallEdges(methodIds, depth, down, JACGConstants.DAEMON_MAX_RESULT_NUM, edgeList);
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("methods", getFullMethodList(methodIds));
+        resultMap.put("depth", depth);
+        resultMap.put("truncated", truncated);
+        resultMap.put("calls", edgeList);
+        return resultMap;
+    }
+
+    // 查询到完整方法包含关键字的方法的最短调用堆栈
+    private Map<String, Object> queryStack(Map<String, List<String>> paramMap) {
+        String method = getParam(paramMap, PARAM_METHOD);
+        List<String> keywordList = paramMap.get(PARAM_KEYWORD);
+        if (StringUtils.isBlank(method) || keywordList == null) {
+            return genErrorResult("未指定参数 " + PARAM_METHOD + " 或 " + PARAM_KEYWORD);
+        }
+        Integer depth = getDepth(paramMap, JACGConstants.DAEMON_MAX_DEPTH);
+        if (depth == null) {
+            return genErrorResult("参数 " + PARAM_DEPTH + " 需要为1到" + JACGConstants.DAEMON_MAX_DEPTH + "之间的整数");
+        }
+        int[] methodIds = findMethodIds(method);
+        if (methodIds == null) {
+            return genErrorResult("未找到方法 " + method);
+        }
+
+        boolean down = !Boolean.parseBoolean(getParam(paramMap, PARAM_UP));
+        List<MethodCallEdge> stackList = methodCallGraph.findShortestStack(methodIds, new MultiKeywordMatcher(keywordList), depth, down);
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("methods", getFullMethodList(methodIds));
+        resultMap.put("found", stackList != null);
+        resultMap.put("stack", stackList == null ? Collections.emptyList() : stackList);
+        return resultMap;
+    }
+
+    // 查询方法的注解信息
+    private Map<String, Object> queryAnnotations(Map<String, List<String>> paramMap) {
+        String method = getParam(paramMap, PARAM_METHOD);
+        if (StringUtils.isBlank(method)) {
+            return genErrorResult("未指定参数 " + PARAM_METHOD);
+        }
+        int[] methodIds = findMethodIds(method);
+        if (methodIds == null) {
+            return genErrorResult("未找到方法 " + method);
+        }
+
+        Map<String, Object> resultMap = new HashMap<>();
+        for (int methodId : methodIds) {
+            String fullMethod = methodCallGraph.getFullMethod(methodId);
+            resultMap.put(fullMethod, annotationHandler.queryAnnotationMap4FullMethod(fullMethod));
+        }
+        return resultMap;
+    }
+
+    // 查询类或接口的子类与实现类
+    private Map<String, Object> queryChildren(Map<String, List<String>> paramMap) {
+        String className = getParam(paramMap, PARAM_CLASS);
+        if (StringUtils.isBlank(className)) {
+            return genErrorResult("未指定参数 " + PARAM_CLASS);
+        }
+
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("class", className);
+        resultMap.put("children", jacgExtendsImplHandler.queryChildClassListByFull(className, true, true, true, true));
+        return resultMap;
+    }
+
+    // 查询当前状态
+    private Map<String, Object> queryStatus() {
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("methodNum", methodCallGraph.getMethodNum());
+        resultMap.put("edgeNum", methodCallGraph.getEdgeNum());
+        resultMap.put("loadTimestamp", loadTimestamp);
+        resultMap.put("loadSpendTime", loadSpendTime);
+        resultMap.put("loadTimes", loadTimes);
+        resultMap.put("jarFingerprint", jarFingerprint);
+        return resultMap;
+    }
+
+    // 重新加载
+    private Map<String, Object> handleReload(boolean writeDb) {
+        String newJarFingerprint = writeDb ? genJarFingerprint() : null;
+        if (!reload(writeDb)) {
+            return genErrorResult("重新加载失败");
+        }
+        if (newJarFingerprint != null) {
+            jarFingerprint = newJarFingerprint;
+        }
+
+        readWriteLock.readLock().lock();
+        try {
+            return queryStatus();
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reloadCheckExecutor != null) {
+            reloadCheckExecutor.shutdownNow();
+            reloadCheckExecutor = null;
+        }
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (httpThreadPoolExecutor != null) {
+            httpThreadPoolExecutor.shutdownNow();
+            httpThreadPoolExecutor = null;
+        }
+
+        readWriteLock.writeLock().lock();
+        try {
+            closeDb();
+            methodCallGraph = null;
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+        logger.info("常驻分析进程已关闭");
+    }
+}
@@ -0,0 +1,346 @@
+package com.adrninistrator.jacg.daemon;
+
+import com.adrninistrator.jacg.dto.method.MethodCallEdge;
+import com.adrninistrator.jacg.find_stack.MultiKeywordMatcher;
+import com.adrninistrator.javacg.common.JavaCGConstants;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 常驻分析进程在内存中保存的方法调用关系
+ * 方法使用从0开始的序号表示，向下与向上的调用关系分别使用压缩的邻接数组保存，相同的调用方与被调用方只保存一次
+ * 生成后不会再修改，可以在多个线程中同时查询
+ */
+public class MethodCallGraph {
+
+    private static final int[] EMPTY_IDS = new int[0];
+
+    // 各方法的完整方法，下标为方法序号
+    private final String[] fullMethods;
+
+    /*
+        key: 方法HASH+长度
+        value: 方法序号
+     */
+    private final Map<String, Integer> methodHashIdMap;
+
+    /*
+        key: 完整方法
+        value: 方法序号
+     */
+    private final Map<String, Integer> fullMethodIdMap;
+
+    /*
+        key: {完整类名}:{方法名}
+        value: 对应的各个方法序号，包含重载方法
+     */
+    private final Map<String, int[]> classMethodIdMap;
+
+    // 向下的调用关系，第i个方法调用的方法保存在calleeIds的[calleeStarts[i], calleeStarts[i + 1])范围
+    private final int[] calleeStarts;
+    private final int[] calleeIds;
+    private final int[] calleeLineNumbers;
+
+    // 向上的调用关系，第i个方法的调用方法保存在callerIds的[callerStarts[i], callerStarts[i + 1])范围
+    private final int[] callerStarts;
+    private final int[] callerIds;
+    private final int[] callerLineNumbers;
+
+    private MethodCallGraph(Builder builder) {
+        int methodNum = builder.fullMethodList.size();
+        fullMethods = builder.fullMethodList.toArray(new String[0]);
+        methodHashIdMap = builder.methodHashIdMap;
+
+        fullMethodIdMap = new HashMap<>(methodNum * 4 / 3 + 1);
+        Map<String, List<Integer>> tmpClassMethodIdMap = new HashMap<>();
+        for (int i = 0; i < methodNum; i++) {
+            fullMethodIdMap.put(fullMethods[i], i);
+            String classAndMethodName = StringUtils.substringBefore(fullMethods[i], JavaCGConstants.FLAG_LEFT_BRACKET);
+            tmpClassMethodIdMap.computeIfAbsent(classAndMethodName, k -> new ArrayList<>(1)).add(i);
+        }
+        classMethodIdMap = new HashMap<>(tmpClassMethodIdMap.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> entry : tmpClassMethodIdMap.entrySet()) {
+            classMethodIdMap.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        int edgeNum = builder.edgeNum;
+        int[][] calleeAdjacency = genAdjacency(methodNum, edgeNum, builder.edgeCallerIds, builder.edgeCalleeIds, builder.edgeLineNumbers);
+        calleeStarts = calleeAdjacency[0];
+        calleeIds = calleeAdjacency[1];
+        calleeLineNumbers = calleeAdjacency[2];
+
+        int[][] callerAdjacency = genAdjacency(methodNum, edgeNum, builder.edgeCalleeIds, builder.edgeCallerIds, builder.edgeLineNumbers);
+        callerStarts = callerAdjacency[0];
+        callerIds = callerAdjacency[1];
+        callerLineNumbers = callerAdjacency[2];
+    }
+
+    // 生成压缩的邻接数组，返回数组分别为各方法的起始下标、相邻的方法序号、调用方法代码行号
+    private static int[][] genAdjacency(int methodNum, int edgeNum, int[] fromIds, int[] toIds, int[] lineNumbers) {
+        int[] starts = new int[methodNum + 1];
+        for (int i = 0; i < edgeNum; i++) {
+            starts[fromIds[i] + 1]++;
+        }
+        for (int i = 0; i < methodNum; i++) {
+            starts[i + 1] += starts[i];
+        }
+
+        int[] positions = Arrays.copyOf(starts, methodNum);
+        int[] ids = new int[edgeNum];
+        int[] lines = new int[edgeNum];
+        // 按照调用关系添加的顺序填充，同一个方法的调用关系保持原有顺序
+        for (int i = 0; i < edgeNum; i++) {
+            int position = positions[fromIds[i]]++;
+            ids[position] = toIds[i];
+            lines[position] = lineNumbers[i];
+        }
+        return new int[][]{starts, ids, lines};
+    }
+
+    public int getMethodNum() {
+        return fullMethods.length;
+    }
+
+    public int getEdgeNum() {
+        return calleeIds.length;
+    }
+
+    public String getFullMethod(int methodId) {
+        return fullMethods[methodId];
+    }
+
+    /**
+     * 查找方法对应的方法序号
+     *
+     * @param method 支持以下格式：完整方法；{完整类名}:{方法名}，包含所有的重载方法；方法HASH+长度
+     * @return 未找到时返回空数组
+     */
+    public int[] findMethodIds(String method) {
+        if (StringUtils.isBlank(method)) {
+            return EMPTY_IDS;
+        }
+
+        if (method.contains(JavaCGConstants.FLAG_LEFT_BRACKET)) {
+            Integer methodId = fullMethodIdMap.get(method);
+            return methodId == null ? EMPTY_IDS : new int[]{methodId};
+        }
+
+        if (method.contains(JavaCGConstants.FLAG_COLON)) {
+            int[] methodIds = classMethodIdMap.get(method);
+            return methodIds == null ? EMPTY_IDS : methodIds;
+        }
+
+        Integer methodId = methodHashIdMap.get(method);
+        return methodId == null ? EMPTY_IDS : new int[]{methodId};
+    }
+
+    /**
+     * 从指定的方法开始，按层级查询向下或向上的调用关系，每个方法只展开一次
+     *
+     * @param startIds 起始方法序号
+     * @param maxLevel 查询的最大层级
+     * @param down     true: 查询向下的调用关系 false: 查询向上的调用关系
+     * @param maxNum   返回的调用关系最大数量
+     * @param edgeList 用于保存查询到的调用关系
+     * @return true: 调用关系数量达到最大数量，结果被截断 false: 结果未截断
+     */
+    public boolean queryCallEdges(int[] startIds, int maxLevel, boolean down, int maxNum, List<MethodCallEdge> edgeList) {
+        int[] starts = down ? calleeStarts : callerStarts;
+        int[] ids = down ? calleeIds : callerIds;
+        int[] lineNumbers = down ? calleeLineNumbers : callerLineNumbers;
+
+        BitSet visited = new BitSet(fullMethods.length);
+        int[] currentIds = new int[startIds.length];
+        int currentNum = 0;
+        for (int startId : startIds) {
+            if (!visited.get(startId)) {
+                visited.set(startId);
+                currentIds[currentNum++] = startId;
+            }
+        }
+
+        for (int level = 1; level <= maxLevel && currentNum > 0; level++) {
+            int[] nextIds = new int[Math.max(16, currentNum)];
+            int nextNum = 0;
+            for (int i = 0; i < currentNum; i++) {
+                int methodId = currentIds[i];
+                for (int j = starts[methodId]; j < starts[methodId + 1]; j++) {
+                    int otherId = ids[j];
+                    edgeList.add(genMethodCallEdge(level, methodId, otherId, lineNumbers[j], down));
+                    if (edgeList.size() >= maxNum) {
+                        return true;
+                    }
+                    if (!visited.get(otherId)) {
+                        visited.set(otherId);
+                        if (nextNum == nextIds.length) {
+                            nextIds = Arrays.copyOf(nextIds, nextNum * 2);
+                        }
+                        nextIds[nextNum++] = otherId;
+                    }
+                }
+            }
+            currentIds = nextIds;
+            currentNum = nextNum;
+        }
+        return false;
+    }
+
+    /**
+     * 从指定的方法开始，查找到达完整方法包含关键字的方法的最短调用堆栈
+     *
+     * @param startIds 起始方法序号
+     * @param matcher  关键字匹配对象
+     * @param maxLevel 查找的最大层级
+     * @param down     true: 查找向下的调用堆栈 false: 查找向上的调用堆栈
+     * @return null: 未找到；空列表: 起始方法包含关键字
+     */
+    public List<MethodCallEdge> findShortestStack(int[] startIds, MultiKeywordMatcher matcher, int maxLevel, boolean down) {
+        for (int startId : startIds) {
+            if (matcher.match(fullMethods[startId])) {
+                return Collections.emptyList();
+            }
+        }
+
+        int[] starts = down ? calleeStarts : callerStarts;
+        int[] ids = down ? calleeIds : callerIds;
+        /*
+            记录已访问的方法
+            key: 方法序号
+            value: 访问时经过的上一个方法序号，及对应调用关系的下标，起始方法的value为null
+         */
+        Map<Integer, int[]> parentMap = new HashMap<>();
+        List<Integer> currentIdList = new ArrayList<>(startIds.length);
+        for (int startId : startIds) {
+            if (!parentMap.containsKey(startId)) {
+                parentMap.put(startId, null);
+                currentIdList.add(startId);
+            }
+        }
+
+        for (int level = 1; level <= maxLevel && !currentIdList.isEmpty(); level++) {
+            List<Integer> nextIdList = new ArrayList<>();
+            for (int methodId : currentIdList) {
+                for (int j = starts[methodId]; j < starts[methodId + 1]; j++) {
+                    int otherId = ids[j];
+                    if (parentMap.containsKey(otherId)) {
+                        continue;
+                    }
+                    parentMap.put(otherId, new int[]{methodId, j});
+                    if (matcher.match(fullMethods[otherId])) {
+                        return genStack(otherId, parentMap, down);
+                    }
+                    nextIdList.add(otherId);
+                }
+            }
+            currentIdList = nextIdList;
+        }
+        return null;
+    }
+
+    // 根据记录的上一个方法，生成从起始方法到指定方法的调用堆栈
+    private List<MethodCallEdge> genStack(int endId, Map<Integer, int[]> parentMap, boolean down) {
+        int[] lineNumbers = down ? calleeLineNumbers : callerLineNumbers;
+        List<int[]> pathList = new ArrayList<>();
+        int methodId = endId;
+        int[] parent;
+        while ((parent = parentMap.get(methodId)) != null) {
+            pathList.add(new int[]{parent[0], methodId, lineNumbers[parent[1]]});
+            methodId = parent[0];
+        }
+        Collections.reverse(pathList);
+
+        List<MethodCallEdge> stackList = new ArrayList<>(pathList.size());
+        for (int i = 0; i < pathList.size(); i++) {
+            int[] path = pathList.get(i);
+            stackList.add(genMethodCallEdge(i + 1, path[0], path[1], path[2], down));
+        }
+        return stackList;
+    }
+
+    // 生成调用关系，向上查询时当前方法为被调用方
+    private MethodCallEdge genMethodCallEdge(int level, int methodId, int otherId, int lineNumber, boolean down) {
+        if (down) {
+            return new MethodCallEdge(level, fullMethods[methodId], lineNumber, fullMethods[otherId]);
+        }
+        return new MethodCallEdge(level, fullMethods[otherId], lineNumber, fullMethods[methodId]);
+    }
+
+    /**
+     * 用于逐条添加方法调用关系，生成内存中的方法调用关系
+     */
+    public static class Builder {
+        private static final int INIT_EDGE_ARRAY_SIZE = 1024;
+
+        /*
+            key: 方法HASH+长度
+            value: 方法序号
+         */
+        private final Map<String, Integer> methodHashIdMap = new HashMap<>();
+
+        private final List<String> fullMethodList = new ArrayList<>();
+
+        // 已记录的调用关系，用于去重，高32位为调用方序号，低32位为被调用方序号
+        private final Set<Long> edgeSet = new HashSet<>();
+
+        private int[] edgeCallerIds = new int[INIT_EDGE_ARRAY_SIZE];
+        private int[] edgeCalleeIds = new int[INIT_EDGE_ARRAY_SIZE];
+        private int[] edgeLineNumbers = new int[INIT_EDGE_ARRAY_SIZE];
+        private int edgeNum = 0;
+
+        /**
+         * 添加方法调用关系，相同的调用方与被调用方只记录第一次添加的调用方法代码行号
+         *
+         * @param callerMethodHash
+         * @param callerFullMethod
+         * @param callerLineNumber
+         * @param calleeMethodHash
+         * @param calleeFullMethod
+         */
+        public void addMethodCall(String callerMethodHash, String callerFullMethod, int callerLineNumber, String calleeMethodHash, String calleeFullMethod) {
+            int callerId = getMethodId(callerMethodHash, callerFullMethod);
+            int calleeId = getMethodId(calleeMethodHash, calleeFullMethod);
+            if (!edgeSet.add(((long) callerId << 32) | calleeId)) {
+                return;
+            }
+
+            if (edgeNum == edgeCallerIds.length) {
+                int newSize = edgeNum * 2;
+                edgeCallerIds = Arrays.copyOf(edgeCallerIds, newSize);
+                edgeCalleeIds = Arrays.copyOf(edgeCalleeIds, newSize);
+                edgeLineNumbers = Arrays.copyOf(edgeLineNumbers, newSize);
+            }
+            edgeCallerIds[edgeNum] = callerId;
+            edgeCalleeIds[edgeNum] = calleeId;
+            edgeLineNumbers[edgeNum] = callerLineNumber;
+            edgeNum++;
+        }
+
+        // 获取方法对应的序号，不存在时生成
+        private int getMethodId(String methodHash, String fullMethod) {
+            Integer methodId = methodHashIdMap.get(methodHash);
+            if (methodId != null) {
+                return methodId;
+            }
+            int newMethodId = fullMethodList.size();
+            methodHashIdMap.put(methodHash, newMethodId);
+            fullMethodList.add(fullMethod);
+            return newMethodId;
+        }
+
+        public MethodCallGraph build() {
+            edgeSet.clear();
+            return new MethodCallGraph(this);
+        }
+    }
+}
@@ -2,13 +2,20 @@ package com.adrninistrator.jacg.dboper;
 
 import com.adrninistrator.jacg.common.DC;
 import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
 import com.adrninistrator.jacg.common.enums.DbInsertMode;
 import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
 import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.common.enums.StorageTypeEnum;
+import com.adrninistrator.jacg.common.enums.WriteDbCheckpointTypeEnum;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4LambdaMethodInfo;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodAnnotation;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.storage.JACGEmbeddedKVStorage;
+import com.adrninistrator.jacg.storage.JACGSqlStorage;
+import com.adrninistrator.jacg.storage.JACGStorage;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
 import com.adrninistrator.jacg.util.JACGSqlUtil;
 import com.adrninistrator.javacg.common.JavaCGConstants;
@@ -27,6 +34,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -52,9 +60,13 @@ public class DbOperWrapper {
 
     private final String objSeq;
 
+    // 方法调用关系存储
+    private JACGStorage storage;
+
     public DbOperWrapper(DbOperator dbOperator) {
         this.dbOperator = dbOperator;
         this.appName = dbOperator.getAppName();
+        storage = new JACGSqlStorage(this);
 
         objSeq = String.valueOf(ATOMIC_INTEGER.incrementAndGet());
         logger.info("objSeq [{}]", objSeq);
@@ -71,11 +83,35 @@ public class DbOperWrapper {
      * @return
      */
     public static DbOperWrapper genInstance(ConfigureWrapper configureWrapper, String currentSimpleName) {
-        DbOperator dbOperator = DbOperator.genInstance(configureWrapper, currentSimpleName);
+        return genInstance(configureWrapper, currentSimpleName, false);
+    }
+
+    /**
+     * 创建数据库操作包装对象
+     *
+     * @param configureWrapper
+     * @param currentSimpleName
+     * @param useH2MemDb        使用H2数据库时，是否使用H2内存数据库
+     * @return
+     */
+    public static DbOperWrapper genInstance(ConfigureWrapper configureWrapper, String currentSimpleName, boolean useH2MemDb) {
+        DbOperator dbOperator = DbOperator.genInstance(configureWrapper, currentSimpleName, useH2MemDb);
         if (dbOperator == null) {
             throw new JavaCGRuntimeException("数据库初始化失败");
         }
-        return new DbOperWrapper(dbOperator);
+        DbOperWrapper dbOperWrapper = new DbOperWrapper(dbOperator);
+        if (StorageTypeEnum.STE_EMBEDDED_KV == StorageTypeEnum.getFromType(configureWrapper.getMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE))) {
+            dbOperWrapper.storage = new JACGEmbeddedKVStorage(dbOperWrapper, genEmbeddedKVFilePath(configureWrapper, dbOperator.getAppName()));
+        }
+        return dbOperWrapper;
+    }
+
+    // 生成保存方法调用关系的本地文件路径，使用H2数据库时与数据库文件在同一目录
+    private static String genEmbeddedKVFilePath(ConfigureWrapper configureWrapper, String appName) {
+        if (Boolean.TRUE.equals(configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2))) {
+            return configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH) + JACGConstants.EXT_EMBEDDED_KV;
+        }
+        return JACGConstants.FILE_JACG_EMBEDDED_KV_PREFIX + appName + JACGConstants.EXT_EMBEDDED_KV;
     }
 
     private String genSqlKey(String sqlKey, int num) {
@@ -121,6 +157,8 @@ public class DbOperWrapper {
         // 替换sql语句中的appName
         String finalSql = JACGSqlUtil.replaceAppNameInSql(sql, appName);
         if (sqlCacheMap.putIfAbsent(finalSqlKey, finalSql) == null) {
+            // 记录sql语句对应的key，用于生成性能报告
+            dbOperator.recordSqlKey(finalSql, sqlKey4Print);
             // 假如有指定用于在日志中打印的key，则在日志中打印出来
             logger.info("[{}] cache sql: [{} {}] [{}]", objSeq, finalSqlKey, sqlKey4Print, finalSql);
         }
@@ -173,7 +211,8 @@ public class DbOperWrapper {
      * @return
      */
     public String genAndCacheInsertSql(DbTableInfoEnum dbTableInfoEnum, DbInsertMode dbInsertMode) {
-        String key = dbTableInfoEnum.getSqlKey();
+        // 同一个表使用不同的插入模式时，需要使用不同的key缓存
+        String key = DbInsertMode.DIME_INSERT == dbInsertMode ? dbTableInfoEnum.getSqlKey() : dbTableInfoEnum.getSqlKey() + "_" + dbInsertMode.name();
         String[] columns = dbTableInfoEnum.getColumns();
         String sql = getCachedSql(key);
         if (sql == null) {
@@ -480,6 +519,41 @@ public class DbOperWrapper {
         return maxCallId == null ? JACGConstants.MAX_METHOD_CALL_ID_ILLEGAL : maxCallId;
     }
 
+    /**
+     * 生成新的数据库内容版本并记录到写数据库检查点表，存在时覆盖
+     * 写数据库完成，以及启用、禁用、人工添加、删除方法调用，修改调用标志或方法调用业务功能数据后调用
+     *
+     * @return true: 成功，false: 失败
+     */
+    public boolean recordDataVersion() {
+        String dataVersion = UUID.randomUUID().toString();
+        String sql = genAndCacheInsertSql(DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT, DbInsertMode.DIME_REPLACE);
+        if (!dbOperator.insert(sql, JACGConstants.CHECKPOINT_DATA_VERSION, WriteDbCheckpointTypeEnum.WDCTE_DATA_VERSION.getType(), dataVersion, 0,
+                JavaCGYesNoEnum.YES.getIntValue())) {
+            logger.error("记录数据库内容版本失败");
+            return false;
+        }
+        logger.debug("记录数据库内容版本 {}", dataVersion);
+        return true;
+    }
+
+    /**
+     * 查询数据库内容版本
+     *
+     * @return null: 未记录（写数据库未完成）或查询失败
+     */
+    public String queryDataVersion() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.WDC_QUERY_INPUT_HASH_BY_NAME;
+        String sql = getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + DC.WDC_INPUT_HASH +
+                    " from " + DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT.getTableName() +
+                    " where " + DC.WDC_CHECKPOINT_NAME + " = ?";
+            sql = cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryObjectOneColumn(sql, String.class, JACGConstants.CHECKPOINT_DATA_VERSION);
+    }
+
     /**
      * 查询调用方法时包含指定方法调用业务功能数据的调用者完整方法
      *
@@ -653,6 +727,10 @@ public class DbOperWrapper {
         return appName;
     }
 
+    public JACGStorage getStorage() {
+        return storage;
+    }
+
     public DbOperator getDbOperator() {
         return dbOperator;
     }
@@ -4,6 +4,8 @@ import com.adrninistrator.jacg.common.JACGConstants;
 import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
 import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.perf.SqlPerfStat;
+import com.adrninistrator.jacg.perf.TaskQueryCounter;
 import com.adrninistrator.jacg.util.JACGSqlUtil;
 import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.util.JavaCGUtil;
@@ -19,6 +21,7 @@ import java.sql.SQLSyntaxErrorException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -49,15 +52,46 @@ public class DbOperator {
 
     private boolean useH2Db = false;
 
+    // 是否使用H2内存数据库
+    private boolean useH2MemDb = false;
+
     private boolean closed = false;
 
+    // 各sql语句的执行次数及耗时统计，key: sql语句
+    private final Map<String, SqlPerfStat> sqlPerfStatMap = new ConcurrentHashMap<>();
+
+    // sql语句对应的key，key: sql语句，value: sql语句对应的key，如SqlKeyEnum的名称
+    private final Map<String, String> sqlKeyMap = new ConcurrentHashMap<>();
+
+    // 当前线程正在执行的任务对应的数据库查询次数记录对象
+    private final ThreadLocal<TaskQueryCounter> taskQueryCounterThreadLocal = new ThreadLocal<>();
+
+    // 限制同时执行数据库操作的数量，使用虚拟线程时使用，为null时不限制
+    private volatile Semaphore dbSemaphore;
+
     public static DbOperator genInstance(ConfigureWrapper configureWrapper, String entrySimpleClassName) {
+        return genInstance(configureWrapper, entrySimpleClassName, false);
+    }
+
+    /**
+     * 创建数据库操作对象
+     *
+     * @param configureWrapper
+     * @param entrySimpleClassName
+     * @param useH2MemDb           使用H2数据库时，是否使用H2内存数据库
+     * @return
+     */
+    public static DbOperator genInstance(ConfigureWrapper configureWrapper, String entrySimpleClassName, boolean useH2MemDb) {
         try {
             DbOperator instance = new DbOperator(configureWrapper, entrySimpleClassName);
 //            Class.forName(confInfo.getDbDriverName());
 
             if (configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2)) {
-                instance.initH2Db();
+                if (useH2MemDb) {
+                    instance.initH2MemDb();
+                } else {
+                    instance.initH2Db();
+                }
             } else {
                 instance.initNonH2Db();
             }
@@ -99,13 +133,27 @@ public class DbOperator {
         }));
     }
 
+    /**
+     * 生成H2数据库文件对应的JDBC URL
+     *
+     * @param h2DbFilePath H2数据库文件路径，不包含后缀
+     * @return
+     */
+    public static String genH2DbJdbcUrl(String h2DbFilePath) {
+        return JACGConstants.H2_PROTOCOL + h2DbFilePath + genH2DbJdbcUrlParams();
+    }
+
+    // 生成H2数据库JDBC URL的参数
+    private static String genH2DbJdbcUrlParams() {
+        return ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;INIT=CREATE SCHEMA IF NOT EXISTS " +
+                JACGConstants.H2_SCHEMA + "\\;SET SCHEMA " + JACGConstants.H2_SCHEMA;
+    }
+
     private void initH2Db() {
         useH2Db = true;
 
         dataSource.setDriverClassName("org.h2.Driver");
-        String h2DbJdbcUrl = JACGConstants.H2_PROTOCOL + configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH) +
-                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;INIT=CREATE SCHEMA IF NOT EXISTS " +
-                JACGConstants.H2_SCHEMA + "\\;SET SCHEMA " + JACGConstants.H2_SCHEMA;
+        String h2DbJdbcUrl = genH2DbJdbcUrl(configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH));
         logger.info("[{}] 初始化H2数据源 URL: {}", objSeq, h2DbJdbcUrl);
 
         dataSource.setUrl(h2DbJdbcUrl);
@@ -113,6 +161,22 @@ public class DbOperator {
         dataSource.setPassword("");
     }
 
+    // 初始化H2内存数据库，数据库名称包含当前对象序号，避免不同的数据库操作对象使用同一个内存数据库
+    private void initH2MemDb() {
+        useH2Db = true;
+        useH2MemDb = true;
+
+        dataSource.setDriverClassName("org.h2.Driver");
+        // 指定DB_CLOSE_DELAY=-1，避免连接池中的连接都被关闭时内存数据库被删除，需要在使用完毕后执行SHUTDOWN
+        String h2DbJdbcUrl = JACGConstants.H2_MEM_PROTOCOL + JACGConstants.H2_SCHEMA + "_" + appName + "_" + objSeq + ";DB_CLOSE_DELAY=-1" +
+                genH2DbJdbcUrlParams();
+        logger.info("[{}] 初始化H2内存数据源 URL: {}", objSeq, h2DbJdbcUrl);
+
+        dataSource.setUrl(h2DbJdbcUrl);
+        dataSource.setUsername("");
+        dataSource.setPassword("");
+    }
+
     private void initNonH2Db() {
         useH2Db = false;
 
@@ -128,6 +192,40 @@ public class DbOperator {
         dataSource.setMaxActive(maxPoolSize);
     }
 
+    public int getMaxPoolSize() {
+        return dataSource.getMaxActive();
+    }
+
+    /**
+     * 限制同时执行数据库操作的数量，使用虚拟线程时，并发数由该限制决定，而不是由线程数决定
+     *
+     * @param permits 允许同时执行数据库操作的数量，与数据源的最大连接数一致
+     */
+    public synchronized void limitDbConcurrency(int permits) {
+        if (dbSemaphore != null) {
+            // 已有执行中的数据库操作可能持有许可，不替换
+            return;
+        }
+        logger.info("[{}] 限制同时执行数据库操作的数量为 {}", objSeq, permits);
+        dbSemaphore = new Semaphore(permits);
+    }
+
+    // 获取数据库操作许可
+    private void acquireDbPermit() {
+        Semaphore semaphore = dbSemaphore;
+        if (semaphore != null) {
+            semaphore.acquireUninterruptibly();
+        }
+    }
+
+    // 释放数据库操作许可
+    private void releaseDbPermit() {
+        Semaphore semaphore = dbSemaphore;
+        if (semaphore != null) {
+            semaphore.release();
+        }
+    }
+
     public Connection getConnection() {
         synchronized (DbOperator.class) {
             try {
@@ -246,12 +344,20 @@ public class DbOperator {
      * @return
      */
     public boolean executeDDLSql(String sql) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             jdbcTemplate.execute(sql);
+            success = true;
             return true;
         } catch (Exception e) {
             logger.error("error [{}] ", sql, e);
             return false;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -263,13 +369,22 @@ public class DbOperator {
      * @return
      */
     public Integer update(String sql, Object... arguments) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
-            return jdbcTemplate.update(sql, arguments);
+            Integer result = jdbcTemplate.update(sql, arguments);
+            success = true;
+            return result;
         } catch (Exception e) {
             if (!noticeDropTable(e, sql)) {
                 logger.error("error [{}] ", sql, e);
             }
             return null;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -281,8 +396,13 @@ public class DbOperator {
      * @return
      */
     public boolean batchInsert(String sql, List<Object[]> argumentList) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             jdbcTemplate.batchUpdate(sql, argumentList);
+            success = true;
             return true;
         } catch (Exception e) {
             if (!noticeDropTable(e, sql)) {
@@ -295,6 +415,34 @@ public class DbOperator {
                 }
             }
             return false;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
+        }
+    }
+
+    /**
+     * 批量修改数据库
+     *
+     * @param sql
+     * @param argumentList
+     * @return
+     */
+    public boolean batchUpdate(String sql, List<Object[]> argumentList) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
+        try {
+            jdbcTemplate.batchUpdate(sql, argumentList);
+            success = true;
+            return true;
+        } catch (Exception e) {
+            logger.error("error [{}] ", sql, e);
+            return false;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -306,12 +454,20 @@ public class DbOperator {
      * @return
      */
     public boolean insert(String sql, Object... arguments) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             jdbcTemplate.update(sql, arguments);
+            success = true;
             return true;
         } catch (Exception e) {
             logger.error("error [{}] ", sql, e);
             return false;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -324,13 +480,22 @@ public class DbOperator {
      * @return
      */
     public <T> List<T> queryListOneColumn(String sql, Class<T> type, Object... arguments) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
-            return jdbcTemplate.queryForList(sql, type, arguments);
+            List<T> result = jdbcTemplate.queryForList(sql, type, arguments);
+            success = true;
+            return result;
         } catch (Exception e) {
             if (!noticeDropTable(e, sql)) {
                 logger.error("error [{}] [{}] ", sql, StringUtils.join(arguments, " "), e);
             }
             return null;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -344,15 +509,24 @@ public class DbOperator {
      */
     @SuppressWarnings("unchecked")
     public <T> List<T> queryList(String sql, Class<T> type, Object... arguments) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             BeanPropertyRowMapper<?> beanPropertyRowMapper = beanPropertyRowMapperMap.computeIfAbsent(type.getName(),
                     k -> new BeanPropertyRowMapper<>(type));
-            return jdbcTemplate.query(sql, (BeanPropertyRowMapper<T>) beanPropertyRowMapper, arguments);
+            List<T> result = jdbcTemplate.query(sql, (BeanPropertyRowMapper<T>) beanPropertyRowMapper, arguments);
+            success = true;
+            return result;
         } catch (Exception e) {
             if (!noticeDropTable(e, sql)) {
                 logger.error("error [{}] [{}] ", sql, StringUtils.join(arguments, " "), e);
             }
             return null;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -365,13 +539,22 @@ public class DbOperator {
      * @return
      */
     public <T> T queryObjectOneColumn(String sql, Class<T> type, Object... arguments) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
-            return jdbcTemplate.queryForObject(sql, type, arguments);
+            T result = jdbcTemplate.queryForObject(sql, type, arguments);
+            success = true;
+            return result;
         } catch (Exception e) {
             if (!noticeDropTable(e, sql)) {
                 logger.error("error [{}] [{}] ", sql, StringUtils.join(arguments, " "), e);
             }
             return null;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -385,15 +568,24 @@ public class DbOperator {
      */
     @SuppressWarnings("unchecked")
     public <T> T queryObject(String sql, Class<T> type, Object... arguments) {
+        // 获取数据库操作许可，等待的时间不计入sql语句耗时
+        acquireDbPermit();
+        long startTime = System.nanoTime();
+        boolean success = false;
         try {
             BeanPropertyRowMapper<?> beanPropertyRowMapper = beanPropertyRowMapperMap.computeIfAbsent(type.getName(),
                     k -> new BeanPropertyRowMapper<>(type));
-            return jdbcTemplate.queryForObject(sql, (BeanPropertyRowMapper<T>) beanPropertyRowMapper, arguments);
+            T result = jdbcTemplate.queryForObject(sql, (BeanPropertyRowMapper<T>) beanPropertyRowMapper, arguments);
+            success = true;
+            return result;
         } catch (Exception e) {
             if (!noticeDropTable(e, sql)) {
                 logger.error("error [{}] [{}] ", sql, StringUtils.join(arguments, " "), e);
             }
             return null;
+        } finally {
+            recordSqlPerf(sql, startTime, success);
+            releaseDbPermit();
         }
     }
 
@@ -419,6 +611,80 @@ public class DbOperator {
         return false;
     }
 
+    /**
+     * 记录sql语句的执行耗时
+     *
+     * @param sql
+     * @param startTime 开始时间，System.nanoTime()
+     * @param success   是否执行成功
+     */
+    private void recordSqlPerf(String sql, long startTime, boolean success) {
+        long spendNanos = System.nanoTime() - startTime;
+        sqlPerfStatMap.computeIfAbsent(sql, k -> new SqlPerfStat()).record(spendNanos, success);
+
+        TaskQueryCounter taskQueryCounter = taskQueryCounterThreadLocal.get();
+        if (taskQueryCounter != null) {
+            taskQueryCounter.recordQuery(sql);
+        }
+    }
+
+    /**
+     * 开始记录当前线程执行的任务的数据库查询次数
+     *
+     * @param taskDesc    任务描述
+     * @param queryBudget 当前任务允许执行的最大数据库查询次数，0代表不限制
+     * @return
+     */
+    public TaskQueryCounter startTaskQueryCount(String taskDesc, int queryBudget) {
+        TaskQueryCounter taskQueryCounter = new TaskQueryCounter(taskDesc, queryBudget);
+        taskQueryCounterThreadLocal.set(taskQueryCounter);
+        return taskQueryCounter;
+    }
+
+    /**
+     * 获取当前线程执行的任务的数据库查询次数记录对象
+     *
+     * @return 未开始记录时返回null
+     */
+    public TaskQueryCounter getTaskQueryCounter() {
+        return taskQueryCounterThreadLocal.get();
+    }
+
+    /**
+     * 结束记录当前线程执行的任务的数据库查询次数
+     *
+     * @return 未开始记录时返回null
+     */
+    public TaskQueryCounter endTaskQueryCount() {
+        TaskQueryCounter taskQueryCounter = taskQueryCounterThreadLocal.get();
+        taskQueryCounterThreadLocal.remove();
+        return taskQueryCounter;
+    }
+
+    /**
+     * 记录sql语句对应的key，用于在性能报告中显示
+     *
+     * @param sql
+     * @param sqlKey
+     */
+    public void recordSqlKey(String sql, String sqlKey) {
+        sqlKeyMap.putIfAbsent(sql, sqlKey);
+    }
+
+    /**
+     * 获取sql语句对应的key
+     *
+     * @param sql
+     * @return 未记录时返回null
+     */
+    public String getSqlKey(String sql) {
+        return sqlKeyMap.get(sql);
+    }
+
+    public Map<String, SqlPerfStat> getSqlPerfStatMap() {
+        return sqlPerfStatMap;
+    }
+
     public String getAppName() {
         return appName;
     }
@@ -426,4 +692,8 @@ public class DbOperator {
     public boolean isClosed() {
         return closed;
     }
+
+    public boolean isUseH2MemDb() {
+        return useH2MemDb;
+    }
 }
@@ -0,0 +1,348 @@
+package com.adrninistrator.jacg.dboper;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbInsertMode;
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.WriteDbCheckpointTypeEnum;
+import com.adrninistrator.jacg.handler.method.MethodCodeHashHandler;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: H2内存数据库处理类，写入数据库时先写入H2内存数据库，完成后一次性导出并保存到H2数据库文件
+ * 保存时使用SCRIPT命令将内存数据库导出为压缩的sql脚本，再通过RUNSCRIPT命令在临时路径生成新的H2数据库文件，生成的数据库文件不存在碎片
+ * 新的H2数据库文件生成成功后才替换原有的H2数据库文件，失败时原有的H2数据库文件及导出的sql脚本保留
+ * 原有的H2数据库文件中其他应用（app.name不同）的表，会从原有的H2数据库文件导出后写入新的H2数据库文件，不会丢失
+ */
+public class H2MemDbHandler {
+    private static final Logger logger = LoggerFactory.getLogger(H2MemDbHandler.class);
+
+    // 导出及执行sql脚本时使用的压缩算法，数据库标识符会转换为小写，需要使用双引号
+    private static final String H2_SCRIPT_COMPRESSION = "COMPRESSION \"GZIP\"";
+
+    private final DbOperWrapper dbOperWrapper;
+
+    private final DbOperator dbOperator;
+
+    // H2数据库文件路径，不包含后缀
+    private final String h2DbFilePath;
+
+    public H2MemDbHandler(DbOperWrapper dbOperWrapper, String h2DbFilePath) {
+        this.dbOperWrapper = dbOperWrapper;
+        this.dbOperator = dbOperWrapper.getDbOperator();
+        this.h2DbFilePath = h2DbFilePath;
+    }
+
+    /**
+     * 将H2数据库文件中指定表的数据复制到H2内存数据库的指定表，两个表的字段需要相同
+     * H2数据库文件或其中的表不存在时不复制
+     *
+     * @param srcTable  H2数据库文件中的表
+     * @param destTable H2内存数据库中的表
+     * @param batchSize 批量写入数据库时每次插入的数量
+     * @return
+     */
+    public boolean copyTableFromFile(DbTableInfoEnum srcTable, DbTableInfoEnum destTable, int batchSize) {
+        if (!getH2DbFile().exists()) {
+            logger.info("H2数据库文件不存在，不复制数据 {}", srcTable.getTableName());
+            return true;
+        }
+
+        String srcTableName = JACGSqlUtil.replaceAppNameInSql(srcTable.getTableName(), dbOperator.getAppName());
+        String insertSql = dbOperWrapper.genAndCacheInsertSql(destTable, DbInsertMode.DIME_INSERT);
+        int columnNum = srcTable.getColumns().length;
+        int rowNum = 0;
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(h2DbFilePath), "", "")) {
+            if (!checkTableExists(connection, srcTableName)) {
+                logger.info("H2数据库文件中的表不存在，不复制数据 {}", srcTableName);
+                return true;
+            }
+
+            List<Object[]> objectList = new ArrayList<>(batchSize);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("select " + JACGSqlUtil.joinColumns(srcTable.getColumns()) + " from " + srcTableName)) {
+                while (resultSet.next()) {
+                    Object[] object = new Object[columnNum];
+                    for (int i = 0; i < columnNum; i++) {
+                        object[i] = resultSet.getObject(i + 1);
+                    }
+                    objectList.add(object);
+                    rowNum++;
+                    if (objectList.size() >= batchSize) {
+                        if (!dbOperator.batchInsert(insertSql, objectList)) {
+                            return false;
+                        }
+                        objectList.clear();
+                    }
+                }
+            }
+            if (!objectList.isEmpty() && !dbOperator.batchInsert(insertSql, objectList)) {
+                return false;
+            }
+        } catch (Exception e) {
+            logger.error("从H2数据库文件复制数据失败 {} ", srcTableName, e);
+            return false;
+        }
+        logger.info("从H2数据库文件复制数据 {} 记录数 {}", srcTableName, rowNum);
+        return true;
+    }
+
+    /**
+     * 判断H2数据库文件中的方法字节码HASH是否完整
+     * 上一次写入数据库时生成方法字节码HASH的阶段已完成，且方法字节码HASH表不为空时认为完整
+     *
+     * @return true: 完整；false: 不完整，或查询失败
+     */
+    public boolean checkMethodCodeHashInFileComplete() {
+        if (!getH2DbFile().exists()) {
+            return false;
+        }
+
+        String checkpointTableName = JACGSqlUtil.replaceAppNameInSql(DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT.getTableName(), dbOperator.getAppName());
+        String methodCodeHashTableName = JACGSqlUtil.replaceAppNameInSql(DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getTableName(), dbOperator.getAppName());
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(h2DbFilePath), "", "")) {
+            if (!checkTableExists(connection, checkpointTableName) || !checkTableExists(connection, methodCodeHashTableName)) {
+                logger.warn("H2数据库文件中的表不存在，上一次的方法字节码HASH不完整");
+                return false;
+            }
+
+            if (queryCount(connection, "select count(*) from " + checkpointTableName + " where " + DC.WDC_CHECKPOINT_NAME + " = ? and " +
+                    DC.WDC_CHECKPOINT_TYPE + " = ? and " + DC.WDC_DONE + " = ?", MethodCodeHashHandler.STAGE_GEN_METHOD_CODE_HASH,
+                    WriteDbCheckpointTypeEnum.WDCTE_STAGE.getType(), JavaCGYesNoEnum.YES.getIntValue()) == 0L) {
+                logger.warn("H2数据库文件对应的上一次写入数据库时未完成生成方法字节码HASH，保留原有的上一次的方法字节码HASH");
+                return false;
+            }
+            if (queryCount(connection, "select count(*) from " + methodCodeHashTableName) == 0L) {
+                logger.warn("H2数据库文件中的方法字节码HASH表为空，保留原有的上一次的方法字节码HASH");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("查询H2数据库文件中的方法字节码HASH失败，保留原有的上一次的方法字节码HASH ", e);
+            return false;
+        }
+    }
+
+    /**
+     * 将H2内存数据库的数据保存到H2数据库文件，成功时会覆盖原有的H2数据库文件，原有的H2数据库文件中其他应用的表会保留
+     * 需要在H2内存数据库的数据全部写入后执行，执行完毕后H2内存数据库不再使用
+     *
+     * @return
+     */
+    public boolean persistToFile() {
+        long startTime = System.currentTimeMillis();
+        String scriptFilePath = JACGFileUtil.getCanonicalPath(h2DbFilePath + JACGConstants.H2_SCRIPT_FILE_EXT);
+        if (scriptFilePath == null) {
+            return false;
+        }
+        File scriptFile = new File(scriptFilePath);
+        if (scriptFile.exists() && !scriptFile.delete()) {
+            logger.error("删除H2内存数据库导出的sql脚本文件失败 {}", scriptFilePath);
+            return false;
+        }
+
+        // 将H2内存数据库导出为压缩的sql脚本
+        String scriptFilePathInSql = scriptFilePath.replace("\\", "/").replace("'", "''");
+        if (!dbOperator.executeDDLSql("SCRIPT NOPASSWORDS NOSETTINGS TO '" + scriptFilePathInSql + "' " + H2_SCRIPT_COMPRESSION + " SCHEMA " + JACGConstants.H2_SCHEMA)) {
+            return false;
+        }
+        logger.info("H2内存数据库导出为sql脚本 {} 文件大小 {}", scriptFilePath, scriptFile.length());
+
+        // 将原有的H2数据库文件中其他应用的表导出为压缩的sql脚本
+        String foreignScriptFilePath = JACGFileUtil.getCanonicalPath(h2DbFilePath + JACGConstants.H2_FOREIGN_SCRIPT_FILE_SUFFIX +
+                JACGConstants.H2_SCRIPT_FILE_EXT);
+        if (foreignScriptFilePath == null) {
+            return false;
+        }
+        File foreignScriptFile = new File(foreignScriptFilePath);
+        if (foreignScriptFile.exists() && !foreignScriptFile.delete()) {
+            logger.error("删除其他应用的表导出的sql脚本文件失败 {}", foreignScriptFilePath);
+            return false;
+        }
+        String foreignScriptFilePathInSql = foreignScriptFilePath.replace("\\", "/").replace("'", "''");
+        Boolean foreignTableExists = exportForeignTables(foreignScriptFilePathInSql);
+        if (foreignTableExists == null) {
+            return false;
+        }
+
+        // 删除上一次执行失败时残留的临时H2数据库文件
+        String tmpH2DbFilePath = h2DbFilePath + JACGConstants.H2_TMP_DB_FILE_SUFFIX;
+        File tmpH2DbFile = new File(tmpH2DbFilePath + JACGConstants.H2_FILE_EXT);
+        if (tmpH2DbFile.exists() && !tmpH2DbFile.delete()) {
+            logger.error("删除临时H2数据库文件失败，请检查文件是否被占用 {}", JACGFileUtil.getCanonicalPath(tmpH2DbFile));
+            return false;
+        }
+
+        // 根据sql脚本在临时路径生成H2数据库文件
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(tmpH2DbFilePath), "", "");
+             Statement statement = connection.createStatement()) {
+            if (foreignTableExists) {
+                statement.execute("RUNSCRIPT FROM '" + foreignScriptFilePathInSql + "' " + H2_SCRIPT_COMPRESSION);
+            }
+            statement.execute("RUNSCRIPT FROM '" + scriptFilePathInSql + "' " + H2_SCRIPT_COMPRESSION);
+            statement.execute("SHUTDOWN COMPACT");
+        } catch (Exception e) {
+            logger.error("根据sql脚本生成H2数据库文件失败，原有的H2数据库文件及sql脚本文件保留 {} ", scriptFilePath, e);
+            return false;
+        }
+
+        // 使用生成的H2数据库文件替换原有的H2数据库文件
+        File h2DbFile = getH2DbFile();
+        if (!replaceFile(tmpH2DbFile, h2DbFile)) {
+            return false;
+        }
+        deleteTraceFile(tmpH2DbFilePath);
+        deleteTraceFile(h2DbFilePath);
+
+        if (!scriptFile.delete()) {
+            logger.warn("删除H2内存数据库导出的sql脚本文件失败 {}", scriptFilePath);
+        }
+        if (foreignTableExists && !foreignScriptFile.delete()) {
+            logger.warn("删除其他应用的表导出的sql脚本文件失败 {}", foreignScriptFilePath);
+        }
+        logger.info("H2内存数据库保存到H2数据库文件 {} 文件大小 {} 耗时 {} 毫秒", JACGFileUtil.getCanonicalPath(h2DbFile), h2DbFile.length(),
+                System.currentTimeMillis() - startTime);
+        return true;
+    }
+
+    /**
+     * 关闭H2内存数据库，释放占用的内存
+     */
+    public void shutdownMemDb() {
+        if (dbOperator.isClosed()) {
+            return;
+        }
+        if (dbOperator.executeDDLSql("SHUTDOWN")) {
+            logger.info("H2内存数据库已关闭");
+        }
+    }
+
+    /**
+     * 将原有的H2数据库文件中其他应用的表导出为压缩的sql脚本
+     *
+     * @param foreignScriptFilePathInSql sql脚本文件路径，已处理为可以在sql语句中使用的格式
+     * @return null: 导出失败，true: 存在其他应用的表且已导出，false: 不存在其他应用的表
+     */
+    private Boolean exportForeignTables(String foreignScriptFilePathInSql) {
+        if (!getH2DbFile().exists()) {
+            return Boolean.FALSE;
+        }
+
+        // 当前应用的表名
+        Set<String> currentTableNameSet = new HashSet<>();
+        for (DbTableInfoEnum dbTableInfoEnum : DbTableInfoEnum.values()) {
+            if (DbTableInfoEnum.DTIE_ILLEGAL != dbTableInfoEnum) {
+                currentTableNameSet.add(JACGSqlUtil.replaceAppNameInSql(dbTableInfoEnum.getTableName(), dbOperator.getAppName()).toLowerCase(Locale.ROOT));
+            }
+        }
+
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(h2DbFilePath), "", "")) {
+            List<String> foreignTableNameList = new ArrayList<>();
+            try (PreparedStatement preparedStatement = connection.prepareStatement("select table_name from information_schema.tables where table_schema = ? " +
+                    "and table_type = 'BASE TABLE' order by table_name")) {
+                preparedStatement.setString(1, JACGConstants.H2_SCHEMA);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        String tableName = resultSet.getString(1);
+                        if (!currentTableNameSet.contains(tableName.toLowerCase(Locale.ROOT))) {
+                            foreignTableNameList.add(tableName);
+                        }
+                    }
+                }
+            }
+            if (foreignTableNameList.isEmpty()) {
+                return Boolean.FALSE;
+            }
+
+            List<String> quotedTableNameList = new ArrayList<>(foreignTableNameList.size());
+            for (String foreignTableName : foreignTableNameList) {
+                quotedTableNameList.add(quoteIdentifier(JACGConstants.H2_SCHEMA) + "." + quoteIdentifier(foreignTableName));
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SCRIPT NOPASSWORDS NOSETTINGS TO '" + foreignScriptFilePathInSql + "' " + H2_SCRIPT_COMPRESSION + " TABLE " +
+                        StringUtils.join(quotedTableNameList, ", "));
+            }
+            logger.info("H2数据库文件中其他应用的表导出为sql脚本 {} {}", foreignScriptFilePathInSql, StringUtils.join(foreignTableNameList, " "));
+            return Boolean.TRUE;
+        } catch (Exception e) {
+            logger.error("导出H2数据库文件中其他应用的表失败，不保存到H2数据库文件，避免其他应用的表丢失 ", e);
+            return null;
+        }
+    }
+
+    // 为sql语句中的标识符加上双引号
+    private String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    // 查询H2数据库文件中的表是否存在
+    private boolean checkTableExists(Connection connection, String tableName) throws SQLException {
+        return queryCount(connection, "select count(*) from information_schema.tables where table_schema = ? and table_name = ?", JACGConstants.H2_SCHEMA,
+                tableName) > 0L;
+    }
+
+    // 查询记录数
+    private long queryCount(Connection connection, String sql, Object... arguments) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < arguments.length; i++) {
+                preparedStatement.setObject(i + 1, arguments[i]);
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0L;
+            }
+        }
+    }
+
+    // 使用临时文件替换目标文件，优先使用原子操作
+    private boolean replaceFile(File tmpFile, File destFile) {
+        try {
+            try {
+                Files.move(tmpFile.toPath(), destFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                logger.warn("当前文件系统不支持原子操作重命名文件，使用非原子操作 {}", JACGFileUtil.getCanonicalPath(destFile));
+                Files.move(tmpFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("替换原有的H2数据库文件失败，请检查文件是否被占用 {} {} ", JACGFileUtil.getCanonicalPath(tmpFile), JACGFileUtil.getCanonicalPath(destFile), e);
+            return false;
+        }
+    }
+
+    // 删除H2数据库日志文件
+    private void deleteTraceFile(String dbFilePath) {
+        File h2TraceFile = new File(dbFilePath + JACGConstants.H2_TRACE_FILE_EXT);
+        if (h2TraceFile.exists() && !h2TraceFile.delete()) {
+            logger.warn("删除H2数据库日志文件失败 {}", JACGFileUtil.getCanonicalPath(h2TraceFile));
+        }
+    }
+
+    // 获取H2数据库文件对象
+    private File getH2DbFile() {
+        return new File(h2DbFilePath + JACGConstants.H2_FILE_EXT);
+    }
+}
@@ -0,0 +1,108 @@
+package com.adrninistrator.jacg.dto.call_graph;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 通过代码遍历调用链时返回的一条方法调用关系
+ */
+public class CallGraphEdge {
+    // 方法调用所在的层级，从1开始，与调用链文件中的层级相同
+    private final int level;
+
+    // 方法调用序号
+    private final int methodCallId;
+
+    // 调用类型
+    private final String callType;
+
+    // 调用方完整方法
+    private final String callerFullMethod;
+
+    // 调用方方法HASH+长度
+    private final String callerMethodHash;
+
+    // 调用方法代码行号
+    private final int callerLineNumber;
+
+    // 被调用方完整方法
+    private final String calleeFullMethod;
+
+    // 被调用方方法HASH+长度
+    private final String calleeMethodHash;
+
+    // 方法调用标记
+    private final int callFlags;
+
+    // 出现循环调用时，循环到的方法所在的层级，从0开始，未出现循环调用时为JACGConstants.NO_CYCLE_CALL_FLAG
+    private final int cycleCallLevel;
+
+    public CallGraphEdge(int level, int methodCallId, String callType, String callerFullMethod, String callerMethodHash, int callerLineNumber, String calleeFullMethod,
+                         String calleeMethodHash, int callFlags, int cycleCallLevel) {
+        this.level = level;
+        this.methodCallId = methodCallId;
+        this.callType = callType;
+        this.callerFullMethod = callerFullMethod;
+        this.callerMethodHash = callerMethodHash;
+        this.callerLineNumber = callerLineNumber;
+        this.calleeFullMethod = calleeFullMethod;
+        this.calleeMethodHash = calleeMethodHash;
+        this.callFlags = callFlags;
+        this.cycleCallLevel = cycleCallLevel;
+    }
+
+    /**
+     * 是否出现了循环调用，出现时不会继续遍历当前方法调用的下一层
+     *
+     * @return
+     */
+    public boolean isCycleCall() {
+        return cycleCallLevel != JACGConstants.NO_CYCLE_CALL_FLAG;
+    }
+
+    @Override
+    public String toString() {
+        return level + " " + callerFullMethod + ":" + callerLineNumber + " " + calleeFullMethod;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getMethodCallId() {
+        return methodCallId;
+    }
+
+    public String getCallType() {
+        return callType;
+    }
+
+    public String getCallerFullMethod() {
+        return callerFullMethod;
+    }
+
+    public String getCallerMethodHash() {
+        return callerMethodHash;
+    }
+
+    public int getCallerLineNumber() {
+        return callerLineNumber;
+    }
+
+    public String getCalleeFullMethod() {
+        return calleeFullMethod;
+    }
+
+    public String getCalleeMethodHash() {
+        return calleeMethodHash;
+    }
+
+    public int getCallFlags() {
+        return callFlags;
+    }
+
+    public int getCycleCallLevel() {
+        return cycleCallLevel;
+    }
+}
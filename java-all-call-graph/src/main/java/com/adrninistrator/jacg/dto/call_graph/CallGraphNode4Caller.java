@@ -19,6 +19,12 @@ public class CallGraphNode4Caller {
     // 当前调用方法的被调用方法数量
     private int callerMethodNum = 0;
 
+    // 当前调用方法在调用链文件中对应的行号
+    private int outputLineNum;
+
+    // 当前调用方法的下层调用链是否依赖更上层的调用方法（出现了到更上层方法的循环调用，或涉及子类方法调用父类方法），依赖时不能被引用
+    private boolean dependOnUpper;
+
     public CallGraphNode4Caller(String callerMethodHash, int methodCallId, String callerFullMethod) {
         this.callerMethodHash = callerMethodHash;
         this.methodCallId = methodCallId;
@@ -52,8 +58,24 @@ public class CallGraphNode4Caller {
         return callerMethodNum;
     }
 
+    public int getOutputLineNum() {
+        return outputLineNum;
+    }
+
+    public boolean isDependOnUpper() {
+        return dependOnUpper;
+    }
+
     // set
     public void setMethodCallId(int methodCallId) {
         this.methodCallId = methodCallId;
     }
+
+    public void setOutputLineNum(int outputLineNum) {
+        this.outputLineNum = outputLineNum;
+    }
+
+    public void setDependOnUpper(boolean dependOnUpper) {
+        this.dependOnUpper = dependOnUpper;
+    }
 }
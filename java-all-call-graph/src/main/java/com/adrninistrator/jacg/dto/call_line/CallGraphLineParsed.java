@@ -1,5 +1,6 @@
 package com.adrninistrator.jacg.dto.call_line;
 
+import com.adrninistrator.jacg.common.JACGConstants;
 import com.adrninistrator.jacg.dto.method.MethodDetail;
 import com.adrninistrator.jacg.handler.dto.business_data.BaseBusinessData;
 
@@ -38,6 +39,18 @@ public class CallGraphLineParsed {
     // 是否在事务中执行
     private boolean runInTransaction;
 
+    // 引用之前出现的子树对应的调用链文件行号
+    private int subtreeRefLineNum = JACGConstants.NO_SUBTREE_REF_FLAG;
+
+    // 方法调用ID，仅从二进制格式的调用链文件读取，或直接通过数据库中的方法调用关系查找时有值
+    private int callId;
+
+    // 调用者代码行号，仅从二进制格式的调用链文件读取，或直接通过数据库中的方法调用关系查找时有值
+    private int callerLineNumber;
+
+    // 调用者简单类名，仅从二进制格式的调用链文件读取时有值
+    private String callerSimpleClassName;
+
     public int getMethodLevel() {
         return methodLevel;
     }
@@ -109,4 +122,36 @@ public class CallGraphLineParsed {
     public void setRunInTransaction(boolean runInTransaction) {
         this.runInTransaction = runInTransaction;
     }
+
+    public int getSubtreeRefLineNum() {
+        return subtreeRefLineNum;
+    }
+
+    public void setSubtreeRefLineNum(int subtreeRefLineNum) {
+        this.subtreeRefLineNum = subtreeRefLineNum;
+    }
+
+    public int getCallId() {
+        return callId;
+    }
+
+    public void setCallId(int callId) {
+        this.callId = callId;
+    }
+
+    public int getCallerLineNumber() {
+        return callerLineNumber;
+    }
+
+    public void setCallerLineNumber(int callerLineNumber) {
+        this.callerLineNumber = callerLineNumber;
+    }
+
+    public String getCallerSimpleClassName() {
+        return callerSimpleClassName;
+    }
+
+    public void setCallerSimpleClassName(String callerSimpleClassName) {
+        this.callerSimpleClassName = callerSimpleClassName;
+    }
 }
@@ -15,10 +15,14 @@ public class FileContentNode {
     // 文件行内容
     private final String fileLineContent;
 
-    public FileContentNode(FileContentNode parentNode, int methodLevel, String fileLineContent) {
+    // 文件行号，展开引用的子树时生成的节点为0
+    private final int lineNum;
+
+    public FileContentNode(FileContentNode parentNode, int methodLevel, String fileLineContent, int lineNum) {
         this.parentNode = parentNode;
         this.methodLevel = methodLevel;
         this.fileLineContent = fileLineContent;
+        this.lineNum = lineNum;
     }
 
     //
@@ -33,4 +37,8 @@ public class FileContentNode {
     public String getFileLineContent() {
         return fileLineContent;
     }
+
+    public int getLineNum() {
+        return lineNum;
+    }
 }
@@ -0,0 +1,51 @@
+package com.adrninistrator.jacg.dto.keyword;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 搜索方法完整调用链文件时，处理一个文件使用的状态信息，每个文件单独使用，使多个文件可以并行处理
+ */
+public class FileContentState {
+    // 读取文件内容时，上一行的节点
+    private FileContentNode lastNode;
+
+    // 记录每个方法级别最后处理的文件内容节点
+    private final List<FileContentNode> fileContentNodeList = new ArrayList<>(20);
+
+    // 读取文件内容时，记录各节点的下层调用链中包含关键字的节点，key: 节点对应的文件行号，value: 包含关键字的节点列表，不需要展开引用的子树时为null
+    private final Map<Integer, List<FileContentNode>> subtreeMatchedNodeMap;
+
+    public FileContentState(boolean expandSubtreeRef) {
+        subtreeMatchedNodeMap = expandSubtreeRef ? new HashMap<>() : null;
+    }
+
+    // 清空上次处理的数据
+    public void clear() {
+        lastNode = null;
+        fileContentNodeList.clear();
+        if (subtreeMatchedNodeMap != null) {
+            subtreeMatchedNodeMap.clear();
+        }
+    }
+
+    public FileContentNode getLastNode() {
+        return lastNode;
+    }
+
+    public void setLastNode(FileContentNode lastNode) {
+        this.lastNode = lastNode;
+    }
+
+    public List<FileContentNode> getFileContentNodeList() {
+        return fileContentNodeList;
+    }
+
+    public Map<Integer, List<FileContentNode>> getSubtreeMatchedNodeMap() {
+        return subtreeMatchedNodeMap;
+    }
+}
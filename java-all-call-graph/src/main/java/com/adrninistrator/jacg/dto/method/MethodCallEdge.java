@@ -0,0 +1,43 @@
+package com.adrninistrator.jacg.dto.method;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 常驻分析进程在内存中查询到的一条方法调用关系
+ */
+public class MethodCallEdge {
+    // 调用关系所在的层级，从1开始
+    private final int level;
+
+    // 调用方完整方法
+    private final String callerFullMethod;
+
+    // 调用方法代码行号
+    private final int callerLineNumber;
+
+    // 被调用方完整方法
+    private final String calleeFullMethod;
+
+    public MethodCallEdge(int level, String callerFullMethod, int callerLineNumber, String calleeFullMethod) {
+        this.level = level;
+        this.callerFullMethod = callerFullMethod;
+        this.callerLineNumber = callerLineNumber;
+        this.calleeFullMethod = calleeFullMethod;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getCallerFullMethod() {
+        return callerFullMethod;
+    }
+
+    public int getCallerLineNumber() {
+        return callerLineNumber;
+    }
+
+    public String getCalleeFullMethod() {
+        return calleeFullMethod;
+    }
+}
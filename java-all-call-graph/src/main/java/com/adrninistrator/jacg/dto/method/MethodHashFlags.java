@@ -0,0 +1,59 @@
+package com.adrninistrator.jacg.dto.method;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/27
+ * @description: 写入数据库时记录各方法HASH+长度对应的标记，用于生成方法调用标记
+ * 每个方法HASH+长度只记录一次，各标记按位组合，生成方法调用标记时调用方与被调用方各只需要查询一次
+ */
+public class MethodHashFlags {
+    // 方法为Spring Controller
+    public static final int FLAG_SPRING_CONTROLLER = 1;
+
+    // 方法有注解
+    public static final int FLAG_WITH_ANNOTATION = 1 << 1;
+
+    // 方法参数存在泛型类型
+    public static final int FLAG_WITH_GENERICS_TYPE = 1 << 2;
+
+    /*
+        key: 方法HASH+长度
+        value: 方法对应的标记
+     */
+    private final Map<String, Integer> flagsMap = new HashMap<>();
+
+    /**
+     * 为指定方法增加标记
+     *
+     * @param methodHash 方法HASH+长度
+     * @param flag       需要增加的标记
+     */
+    public void addFlag(String methodHash, int flag) {
+        flagsMap.merge(methodHash, flag, (oldFlags, newFlag) -> oldFlags | newFlag);
+    }
+
+    /**
+     * 获取指定方法的标记
+     *
+     * @param methodHash 方法HASH+长度
+     * @return 不存在时返回0
+     */
+    public int getFlags(String methodHash) {
+        Integer flags = flagsMap.get(methodHash);
+        return flags == null ? 0 : flags;
+    }
+
+    /**
+     * 判断标记中是否包含指定的标记
+     *
+     * @param flags 方法对应的标记
+     * @param flag  需要判断的标记
+     * @return
+     */
+    public static boolean checkFlag(int flags, int flag) {
+        return (flags & flag) != 0;
+    }
+}
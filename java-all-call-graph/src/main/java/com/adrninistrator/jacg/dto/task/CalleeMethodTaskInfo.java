@@ -0,0 +1,59 @@
+package com.adrninistrator.jacg.dto.task;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/25
+ * @description: 生成向上的方法调用链时，需要按预估开销排序后再执行的一个被调用方法的任务信息
+ */
+public class CalleeMethodTaskInfo {
+    // 被调用类的唯一类名
+    private final String calleeSimpleClassName;
+
+    // 被调用方法HASH+长度
+    private final String calleeMethodHash;
+
+    // 被调用完整方法
+    private final String calleeFullMethod;
+
+    // 方法调用的标志
+    private final int callFlags;
+
+    // 配置文件中指定的任务原始文本，可能为null
+    private final String origTaskText;
+
+    // 预估开销
+    private final long estCost;
+
+    public CalleeMethodTaskInfo(String calleeSimpleClassName, String calleeMethodHash, String calleeFullMethod, int callFlags, String origTaskText, long estCost) {
+        this.calleeSimpleClassName = calleeSimpleClassName;
+        this.calleeMethodHash = calleeMethodHash;
+        this.calleeFullMethod = calleeFullMethod;
+        this.callFlags = callFlags;
+        this.origTaskText = origTaskText;
+        this.estCost = estCost;
+    }
+
+    public String getCalleeSimpleClassName() {
+        return calleeSimpleClassName;
+    }
+
+    public String getCalleeMethodHash() {
+        return calleeMethodHash;
+    }
+
+    public String getCalleeFullMethod() {
+        return calleeFullMethod;
+    }
+
+    public int getCallFlags() {
+        return callFlags;
+    }
+
+    public String getOrigTaskText() {
+        return origTaskText;
+    }
+
+    public long getEstCost() {
+        return estCost;
+    }
+}
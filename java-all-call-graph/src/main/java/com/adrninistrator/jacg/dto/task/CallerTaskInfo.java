@@ -27,6 +27,9 @@ public class CallerTaskInfo {
     // 当前任务需要保存的目录
     private String saveDirPath;
 
+    // 当前任务的预估开销，小于0代表未预估
+    private long estCost = -1L;
+
     public String getOrigText() {
         return origText;
     }
@@ -82,4 +85,12 @@ public class CallerTaskInfo {
     public void setSaveDirPath(String saveDirPath) {
         this.saveDirPath = saveDirPath;
     }
+
+    public long getEstCost() {
+        return estCost;
+    }
+
+    public void setEstCost(long estCost) {
+        this.estCost = estCost;
+    }
 }
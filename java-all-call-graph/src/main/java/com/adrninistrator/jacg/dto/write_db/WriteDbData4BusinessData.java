@@ -0,0 +1,45 @@
+package com.adrninistrator.jacg.dto.write_db;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 用于写入数据库的数据，方法调用业务功能数据
+ */
+public class WriteDbData4BusinessData extends AbstractWriteDbData {
+    private int callId;
+    private String dataType;
+    private String dataValue;
+
+    public WriteDbData4BusinessData() {
+    }
+
+    public WriteDbData4BusinessData(int callId, String dataType, String dataValue) {
+        this.callId = callId;
+        this.dataType = dataType;
+        this.dataValue = dataValue;
+    }
+
+    public int getCallId() {
+        return callId;
+    }
+
+    public void setCallId(int callId) {
+        this.callId = callId;
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public void setDataType(String dataType) {
+        this.dataType = dataType;
+    }
+
+    public String getDataValue() {
+        return dataValue;
+    }
+
+    public void setDataValue(String dataValue) {
+        this.dataValue = dataValue;
+    }
+}
@@ -0,0 +1,55 @@
+package com.adrninistrator.jacg.dto.write_db;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 用于写入数据库的数据，方法字节码HASH
+ */
+public class WriteDbData4MethodCodeHash extends AbstractWriteDbData {
+    private String methodHash;
+    private String simpleClassName;
+    private String codeHash;
+    private String fullMethod;
+
+    public WriteDbData4MethodCodeHash() {
+    }
+
+    public WriteDbData4MethodCodeHash(String methodHash, String simpleClassName, String codeHash, String fullMethod) {
+        this.methodHash = methodHash;
+        this.simpleClassName = simpleClassName;
+        this.codeHash = codeHash;
+        this.fullMethod = fullMethod;
+    }
+
+    public String getMethodHash() {
+        return methodHash;
+    }
+
+    public void setMethodHash(String methodHash) {
+        this.methodHash = methodHash;
+    }
+
+    public String getSimpleClassName() {
+        return simpleClassName;
+    }
+
+    public void setSimpleClassName(String simpleClassName) {
+        this.simpleClassName = simpleClassName;
+    }
+
+    public String getCodeHash() {
+        return codeHash;
+    }
+
+    public void setCodeHash(String codeHash) {
+        this.codeHash = codeHash;
+    }
+
+    public String getFullMethod() {
+        return fullMethod;
+    }
+
+    public void setFullMethod(String fullMethod) {
+        this.fullMethod = fullMethod;
+    }
+}
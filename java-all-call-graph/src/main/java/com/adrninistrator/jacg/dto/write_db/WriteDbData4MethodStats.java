@@ -0,0 +1,109 @@
+package com.adrninistrator.jacg.dto.write_db;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/25
+ * @description: 用于写入数据库的数据，方法调用统计信息
+ */
+public class WriteDbData4MethodStats extends AbstractWriteDbData {
+    private String methodHash;
+    private String simpleClassName;
+    private String methodName;
+    private int outDegree;
+    private int inDegree;
+    private long estCalleeNum;
+    private long estCallerNum;
+    private int callerClassNum;
+    private int callerJarSpread;
+    private String fullMethod;
+
+    public WriteDbData4MethodStats() {
+    }
+
+    public WriteDbData4MethodStats(String methodHash, String simpleClassName, String methodName, String fullMethod) {
+        this.methodHash = methodHash;
+        this.simpleClassName = simpleClassName;
+        this.methodName = methodName;
+        this.fullMethod = fullMethod;
+    }
+
+    public String getMethodHash() {
+        return methodHash;
+    }
+
+    public void setMethodHash(String methodHash) {
+        this.methodHash = methodHash;
+    }
+
+    public String getSimpleClassName() {
+        return simpleClassName;
+    }
+
+    public void setSimpleClassName(String simpleClassName) {
+        this.simpleClassName = simpleClassName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public int getOutDegree() {
+        return outDegree;
+    }
+
+    public void setOutDegree(int outDegree) {
+        this.outDegree = outDegree;
+    }
+
+    public int getInDegree() {
+        return inDegree;
+    }
+
+    public void setInDegree(int inDegree) {
+        this.inDegree = inDegree;
+    }
+
+    public long getEstCalleeNum() {
+        return estCalleeNum;
+    }
+
+    public void setEstCalleeNum(long estCalleeNum) {
+        this.estCalleeNum = estCalleeNum;
+    }
+
+    public long getEstCallerNum() {
+        return estCallerNum;
+    }
+
+    public void setEstCallerNum(long estCallerNum) {
+        this.estCallerNum = estCallerNum;
+    }
+
+    public int getCallerClassNum() {
+        return callerClassNum;
+    }
+
+    public void setCallerClassNum(int callerClassNum) {
+        this.callerClassNum = callerClassNum;
+    }
+
+    public int getCallerJarSpread() {
+        return callerJarSpread;
+    }
+
+    public void setCallerJarSpread(int callerJarSpread) {
+        this.callerJarSpread = callerJarSpread;
+    }
+
+    public String getFullMethod() {
+        return fullMethod;
+    }
+
+    public void setFullMethod(String fullMethod) {
+        this.fullMethod = fullMethod;
+    }
+}
@@ -0,0 +1,65 @@
+package com.adrninistrator.jacg.dto.write_db;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 用于写入数据库的数据，写数据库检查点
+ */
+public class WriteDbData4WriteDbCheckpoint extends AbstractWriteDbData {
+    private String checkpointName;
+    private String checkpointType;
+    private String inputHash;
+    private int recordNum;
+    private int done;
+
+    public WriteDbData4WriteDbCheckpoint() {
+    }
+
+    public WriteDbData4WriteDbCheckpoint(String checkpointName, String checkpointType, String inputHash, int recordNum, int done) {
+        this.checkpointName = checkpointName;
+        this.checkpointType = checkpointType;
+        this.inputHash = inputHash;
+        this.recordNum = recordNum;
+        this.done = done;
+    }
+
+    public String getCheckpointName() {
+        return checkpointName;
+    }
+
+    public void setCheckpointName(String checkpointName) {
+        this.checkpointName = checkpointName;
+    }
+
+    public String getCheckpointType() {
+        return checkpointType;
+    }
+
+    public void setCheckpointType(String checkpointType) {
+        this.checkpointType = checkpointType;
+    }
+
+    public String getInputHash() {
+        return inputHash;
+    }
+
+    public void setInputHash(String inputHash) {
+        this.inputHash = inputHash;
+    }
+
+    public int getRecordNum() {
+        return recordNum;
+    }
+
+    public void setRecordNum(int recordNum) {
+        this.recordNum = recordNum;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public void setDone(int done) {
+        this.done = done;
+    }
+}
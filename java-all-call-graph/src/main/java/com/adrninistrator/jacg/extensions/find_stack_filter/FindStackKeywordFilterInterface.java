@@ -6,6 +6,7 @@ import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
  * @author adrninistrator
  * @date 2021/11/5
  * @description: 对方法完整调用链文件搜索关键字时使用的过滤器扩展类接口
+ * 多个调用链文件会被并行处理，同一个过滤器扩展类对象会被多个线程同时调用，实现类需要保证线程安全
  */
 public interface FindStackKeywordFilterInterface {
 
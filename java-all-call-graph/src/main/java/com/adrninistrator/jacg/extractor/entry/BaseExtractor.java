@@ -11,7 +11,7 @@ import com.adrninistrator.jacg.find_stack.FindCallStackTrace;
 import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
 import com.adrninistrator.jacg.util.JACGFileUtil;
-import com.adrninistrator.javacg.util.JavaCGFileUtil;
+import com.adrninistrator.jacg.util.JACGUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -118,6 +118,21 @@ public abstract class BaseExtractor {
         fillExtractedFileInfo(stackFilePath, callGraphExtractedFile, false);
     }
 
+    /**
+     * 根据完整方法处理结果信息，用于不生成调用堆栈文件，直接通过数据库中的方法调用关系查找的情况
+     *
+     * @param fullMethod             完整方法
+     * @param callGraphExtractedFile
+     */
+    protected void fillExtractedFileInfoByMethod(String fullMethod, AbstractCallGraphExtractedFile callGraphExtractedFile) {
+        String className = JACGClassMethodUtil.getClassNameFromMethod(fullMethod);
+        callGraphExtractedFile.setSimpleClassName(dbOperWrapper.getSimpleClassName(className));
+        callGraphExtractedFile.setClassName(className);
+        callGraphExtractedFile.setMethodName(JACGClassMethodUtil.getMethodNameFromFull(fullMethod));
+        callGraphExtractedFile.setMethodHash(JACGUtil.genHashWithLen(fullMethod));
+        callGraphExtractedFile.setFullMethod(fullMethod);
+    }
+
     // 处理调用堆栈结果文件信息
     private void fillExtractedFileInfo(String stackFilePath, AbstractCallGraphExtractedFile callGraphExtractedFile, boolean order4ee) {
         callGraphExtractedFile.setStackFilePath(stackFilePath);
@@ -195,7 +210,7 @@ public abstract class BaseExtractor {
         // 是否在事务中执行
         boolean runInTransaction = false;
 
-        try (BufferedReader br = JavaCGFileUtil.genBufferedReader(stackFilePath)) {
+        try (BufferedReader br = JACGFileUtil.genBufferedReader(stackFilePath)) {
             while ((line = br.readLine()) != null) {
                 lineNumber++;
 
@@ -21,6 +21,7 @@ import com.adrninistrator.jacg.extractor.entry.CallerGraphBaseExtractor;
 import com.adrninistrator.jacg.handler.annotation.AnnotationHandler;
 import com.adrninistrator.jacg.handler.extends_impl.JACGExtendsImplHandler;
 import com.adrninistrator.jacg.handler.lambda.LambdaMethodHandlerByClassMethodName;
+import com.adrninistrator.jacg.handler.spring.SpringTxGraphHandler;
 import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
 import com.adrninistrator.javacg.util.JavaCGUtil;
 import org.apache.commons.lang3.StringUtils;
@@ -30,7 +31,9 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.function.BiPredicate;
 
 /**
  * @author adrninistrator
@@ -40,6 +43,25 @@ import java.util.List;
 public abstract class AbstractSpringTxExtractor extends CallerGraphBaseExtractor {
     private static final Logger logger = LoggerFactory.getLogger(AbstractSpringTxExtractor.class);
 
+    // 是否直接通过数据库中的方法调用关系查找，为false时生成方法完整调用链文件及调用堆栈文件后查找
+    protected boolean extractByGraph = false;
+
+    /**
+     * 直接通过数据库中的方法调用关系查找时，生成判断被调用方法是否满足条件的对象
+     *
+     * @param configureWrapper
+     * @param springTxGraphHandler
+     * @return null: 生成失败
+     */
+    protected abstract BiPredicate<MethodDetail, String> genGraphCalleeFilter(ConfigureWrapper configureWrapper, SpringTxGraphHandler springTxGraphHandler);
+
+    /**
+     * 直接通过数据库中的方法调用关系查找时，是否判断入口方法是否满足条件
+     *
+     * @return
+     */
+    protected abstract boolean checkGraphEntry();
+
     /**
      * 提取使用@Transactional注解的方法相关信息
      *
@@ -55,6 +77,11 @@ public abstract class AbstractSpringTxExtractor extends CallerGraphBaseExtractor
         }
 
         logger.info("找到@Transactional注解对应的方法\n{}", StringUtils.join(springTransactionalMethodList, "\n"));
+        if (extractByGraph) {
+            // 直接通过数据库中的方法调用关系查找
+            return graphExtract(configureWrapper, springTransactionalMethodList);
+        }
+
         // 设置入口方法
         configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_METHOD_CLASS_4CALLER, new HashSet<>(springTransactionalMethodList));
 
@@ -85,6 +112,11 @@ public abstract class AbstractSpringTxExtractor extends CallerGraphBaseExtractor
         }
 
         logger.info("找到TransactionTemplate对应的方法\n{}", StringUtils.join(txTplEntryMethodList, "\n"));
+        if (extractByGraph) {
+            // 直接通过数据库中的方法调用关系查找
+            return graphExtract(configureWrapper, txTplEntryMethodList);
+        }
+
         // 设置入口方法
         configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_METHOD_CLASS_4CALLER, new HashSet<>(txTplEntryMethodList));
 
@@ -98,6 +130,38 @@ public abstract class AbstractSpringTxExtractor extends CallerGraphBaseExtractor
         return callerExtractedFileList;
     }
 
+    /**
+     * 直接通过数据库中的方法调用关系，查找入口方法向下调用的满足条件的方法，不生成方法完整调用链文件及调用堆栈文件
+     * 与根据调用堆栈文件查找时相同，未查找到满足条件的方法的入口方法不返回，遍历方法调用时使用与生成方法完整调用链文件时相同的配置
+     *
+     * @param configureWrapper
+     * @param entryFullMethodList 入口方法列表
+     * @return
+     */
+    protected List<CallerExtractedFile> graphExtract(ConfigureWrapper configureWrapper, List<String> entryFullMethodList) {
+        try (SpringTxGraphHandler springTxGraphHandler = new SpringTxGraphHandler(dbOperWrapper, configureWrapper)) {
+            BiPredicate<MethodDetail, String> calleeFilter = genGraphCalleeFilter(configureWrapper, springTxGraphHandler);
+            if (calleeFilter == null) {
+                return Collections.emptyList();
+            }
+
+            List<CallerExtractedFile> callerExtractedFileList = new ArrayList<>();
+            // 入口方法去重
+            for (String entryFullMethod : new LinkedHashSet<>(entryFullMethodList)) {
+                List<CallerExtractedLine> callerExtractedLineList = springTxGraphHandler.findCalleeInGraph(entryFullMethod, checkGraphEntry(), calleeFilter);
+                if (callerExtractedLineList.isEmpty()) {
+                    continue;
+                }
+
+                CallerExtractedFile callerExtractedFile = new CallerExtractedFile(callerExtractedLineList);
+                fillExtractedFileInfoByMethod(entryFullMethod, callerExtractedFile);
+                callerExtractedFileList.add(callerExtractedFile);
+            }
+            logger.info("通过数据库中的方法调用关系找到满足条件的入口方法 {}", callerExtractedFileList.size());
+            return callerExtractedFileList;
+        }
+    }
+
     protected void queryTxTplEntryMethodInfo(ConfigureWrapper configureWrapper, List<SpTxEntryMethodTxTpl> spTxEntryMethodTxTplList, List<String> txTplEntryMethodList) {
         // 查询TransactionTemplate使用匿名内部类的方法
         try (JACGExtendsImplHandler jacgExtendsImplHandler = new JACGExtendsImplHandler(configureWrapper)) {
@@ -2,9 +2,11 @@ package com.adrninistrator.jacg.extractor.entry.spring;
 
 import com.adrninistrator.jacg.common.JACGConstants;
 import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
 import com.adrninistrator.jacg.comparator.Comparator4AbstractCallGraphExtractedFile;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.jacg.dto.info_with_hash.AbstractInfoWithMethodHash;
+import com.adrninistrator.jacg.dto.method.MethodDetail;
 import com.adrninistrator.jacg.extractor.dto.common.extract.BaseCalleeExtractedMethod;
 import com.adrninistrator.jacg.extractor.dto.common.extract_file.AbstractCallGraphExtractedFile;
 import com.adrninistrator.jacg.extractor.dto.common.extract_file.CallerExtractedFile;
@@ -13,13 +15,20 @@ import com.adrninistrator.jacg.extractor.dto.spring_tx.entry_method.SpTxEntryMet
 import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_combined.SpTxCallCombined;
 import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxCallByAnnotationFile;
 import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxCallByTplFile;
+import com.adrninistrator.jacg.find_stack.MultiKeywordMatcher;
 import com.adrninistrator.jacg.handler.annotation.AnnotationHandler;
+import com.adrninistrator.jacg.handler.spring.SpringTxGraphHandler;
+import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.util.JavaCGUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiPredicate;
 
 /**
  * @author adrninistrator
@@ -27,6 +36,7 @@ import java.util.Map;
  * @description: 对调用链结果文件进行数据提取，查找Spring事务发起的指定操作（例如查找事务中发起RPC调用等耗时操作的情况）
  */
 public class SpringTxCallExtractor extends AbstractSpringTxExtractor {
+    private static final Logger logger = LoggerFactory.getLogger(SpringTxCallExtractor.class);
 
     /**
      * 查找Spring事务嵌套的调用情况，使用配置文件中的参数
@@ -79,6 +89,60 @@ public class SpringTxCallExtractor extends AbstractSpringTxExtractor {
         }
     }
 
+    /**
+     * 查找Spring事务发起的指定操作，直接通过数据库中的方法调用关系查找，不生成方法完整调用链文件及调用堆栈文件，使用配置文件中的参数
+     *
+     * @return
+     */
+    public SpTxCallCombined extractByGraph() {
+        return extractByGraph(new ConfigureWrapper(false));
+    }
+
+    /**
+     * 查找Spring事务发起的指定操作，直接通过数据库中的方法调用关系查找，不生成方法完整调用链文件及调用堆栈文件，使用代码指定的参数
+     * 使用配置文件中的关键字，与被调用的完整方法进行匹配（根据调用堆栈文件查找时与调用链文件的整行内容进行匹配，因此关键字需要对应方法，不能对应注解等其他内容）
+     *
+     * @param configureWrapper
+     * @return
+     */
+    public SpTxCallCombined extractByGraph(ConfigureWrapper configureWrapper) {
+        extractByGraph = true;
+        try {
+            return extract(configureWrapper);
+        } finally {
+            extractByGraph = false;
+        }
+    }
+
+    @Override
+    protected BiPredicate<MethodDetail, String> genGraphCalleeFilter(ConfigureWrapper configureWrapper, SpringTxGraphHandler springTxGraphHandler) {
+        List<String> configKeywordList = configureWrapper.getOtherConfigList(OtherConfigFileUseListEnum.OCFULE_FIND_STACK_KEYWORD_4ER, true);
+        List<String> usedKeywordList = new ArrayList<>(configKeywordList.size());
+        for (String configKeyword : configKeywordList) {
+            if (StringUtils.isBlank(configKeyword) ||
+                    StringUtils.startsWith(configKeyword, JavaCGConstants.FLAG_HASHTAG) ||
+                    usedKeywordList.contains(configKeyword)) {
+                // 配置文件中被注释的行不处理，避免重复添加
+                continue;
+            }
+            usedKeywordList.add(configKeyword);
+        }
+
+        if (usedKeywordList.isEmpty()) {
+            logger.error("请在配置文件中指定需要查找的被调用方法的合法关键字 {}", OtherConfigFileUseListEnum.OCFULE_FIND_STACK_KEYWORD_4ER.getKey());
+            return null;
+        }
+
+        MultiKeywordMatcher multiKeywordMatcher = new MultiKeywordMatcher(usedKeywordList);
+        return (calleeMethodDetail, calleeMethodHash) -> multiKeywordMatcher.match(calleeMethodDetail.getFullMethod());
+    }
+
+    @Override
+    protected boolean checkGraphEntry() {
+        // 根据调用堆栈文件查找时，调用链文件第0层的入口方法也会使用关键字进行匹配
+        return true;
+    }
+
     /**
      * 处理事务注解
      *
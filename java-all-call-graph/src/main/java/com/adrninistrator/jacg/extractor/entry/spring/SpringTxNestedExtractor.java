@@ -5,6 +5,7 @@ import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.jacg.dto.info_with_hash.AbstractInfoWithMethodHash;
+import com.adrninistrator.jacg.dto.method.MethodDetail;
 import com.adrninistrator.jacg.extensions.find_stack_filter.SpringTxMethodCallFilter;
 import com.adrninistrator.jacg.extractor.dto.common.extract_file.AbstractCallGraphExtractedFile;
 import com.adrninistrator.jacg.extractor.dto.common.extract_file.CallerExtractedFile;
@@ -15,12 +16,14 @@ import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_combined.SpTxNest
 import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxNestedByAnnotationFile;
 import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxNestedByTplFile;
 import com.adrninistrator.jacg.handler.annotation.AnnotationHandler;
+import com.adrninistrator.jacg.handler.spring.SpringTxGraphHandler;
 import com.adrninistrator.javacg.util.JavaCGUtil;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiPredicate;
 
 /**
  * @author adrninistrator
@@ -79,6 +82,43 @@ public class SpringTxNestedExtractor extends AbstractSpringTxExtractor {
         }
     }
 
+    /**
+     * 查找Spring事务嵌套的调用情况，直接通过数据库中的方法调用关系查找，不生成方法完整调用链文件及调用堆栈文件，使用配置文件中的参数
+     *
+     * @return
+     */
+    public SpTxNestedCombined extractByGraph() {
+        return extractByGraph(new ConfigureWrapper(false));
+    }
+
+    /**
+     * 查找Spring事务嵌套的调用情况，直接通过数据库中的方法调用关系查找，不生成方法完整调用链文件及调用堆栈文件，使用代码指定的参数
+     *
+     * @param configureWrapper
+     * @return
+     */
+    public SpTxNestedCombined extractByGraph(ConfigureWrapper configureWrapper) {
+        extractByGraph = true;
+        try {
+            return extract(configureWrapper);
+        } finally {
+            extractByGraph = false;
+        }
+    }
+
+    @Override
+    protected BiPredicate<MethodDetail, String> genGraphCalleeFilter(ConfigureWrapper configureWrapper, SpringTxGraphHandler springTxGraphHandler) {
+        // 被调用方法为TransactionTemplate.execute()，或使用了@Transactional注解
+        return (calleeMethodDetail, calleeMethodHash) -> SpringTxGraphHandler.checkTxTplExecute(calleeMethodDetail) ||
+                springTxGraphHandler.checkTxAnnotationMethod(calleeMethodHash);
+    }
+
+    @Override
+    protected boolean checkGraphEntry() {
+        // 与SpringTxMethodCallFilter相同，不处理调用链文件第0层的入口方法
+        return false;
+    }
+
     /**
      * 处理事务注解
      *
@@ -1,21 +1,26 @@
 package com.adrninistrator.jacg.find_stack;
 
+import com.adrninistrator.jacg.call_graph_binary.CallGraphBinaryReader;
 import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
 import com.adrninistrator.jacg.dto.keyword.FileContentNode;
+import com.adrninistrator.jacg.dto.keyword.FileContentState;
 import com.adrninistrator.jacg.extensions.find_stack_filter.FindStackKeywordFilterInterface;
 import com.adrninistrator.jacg.markdown.writer.MarkdownWriter;
 import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
 import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
 import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
+import com.adrninistrator.jacg.thread.ThreadFactory4TPE;
 import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
 import com.adrninistrator.jacg.util.JACGFileUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
 import com.adrninistrator.javacg.common.JavaCGConstants;
-import com.adrninistrator.javacg.util.JavaCGFileUtil;
 import com.adrninistrator.javacg.util.JavaCGUtil;
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,9 +30,16 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author adrninistrator
@@ -57,8 +69,14 @@ public class FindCallStackTrace {
     // 根据关键字生成调用堆栈过滤器扩展类列表
     private List<FindStackKeywordFilterInterface> findStackKeywordFilterList;
 
-    // 读取文件内容时，上一行的节点
-    private FileContentNode lastNode;
+    // 使用配置文件中的关键字生成的多关键字匹配对象
+    private MultiKeywordMatcher multiKeywordMatcher;
+
+    // 是否需要展开向下的调用链中引用之前出现的子树
+    private boolean expandSubtreeRef;
+
+    // 并行处理调用链文件的线程数
+    private int threadNum;
 
     // 用于生成方法完整调用链的对象
     private AbstractRunnerGenCallGraph runnerGenCallGraph;
@@ -160,6 +178,19 @@ public class FindCallStackTrace {
             return Collections.emptyList();
         }
 
+        if (usedKeywordList != null) {
+            // 使用关键字生成多关键字匹配对象，处理每行时只需要遍历一次
+            multiKeywordMatcher = new MultiKeywordMatcher(usedKeywordList);
+        }
+
+        if (!order4ee) {
+            // 向下的调用链中可能引用之前出现的子树
+            expandSubtreeRef = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF);
+        }
+
+        // 并行处理调用链文件的线程数，与生成调用链时使用的线程数相同
+        threadNum = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_THREAD_NUM);
+
         // 生成完整方法调用链文件
         boolean success = runnerGenCallGraph.run(configureWrapper);
         callGraphOutputDirPath = runnerGenCallGraph.getCurrentOutputDirPath();
@@ -244,10 +275,16 @@ public class FindCallStackTrace {
         List<String> subFilePathList = new ArrayList<>();
 
         // 从目录中查找需要处理的文件
-        JACGFileUtil.searchDir(finalCallGraphDirPath, subDirPathSet, subFilePathList, JACGConstants.EXT_TXT);
+        // 压缩后的调用链文件也需要处理
+        String[] fileExts = OutputCompressTypeEnum.genFileExtsWithCompress(JACGConstants.EXT_TXT);
+        if (!order4ee) {
+            // 向下的调用链可能生成二进制格式的调用链文件
+            fileExts = ArrayUtils.addAll(fileExts, OutputCompressTypeEnum.genFileExtsWithCompress(JACGConstants.EXT_CALL_GRAPH_BINARY));
+        }
+        JACGFileUtil.searchDir(finalCallGraphDirPath, subDirPathSet, subFilePathList, fileExts);
 
         if (subFilePathList.isEmpty()) {
-            logger.error("{} 目录中未找到后缀为[{}]的文件", finalCallGraphDirPath, JACGConstants.EXT_TXT);
+            logger.error("{} 目录中未找到后缀为{}的文件", finalCallGraphDirPath, StringUtils.join(fileExts, " "));
             return Collections.emptyList();
         }
 
@@ -280,6 +317,7 @@ public class FindCallStackTrace {
             }
         }
 
+        List<File> txtFileList = new ArrayList<>(subFilePathList.size());
         for (String subFilePath : subFilePathList) {
             String subFileName = JACGFileUtil.getFileNameFromPath(subFilePath);
             if (StringUtils.equalsAny(subFileName,
@@ -292,15 +330,72 @@ public class FindCallStackTrace {
                 // 跳过自动生成的非调用链文件
                 continue;
             }
+            txtFileList.add(new File(subFilePath));
+        }
 
-            logger.info("根据调用链文件生成调用堆栈文件: {}", subFilePath);
-            handleOneFile(finalSrcDirPathLength, subFilePath, keywordList, order4ee);
+        // 并行处理调用链文件
+        if (!handleFilesInParallel(finalSrcDirPathLength, txtFileList, keywordList, order4ee)) {
+            return Collections.emptyList();
         }
 
         // 生成结果信息
         return genMdFilePathList(order4ee);
     }
 
+    /**
+     * 并行处理调用链文件，各文件之间不存在依赖
+     * 先处理大的文件，避免最后剩余少量大文件时只有少数线程在执行
+     *
+     * @param srcDirPathLength
+     * @param txtFileList
+     * @param keywordList
+     * @param order4ee
+     * @return false: 处理过程出现异常
+     */
+    private boolean handleFilesInParallel(int srcDirPathLength, List<File> txtFileList, List<String> keywordList, boolean order4ee) {
+        if (txtFileList.isEmpty()) {
+            return true;
+        }
+
+        // 按文件大小从大到小排序，获取文件大小的次数与排序比较的次数相关，需要提前获取
+        Map<File, Long> fileLengthMap = new HashMap<>(txtFileList.size());
+        for (File txtFile : txtFileList) {
+            fileLengthMap.put(txtFile, txtFile.length());
+        }
+        txtFileList.sort(Comparator.comparing(fileLengthMap::get, Comparator.reverseOrder()));
+
+        int usedThreadNum = Math.max(1, Math.min(threadNum, txtFileList.size()));
+        logger.info("并行处理调用链文件，文件数量 {} 线程数 {}", txtFileList.size(), usedThreadNum);
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(usedThreadNum, usedThreadNum, 10L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactory4TPE(JACGConstants.THREAD_NAME_PREFIX_FIND_STACK));
+        try {
+            List<Future<Boolean>> futureList = new ArrayList<>(txtFileList.size());
+            for (File txtFile : txtFileList) {
+                String txtFilePath = txtFile.getPath();
+                futureList.add(threadPoolExecutor.submit(() -> {
+                    logger.info("根据调用链文件生成调用堆栈文件: {}", txtFilePath);
+                    return handleOneFile(srcDirPathLength, txtFilePath, keywordList, order4ee);
+                }));
+            }
+
+            for (int i = 0; i < futureList.size(); i++) {
+                if (!Boolean.TRUE.equals(futureList.get(i).get())) {
+                    logger.error("根据调用链文件生成调用堆栈文件失败 {}", txtFileList.get(i).getPath());
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            logger.error("error ", e);
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            logger.error("error ", e);
+            return false;
+        } finally {
+            threadPoolExecutor.shutdown();
+        }
+    }
+
     // 生成结果信息
     private List<String> genMdFilePathList(boolean order4ee) {
         // 返回生成的结果文件路径列表
@@ -336,29 +431,24 @@ public class FindCallStackTrace {
                                   boolean order4ee) {
         // 获取txt文件去掉所在目录之后的文件名，可能包含中间的目录名
         String txtFileName = txtFilePath.substring(srcDirPathLength);
-        String txtFileNameWithOutExt = JACGFileUtil.getFileNameWithOutExt(txtFileName);
+        String txtFileNameWithOutExt = JACGFileUtil.getFileNameWithOutExt(OutputCompressTypeEnum.removeCompressExt(txtFileName));
         String mdFilePath = stackOutputDirPath + File.separator + txtFileNameWithOutExt + JACGConstants.EXT_MD;
 
-        try (BufferedReader br = JavaCGFileUtil.genBufferedReader(txtFilePath);
-             MarkdownWriter markdownWriter = new MarkdownWriter(mdFilePath, true)) {
+        // 调用链文件可能是压缩后的文件
+        try (MarkdownWriter markdownWriter = new MarkdownWriter(mdFilePath, true)) {
             // 写入文件头信息
             writeHeaderInfo(markdownWriter, txtFilePath, keywordList, order4ee);
 
-            String line;
-            lastNode = null;
-            // 文件行号
-            int lineNum = 0;
-            // 记录每个方法级别最后处理的文件内容节点
-            List<FileContentNode> fileContentNodeList = new ArrayList<>(20);
-
-            while ((line = br.readLine()) != null) {
-                lineNum++;
-                // md文件中的标题内容
-                String title = JACGConstants.FLAG_MD_LINE_NUMBER + lineNum;
-                // 处理txt文件的一行
-                if (!handleTxtFileOneLine(line, keywordList, order4ee, markdownWriter, fileContentNodeList, title)) {
-                    return false;
-                }
+            // 当前文件使用的状态信息
+            FileContentState fileContentState = new FileContentState(expandSubtreeRef);
+            boolean success;
+            if (OutputCompressTypeEnum.removeCompressExt(txtFilePath).endsWith(JACGConstants.EXT_CALL_GRAPH_BINARY)) {
+                success = handleBinaryFile(txtFilePath, order4ee, markdownWriter, fileContentState);
+            } else {
+                success = handleTxtFile(txtFilePath, order4ee, markdownWriter, fileContentState);
+            }
+            if (!success) {
+                return false;
             }
 
             if (!markdownWriter.isWriteData()) {
@@ -371,33 +461,82 @@ public class FindCallStackTrace {
 
             return true;
         } catch (Exception e) {
-            logger.error("error ", e);
+            logger.error("error {} ", txtFilePath, e);
             return false;
         }
     }
 
-    // 处理txt文件的一行
+    // 处理txt文件的各行
+    private boolean handleTxtFile(String txtFilePath, boolean order4ee, MarkdownWriter markdownWriter, FileContentState fileContentState) throws IOException {
+        try (BufferedReader br = JACGFileUtil.genBufferedReader(txtFilePath)) {
+            String line;
+            // 文件行号
+            int lineNum = 0;
+            while ((line = br.readLine()) != null) {
+                lineNum++;
+                // 处理txt文件的一行
+                if (!handleTxtFileOneLine(line, null, lineNum, order4ee, markdownWriter, fileContentState)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // 处理二进制格式的调用链文件的各行，不需要对文本进行解析，行号与文本格式的调用链文件中的行号相同
+    private boolean handleBinaryFile(String binaryFilePath, boolean order4ee, MarkdownWriter markdownWriter, FileContentState fileContentState) throws IOException {
+        try (CallGraphBinaryReader callGraphBinaryReader = new CallGraphBinaryReader(binaryFilePath)) {
+            CallGraphLineParsed callGraphLineParsed;
+            // 文本格式的调用链文件中，入口方法对应的调用链行之前还有1行
+            int lineNum = JACGConstants.CALL_GRAPH_4ER_HEADER_LINE_NUM - 1;
+            while ((callGraphLineParsed = callGraphBinaryReader.next()) != null) {
+                lineNum++;
+                String line = JACGCallGraphFileUtil.genCallGraphLine4er(callGraphLineParsed);
+                if (!handleTxtFileOneLine(line, callGraphLineParsed, lineNum, order4ee, markdownWriter, fileContentState)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 处理txt文件的一行
+     *
+     * @param line                调用链文件行内容
+     * @param callGraphLineParsed 调用链文件行解析后的内容，读取二进制格式的调用链文件时非null
+     * @param lineNum
+     * @param order4ee
+     * @param markdownWriter
+     * @param fileContentState
+     * @return
+     * @throws IOException
+     */
     private boolean handleTxtFileOneLine(String line,
-                                         List<String> keywordList,
+                                         CallGraphLineParsed callGraphLineParsed,
+                                         int lineNum,
                                          boolean order4ee,
                                          MarkdownWriter markdownWriter,
-                                         List<FileContentNode> fileContentNodeList,
-                                         String title) throws IOException {
-        if (!JACGCallGraphFileUtil.isCallGraphLine(line)) {
+                                         FileContentState fileContentState) throws IOException {
+        if (callGraphLineParsed == null && !JACGCallGraphFileUtil.isCallGraphLine(line)) {
             // 不属于调用链信息的行，不处理
             // 对于向上的方法调用链，类对应的文件中包含多个方法的信息，需要将上次处理的数据清空
-            lastNode = null;
-            fileContentNodeList.clear();
+            fileContentState.clear();
             return true;
         }
 
+        // md文件中的标题内容
+        String title = JACGConstants.FLAG_MD_LINE_NUMBER + lineNum;
+
         // 处理调用链信息的行
         // 获取方法级别
-        int methodLevel = JACGCallGraphFileUtil.getMethodLevel(line);
+        int methodLevel = callGraphLineParsed != null ? callGraphLineParsed.getMethodLevel() : JACGCallGraphFileUtil.getMethodLevel(line);
         if (methodLevel == JACGConstants.CALL_GRAPH_METHOD_LEVEL_ILLEGAL) {
             return false;
         }
 
+        FileContentNode lastNode = fileContentState.getLastNode();
+        List<FileContentNode> fileContentNodeList = fileContentState.getFileContentNodeList();
         if (lastNode == null) {
             // 还未处理过文件内容节点
             if (methodLevel != JACGConstants.CALL_GRAPH_METHOD_LEVEL_START) {
@@ -406,13 +545,14 @@ public class FindCallStackTrace {
             }
 
             // 根文件内容节点
-            lastNode = new FileContentNode(null, JACGConstants.CALL_GRAPH_METHOD_LEVEL_START, line);
+            FileContentNode rootNode = new FileContentNode(null, JACGConstants.CALL_GRAPH_METHOD_LEVEL_START, line, lineNum);
+            fileContentState.setLastNode(rootNode);
 
             // 记录每个方法级别最后处理的文件内容节点
-            recordFileContentNodeInList(methodLevel, fileContentNodeList);
+            recordFileContentNodeInList(methodLevel, rootNode, fileContentNodeList);
 
             // 生成当前节点到根节点的调用堆栈
-            genCallStack(line, keywordList, markdownWriter, order4ee, title);
+            genCallStack(line, callGraphLineParsed, markdownWriter, order4ee, title, fileContentState);
             return true;
         }
 
@@ -435,40 +575,115 @@ public class FindCallStackTrace {
         }
 
         // 记录当前的文件内容节点
-        lastNode = new FileContentNode(parentNode, methodLevel, line);
+        FileContentNode currentNode = new FileContentNode(parentNode, methodLevel, line, lineNum);
+        fileContentState.setLastNode(currentNode);
 
         // 记录每个方法级别最后处理的文件内容节点
-        recordFileContentNodeInList(methodLevel, fileContentNodeList);
+        recordFileContentNodeInList(methodLevel, currentNode, fileContentNodeList);
 
         // 生成当前节点到根节点的调用堆栈
-        genCallStack(line, keywordList, markdownWriter, order4ee, title);
+        genCallStack(line, callGraphLineParsed, markdownWriter, order4ee, title, fileContentState);
         return true;
     }
 
     // 记录每个方法级别最后处理的文件内容节点
-    private void recordFileContentNodeInList(int methodLevel, List<FileContentNode> fileContentNodeList) {
+    private void recordFileContentNodeInList(int methodLevel, FileContentNode currentNode, List<FileContentNode> fileContentNodeList) {
         if (fileContentNodeList.size() < methodLevel + 1) {
             // List中指定位置数据不存在则增加
-            fileContentNodeList.add(lastNode);
+            fileContentNodeList.add(currentNode);
             return;
         }
 
         // List中指定位置数据已存在则设置
-        fileContentNodeList.set(methodLevel, lastNode);
+        fileContentNodeList.set(methodLevel, currentNode);
     }
 
     // 生成当前节点到根节点的调用堆栈
-    private void genCallStack(String line, List<String> keywordList, MarkdownWriter markdownWriter, boolean order4ee, String title) throws IOException {
+    private void genCallStack(String line, CallGraphLineParsed callGraphLineParsed, MarkdownWriter markdownWriter, boolean order4ee, String title,
+                              FileContentState fileContentState) throws IOException {
+        FileContentNode lastNode = fileContentState.getLastNode();
+        Map<Integer, List<FileContentNode>> subtreeMatchedNodeMap = fileContentState.getSubtreeMatchedNodeMap();
         // 在指定行中查找关键字
-        if (!findKeyword(line, keywordList, order4ee)) {
+        if (findKeyword(line, callGraphLineParsed, order4ee)) {
+            // 当前行存在关键字，生成到根节点的调用堆栈
+            writeCallStack(lastNode, markdownWriter, order4ee, title);
+            if (subtreeMatchedNodeMap != null) {
+                // 记录包含关键字的节点
+                recordSubtreeMatchedNode(lastNode, subtreeMatchedNodeMap);
+            }
+        }
+
+        if (subtreeMatchedNodeMap == null) {
+            return;
+        }
+
+        int refLineNum = callGraphLineParsed != null ? callGraphLineParsed.getSubtreeRefLineNum() : JACGCallGraphFileUtil.getSubtreeRefLineNum(line);
+        if (refLineNum != JACGConstants.NO_SUBTREE_REF_FLAG) {
+            // 当前行引用之前出现的子树，将子树中包含关键字的节点展开到当前节点之下
+            expandSubtreeRef(lastNode, refLineNum, markdownWriter, order4ee, title, subtreeMatchedNodeMap);
+        }
+    }
+
+    // 记录包含关键字的节点，添加到各上层节点对应的列表中
+    private void recordSubtreeMatchedNode(FileContentNode matchedNode, Map<Integer, List<FileContentNode>> subtreeMatchedNodeMap) {
+        for (FileContentNode tmpNode = matchedNode.getParentNode(); tmpNode != null; tmpNode = tmpNode.getParentNode()) {
+            if (tmpNode.getLineNum() > 0) {
+                subtreeMatchedNodeMap.computeIfAbsent(tmpNode.getLineNum(), k -> new ArrayList<>()).add(matchedNode);
+            }
+        }
+    }
+
+    /**
+     * 将引用的子树中包含关键字的节点展开到引用子树的节点之下，并生成调用堆栈
+     *
+     * @param refNode        引用子树的节点
+     * @param refLineNum     引用的子树根节点对应的文件行号
+     * @param markdownWriter
+     * @param order4ee
+     * @param title
+     * @param subtreeMatchedNodeMap 当前文件中各节点的下层调用链中包含关键字的节点
+     * @throws IOException
+     */
+    private void expandSubtreeRef(FileContentNode refNode, int refLineNum, MarkdownWriter markdownWriter, boolean order4ee, String title,
+                                  Map<Integer, List<FileContentNode>> subtreeMatchedNodeMap) throws IOException {
+        List<FileContentNode> matchedNodeList = subtreeMatchedNodeMap.get(refLineNum);
+        if (matchedNodeList == null) {
             return;
         }
 
-        // 当前行存在关键字，生成到根节点的调用堆栈
+        String finalTitle = title + JACGConstants.FLAG_SPACE + JACGCallGraphFileUtil.genSubtreeRefFlag(refLineNum);
+        // 展开后的节点会记录到当前节点的上层节点对应的列表中，引用的子树根节点不会是当前节点的上层节点，遍历的列表不会被修改
+        for (FileContentNode matchedNode : matchedNodeList) {
+            // 获取包含关键字的节点到子树根节点之间的节点，不包含子树根节点
+            List<FileContentNode> pathNodeList = new ArrayList<>();
+            FileContentNode tmpNode = matchedNode;
+            while (tmpNode.getLineNum() != refLineNum) {
+                pathNodeList.add(tmpNode);
+                tmpNode = tmpNode.getParentNode();
+            }
+
+            // 按照引用子树的节点的方法级别，调整展开后节点的方法级别
+            int levelOffset = refNode.getMethodLevel() - tmpNode.getMethodLevel();
+            FileContentNode expandedNode = refNode;
+            for (int i = pathNodeList.size() - 1; i >= 0; i--) {
+                FileContentNode pathNode = pathNodeList.get(i);
+                int newLevel = pathNode.getMethodLevel() + levelOffset;
+                String newLine = JACGCallGraphFileUtil.changeCallGraphLineLevel(pathNode.getFileLineContent(), pathNode.getMethodLevel(), newLevel);
+                expandedNode = new FileContentNode(expandedNode, newLevel, newLine, 0);
+            }
+
+            writeCallStack(expandedNode, markdownWriter, order4ee, finalTitle);
+            // 展开后的节点也可能在之后被引用
+            recordSubtreeMatchedNode(expandedNode, subtreeMatchedNodeMap);
+        }
+    }
+
+    // 生成指定节点到根节点的调用堆栈
+    private void writeCallStack(FileContentNode node, MarkdownWriter markdownWriter, boolean order4ee, String title) throws IOException {
         List<String> lineList = new ArrayList<>(20);
         boolean runInOtherThread = false;
         boolean runInTransaction = false;
-        FileContentNode tmpNode = lastNode;
+        FileContentNode tmpNode = node;
         while (true) {
             String lineContent = tmpNode.getFileLineContent();
             lineList.add(lineContent);
@@ -519,20 +734,15 @@ public class FindCallStackTrace {
         markdownWriter.addCodeBlock();
     }
 
-    // 在指定行中查找关键字
-    private boolean findKeyword(String line, List<String> keywordList, boolean order4ee) {
+    // 在指定行中查找关键字，读取二进制格式的调用链文件时使用已解析的内容
+    private boolean findKeyword(String line, CallGraphLineParsed lineParsed, boolean order4ee) {
         if (JavaCGUtil.isCollectionEmpty(findStackKeywordFilterList)) {
             // 使用配置文件中的关键字进行判断
-            for (String keyword : keywordList) {
-                if (line.contains(keyword)) {
-                    return true;
-                }
-            }
-            return false;
+            return multiKeywordMatcher.match(line);
         }
 
         // 使用根据关键字生成调用堆栈过滤器扩展类进行判断
-        CallGraphLineParsed callGraphLineParsed = null;
+        CallGraphLineParsed callGraphLineParsed = lineParsed;
         for (FindStackKeywordFilterInterface findStackKeywordFilter : findStackKeywordFilterList) {
             if (findStackKeywordFilter.filterByLine()) {
                 // 通过当前行字符串判断
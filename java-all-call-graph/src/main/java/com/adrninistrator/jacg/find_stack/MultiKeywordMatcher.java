@@ -0,0 +1,178 @@
+package com.adrninistrator.jacg.find_stack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 多关键字匹配，使用关键字列表生成Aho-Corasick自动机，对每行字符串只需要遍历一次即可判断是否包含任意一个关键字
+ * 生成后不会再修改，可以在多个线程中同时使用
+ */
+public class MultiKeywordMatcher {
+
+    // 关键字数量小于该值时，直接使用String.contains()判断，避免自动机额外的开销
+    public static final int MIN_KEYWORD_NUM_USE_AUTOMATON = 4;
+
+    // 根节点序号
+    private static final int ROOT = 0;
+
+    // 关键字数量较少时使用的关键字数组
+    private final String[] keywords;
+
+    // 是否包含空字符串关键字，包含时任意字符串都匹配
+    private final boolean containsEmptyKeyword;
+
+    // 各节点的转移字符，按字符从小到大排序
+    private int[][] transitionChars;
+
+    // 各节点的转移字符对应的下一个节点序号
+    private int[][] transitionTargets;
+
+    // 各节点匹配失败时跳转的节点序号
+    private int[] failures;
+
+    // 各节点是否代表匹配到了关键字（包含通过失败跳转可以到达的关键字）
+    private boolean[] matched;
+
+    /**
+     * 使用关键字列表生成匹配对象
+     *
+     * @param keywordList 关键字列表
+     */
+    public MultiKeywordMatcher(List<String> keywordList) {
+        boolean tmpContainsEmptyKeyword = false;
+        for (String keyword : keywordList) {
+            if (keyword.isEmpty()) {
+                tmpContainsEmptyKeyword = true;
+                break;
+            }
+        }
+        containsEmptyKeyword = tmpContainsEmptyKeyword;
+
+        if (keywordList.size() < MIN_KEYWORD_NUM_USE_AUTOMATON) {
+            keywords = keywordList.toArray(new String[0]);
+            return;
+        }
+
+        keywords = null;
+        buildAutomaton(keywordList);
+    }
+
+    /**
+     * 判断指定字符串中是否包含任意一个关键字
+     *
+     * @param text 需要判断的字符串
+     * @return true: 包含 false: 不包含
+     */
+    public boolean match(String text) {
+        if (containsEmptyKeyword) {
+            return true;
+        }
+
+        if (keywords != null) {
+            for (String keyword : keywords) {
+                if (text.contains(keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = findTransition(state, c)) < 0 && state != ROOT) {
+                state = failures[state];
+            }
+            state = next < 0 ? ROOT : next;
+            if (matched[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 生成自动机
+    private void buildAutomaton(List<String> keywordList) {
+        // 先使用TreeMap生成字典树，转移字符有序，便于之后转换为数组
+        List<TreeMap<Character, Integer>> trieList = new ArrayList<>();
+        List<Boolean> terminalList = new ArrayList<>();
+        trieList.add(new TreeMap<>());
+        terminalList.add(Boolean.FALSE);
+        for (String keyword : keywordList) {
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                Integer next = trieList.get(state).get(c);
+                if (next == null) {
+                    next = trieList.size();
+                    trieList.add(new TreeMap<>());
+                    terminalList.add(Boolean.FALSE);
+                    trieList.get(state).put(c, next);
+                }
+                state = next;
+            }
+            terminalList.set(state, Boolean.TRUE);
+        }
+
+        int nodeNum = trieList.size();
+        transitionChars = new int[nodeNum][];
+        transitionTargets = new int[nodeNum][];
+        failures = new int[nodeNum];
+        matched = new boolean[nodeNum];
+        for (int i = 0; i < nodeNum; i++) {
+            Map<Character, Integer> transitionMap = trieList.get(i);
+            int[] chars = new int[transitionMap.size()];
+            int[] targets = new int[transitionMap.size()];
+            int index = 0;
+            for (Map.Entry<Character, Integer> entry : transitionMap.entrySet()) {
+                chars[index] = entry.getKey();
+                targets[index] = entry.getValue();
+                index++;
+            }
+            transitionChars[i] = chars;
+            transitionTargets[i] = targets;
+            matched[i] = terminalList.get(i);
+        }
+
+        // 按层级遍历，生成失败跳转，子节点的失败跳转依赖上层节点的失败跳转
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[ROOT]) {
+            failures[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] chars = transitionChars[state];
+            int[] targets = transitionTargets[state];
+            for (int i = 0; i < chars.length; i++) {
+                char c = (char) chars[i];
+                int child = targets[i];
+                int failState = failures[state];
+                int next;
+                while ((next = findTransition(failState, c)) < 0 && failState != ROOT) {
+                    failState = failures[failState];
+                }
+                failures[child] = next < 0 ? ROOT : next;
+                if (matched[failures[child]]) {
+                    // 失败跳转的节点匹配到了关键字，当前节点也代表匹配到了关键字
+                    matched[child] = true;
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    // 查找指定节点通过指定字符转移到的节点，不存在时返回-1
+    private int findTransition(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index < 0 ? -1 : transitionTargets[state][index];
+    }
+}
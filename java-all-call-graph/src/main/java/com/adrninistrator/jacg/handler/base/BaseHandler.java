@@ -1,13 +1,22 @@
 package com.adrninistrator.jacg.handler.base;
 
+import com.adrninistrator.jacg.common.JACGConstants;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.jacg.dboper.DbOperWrapper;
 import com.adrninistrator.jacg.dboper.DbOperator;
+import com.adrninistrator.jacg.thread.ThreadFactory4TPE;
 import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author adrninistrator
@@ -57,9 +66,69 @@ public abstract class BaseHandler implements Closeable {
         this.dbOperWrapper = dbOperWrapper;
     }
 
+    /**
+     * 创建用于并行执行分页处理任务的线程池，在一次处理中多次分批执行任务时复用，使用完毕后需要关闭
+     * 线程数与数据源的最大连接数相同，避免任务执行数据库操作时等待获取连接
+     *
+     * @return
+     */
+    protected ThreadPoolExecutor createPageThreadPool() {
+        int threadNum = Math.max(1, dbOperator.getMaxPoolSize());
+        return new ThreadPoolExecutor(threadNum, threadNum, 10L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactory4TPE(JACGConstants.THREAD_NAME_PREFIX_PAGE_WORKER));
+    }
+
+    /**
+     * 使用线程池并行执行多个相互独立的任务，例如分别处理数据库表中的多页数据，按照任务的顺序返回各任务的结果
+     *
+     * @param threadPoolExecutor 通过createPageThreadPool()创建的线程池，当前方法不会关闭
+     * @param taskList           任务列表，任务返回null时代表执行失败
+     * @param <T>
+     * @return 各任务的结果列表，顺序与任务列表一致，null: 存在执行失败的任务
+     */
+    protected <T> List<T> executeInParallel(ThreadPoolExecutor threadPoolExecutor, List<Callable<T>> taskList) {
+        List<T> resultList = new ArrayList<>(taskList.size());
+        if (taskList.isEmpty()) {
+            return resultList;
+        }
+
+        List<Future<T>> futureList = new ArrayList<>(taskList.size());
+        try {
+            for (Callable<T> task : taskList) {
+                futureList.add(threadPoolExecutor.submit(task));
+            }
+
+            for (Future<T> future : futureList) {
+                T result = future.get();
+                if (result == null) {
+                    logger.error("并行执行的任务执行失败");
+                    return null;
+                }
+                resultList.add(result);
+            }
+            return resultList;
+        } catch (InterruptedException e) {
+            logger.error("error ", e);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.error("error ", e);
+            return null;
+        } finally {
+            if (resultList.size() < taskList.size()) {
+                // 存在执行失败的任务时，不再执行未开始的任务
+                for (Future<T> future : futureList) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
     @Override
     public void close() {
         if (needCloseDb && dbOperator != null) {
+            // 关闭方法调用关系存储，有修改时保存
+            dbOperWrapper.getStorage().close();
             // 关闭数据源
             dbOperator.closeDs();
         }
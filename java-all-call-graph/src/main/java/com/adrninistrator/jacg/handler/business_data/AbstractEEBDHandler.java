@@ -22,6 +22,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * @author adrninistrator
@@ -71,6 +74,7 @@ public abstract class AbstractEEBDHandler extends BaseHandler {
 
     /**
      * 执行处理方法调用
+     * 不同分页的方法调用会在多个线程中并行处理，实现类需要保证线程安全
      *
      * @param methodCallId                   方法调用ID
      * @param calleeClassName                被调用类名
@@ -91,6 +95,8 @@ public abstract class AbstractEEBDHandler extends BaseHandler {
      * @return
      */
     public boolean handleMethodCallByCallee() {
+        // 并行处理各页方法调用的线程池，处理各被调用方法时复用
+        ThreadPoolExecutor threadPoolExecutor = createPageThreadPool();
         try {
             // 删除业务功能数据表中当前类型的数据
             SqlKeyEnum sqlKeyEnum = SqlKeyEnum.BD_DELETE_BY_TYPE;
@@ -118,14 +124,17 @@ public abstract class AbstractEEBDHandler extends BaseHandler {
             String insertSql = dbOperWrapper.genAndCacheInsertSql(DbTableInfoEnum.DTIE_BUSINESS_DATA, DbInsertMode.DIME_INSERT);
             for (ClassAndMethodName classAndMethodName : calleeMethodList) {
                 // 根据指定的被调用方法查询方法调用
-                if (!handleMethodCallByCalleeMethod(classAndMethodName.getClassName(), classAndMethodName.getMethodName(), insertSql)) {
+                if (!handleMethodCallByCalleeMethod(threadPoolExecutor, classAndMethodName.getClassName(), classAndMethodName.getMethodName(), insertSql)) {
                     return false;
                 }
             }
-            return true;
+            // 方法调用业务功能数据已修改，记录新的数据库内容版本
+            return dbOperWrapper.recordDataVersion();
         } catch (Exception e) {
             logger.error("error ", e);
             return false;
+        } finally {
+            threadPoolExecutor.shutdownNow();
         }
     }
 
@@ -148,124 +157,121 @@ public abstract class AbstractEEBDHandler extends BaseHandler {
         methodCallInfoHandler = new MethodCallInfoHandler(dbOperWrapper);
     }
 
-    // 分页查询本次从方法调用表查询的最大的call_id
-    private int queryMaxCallIdByPage(String calleeSimpleClassName, int startCallId) {
-        logger.debug("分页查询startCallId {} {}", calleeSimpleClassName, startCallId);
-        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_BY_PAGE_MAX_CALL_ID;
-        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-        if (sql == null) {
-            sql = "select " + DC.MC_CALL_ID +
-                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                    " where " + DC.MC_CALLEE_SIMPLE_CLASS_NAME + " = ?" +
-                    " and " + DC.MC_CALL_ID + " > ?" +
-                    " limit ?, 1";
-            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-        }
-
-        Integer endCallId = dbOperator.queryObjectOneColumn(sql, Integer.class, calleeSimpleClassName, startCallId, JACGConstants.DB_PAGE_HANDLE_SIZE - 1);
-        if (endCallId == null) {
-            // 最后一次分页查询
-            logger.debug("最后一次分页查询 {}", startCallId);
-            return JACGConstants.PAGE_QUERY_LAST;
-        }
-
-        // 不是最后一次分页查询
-        logger.debug("查询到endCallId {} {}", startCallId, endCallId);
-        return endCallId;
-    }
-
-    // 分页查询方法调用ID列表
-    private List<Integer> queryMethodCallIdByPage(boolean lastQuery, String calleeSimpleClassName, String calleeMethodName, int startCallId, int endCallId) {
-        SqlKeyEnum sqlKeyEnum = lastQuery ? SqlKeyEnum.MC_QUERY_CALL_ID_BY_CALLEE_LAST : SqlKeyEnum.MC_QUERY_CALL_ID_BY_CALLEE;
+    // 分页查询调用指定被调用方法的方法调用ID列表，根据上一页的最大call_id查询，不使用offset，避免越往后查询越慢
+    private List<Integer> queryMethodCallIdByPage(String calleeSimpleClassName, String calleeMethodName, int startCallId) {
+        logger.debug("分页查询startCallId {} {} {}", calleeSimpleClassName, calleeMethodName, startCallId);
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_CALL_ID_BY_CALLEE;
         String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
         if (sql == null) {
             sql = "select " + DC.MC_CALL_ID +
                     " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
                     " where " + DC.MC_CALLEE_SIMPLE_CLASS_NAME + " = ?" +
                     " and " + DC.MC_CALLEE_METHOD_NAME + " = ?" +
-                    " and " + DC.MC_CALL_ID + " > ?";
-            if (!lastQuery) {
-                sql = sql + " and " + DC.MC_CALL_ID + " <= ?";
-            }
+                    " and " + DC.MC_CALL_ID + " > ?" +
+                    " order by " + DC.MC_CALL_ID +
+                    " limit ?";
             sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
         }
-        List<Object> argList = new ArrayList<>();
-        argList.add(calleeSimpleClassName);
-        argList.add(calleeMethodName);
-        argList.add(startCallId);
-        if (!lastQuery) {
-            argList.add(endCallId);
-        }
-        return dbOperator.queryListOneColumn(sql, Integer.class, argList.toArray());
+        return dbOperator.queryListOneColumn(sql, Integer.class, calleeSimpleClassName, calleeMethodName, startCallId, JACGConstants.DB_PAGE_HANDLE_SIZE);
     }
 
     /**
      * 根据指定的被调用方法查询方法调用并处理
+     * 先根据call_id分页查询方法调用ID，各页之间不存在依赖，再并行处理各页的方法调用
      *
+     * @param threadPoolExecutor
      * @param calleeClassName
      * @param calleeMethodName
      * @param insertSql
      * @return
      */
-    private boolean handleMethodCallByCalleeMethod(String calleeClassName, String calleeMethodName, String insertSql) {
+    private boolean handleMethodCallByCalleeMethod(ThreadPoolExecutor threadPoolExecutor, String calleeClassName, String calleeMethodName, String insertSql) {
         String calleeSimpleClassName = dbOperWrapper.getSimpleClassName(calleeClassName);
+        currentCalleeMethodArgTypeList = null;
+        int pageNumInBatch = dbOperator.getMaxPoolSize() * JACGConstants.DB_PAGE_NUM_PER_THREAD;
         // 第一次分页查询时，从call_id最小值开始查询
         int startCallId = JavaCGConstants.METHOD_CALL_ID_START;
-        int handleTime = 0;
-        while (true) {
-            // 分页查询本次查询的最大的call_id
-            int endCallId = queryMaxCallIdByPage(calleeSimpleClassName, startCallId);
-            if (endCallId == JACGConstants.PAGE_QUERY_FAIL) {
-                // 查询失败
-                return false;
-            }
-
-            // 判断是否为最后一次分页查询
-            boolean lastQuery = (endCallId == JACGConstants.PAGE_QUERY_LAST);
-            // 分页查询方法调用ID列表
-            List<Integer> list = queryMethodCallIdByPage(lastQuery, calleeSimpleClassName, calleeMethodName, startCallId, endCallId);
-            if (list == null) {
-                // 查询失败
-                return false;
-            }
+        boolean lastQuery = false;
+        while (!lastQuery) {
+            // 生成一批分页处理任务
+            List<Callable<Boolean>> taskList = new ArrayList<>(pageNumInBatch);
+            while (!lastQuery && taskList.size() < pageNumInBatch) {
+                // 分页查询方法调用ID列表
+                List<Integer> methodCallIdList = queryMethodCallIdByPage(calleeSimpleClassName, calleeMethodName, startCallId);
+                if (methodCallIdList == null) {
+                    // 查询失败
+                    return false;
+                }
 
-            if (!list.isEmpty()) {
-                for (Integer methodCallId : list) {
-                    if (handleTime == 0) {
-                        // 第一次处理时，查询当前处理的被调用方法参数类型列表
-                        String calleeFullMethod = dbOperWrapper.getCalleeFullMethodById(methodCallId);
-                        if (calleeFullMethod == null) {
-                            // 查询失败
-                            return false;
-                        }
-                        currentCalleeMethodArgTypeList = JACGClassMethodUtil.genMethodArgTypeList(calleeFullMethod);
-                    }
+                lastQuery = (methodCallIdList.size() < JACGConstants.DB_PAGE_HANDLE_SIZE);
+                if (methodCallIdList.isEmpty()) {
+                    break;
+                }
 
-                    // 查询方法调用中被调用对象与参数使用的信息
-                    ObjArgsInfoInMethodCall objArgsInfoInMethodCall = methodCallInfoHandler.queryObjArgsInfoInMethodCall(methodCallId);
-                    // 处理方法调用
-                    String businessData = handleMethodCall(methodCallId, calleeClassName, calleeMethodName, objArgsInfoInMethodCall, currentCalleeMethodArgTypeList);
-                    if (businessData != null) {
-                        /*
-                            返回数据非空时进行处理：
-                            向业务功能数据表写入数据
-                            更新方法调用表对应记录的方法调用标志，设置被调用方法存在自定义的业务功能数据
-                         */
-                        if (!dbOperator.insert(insertSql, methodCallId, chooseBusinessDataType(), businessData)
-                                || !methodCallHandler.updateMethodCallAddFlags(methodCallId, MethodCallFlagsEnum.MCFE_EE_BUSINESS_DATA)) {
-                            return false;
-                        }
+                if (currentCalleeMethodArgTypeList == null) {
+                    // 第一次处理时，查询当前处理的被调用方法参数类型列表
+                    String calleeFullMethod = dbOperWrapper.getCalleeFullMethodById(methodCallIdList.get(0));
+                    if (calleeFullMethod == null) {
+                        // 查询失败
+                        return false;
                     }
-                    handleTime++;
+                    currentCalleeMethodArgTypeList = JACGClassMethodUtil.genMethodArgTypeList(calleeFullMethod);
                 }
+
+                taskList.add(() -> handleMethodCallPage(methodCallIdList, calleeClassName, calleeMethodName, insertSql) ? Boolean.TRUE : null);
+                // 下一页从当前页的最大call_id之后开始查询
+                startCallId = methodCallIdList.get(methodCallIdList.size() - 1);
             }
 
-            if (lastQuery) {
-                // 最后一次分页查询
-                break;
+            // 并行处理各页的方法调用
+            if (executeInParallel(threadPoolExecutor, taskList) == null) {
+                return false;
             }
-            startCallId = endCallId + 1;
         }
         return true;
     }
+
+    /**
+     * 处理一页的方法调用
+     * 先批量查询当前页各方法调用中被调用对象与参数使用的信息，在内存中处理各方法调用后，再批量写入业务功能数据表及更新方法调用标志
+     *
+     * @param methodCallIdList
+     * @param calleeClassName
+     * @param calleeMethodName
+     * @param insertSql
+     * @return
+     */
+    private boolean handleMethodCallPage(List<Integer> methodCallIdList, String calleeClassName, String calleeMethodName, String insertSql) {
+        // 批量查询方法调用中被调用对象与参数使用的信息
+        Map<Integer, ObjArgsInfoInMethodCall> objArgsInfoInMethodCallMap = methodCallInfoHandler.queryObjArgsInfoInMethodCallMap(methodCallIdList);
+        if (objArgsInfoInMethodCallMap == null) {
+            return false;
+        }
+
+        String businessDataType = chooseBusinessDataType();
+        List<Object[]> insertArgList = new ArrayList<>();
+        List<Integer> businessDataMethodCallIdList = new ArrayList<>();
+        for (Integer methodCallId : methodCallIdList) {
+            // 处理方法调用，未查询到被调用对象与参数使用的信息时使用null
+            String businessData = handleMethodCall(methodCallId, calleeClassName, calleeMethodName, objArgsInfoInMethodCallMap.get(methodCallId),
+                    currentCalleeMethodArgTypeList);
+            if (businessData != null) {
+                // 返回数据非空时，记录需要写入业务功能数据表的数据
+                insertArgList.add(new Object[]{methodCallId, businessDataType, businessData});
+                businessDataMethodCallIdList.add(methodCallId);
+            }
+        }
+
+        if (insertArgList.isEmpty()) {
+            return true;
+        }
+
+        /*
+            批量处理：
+            向业务功能数据表写入数据
+            更新方法调用表对应记录的方法调用标志，设置被调用方法存在自定义的业务功能数据
+         */
+        return dbOperator.batchInsert(insertSql, insertArgList)
+                && methodCallHandler.updateMethodCallAddFlagsBatch(businessDataMethodCallIdList, MethodCallFlagsEnum.MCFE_EE_BUSINESS_DATA);
+    }
 }
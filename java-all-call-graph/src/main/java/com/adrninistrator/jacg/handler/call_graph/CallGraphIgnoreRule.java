@@ -0,0 +1,190 @@
+package com.adrninistrator.jacg.handler.call_graph;
+
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.util.JACGClassMethodUtil;
+import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 生成方法完整调用链时需要忽略的方法的规则，根据配置文件中指定的方法调用类型、类名关键字、完整方法前缀、方法名前缀判断
+ * 生成调用链文件，以及通过代码查询调用链时使用相同的规则
+ */
+public class CallGraphIgnoreRule {
+    private static final Logger logger = LoggerFactory.getLogger(CallGraphIgnoreRule.class);
+
+    // 当方法调用类型在以下Set中时，生成方法完整调用链时忽略
+    private final Set<String> ignoreCallTypeSet;
+
+    // 当类名包含以下关键字时，生成方法完整调用链时忽略
+    private final Set<String> ignoreClassKeywordSet;
+
+    // 完整方法（类名+方法名+参数）为以下前缀时，生成方法完整调用链时忽略
+    private final Set<String> ignoreFullMethodPrefixSet;
+
+    // 当方法名为以下前缀时，生成方法完整调用链时忽略
+    private final Set<String> ignoreMethodPrefixSet;
+
+    private CallGraphIgnoreRule(Set<String> ignoreCallTypeSet, Set<String> ignoreClassKeywordSet, Set<String> ignoreFullMethodPrefixSet, Set<String> ignoreMethodPrefixSet) {
+        this.ignoreCallTypeSet = ignoreCallTypeSet;
+        this.ignoreClassKeywordSet = ignoreClassKeywordSet;
+        this.ignoreFullMethodPrefixSet = ignoreFullMethodPrefixSet;
+        this.ignoreMethodPrefixSet = ignoreMethodPrefixSet;
+    }
+
+    /**
+     * 根据配置文件生成需要忽略的方法的规则
+     *
+     * @param configureWrapper
+     * @return null: 读取配置文件失败
+     */
+    public static CallGraphIgnoreRule genInstance(ConfigureWrapper configureWrapper) {
+        Set<String> ignoreCallTypeSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_CALL_TYPE, true);
+        if (ignoreCallTypeSet == null) {
+            return null;
+        }
+
+        Set<String> ignoreClassKeywordSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_CLASS_KEYWORD, true);
+        if (ignoreClassKeywordSet == null) {
+            return null;
+        }
+
+        Set<String> ignoreFullMethodPrefixSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_FULL_METHOD_PREFIX, true);
+        if (ignoreFullMethodPrefixSet == null) {
+            return null;
+        }
+
+        Set<String> ignoreMethodPrefixSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_METHOD_PREFIX, true);
+        if (ignoreMethodPrefixSet == null) {
+            return null;
+        }
+        return new CallGraphIgnoreRule(ignoreCallTypeSet, ignoreClassKeywordSet, ignoreFullMethodPrefixSet, ignoreMethodPrefixSet);
+    }
+
+    /**
+     * 判断方法调用类型是否需要忽略
+     *
+     * @param callType 方法调用类型
+     * @return true: 忽略，false: 需要处理
+     */
+    public boolean isIgnoredCallType(String callType) {
+        return ignoreCallTypeSet.contains(callType);
+    }
+
+    /**
+     * 根据前缀判断完整方法（类名+方法名+参数）是否需要忽略
+     *
+     * @param fullMethod 完整方法（类名+方法名+参数）
+     * @return true: 忽略，false: 需要处理
+     */
+    public boolean isIgnoredFullMethodWithPrefixByFullMethod(String fullMethod) {
+        for (String ignoreFullMethodPrefix : ignoreFullMethodPrefixSet) {
+            if (fullMethod.startsWith(ignoreFullMethodPrefix)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("忽略完整方法使用该前缀的方法 {} {}", ignoreFullMethodPrefix, fullMethod);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 根据前缀判断方法名是否需要忽略
+     *
+     * @param methodName 方法名
+     * @return true: 忽略，false: 需要处理
+     */
+    public boolean isIgnoredMethodWithPrefixByMethodName(String methodName) {
+        for (String ignoreMethodPrefix : ignoreMethodPrefixSet) {
+            if (methodName.startsWith(ignoreMethodPrefix)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("忽略方法名使用该前缀的方法 {} {}", ignoreMethodPrefix, methodName);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 根据关键字判断类名是否需要忽略
+     *
+     * @param className 完整类名
+     * @return true: 忽略，false: 需要处理
+     */
+    public boolean isIgnoredClassWithKeywordByClass(String className) {
+        for (String ignoreClassKeyword : ignoreClassKeywordSet) {
+            if (className.contains(ignoreClassKeyword)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("忽略类名包含该关键字的方法 {} {}", ignoreClassKeyword, className);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断当前找到的方法是否需要忽略
+     *
+     * @param callType
+     * @param fullMethod
+     * @return false: 不忽略 true: 忽略
+     */
+    public boolean ignoreCurrentMethod(String callType, String fullMethod) {
+        // 判断方法调用类型是否需要忽略
+        if (isIgnoredCallType(callType)) {
+            return true;
+        }
+
+        String className = JACGClassMethodUtil.getClassNameFromMethod(fullMethod);
+        // 根据关键字判断类名是否需要忽略
+        if (isIgnoredClassWithKeywordByClass(className)) {
+            return true;
+        }
+
+        // 根据前缀判断完整方法（类名+方法名+参数）是否需要忽略
+        if (isIgnoredFullMethodWithPrefixByFullMethod(fullMethod)) {
+            return true;
+        }
+
+        String methodNameWithArgs = JACGClassMethodUtil.getMethodNameWithArgsFromFull(fullMethod);
+        /*
+            根据方法名前缀判断是否需要忽略，使用包含参数的方法名进行比较
+            若当前调用类型为Runnable/Callable实现类子类构造函数调用run()方法，或其他类似情况，则不判断方法名前缀是否需要忽略（<init> -> run()，可能会被指定为忽略）
+         */
+        return !StringUtils.equalsAny(callType,
+                JavaCGCallTypeEnum.CTE_RUNNABLE_INIT_RUN1.getType(),
+                JavaCGCallTypeEnum.CTE_RUNNABLE_INIT_RUN2.getType(),
+                JavaCGCallTypeEnum.CTE_CALLABLE_INIT_CALL1.getType(),
+                JavaCGCallTypeEnum.CTE_CALLABLE_INIT_CALL2.getType(),
+                JavaCGCallTypeEnum.CTE_TX_CALLBACK_INIT_CALL1.getType(),
+                JavaCGCallTypeEnum.CTE_TX_CALLBACK_INIT_CALL2.getType(),
+                JavaCGCallTypeEnum.CTE_TX_CALLBACK_WR_INIT_CALL1.getType(),
+                JavaCGCallTypeEnum.CTE_TX_CALLBACK_WR_INIT_CALL2.getType()
+        ) && isIgnoredMethodWithPrefixByMethodName(methodNameWithArgs);
+    }
+
+    public Set<String> getIgnoreCallTypeSet() {
+        return ignoreCallTypeSet;
+    }
+
+    public Set<String> getIgnoreClassKeywordSet() {
+        return ignoreClassKeywordSet;
+    }
+
+    public Set<String> getIgnoreFullMethodPrefixSet() {
+        return ignoreFullMethodPrefixSet;
+    }
+
+    public Set<String> getIgnoreMethodPrefixSet() {
+        return ignoreMethodPrefixSet;
+    }
+}
@@ -0,0 +1,293 @@
+package com.adrninistrator.jacg.handler.call_graph;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.dto.call_graph.CallGraphEdge;
+import com.adrninistrator.jacg.dto.call_graph.CallGraphNode4Callee;
+import com.adrninistrator.jacg.dto.call_graph.CallGraphNode4Caller;
+import com.adrninistrator.jacg.dto.call_graph.ChildCallSuperInfo;
+import com.adrninistrator.jacg.dto.call_graph.SuperCallChildInfo;
+import com.adrninistrator.jacg.dto.method.MethodAndHash;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.storage.JACGStorage;
+import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.javacg.common.JavaCGConstants;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import com.adrninistrator.javacg.dto.stack.ListAsStack;
+import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 通过代码遍历指定方法向下或向上的调用链，按照与调用链文件相同的深度优先顺序返回各个方法调用关系
+ * 遍历时每次只查询一条方法调用关系，在获取下一条结果时才会继续查询，停止获取结果时不会继续查询，可以只获取前N条结果
+ * 与生成调用链文件时相同，跳过被禁用的方法调用及需要忽略的方法，并将父类方法替换为子类方法
+ * 只影响调用链文件输出内容的处理不会执行，例如忽略在一个调用方法中出现多次的被调用方法、引用之前出现的子树
+ * 需要在创建当前对象的CallGraphQueryHandler关闭前使用，不能在多个线程中同时使用同一个迭代器
+ */
+public class CallGraphQuery implements Iterable<CallGraphEdge> {
+
+    // 代表不限制遍历的深度
+    public static final int DEPTH_NO_LIMIT = 0;
+
+    private final JACGStorage storage;
+
+    // 将父类方法替换为子类方法的处理类
+    private final ChildMethodReplaceHandler childMethodReplaceHandler;
+
+    // 需要忽略的方法的规则，为null时不忽略方法
+    private final CallGraphIgnoreRule callGraphIgnoreRule;
+
+    // 起始完整方法
+    private final String startFullMethod;
+
+    // true: 遍历向下的调用链 false: 遍历向上的调用链
+    private final boolean down;
+
+    // 遍历的最大深度
+    private int depth = DEPTH_NO_LIMIT;
+
+    // 方法调用关系的过滤条件
+    private Predicate<CallGraphEdge> filter;
+
+    CallGraphQuery(JACGStorage storage, ChildMethodReplaceHandler childMethodReplaceHandler, CallGraphIgnoreRule callGraphIgnoreRule, String startFullMethod,
+                   boolean down) {
+        this.storage = storage;
+        this.childMethodReplaceHandler = childMethodReplaceHandler;
+        this.callGraphIgnoreRule = callGraphIgnoreRule;
+        this.startFullMethod = startFullMethod;
+        this.down = down;
+    }
+
+    /**
+     * 指定遍历的最大深度
+     *
+     * @param depth 最大深度，从1开始，为DEPTH_NO_LIMIT时不限制
+     * @return
+     */
+    public CallGraphQuery depth(int depth) {
+        if (depth < 0) {
+            throw new JavaCGRuntimeException("遍历的深度不能小于0 " + depth);
+        }
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * 指定方法调用关系的过滤条件，不满足条件的方法调用关系不会返回，也不会继续遍历其下层的调用链
+     * 若只需要过滤返回的结果但继续遍历，可以对stream()的返回值使用Stream.filter()
+     *
+     * @param filter
+     * @return
+     */
+    public CallGraphQuery filter(Predicate<CallGraphEdge> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    @Override
+    public Iterator<CallGraphEdge> iterator() {
+        if (callGraphIgnoreRule != null && callGraphIgnoreRule.ignoreCurrentMethod(null, startFullMethod)) {
+            // 起始方法需要忽略，与生成调用链文件时相同，不返回结果
+            return Collections.emptyIterator();
+        }
+        String startMethodHash = JACGUtil.genHashWithLen(startFullMethod);
+        if (down) {
+            return new CalleeEdgeIterator(startMethodHash);
+        }
+        return new CallerEdgeIterator(startMethodHash);
+    }
+
+    /**
+     * 返回按需遍历的方法调用关系流，可使用Stream.limit()、Stream.findFirst()等方法提前结束遍历
+     *
+     * @return
+     */
+    public Stream<CallGraphEdge> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // 判断是否需要继续遍历下一层，level为当前方法调用所在的层级
+    private boolean needGoDeeper(int level) {
+        return depth == DEPTH_NO_LIMIT || level < depth;
+    }
+
+    /**
+     * 判断方法调用是否需要跳过，与生成调用链文件时相同
+     *
+     * @param callType   方法调用类型
+     * @param fullMethod 向下遍历时为被调用完整方法，向上遍历时为调用完整方法
+     * @param enabled    方法调用是否被启用
+     * @return true: 跳过 false: 不跳过
+     */
+    private boolean skipMethodCall(String callType, String fullMethod, int enabled) {
+        if (!JavaCGYesNoEnum.isYes(enabled)) {
+            // 跳过被禁用的方法调用
+            return true;
+        }
+        return callGraphIgnoreRule != null && callGraphIgnoreRule.ignoreCurrentMethod(callType, fullMethod);
+    }
+
+    // 返回结果的迭代器基类，查询下一条结果并缓存
+    private abstract static class BaseEdgeIterator implements Iterator<CallGraphEdge> {
+        private CallGraphEdge nextEdge;
+
+        private boolean finished = false;
+
+        @Override
+        public boolean hasNext() {
+            if (nextEdge == null && !finished) {
+                nextEdge = findNext();
+                finished = nextEdge == null;
+            }
+            return nextEdge != null;
+        }
+
+        @Override
+        public CallGraphEdge next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CallGraphEdge edge = nextEdge;
+            nextEdge = null;
+            return edge;
+        }
+
+        // 查询下一条结果，返回null时代表遍历结束
+        protected abstract CallGraphEdge findNext();
+    }
+
+    // 遍历向下的调用链，与生成向下的调用链时使用相同的方式查询方法调用关系
+    private class CalleeEdgeIterator extends BaseEdgeIterator {
+        private final ListAsStack<CallGraphNode4Caller> nodeStack = new ListAsStack<>();
+
+        // 记录子类方法调用父类方法对应信息的栈
+        private final ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack = new ListAsStack<>();
+
+        CalleeEdgeIterator(String startMethodHash) {
+            nodeStack.push(new CallGraphNode4Caller(startMethodHash, JavaCGConstants.METHOD_CALL_ID_START, startFullMethod));
+        }
+
+        @Override
+        protected CallGraphEdge findNext() {
+            while (!nodeStack.isEmpty()) {
+                CallGraphNode4Caller node = nodeStack.peek();
+                // 查询当前节点的下一个被调用方法
+                WriteDbData4MethodCall calleeMethod = storage.queryNextCallee(node.getCallerMethodHash(), node.getMethodCallId(), JACGConstants.LINE_NUM_NONE,
+                        JACGConstants.LINE_NUM_NONE);
+                if (calleeMethod == null) {
+                    // 当前节点的被调用方法已处理完毕，将对应层级的子类方法调用父类方法对应信息出栈
+                    childMethodReplaceHandler.removeChildCallSuperInfo(childCallSuperInfoStack, nodeStack.getHead());
+                    nodeStack.removeTop();
+                    continue;
+                }
+                node.setMethodCallId(calleeMethod.getCallId());
+
+                String callType = calleeMethod.getCallType();
+                // 处理子类方法调用父类方法的相关信息
+                MethodAndHash calleeMethodAndHash = childMethodReplaceHandler.handleChildCallSuperInfo(childCallSuperInfoStack, nodeStack.getHead(),
+                        calleeMethod.getCalleeFullMethod(), node.getCallerFullMethod(), callType, calleeMethod.getCalleeMethodHash());
+                String calleeFullMethod = calleeMethodAndHash.getFullMethod();
+                String calleeMethodHash = calleeMethodAndHash.getMethodHash();
+                if (skipMethodCall(callType, calleeFullMethod, calleeMethod.getEnabled())) {
+                    continue;
+                }
+
+                int level = nodeStack.getHead() + 1;
+                CallGraphEdge edge = new CallGraphEdge(level, calleeMethod.getCallId(), callType, node.getCallerFullMethod(), node.getCallerMethodHash(),
+                        calleeMethod.getCallerLineNumber(), calleeFullMethod, calleeMethodHash, calleeMethod.getCallFlags(), findCycleCallLevel(calleeMethodHash));
+                if (filter != null && !filter.test(edge)) {
+                    continue;
+                }
+
+                if (!edge.isCycleCall() && needGoDeeper(level)) {
+                    nodeStack.push(new CallGraphNode4Caller(calleeMethodHash, JavaCGConstants.METHOD_CALL_ID_START, calleeFullMethod));
+                }
+                return edge;
+            }
+            return null;
+        }
+
+        // 查找循环调用的方法所在的层级
+        private int findCycleCallLevel(String calleeMethodHash) {
+            for (int i = 0; i <= nodeStack.getHead(); i++) {
+                if (calleeMethodHash.equals(nodeStack.getElement(i).getCallerMethodHash())) {
+                    return i;
+                }
+            }
+            return JACGConstants.NO_CYCLE_CALL_FLAG;
+        }
+    }
+
+    // 遍历向上的调用链，与生成向上的调用链时使用相同的方式查询方法调用关系
+    private class CallerEdgeIterator extends BaseEdgeIterator {
+        private final ListAsStack<CallGraphNode4Callee> nodeStack = new ListAsStack<>();
+
+        // 记录父类方法调用子类方法对应信息的栈
+        private final ListAsStack<SuperCallChildInfo> superCallChildInfoStack = new ListAsStack<>();
+
+        CallerEdgeIterator(String startMethodHash) {
+            nodeStack.push(new CallGraphNode4Callee(startMethodHash, null, startFullMethod));
+        }
+
+        @Override
+        protected CallGraphEdge findNext() {
+            while (!nodeStack.isEmpty()) {
+                CallGraphNode4Callee node = nodeStack.peek();
+                // 查询当前节点的下一个调用方法，调用方法HASH+长度为null时为第一次查询
+                WriteDbData4MethodCall callerMethod = storage.queryNextCaller(node.getCalleeMethodHash(), node.getCallerMethodHash());
+                if (callerMethod == null) {
+                    // 当前节点的调用方法已处理完毕，将对应层级的父类方法调用子类方法对应信息出栈
+                    childMethodReplaceHandler.removeSuperCallChildInfo(superCallChildInfoStack, nodeStack.getHead());
+                    nodeStack.removeTop();
+                    continue;
+                }
+                // 更新当前处理节点的callerMethodHash，使用原始调用方法HASH+长度，与查询条件对应
+                String origCallerMethodHash = callerMethod.getCallerMethodHash();
+                node.setCallerMethodHash(origCallerMethodHash);
+
+                String callType = callerMethod.getCallType();
+                // 处理父类方法调用子类方法的相关信息
+                MethodAndHash callerMethodAndHash = childMethodReplaceHandler.handleSuperCallChildInfo(superCallChildInfoStack, nodeStack.getHead(),
+                        node.getCalleeFullMethod(), callerMethod.getCallerFullMethod(), callType, origCallerMethodHash);
+                String callerFullMethod = callerMethodAndHash.getFullMethod();
+                String callerMethodHash = callerMethodAndHash.getMethodHash();
+                if (skipMethodCall(callType, callerFullMethod, callerMethod.getEnabled())) {
+                    continue;
+                }
+
+                int level = nodeStack.getHead() + 1;
+                CallGraphEdge edge = new CallGraphEdge(level, callerMethod.getCallId(), callType, callerFullMethod, callerMethodHash, callerMethod.getCallerLineNumber(),
+                        node.getCalleeFullMethod(), node.getCalleeMethodHash(), callerMethod.getCallFlags(), findCycleCallLevel(callerMethodHash));
+                if (filter != null && !filter.test(edge)) {
+                    continue;
+                }
+
+                if (!edge.isCycleCall() && needGoDeeper(level)) {
+                    nodeStack.push(new CallGraphNode4Callee(callerMethodHash, null, callerFullMethod));
+                }
+                return edge;
+            }
+            return null;
+        }
+
+        // 查找循环调用的方法所在的层级
+        private int findCycleCallLevel(String callerMethodHash) {
+            // 与生成向上的调用链时相同，从栈顶往下查找
+            for (int i = nodeStack.getHead(); i >= 0; i--) {
+                if (callerMethodHash.equals(nodeStack.getElement(i).getCalleeMethodHash())) {
+                    return i;
+                }
+            }
+            return JACGConstants.NO_CYCLE_CALL_FLAG;
+        }
+    }
+}
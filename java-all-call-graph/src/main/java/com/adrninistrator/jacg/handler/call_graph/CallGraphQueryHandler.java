@@ -0,0 +1,78 @@
+package com.adrninistrator.jacg.handler.call_graph;
+
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.handler.extends_impl.JACGExtendsImplHandler;
+import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 通过代码查询方法向下或向上的调用链，不需要生成调用链文件再进行解析
+ * 与生成调用链文件时使用相同的需要忽略的方法的规则，以及将父类方法替换为子类方法的处理
+ * 使用示例：callGraphQueryHandler.callees(fullMethod).depth(5).filter(edge -> ...).stream().limit(100)
+ */
+public class CallGraphQueryHandler extends BaseHandler {
+
+    // 将父类方法替换为子类方法的处理类
+    private final ChildMethodReplaceHandler childMethodReplaceHandler;
+
+    // 需要忽略的方法的规则，为null时不忽略方法
+    private final CallGraphIgnoreRule callGraphIgnoreRule;
+
+    public CallGraphQueryHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+        callGraphIgnoreRule = CallGraphIgnoreRule.genInstance(configureWrapper);
+        if (callGraphIgnoreRule == null) {
+            close();
+            throw new JavaCGRuntimeException("读取生成方法完整调用链时需要忽略的方法的配置文件失败");
+        }
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, new JACGExtendsImplHandler(dbOperWrapper));
+    }
+
+    /**
+     * 使用该构造函数时不会忽略方法，仅跳过被禁用的方法调用，结果可能比生成的调用链文件多
+     * 需要与调用链文件一致时，使用可以指定配置的构造函数
+     *
+     * @param dbOperWrapper
+     */
+    public CallGraphQueryHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+        callGraphIgnoreRule = null;
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, new JACGExtendsImplHandler(dbOperWrapper));
+    }
+
+    /**
+     * @param dbOperWrapper
+     * @param configureWrapper 用于读取需要忽略的方法的配置
+     */
+    public CallGraphQueryHandler(DbOperWrapper dbOperWrapper, ConfigureWrapper configureWrapper) {
+        super(dbOperWrapper);
+        callGraphIgnoreRule = CallGraphIgnoreRule.genInstance(configureWrapper);
+        if (callGraphIgnoreRule == null) {
+            throw new JavaCGRuntimeException("读取生成方法完整调用链时需要忽略的方法的配置文件失败");
+        }
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, new JACGExtendsImplHandler(dbOperWrapper));
+    }
+
+    /**
+     * 查询指定方法向下的调用链
+     *
+     * @param fullMethod 完整方法
+     * @return
+     */
+    public CallGraphQuery callees(String fullMethod) {
+        return new CallGraphQuery(dbOperWrapper.getStorage(), childMethodReplaceHandler, callGraphIgnoreRule, fullMethod, true);
+    }
+
+    /**
+     * 查询指定方法向上的调用链
+     *
+     * @param fullMethod 完整方法
+     * @return
+     */
+    public CallGraphQuery callers(String fullMethod) {
+        return new CallGraphQuery(dbOperWrapper.getStorage(), childMethodReplaceHandler, callGraphIgnoreRule, fullMethod, false);
+    }
+}
@@ -0,0 +1,308 @@
+package com.adrninistrator.jacg.handler.call_graph;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.call_graph.ChildCallSuperInfo;
+import com.adrninistrator.jacg.dto.call_graph.SuperCallChildInfo;
+import com.adrninistrator.jacg.dto.method.MethodAndHash;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.handler.extends_impl.JACGExtendsImplHandler;
+import com.adrninistrator.jacg.util.JACGClassMethodUtil;
+import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
+import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
+import com.adrninistrator.javacg.dto.stack.ListAsStack;
+import com.adrninistrator.javacg.util.JavaCGMethodUtil;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 生成方法完整调用链时，将父类方法替换为子类方法的处理类
+ * 生成向下的调用链时，子类方法调用父类方法后，父类方法再调用的方法若在子类中存在，替换为子类方法（CCS）
+ * 生成向上的调用链时，父类方法调用子类方法后，调用父类方法的方法若在子类中存在，替换为子类方法（SCC）
+ * 生成调用链文件，以及通过代码查询调用链时使用相同的处理
+ */
+public class ChildMethodReplaceHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ChildMethodReplaceHandler.class);
+
+    private final JACGExtendsImplHandler jacgExtendsImplHandler;
+
+    public ChildMethodReplaceHandler(DbOperWrapper dbOperWrapper, JACGExtendsImplHandler jacgExtendsImplHandler) {
+        super(dbOperWrapper);
+        this.jacgExtendsImplHandler = jacgExtendsImplHandler;
+    }
+
+    /**
+     * 生成向下的调用链时，处理子类方法调用父类方法的相关信息
+     *
+     * @param childCallSuperInfoStack 记录子类方法调用父类方法对应信息的栈
+     * @param nodeLevel               调用方法的节点层级
+     * @param calleeFullMethod        被调用完整方法
+     * @param callerFullMethod        调用完整方法
+     * @param callType                方法调用类型
+     * @param calleeMethodHash        被调用方法HASH+长度
+     * @return 需要使用的被调用方法及方法HASH+长度
+     */
+    public MethodAndHash handleChildCallSuperInfo(ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack,
+                                                  int nodeLevel,
+                                                  String calleeFullMethod,
+                                                  String callerFullMethod,
+                                                  String callType,
+                                                  String calleeMethodHash) {
+        if (JavaCGCallTypeEnum.CTE_CHILD_CALL_SUPER.getType().equals(callType)
+                || JavaCGCallTypeEnum.CTE_CHILD_CALL_SUPER_SPECIAL.getType().equals(callType)) {
+            // 当前方法调用类型是子类调用父类方法，记录子类方法调用父类方法对应信息的栈入栈
+            String callerClassName = JACGClassMethodUtil.getClassNameFromMethod(callerFullMethod);
+            String callerSimpleClassName = dbOperWrapper.getSimpleClassName(callerClassName);
+            ChildCallSuperInfo childCallSuperInfo = new ChildCallSuperInfo(nodeLevel, callerSimpleClassName, callerClassName, callerFullMethod);
+            childCallSuperInfoStack.push(childCallSuperInfo);
+            return new MethodAndHash(calleeFullMethod, calleeMethodHash);
+        }
+
+        // 获取子类的被调用方法
+        Pair<Boolean, MethodAndHash> pair = getCCSChildFullMethod(childCallSuperInfoStack, calleeFullMethod);
+        if (Boolean.TRUE.equals(pair.getLeft())) {
+            // 使用子类的被调用方法
+            return pair.getRight();
+        }
+
+        return new MethodAndHash(calleeFullMethod, calleeMethodHash);
+    }
+
+    /**
+     * 生成向下的调用链时，调用方法的节点出栈前，将对应层级的子类方法调用父类方法对应信息出栈
+     *
+     * @param childCallSuperInfoStack 记录子类方法调用父类方法对应信息的栈
+     * @param nodeLevel               出栈的调用方法的节点层级
+     */
+    public void removeChildCallSuperInfo(ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack, int nodeLevel) {
+        if (!childCallSuperInfoStack.isEmpty()) {
+            // 记录子类方法调用父类方法对应信息的栈非空
+            ChildCallSuperInfo topChildCallSuperInfo = childCallSuperInfoStack.peek();
+            if (topChildCallSuperInfo.getChildCallerNodeLevel() == nodeLevel) {
+                // 记录子类方法调用父类方法对应信息的栈顶元素，与方法调用节点栈出栈的级别相同，出栈
+                childCallSuperInfoStack.removeTop();
+            }
+        }
+    }
+
+    /**
+     * 获取子类的被调用方法，若不满足则使用原始方法
+     *
+     * @param childCallSuperInfoStack
+     * @param calleeFullMethod
+     * @return left true: 使用子类的被调用方法 false: 使用原始的被调用方法
+     * @return right: 子类的被调用方法、方法HASH+长度
+     */
+    private Pair<Boolean, MethodAndHash> getCCSChildFullMethod(ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack, String calleeFullMethod) {
+        // 判断子类方法调用父类方法对应信息的栈是否有数据
+        if (childCallSuperInfoStack.isEmpty()) {
+            return new ImmutablePair<>(Boolean.FALSE, null);
+        }
+
+        String calleeMethodWithArgs = JACGClassMethodUtil.getMethodNameWithArgsFromFull(calleeFullMethod);
+        if (calleeMethodWithArgs.startsWith(JavaCGCommonNameConstants.METHOD_NAME_INIT)) {
+            // 被调用方法为构造函数，使用原始被调用方法
+            return new ImmutablePair<>(Boolean.FALSE, null);
+        }
+
+        String calleeClassName = JACGClassMethodUtil.getClassNameFromMethod(calleeFullMethod);
+        String calleeSimpleClassName = dbOperWrapper.getSimpleClassName(calleeClassName);
+
+        String ccsChildFullMethod = null;
+        String ccsChildMethodHash = null;
+        // 保存上一次处理的被调用唯一类名
+        String lastChildCallerSimpleClassName = null;
+        // 对子类方法调用父类方法对应信息的栈，从栈顶往下遍历
+        for (int i = childCallSuperInfoStack.getHead(); i >= 0; i--) {
+            ChildCallSuperInfo childCallSuperInfo = childCallSuperInfoStack.getElement(i);
+            String childCallerSimpleClassName = childCallSuperInfo.getChildCallerSimpleClassName();
+
+            if (lastChildCallerSimpleClassName != null) {
+                if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(lastChildCallerSimpleClassName, childCallerSimpleClassName)) {
+                    // 当前已不是第一次处理，判断上次的子类是否为当前子类的父类，若是则可以继续处理，若否则结束循环
+                    break;
+                }
+                logger.debug("继续处理子类 {} {}", lastChildCallerSimpleClassName, childCallerSimpleClassName);
+            }
+            lastChildCallerSimpleClassName = childCallerSimpleClassName;
+
+            // 判断子类方法调用父类方法对应信息的栈的调用类（对应子类）是否为当前被调用类的子类
+            if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(calleeSimpleClassName, childCallerSimpleClassName)) {
+                // 子类方法调用父类方法对应信息的栈的调用类（对应子类）不是当前被调用类的子类
+                break;
+            }
+            // 子类方法调用父类方法对应信息的栈的调用类为当前被调用类的子类
+            String tmpCcsChildFullMethod = JavaCGMethodUtil.formatFullMethodWithArgs(childCallSuperInfo.getChildCallerClassName(), calleeMethodWithArgs);
+
+            // 判断子类方法是否有被调用方法
+            SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MI_QUERY_METHOD_HASH;
+            String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+            if (sql == null) {
+                sql = " select " + DC.MI_METHOD_HASH +
+                        " from " + DbTableInfoEnum.DTIE_METHOD_INFO.getTableName() +
+                        " where " + DC.MI_SIMPLE_CLASS_NAME + " = ?" +
+                        " and " + DC.MI_FULL_METHOD + " like concat(?, '%')" +
+                        " limit 1";
+                sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+            }
+
+            String tmpCcsChildMethodHash = dbOperator.queryObjectOneColumn(sql, String.class, childCallerSimpleClassName, tmpCcsChildFullMethod);
+            if (tmpCcsChildMethodHash == null) {
+                // 子类方法不存在，需要继续使用栈中的数据进行处理，可能栈底是子类，栈顶是父类
+                continue;
+            }
+
+            // 子类方法存在，使用子类方法
+            ccsChildFullMethod = tmpCcsChildFullMethod;
+            ccsChildMethodHash = tmpCcsChildMethodHash;
+        }
+
+        if (ccsChildFullMethod != null) {
+            logger.debug("替换子类的向下的方法调用 {} {}", calleeFullMethod, ccsChildFullMethod);
+            // 使用子类对应的方法，返回子类方法及子类方法HASH+长度
+            return new ImmutablePair<>(Boolean.TRUE, new MethodAndHash(ccsChildFullMethod, ccsChildMethodHash));
+        }
+        // 使用原始被调用方法
+        return new ImmutablePair<>(Boolean.FALSE, null);
+    }
+
+    /**
+     * 生成向上的调用链时，处理父类方法调用子类方法的相关信息
+     *
+     * @param superCallChildInfoStack 记录父类方法调用子类方法对应信息的栈
+     * @param nodeLevel               被调用方法的节点层级
+     * @param calleeFullMethod        被调用完整方法
+     * @param callerFullMethod        调用完整方法
+     * @param callType                方法调用类型
+     * @param callerMethodHash        调用方法HASH+长度
+     * @return 需要使用的调用方法及方法HASH+长度
+     */
+    public MethodAndHash handleSuperCallChildInfo(ListAsStack<SuperCallChildInfo> superCallChildInfoStack,
+                                                  int nodeLevel,
+                                                  String calleeFullMethod,
+                                                  String callerFullMethod,
+                                                  String callType,
+                                                  String callerMethodHash) {
+        if (JavaCGCallTypeEnum.CTE_SUPER_CALL_CHILD.getType().equals(callType)) {
+            // 当前方法调用类型是父类调用子类方法，记录父类方法调用子类方法对应信息的栈入栈
+            String calleeClassName = JACGClassMethodUtil.getClassNameFromMethod(calleeFullMethod);
+            String calleeSimpleClassName = dbOperWrapper.getSimpleClassName(calleeClassName);
+            SuperCallChildInfo superCallChildInfo = new SuperCallChildInfo(nodeLevel, calleeSimpleClassName, calleeClassName, calleeFullMethod);
+            superCallChildInfoStack.push(superCallChildInfo);
+            return new MethodAndHash(callerFullMethod, callerMethodHash);
+        }
+
+        // 获取子类的调用方法
+        Pair<Boolean, MethodAndHash> pair = getSCCChildFullMethod(superCallChildInfoStack, callerFullMethod);
+        if (Boolean.TRUE.equals(pair.getLeft())) {
+            // 使用子类的调用方法
+            return pair.getRight();
+        }
+
+        return new MethodAndHash(callerFullMethod, callerMethodHash);
+    }
+
+    /**
+     * 生成向上的调用链时，被调用方法的节点出栈前，将对应层级的父类方法调用子类方法对应信息出栈
+     *
+     * @param superCallChildInfoStack 记录父类方法调用子类方法对应信息的栈
+     * @param nodeLevel               出栈的被调用方法的节点层级
+     */
+    public void removeSuperCallChildInfo(ListAsStack<SuperCallChildInfo> superCallChildInfoStack, int nodeLevel) {
+        if (!superCallChildInfoStack.isEmpty()) {
+            // 记录父类方法调用子类方法对应信息的栈非空
+            SuperCallChildInfo topSuperCallChildInfo = superCallChildInfoStack.peek();
+            if (topSuperCallChildInfo.getChildCalleeNodeLevel() == nodeLevel) {
+                // 记录父类方法调用子类方法对应信息的栈顶元素，与方法调用节点栈出栈的级别相同，出栈
+                superCallChildInfoStack.removeTop();
+            }
+        }
+    }
+
+    /**
+     * 获取子类的调用方法，若不满足则使用原始方法
+     *
+     * @param superCallChildInfoStack
+     * @param callerFullMethod
+     * @return left true: 使用子类的调用方法 false: 使用原始的调用方法
+     * @return right: 子类的调用方法、方法HASH+长度
+     */
+    private Pair<Boolean, MethodAndHash> getSCCChildFullMethod(ListAsStack<SuperCallChildInfo> superCallChildInfoStack, String callerFullMethod) {
+        // 判断父类方法调用子类方法对应信息的栈是否有数据
+        if (superCallChildInfoStack.isEmpty()) {
+            return new ImmutablePair<>(Boolean.FALSE, null);
+        }
+
+        String callerMethodWithArgs = JACGClassMethodUtil.getMethodNameWithArgsFromFull(callerFullMethod);
+        if (callerMethodWithArgs.startsWith(JavaCGCommonNameConstants.METHOD_NAME_INIT)) {
+            // 调用方法为构造函数，使用原始调用方法
+            return new ImmutablePair<>(Boolean.FALSE, null);
+        }
+
+        String callerClassName = JACGClassMethodUtil.getClassNameFromMethod(callerFullMethod);
+        String callerSimpleClassName = dbOperWrapper.getSimpleClassName(callerClassName);
+
+        String sccChildFullMethod = null;
+        String sccChildMethodHash = null;
+        // 保存上一次处理的被调用唯一类名
+        String lastChildCalleeSimpleClassName = null;
+        // 对父类方法调用子类方法对应信息的栈，从栈顶往下遍历
+        for (int i = superCallChildInfoStack.getHead(); i >= 0; i--) {
+            SuperCallChildInfo superCallChildSInfo = superCallChildInfoStack.getElement(i);
+            String childCalleeSimpleClassName = superCallChildSInfo.getChildCalleeSimpleClassName();
+
+            if (lastChildCalleeSimpleClassName != null) {
+                if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(lastChildCalleeSimpleClassName, childCalleeSimpleClassName)) {
+                    // 当前已不是第一次处理，判断上次的子类是否为当前子类的父类，若是则可以继续处理，若否则结束循环
+                    break;
+                }
+                logger.debug("继续处理子类 {} {}", lastChildCalleeSimpleClassName, childCalleeSimpleClassName);
+            }
+            lastChildCalleeSimpleClassName = childCalleeSimpleClassName;
+
+            // 判断父类方法调用子类方法对应信息的栈的调用类（对应子类）是否为当前调用类的子类
+            if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(callerSimpleClassName, childCalleeSimpleClassName)) {
+                // 父类方法调用子类方法对应信息的栈的调用类（对应子类）不是当前被调用类的子类
+                break;
+            }
+            // 父类方法调用子类方法对应信息的栈的调用类为当前被调用类的子类
+            String tmpSccChildFullMethod = JavaCGMethodUtil.formatFullMethodWithArgs(superCallChildSInfo.getChildCalleeClassName(), callerMethodWithArgs);
+
+            // 判断子类方法是否有被调用方法
+            SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MI_QUERY_SIMPLE_CLASS_NAME;
+            String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+            if (sql == null) {
+                sql = " select " + DC.MI_SIMPLE_CLASS_NAME +
+                        " from " + DbTableInfoEnum.DTIE_METHOD_INFO.getTableName() +
+                        " where " + DC.MI_SIMPLE_CLASS_NAME + " = ?" +
+                        " and " + DC.MI_FULL_METHOD + " like concat(?, '%')" +
+                        " limit 1";
+                sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+            }
+            String simpleClassName = dbOperator.queryObjectOneColumn(sql, String.class, childCalleeSimpleClassName, tmpSccChildFullMethod);
+            if (simpleClassName != null) {
+                // 子类方法存在，需要继续使用栈中的数据进行处理
+                continue;
+            }
+
+            // 子类方法存在，使用子类方法
+            sccChildFullMethod = tmpSccChildFullMethod;
+            sccChildMethodHash = JACGUtil.genHashWithLen(sccChildFullMethod);
+        }
+
+        if (sccChildFullMethod != null && sccChildMethodHash != null) {
+            logger.debug("替换子类的向上的方法调用 {} {}", callerFullMethod, sccChildFullMethod);
+            // 使用子类对应的方法，返回子类方法及子类方法HASH+长度
+            return new ImmutablePair<>(Boolean.TRUE, new MethodAndHash(sccChildFullMethod, sccChildMethodHash));
+        }
+        // 使用原始被调用方法
+        return new ImmutablePair<>(Boolean.FALSE, null);
+    }
+}
@@ -0,0 +1,273 @@
+package com.adrninistrator.jacg.handler.change_impact;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.EntryPointTypeEnum;
+import com.adrninistrator.jacg.common.enums.MethodChangeTypeEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCodeHash;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4SpringController;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.handler.dto.change_impact.AffectedEntryPoint;
+import com.adrninistrator.jacg.handler.dto.change_impact.ChangeImpactResult;
+import com.adrninistrator.jacg.handler.dto.change_impact.ChangedMethod;
+import com.adrninistrator.jacg.handler.spring.SpringHandler;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 方法变化影响范围分析，比较当前与上一次写入数据库时的方法字节码HASH，找到发生变化的方法，
+ * 再从发生变化的方法开始遍历向上的调用链，找到受影响的入口方法（Spring Controller方法、Spring定时任务方法）
+ * 只查询发生变化的方法及其上层调用方法，不需要加载完整的方法调用关系，可在每次合并代码后执行
+ * 需要在执行至少两次RunnerWriteDb之后使用
+ */
+public class ChangeImpactHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeImpactHandler.class);
+
+    // 代表不限制遍历的深度
+    public static final int DEPTH_NO_LIMIT = 0;
+
+    public ChangeImpactHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+    }
+
+    public ChangeImpactHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+    }
+
+    /**
+     * 查询与上一次写入数据库时相比，字节码发生变化的方法，包括新增、修改、删除的方法
+     *
+     * @return null: 查询失败
+     */
+    public List<ChangedMethod> queryChangedMethods() {
+        List<WriteDbData4MethodCodeHash> addedModifiedList = queryAddedModifiedMethods();
+        if (addedModifiedList == null) {
+            return null;
+        }
+        List<WriteDbData4MethodCodeHash> removedList = queryRemovedMethods();
+        if (removedList == null) {
+            return null;
+        }
+
+        List<ChangedMethod> changedMethodList = new ArrayList<>(addedModifiedList.size() + removedList.size());
+        for (WriteDbData4MethodCodeHash methodCodeHash : addedModifiedList) {
+            // 上一次的方法字节码HASH为空时，代表方法是新增的
+            MethodChangeTypeEnum changeType = methodCodeHash.getCodeHash() == null ? MethodChangeTypeEnum.MCTE_ADDED : MethodChangeTypeEnum.MCTE_MODIFIED;
+            changedMethodList.add(new ChangedMethod(methodCodeHash.getMethodHash(), methodCodeHash.getFullMethod(), changeType));
+        }
+        for (WriteDbData4MethodCodeHash methodCodeHash : removedList) {
+            changedMethodList.add(new ChangedMethod(methodCodeHash.getMethodHash(), methodCodeHash.getFullMethod(), MethodChangeTypeEnum.MCTE_REMOVED));
+        }
+        changedMethodList.sort(Comparator.comparing(ChangedMethod::getFullMethod));
+        return changedMethodList;
+    }
+
+    /**
+     * 分析方法变化的影响范围，不限制遍历的深度
+     *
+     * @return null: 处理失败
+     */
+    public ChangeImpactResult analyseChangeImpact() {
+        return analyseChangeImpact(DEPTH_NO_LIMIT);
+    }
+
+    /**
+     * 分析方法变化的影响范围
+     * 从所有发生变化的方法开始，同时按层级遍历向上的调用链，每个方法只处理一次，因此每个入口方法记录的是距离最近的发生变化的方法
+     *
+     * @param maxDepth 遍历向上的调用链的最大深度，为DEPTH_NO_LIMIT时不限制
+     * @return null: 处理失败
+     */
+    public ChangeImpactResult analyseChangeImpact(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new JavaCGRuntimeException("遍历的深度不能小于0 " + maxDepth);
+        }
+
+        long startTime = System.currentTimeMillis();
+        Long lastNum = queryLastMethodCodeHashNum();
+        if (lastNum == null) {
+            return null;
+        }
+        if (lastNum == 0L) {
+            logger.warn("上一次写入数据库时的方法字节码HASH为空，需要执行至少两次 RunnerWriteDb 后再分析方法变化的影响范围");
+            return new ChangeImpactResult(Collections.emptyList(), Collections.emptyList(), 0);
+        }
+
+        List<ChangedMethod> changedMethodList = queryChangedMethods();
+        if (changedMethodList == null) {
+            return null;
+        }
+        if (changedMethodList.isEmpty()) {
+            logger.info("不存在字节码发生变化的方法");
+            return new ChangeImpactResult(changedMethodList, Collections.emptyList(), 0);
+        }
+
+        // 查询入口方法
+        Map<String, List<String>> controllerUriMap = queryControllerUriMap();
+        if (controllerUriMap == null) {
+            return null;
+        }
+        Set<String> taskMethodHashSet = queryTaskMethodHashSet();
+
+        // 已处理的方法HASH+长度
+        Set<String> visitedMethodHashSet = new HashSet<>();
+        // 待处理的方法，数组元素依次为：方法HASH+长度、完整方法、距离最近的发生变化的完整方法
+        Deque<String[]> methodQueue = new ArrayDeque<>();
+        for (ChangedMethod changedMethod : changedMethodList) {
+            if (visitedMethodHashSet.add(changedMethod.getMethodHash())) {
+                methodQueue.add(new String[]{changedMethod.getMethodHash(), changedMethod.getFullMethod(), changedMethod.getFullMethod()});
+            }
+        }
+
+        List<AffectedEntryPoint> affectedEntryPointList = new ArrayList<>();
+        int level = 0;
+        while (!methodQueue.isEmpty()) {
+            // 处理当前层级的方法
+            int currentLevelNum = methodQueue.size();
+            boolean goDeeper = maxDepth == DEPTH_NO_LIMIT || level < maxDepth;
+            for (int i = 0; i < currentLevelNum; i++) {
+                String[] methodInfo = methodQueue.poll();
+                String methodHash = methodInfo[0];
+                String fullMethod = methodInfo[1];
+                String changedFullMethod = methodInfo[2];
+
+                // 判断当前方法是否为入口方法
+                List<String> uriList = controllerUriMap.get(methodHash);
+                if (uriList != null) {
+                    affectedEntryPointList.add(new AffectedEntryPoint(EntryPointTypeEnum.EPTE_SPRING_CONTROLLER, fullMethod, uriList, level, changedFullMethod));
+                }
+                if (taskMethodHashSet.contains(methodHash)) {
+                    affectedEntryPointList.add(new AffectedEntryPoint(EntryPointTypeEnum.EPTE_SPRING_TASK, fullMethod, Collections.emptyList(), level, changedFullMethod));
+                }
+                if (!goDeeper) {
+                    continue;
+                }
+
+                // 查询调用当前方法的方法
+                List<WriteDbData4MethodCall> callerList = queryCallerByCalleeHash(methodHash);
+                if (callerList == null) {
+                    return null;
+                }
+                for (WriteDbData4MethodCall caller : callerList) {
+                    if (visitedMethodHashSet.add(caller.getCallerMethodHash())) {
+                        methodQueue.add(new String[]{caller.getCallerMethodHash(), caller.getCallerFullMethod(), changedFullMethod});
+                    }
+                }
+            }
+            level++;
+        }
+
+        affectedEntryPointList.sort(Comparator.comparing(AffectedEntryPoint::getEntryPointType).thenComparing(AffectedEntryPoint::getFullMethod));
+        logger.info("字节码发生变化的方法数量 {} 遍历的方法数量 {} 受影响的入口方法数量 {} 耗时 {} 毫秒", changedMethodList.size(), visitedMethodHashSet.size(),
+                affectedEntryPointList.size(), System.currentTimeMillis() - startTime);
+        return new ChangeImpactResult(changedMethodList, affectedEntryPointList, visitedMethodHashSet.size());
+    }
+
+    // 查询上一次写入数据库时的方法字节码HASH数量
+    private Long queryLastMethodCodeHashNum() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MCH_QUERY_LAST_COUNT;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select count(*) from " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName();
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryObjectOneColumn(sql, Long.class);
+    }
+
+    // 查询新增或修改的方法，上一次的方法字节码HASH记录在code_hash字段，新增的方法为null
+    private List<WriteDbData4MethodCodeHash> queryAddedModifiedMethods() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MCH_QUERY_ADDED_MODIFIED;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select c." + DC.MCH_METHOD_HASH + ", c." + DC.MCH_FULL_METHOD + ", l." + DC.MCH_CODE_HASH +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getTableName() + " c" +
+                    " left join " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName() + " l" +
+                    " on c." + DC.MCH_METHOD_HASH + " = l." + DC.MCH_METHOD_HASH +
+                    " where l." + DC.MCH_METHOD_HASH + " is null" +
+                    " or c." + DC.MCH_CODE_HASH + " <> l." + DC.MCH_CODE_HASH;
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodCodeHash.class);
+    }
+
+    // 查询删除的方法
+    private List<WriteDbData4MethodCodeHash> queryRemovedMethods() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MCH_QUERY_REMOVED;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select l." + DC.MCH_METHOD_HASH + ", l." + DC.MCH_FULL_METHOD +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName() + " l" +
+                    " left join " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getTableName() + " c" +
+                    " on l." + DC.MCH_METHOD_HASH + " = c." + DC.MCH_METHOD_HASH +
+                    " where c." + DC.MCH_METHOD_HASH + " is null";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodCodeHash.class);
+    }
+
+    // 查询Spring Controller方法HASH+长度与URI列表的映射
+    private Map<String, List<String>> queryControllerUriMap() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.SPC_QUERY_HASH_URI;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.SPC_METHOD_HASH, DC.SPC_SHOW_URI) +
+                    " from " + DbTableInfoEnum.DTIE_SPRING_CONTROLLER.getTableName() +
+                    " order by " + JACGSqlUtil.joinColumns(DC.SPC_METHOD_HASH, DC.SPC_SEQ);
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        List<WriteDbData4SpringController> list = dbOperator.queryList(sql, WriteDbData4SpringController.class);
+        if (list == null) {
+            return null;
+        }
+        Map<String, List<String>> controllerUriMap = new HashMap<>();
+        for (WriteDbData4SpringController springController : list) {
+            controllerUriMap.computeIfAbsent(springController.getMethodHash(), k -> new ArrayList<>()).add(springController.getShowUri());
+        }
+        return controllerUriMap;
+    }
+
+    // 查询Spring定时任务方法HASH+长度
+    private Set<String> queryTaskMethodHashSet() {
+        SpringHandler springHandler = new SpringHandler(dbOperWrapper);
+        Set<String> taskMethodHashSet = new HashSet<>();
+        for (String taskFullMethod : springHandler.getAllTaskMethod()) {
+            taskMethodHashSet.add(JACGUtil.genHashWithLen(taskFullMethod));
+        }
+        return taskMethodHashSet;
+    }
+
+    // 查询调用指定方法的方法，仅查询启用的方法调用
+    private List<WriteDbData4MethodCall> queryCallerByCalleeHash(String calleeMethodHash) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_CALLER_BY_CALLEE_HASH;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select distinct " + JACGSqlUtil.joinColumns(DC.MC_CALLER_METHOD_HASH, DC.MC_CALLER_FULL_METHOD) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALLEE_METHOD_HASH + " = ?" +
+                    " and " + DC.MC_ENABLED + " = ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodCall.class, calleeMethodHash, JavaCGYesNoEnum.YES.getIntValue());
+    }
+}
@@ -0,0 +1,259 @@
+package com.adrninistrator.jacg.handler.checkpoint;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4JarInfo;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import com.adrninistrator.jacg.writer.AsyncOutputDirWriter;
+import com.adrninistrator.javacg.common.JavaCGConstants;
+import com.adrninistrator.javacg.util.JavaCGUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 生成调用链清单处理类，在输出目录的清单文件中记录数据库指纹、配置参数HASH，以及已完成的任务对应的调用链文件
+ * 恢复执行时，若数据库指纹及配置参数HASH与清单文件中的相同，则调用链文件存在的任务不再执行
+ * 仅在指定恢复执行时使用，因此恢复执行时需要上一次执行时也指定了恢复执行，才会存在清单文件
+ * 清单文件通过输出目录对应的写文件线程写入，任务完成的记录在对应的调用链文件关闭之后写入，因此清单文件中记录的调用链文件均已完整写入
+ */
+public class GenCallGraphManifestHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GenCallGraphManifestHandler.class);
+
+    // 清单文件中记录数据库指纹的行的前缀
+    public static final String PREFIX_DB_FINGERPRINT = "#db_fingerprint=";
+
+    // 清单文件中记录配置参数HASH的行的前缀
+    public static final String PREFIX_CONFIG_HASH = "#config_hash=";
+
+    // 上一次执行时已完成且调用链文件存在的任务，记录调用链文件相对于输出目录的路径，初始化后只读
+    private final Set<String> lastDoneFileSet = new HashSet<>();
+
+    // 输出目录路径
+    private String outputDirPath;
+
+    // 写清单文件的Writer
+    private Writer manifestWriter;
+
+    public GenCallGraphManifestHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+    }
+
+    public GenCallGraphManifestHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+    }
+
+    /**
+     * 初始化清单文件，需要在创建输出目录之后执行
+     * 读取上一次执行时的清单文件，再重新生成清单文件，保留其中仍然有效的记录
+     *
+     * @param outputDirPath   输出目录路径
+     * @param outputDirWriter 输出目录对应的异步写文件处理类
+     * @param configHash      影响生成的调用链文件内容的配置参数HASH
+     * @return
+     */
+    public boolean init(String outputDirPath, AsyncOutputDirWriter outputDirWriter, String configHash) {
+        this.outputDirPath = outputDirPath;
+        String dbFingerprint = genDbFingerprint();
+        if (dbFingerprint == null) {
+            return false;
+        }
+
+        String manifestFilePath = outputDirPath + File.separator + JACGConstants.FILE_JACG_GEN_MANIFEST;
+        if (!loadLastManifest(manifestFilePath, dbFingerprint, configHash)) {
+            return false;
+        }
+
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(PREFIX_DB_FINGERPRINT).append(dbFingerprint).append(JACGConstants.NEW_LINE)
+                .append(PREFIX_CONFIG_HASH).append(configHash).append(JACGConstants.NEW_LINE);
+        for (String lastDoneFile : lastDoneFileSet) {
+            stringBuilder.append(lastDoneFile).append(JACGConstants.NEW_LINE);
+        }
+        manifestWriter = outputDirWriter.genWriter(manifestFilePath);
+        try {
+            manifestWriter.write(stringBuilder.toString());
+            manifestWriter.flush();
+        } catch (IOException e) {
+            logger.error("写入生成调用链清单文件失败 {} ", manifestFilePath, e);
+            return false;
+        }
+        logger.info("生成调用链清单文件 {} 上一次执行时已完成的任务数量 {}", manifestFilePath, lastDoneFileSet.size());
+        return true;
+    }
+
+    /**
+     * 判断上一次执行时生成指定调用链文件的任务是否已完成
+     *
+     * @param outputFilePath 调用链文件路径
+     * @return
+     */
+    public boolean isTaskDone(String outputFilePath) {
+        return lastDoneFileSet.contains(getRelativePath(outputFilePath));
+    }
+
+    /**
+     * 记录生成指定调用链文件的任务已完成，需要在调用链文件的Writer关闭之后调用，可能在多个线程中执行
+     *
+     * @param outputFilePath 调用链文件路径
+     */
+    public synchronized void recordTaskDone(String outputFilePath) {
+        if (manifestWriter == null) {
+            return;
+        }
+        try {
+            manifestWriter.write(getRelativePath(outputFilePath) + JACGConstants.NEW_LINE);
+            manifestWriter.flush();
+        } catch (IOException e) {
+            logger.warn("记录生成调用链任务已完成失败，恢复执行时会重新执行 {} ", outputFilePath, e);
+        }
+    }
+
+    // 读取上一次执行时的清单文件
+    private boolean loadLastManifest(String manifestFilePath, String dbFingerprint, String configHash) {
+        if (!JACGFileUtil.isFileExists(manifestFilePath)) {
+            logger.info("上一次执行时的生成调用链清单文件不存在，执行全部任务 {}", manifestFilePath);
+            return true;
+        }
+
+        List<String> lineList = JACGFileUtil.readFile2List(manifestFilePath, null);
+        if (lineList == null) {
+            return false;
+        }
+
+        String lastDbFingerprint = null;
+        String lastConfigHash = null;
+        List<String> lastDoneFileList = new ArrayList<>(lineList.size());
+        for (String line : lineList) {
+            if (line.startsWith(PREFIX_DB_FINGERPRINT)) {
+                lastDbFingerprint = line.substring(PREFIX_DB_FINGERPRINT.length());
+            } else if (line.startsWith(PREFIX_CONFIG_HASH)) {
+                lastConfigHash = line.substring(PREFIX_CONFIG_HASH.length());
+            } else {
+                lastDoneFileList.add(line);
+            }
+        }
+
+        if (!dbFingerprint.equals(lastDbFingerprint)) {
+            logger.warn("数据库内容与上一次执行时不同，上一次生成的调用链文件无效，执行全部任务 {} {}", lastDbFingerprint, dbFingerprint);
+            return true;
+        }
+        if (!configHash.equals(lastConfigHash)) {
+            logger.warn("影响调用链文件内容的配置参数与上一次执行时不同，上一次生成的调用链文件无效，执行全部任务 {} {}", lastConfigHash, configHash);
+            return true;
+        }
+
+        for (String lastDoneFile : lastDoneFileList) {
+            if (JACGFileUtil.isFileExists(outputDirPath + File.separator + lastDoneFile)) {
+                lastDoneFileSet.add(lastDoneFile);
+            } else {
+                logger.info("上一次执行时已完成的任务对应的调用链文件不存在，需要重新执行 {}", lastDoneFile);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成数据库指纹，根据jar包信息表中各jar包的路径HASH与文件HASH、数据库内容版本，以及方法调用表与方法调用业务功能数据表的记录数量等聚合值生成，不需要读取表中的全部记录
+     * 重新写入数据库，启用、禁用、人工添加方法调用，或添加、修改方法调用业务功能数据后，数据库内容版本会变化
+     *
+     * @return null: 生成失败
+     */
+    private String genDbFingerprint() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.JI_QUERY_JAR_HASH;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.JI_JAR_PATH_HASH, DC.JI_JAR_HASH) +
+                    " from " + DbTableInfoEnum.DTIE_JAR_INFO.getTableName() +
+                    " order by " + DC.JI_JAR_NUM;
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        List<WriteDbData4JarInfo> jarInfoList = dbOperator.queryList(sql, WriteDbData4JarInfo.class);
+        if (JavaCGUtil.isCollectionEmpty(jarInfoList)) {
+            logger.error("查询到jar包信息为空");
+            return null;
+        }
+
+        String dataVersion = dbOperWrapper.queryDataVersion();
+        if (dataVersion == null) {
+            // 未记录数据库内容版本时，使用随机值，不恢复执行
+            dataVersion = UUID.randomUUID().toString();
+            logger.warn("数据库中未记录数据库内容版本，可能上一次写数据库未完成，不能恢复执行");
+        }
+
+        Long methodCallNum = queryCount(SqlKeyEnum.MC_QUERY_COUNT, DbTableInfoEnum.DTIE_METHOD_CALL);
+        if (methodCallNum == null) {
+            return null;
+        }
+        Long businessDataNum = queryCount(SqlKeyEnum.BD_QUERY_COUNT, DbTableInfoEnum.DTIE_BUSINESS_DATA);
+        if (businessDataNum == null) {
+            return null;
+        }
+
+        List<String> fingerprintList = new ArrayList<>(jarInfoList.size() + 4);
+        for (WriteDbData4JarInfo jarInfo : jarInfoList) {
+            fingerprintList.add(jarInfo.getJarPathHash() + JavaCGConstants.FLAG_COLON + jarInfo.getJarHash());
+        }
+        fingerprintList.add(dataVersion);
+        fingerprintList.add(String.valueOf(methodCallNum));
+        fingerprintList.add(String.valueOf(dbOperWrapper.getMaxMethodCallId()));
+        fingerprintList.add(String.valueOf(businessDataNum));
+        return WriteDbCheckpointHandler.genStringsHash(fingerprintList);
+    }
+
+    /**
+     * 查询数据库表的记录数量
+     *
+     * @param sqlKeyEnum      sql语句的key
+     * @param dbTableInfoEnum 数据库表信息
+     * @return null: 查询失败
+     */
+    private Long queryCount(SqlKeyEnum sqlKeyEnum, DbTableInfoEnum dbTableInfoEnum) {
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select count(*) from " + dbTableInfoEnum.getTableName();
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryObjectOneColumn(sql, Long.class);
+    }
+
+    // 获取调用链文件相对于输出目录的路径
+    private String getRelativePath(String outputFilePath) {
+        if (outputFilePath.startsWith(outputDirPath + File.separator)) {
+            return outputFilePath.substring(outputDirPath.length() + File.separator.length());
+        }
+        return outputFilePath;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (manifestWriter != null) {
+                try {
+                    // 清单文件由写文件线程关闭
+                    manifestWriter.close();
+                } catch (IOException e) {
+                    logger.error("关闭生成调用链清单文件失败 {} ", outputDirPath, e);
+                }
+                manifestWriter = null;
+            }
+        }
+        super.close();
+    }
+}
@@ -0,0 +1,184 @@
+package com.adrninistrator.jacg.handler.checkpoint;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbInsertMode;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.common.enums.WriteDbCheckpointTypeEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4WriteDbCheckpoint;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 写数据库检查点处理类，记录写数据库各阶段及各个写入数据库的处理类的执行进度，用于失败后恢复执行
+ * 阶段的检查点在阶段执行完毕且写入的数据全部提交后记录，写入数据库的处理类的检查点在每个批次提交后记录已连续提交的批次中的记录数
+ */
+public class WriteDbCheckpointHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(WriteDbCheckpointHandler.class);
+
+    // 上一次执行时记录的检查点，key: 检查点名称
+    private final Map<String, WriteDbData4WriteDbCheckpoint> lastCheckpointMap = new HashMap<>();
+
+    public WriteDbCheckpointHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+    }
+
+    public WriteDbCheckpointHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+    }
+
+    /**
+     * 查询上一次执行时记录的检查点，需要在清理数据库表之前执行
+     *
+     * @return false: 查询失败
+     */
+    public boolean loadLastCheckpoints() {
+        lastCheckpointMap.clear();
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.WDC_QUERY_ALL;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT.getColumns()) +
+                    " from " + DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT.getTableName();
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        List<WriteDbData4WriteDbCheckpoint> list = dbOperator.queryList(sql, WriteDbData4WriteDbCheckpoint.class);
+        if (list == null) {
+            return false;
+        }
+        for (WriteDbData4WriteDbCheckpoint checkpoint : list) {
+            lastCheckpointMap.put(checkpoint.getCheckpointName(), checkpoint);
+        }
+        logger.info("上一次执行时记录的检查点数量 {}", lastCheckpointMap.size());
+        return true;
+    }
+
+    /**
+     * 清除上一次执行时记录的检查点，不恢复执行时调用
+     */
+    public void clearLastCheckpoints() {
+        lastCheckpointMap.clear();
+    }
+
+    /**
+     * 返回上一次执行时是否有记录检查点
+     *
+     * @return
+     */
+    public boolean hasLastCheckpoints() {
+        return !lastCheckpointMap.isEmpty();
+    }
+
+    /**
+     * 获取上一次执行时记录的检查点
+     *
+     * @param checkpointName 检查点名称
+     * @return null: 不存在
+     */
+    public WriteDbData4WriteDbCheckpoint getLastCheckpoint(String checkpointName) {
+        return lastCheckpointMap.get(checkpointName);
+    }
+
+    /**
+     * 判断上一次执行时指定阶段是否已完成，不比较阶段的输入HASH
+     *
+     * @param stageName 阶段名称
+     * @return
+     */
+    public boolean isStageDone(String stageName) {
+        WriteDbData4WriteDbCheckpoint checkpoint = lastCheckpointMap.get(stageName);
+        return checkpoint != null && isStageDone(stageName, checkpoint.getInputHash());
+    }
+
+    /**
+     * 判断上一次执行时指定阶段是否已完成
+     *
+     * @param stageName 阶段名称
+     * @param inputHash 阶段的输入HASH，与上一次执行时不同时认为未完成
+     * @return
+     */
+    public boolean isStageDone(String stageName, String inputHash) {
+        WriteDbData4WriteDbCheckpoint checkpoint = lastCheckpointMap.get(stageName);
+        return checkpoint != null &&
+                WriteDbCheckpointTypeEnum.WDCTE_STAGE.getType().equals(checkpoint.getCheckpointType()) &&
+                JavaCGYesNoEnum.isYes(checkpoint.getDone()) &&
+                StringUtils.equals(inputHash, checkpoint.getInputHash());
+    }
+
+    /**
+     * 记录阶段已完成的检查点
+     *
+     * @param stageName 阶段名称
+     * @param inputHash 阶段的输入HASH
+     * @param recordNum 阶段写入数据库的记录数
+     * @return
+     */
+    public boolean recordStageDone(String stageName, String inputHash, int recordNum) {
+        return record(stageName, WriteDbCheckpointTypeEnum.WDCTE_STAGE, inputHash, recordNum, true);
+    }
+
+    /**
+     * 记录写入数据库的处理类的检查点，可能在多个线程中执行
+     *
+     * @param handlerName 写入数据库的处理类简单类名
+     * @param inputHash   读取的文件HASH
+     * @param recordNum   已连续提交的批次中的记录数
+     * @param done        是否已完成
+     * @return
+     */
+    public boolean recordHandler(String handlerName, String inputHash, int recordNum, boolean done) {
+        return record(handlerName, WriteDbCheckpointTypeEnum.WDCTE_HANDLER, inputHash, recordNum, done);
+    }
+
+    // 记录检查点，存在时覆盖
+    private boolean record(String checkpointName, WriteDbCheckpointTypeEnum checkpointTypeEnum, String inputHash, int recordNum, boolean done) {
+        String sql = dbOperWrapper.genAndCacheInsertSql(DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT, DbInsertMode.DIME_REPLACE);
+        if (!dbOperator.insert(sql, checkpointName, checkpointTypeEnum.getType(), StringUtils.defaultString(inputHash), recordNum,
+                done ? JavaCGYesNoEnum.YES.getIntValue() : JavaCGYesNoEnum.NO.getIntValue())) {
+            logger.warn("记录写数据库检查点失败 {} {}", checkpointName, recordNum);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 生成文件HASH（MD5）
+     *
+     * @param filePath
+     * @return null: 生成失败
+     */
+    public static String genFileHash(String filePath) {
+        try (InputStream inputStream = Files.newInputStream(Paths.get(filePath))) {
+            return DigestUtils.md5Hex(inputStream);
+        } catch (Exception e) {
+            logger.error("生成文件HASH失败 {} ", filePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * 根据多个字符串生成HASH（MD5），字符串的顺序会影响结果
+     *
+     * @param strings
+     * @return
+     */
+    public static String genStringsHash(Collection<String> strings) {
+        return DigestUtils.md5Hex(StringUtils.join(strings, JACGConstants.NEW_LINE));
+    }
+}
@@ -0,0 +1,60 @@
+package com.adrninistrator.jacg.handler.dto.change_impact;
+
+import com.adrninistrator.jacg.common.enums.EntryPointTypeEnum;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 受方法变化影响的入口方法
+ */
+public class AffectedEntryPoint {
+    // 入口方法类型
+    private final EntryPointTypeEnum entryPointType;
+
+    // 入口方法完整方法
+    private final String fullMethod;
+
+    // Spring Controller方法对应的URI列表，其他类型的入口方法为空列表
+    private final List<String> uriList;
+
+    // 从入口方法向下到达发生变化的方法的最小层级，入口方法本身发生变化时为0
+    private final int level;
+
+    // 距离入口方法最近的发生变化的方法
+    private final String changedFullMethod;
+
+    public AffectedEntryPoint(EntryPointTypeEnum entryPointType, String fullMethod, List<String> uriList, int level, String changedFullMethod) {
+        this.entryPointType = entryPointType;
+        this.fullMethod = fullMethod;
+        this.uriList = uriList;
+        this.level = level;
+        this.changedFullMethod = changedFullMethod;
+    }
+
+    @Override
+    public String toString() {
+        return entryPointType + " " + fullMethod + " " + uriList + " " + level + " " + changedFullMethod;
+    }
+
+    public EntryPointTypeEnum getEntryPointType() {
+        return entryPointType;
+    }
+
+    public String getFullMethod() {
+        return fullMethod;
+    }
+
+    public List<String> getUriList() {
+        return uriList;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getChangedFullMethod() {
+        return changedFullMethod;
+    }
+}
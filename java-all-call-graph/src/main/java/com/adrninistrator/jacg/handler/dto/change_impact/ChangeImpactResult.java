@@ -0,0 +1,37 @@
+package com.adrninistrator.jacg.handler.dto.change_impact;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 方法变化影响范围分析结果
+ */
+public class ChangeImpactResult {
+    // 发生变化的方法
+    private final List<ChangedMethod> changedMethodList;
+
+    // 受影响的入口方法
+    private final List<AffectedEntryPoint> affectedEntryPointList;
+
+    // 遍历向上的调用链时处理的方法数量
+    private final int visitedMethodNum;
+
+    public ChangeImpactResult(List<ChangedMethod> changedMethodList, List<AffectedEntryPoint> affectedEntryPointList, int visitedMethodNum) {
+        this.changedMethodList = changedMethodList;
+        this.affectedEntryPointList = affectedEntryPointList;
+        this.visitedMethodNum = visitedMethodNum;
+    }
+
+    public List<ChangedMethod> getChangedMethodList() {
+        return changedMethodList;
+    }
+
+    public List<AffectedEntryPoint> getAffectedEntryPointList() {
+        return affectedEntryPointList;
+    }
+
+    public int getVisitedMethodNum() {
+        return visitedMethodNum;
+    }
+}
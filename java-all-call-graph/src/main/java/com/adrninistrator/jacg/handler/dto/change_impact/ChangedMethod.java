@@ -0,0 +1,37 @@
+package com.adrninistrator.jacg.handler.dto.change_impact;
+
+import com.adrninistrator.jacg.common.enums.MethodChangeTypeEnum;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 与上一次写入数据库时相比，字节码发生变化的方法
+ */
+public class ChangedMethod {
+    private final String methodHash;
+    private final String fullMethod;
+    private final MethodChangeTypeEnum changeType;
+
+    public ChangedMethod(String methodHash, String fullMethod, MethodChangeTypeEnum changeType) {
+        this.methodHash = methodHash;
+        this.fullMethod = fullMethod;
+        this.changeType = changeType;
+    }
+
+    @Override
+    public String toString() {
+        return changeType.getDesc() + " " + fullMethod;
+    }
+
+    public String getMethodHash() {
+        return methodHash;
+    }
+
+    public String getFullMethod() {
+        return fullMethod;
+    }
+
+    public MethodChangeTypeEnum getChangeType() {
+        return changeType;
+    }
+}
@@ -19,6 +19,8 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -40,7 +42,7 @@ public abstract class BaseLambdaMethodHandler extends BaseHandler {
     protected AtomicBoolean runningFlag = new AtomicBoolean(false);
 
     /**
-     * 分页查询
+     * 分页查询，各页之间不存在依赖，会在多个线程中并行调用
      *
      * @param startCallId 分页查询call_id起始id（大于）
      * @param endCallId   分页查询call_id结束id（小于等于）
@@ -61,37 +63,55 @@ public abstract class BaseLambdaMethodHandler extends BaseHandler {
             throw new JavaCGRuntimeException("当前类不允许并发调用，请创建新的实例");
         }
 
+        // 并行执行分页查询的线程池，各批分页查询时复用
+        ThreadPoolExecutor threadPoolExecutor = createPageThreadPool();
         try {
+            // 提前生成查询使用的sql语句，避免在多个线程中同时生成
+            genQuerySql(true);
+            genQuerySql(false);
+
             List<LambdaMethodCall> lambdaMethodCallList = new ArrayList<>(100);
+            int pageNumInBatch = dbOperator.getMaxPoolSize() * JACGConstants.DB_PAGE_NUM_PER_THREAD;
 
             // 第一次分页查询时，从call_id最小值开始查询
             int startCallId = JavaCGConstants.METHOD_CALL_ID_START;
-            while (true) {
-                // 分页查询本次从Lambda表达式方法信息表查询的最大的call_id
-                int endCallId = queryMaxCallIdByPage(startCallId);
-                if (endCallId == JACGConstants.PAGE_QUERY_FAIL) {
-                    // 查询失败
-                    return Collections.emptyList();
+            boolean lastQuery = false;
+            while (!lastQuery) {
+                // 生成一批分页查询任务
+                List<Callable<List<LambdaMethodCall>>> taskList = new ArrayList<>(pageNumInBatch);
+                while (!lastQuery && taskList.size() < pageNumInBatch) {
+                    // 分页查询本次从Lambda表达式方法信息表查询的最大的call_id
+                    int endCallId = queryMaxCallIdByPage(startCallId);
+                    if (endCallId == JACGConstants.PAGE_QUERY_FAIL) {
+                        // 查询失败
+                        return Collections.emptyList();
+                    }
+
+                    lastQuery = (endCallId == JACGConstants.PAGE_QUERY_LAST);
+                    int pageStartCallId = startCallId;
+                    // 分页查询Lambda表达式方法调用信息
+                    taskList.add(() -> queryByPage(pageStartCallId, endCallId, args));
+                    // 下一页从当前页的最大call_id之后开始查询
+                    startCallId = endCallId;
                 }
 
-                // 通过类名前缀分页查询Lambda表达式方法调用信息
-                List<LambdaMethodCall> list = queryByPage(startCallId, endCallId, args);
-                if (JavaCGUtil.isCollectionEmpty(list)) {
+                // 并行执行分页查询，按照分页的顺序合并结果
+                List<List<LambdaMethodCall>> resultList = executeInParallel(threadPoolExecutor, taskList);
+                if (resultList == null) {
                     return Collections.emptyList();
                 }
-                if (endCallId == JACGConstants.PAGE_QUERY_LAST) {
-                    // 最后一次分页查询
-                    break;
+                for (List<LambdaMethodCall> list : resultList) {
+                    lambdaMethodCallList.addAll(list);
                 }
-                startCallId = endCallId + 1;
             }
             return lambdaMethodCallList;
         } finally {
+            threadPoolExecutor.shutdownNow();
             runningFlag.set(false);
         }
     }
 
-    // 分页查询本次从Lambda表达式方法信息表查询的最大的call_id
+    // 分页查询本次从Lambda表达式方法信息表查询的最大的call_id，根据上一页的最大call_id查询，不使用offset，避免越往后查询越慢
     private int queryMaxCallIdByPage(int startCallId) {
         logger.debug("分页查询startCallId {}", startCallId);
         SqlKeyEnum sqlKeyEnum = SqlKeyEnum.LMI_QUERY_BY_PAGE_MAX_CALL_ID;
@@ -100,18 +120,23 @@ public abstract class BaseLambdaMethodHandler extends BaseHandler {
             sql = "select " + DC.LMI_CALL_ID +
                     " from " + DbTableInfoEnum.DTIE_LAMBDA_METHOD_INFO.getTableName() +
                     " where " + DC.LMI_CALL_ID + " > ?" +
-                    " limit ?, 1";
+                    " order by " + DC.LMI_CALL_ID +
+                    " limit ?";
             sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
         }
 
-        Integer endCallId = dbOperator.queryObjectOneColumn(sql, Integer.class, startCallId, JACGConstants.DB_PAGE_HANDLE_SIZE - 1);
-        if (endCallId == null) {
+        List<Integer> callIdList = dbOperator.queryListOneColumn(sql, Integer.class, startCallId, JACGConstants.DB_PAGE_HANDLE_SIZE);
+        if (callIdList == null) {
+            return JACGConstants.PAGE_QUERY_FAIL;
+        }
+        if (callIdList.size() < JACGConstants.DB_PAGE_HANDLE_SIZE) {
             // 最后一次分页查询
             logger.debug("最后一次分页查询 {}", startCallId);
             return JACGConstants.PAGE_QUERY_LAST;
         }
 
         // 不是最后一次分页查询
+        int endCallId = callIdList.get(callIdList.size() - 1);
         logger.debug("查询到endCallId {} {}", startCallId, endCallId);
         return endCallId;
     }
@@ -0,0 +1,82 @@
+package com.adrninistrator.jacg.handler.method;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.daemon.MethodCallGraph;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 从方法调用表加载内存中的方法调用关系，供常驻分析进程查询使用
+ */
+public class MethodCallGraphHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(MethodCallGraphHandler.class);
+
+    public MethodCallGraphHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+    }
+
+    public MethodCallGraphHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+    }
+
+    /**
+     * 查询方法调用表中所有启用的方法调用关系，生成内存中的方法调用关系
+     *
+     * @return null: 查询失败
+     */
+    public MethodCallGraph loadMethodCallGraph() {
+        long startTime = System.currentTimeMillis();
+        MethodCallGraph.Builder builder = new MethodCallGraph.Builder();
+        int startCallId = 0;
+        while (true) {
+            // 分页查询方法调用关系
+            List<WriteDbData4MethodCall> methodCallList = queryEnabledMethodCallByPage(startCallId);
+            if (methodCallList == null) {
+                return null;
+            }
+            for (WriteDbData4MethodCall methodCall : methodCallList) {
+                builder.addMethodCall(methodCall.getCallerMethodHash(), methodCall.getCallerFullMethod(), methodCall.getCallerLineNumber(),
+                        methodCall.getCalleeMethodHash(), methodCall.getCalleeFullMethod());
+                startCallId = methodCall.getCallId();
+            }
+            if (methodCallList.size() < JACGConstants.DB_PAGE_HANDLE_SIZE) {
+                break;
+            }
+        }
+
+        MethodCallGraph methodCallGraph = builder.build();
+        logger.info("加载内存中的方法调用关系，方法数量 {} 调用关系数量 {} 耗时 {} 毫秒", methodCallGraph.getMethodNum(), methodCallGraph.getEdgeNum(),
+                System.currentTimeMillis() - startTime);
+        return methodCallGraph;
+    }
+
+    // 分页查询启用的方法调用关系
+    private List<WriteDbData4MethodCall> queryEnabledMethodCallByPage(int startCallId) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_ENABLED_BY_PAGE;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.MC_CALL_ID, DC.MC_CALLER_METHOD_HASH, DC.MC_CALLER_FULL_METHOD, DC.MC_CALLER_LINE_NUMBER,
+                    DC.MC_CALLEE_METHOD_HASH, DC.MC_CALLEE_FULL_METHOD) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALL_ID + " > ?" +
+                    " and " + DC.MC_ENABLED + " = ?" +
+                    " order by " + DC.MC_CALL_ID +
+                    " limit ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodCall.class, startCallId, JavaCGYesNoEnum.YES.getIntValue(), JACGConstants.DB_PAGE_HANDLE_SIZE);
+    }
+}
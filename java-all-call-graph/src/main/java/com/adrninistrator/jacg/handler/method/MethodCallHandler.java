@@ -2,7 +2,6 @@ package com.adrninistrator.jacg.handler.method;
 
 import com.adrninistrator.jacg.common.DC;
 import com.adrninistrator.jacg.common.JACGConstants;
-import com.adrninistrator.jacg.common.enums.DbInsertMode;
 import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
 import com.adrninistrator.jacg.common.enums.MethodCallFlagsEnum;
 import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
@@ -11,6 +10,7 @@ import com.adrninistrator.jacg.dboper.DbOperWrapper;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
 import com.adrninistrator.jacg.handler.base.BaseHandler;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
 import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
@@ -19,6 +19,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -61,16 +64,7 @@ public class MethodCallHandler extends BaseHandler {
 
     // 修改方法调用表启用标志
     private boolean updateMethodCallEnabled(int methodCallId, int enabled) {
-        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_UPDATE_ENABLED;
-        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-        if (sql == null) {
-            sql = "update " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                    " set " + DC.MC_ENABLED + " = ?" +
-                    " where " + DC.MC_CALL_ID + " = ?";
-            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-        }
-
-        int row = dbOperator.update(sql, enabled, methodCallId);
+        int row = dbOperWrapper.getStorage().updateMethodCallEnabled(methodCallId, enabled);
         logger.info("修改方法调用表 {} 启用标志: {} 行数: {}", methodCallId, enabled, row);
         return row > 0;
     }
@@ -83,36 +77,57 @@ public class MethodCallHandler extends BaseHandler {
      * @return
      */
     public boolean updateMethodCallAddFlags(int methodCallId, MethodCallFlagsEnum methodCallFlagsEnum) {
-        SqlKeyEnum sqlKeyEnumQuery = SqlKeyEnum.MC_QUERY_FLAG_BY_ID;
-        String sqlQuery = dbOperWrapper.getCachedSql(sqlKeyEnumQuery);
-        if (sqlQuery == null) {
-            sqlQuery = "select " + DC.MC_CALL_FLAGS +
-                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                    " where " + DC.MC_CALL_ID + " = ?";
-            sqlQuery = dbOperWrapper.cacheSql(sqlKeyEnumQuery, sqlQuery);
-        }
-
-        WriteDbData4MethodCall writeDbData4MethodCall = dbOperator.queryObject(sqlQuery, WriteDbData4MethodCall.class, methodCallId);
+        WriteDbData4MethodCall writeDbData4MethodCall = dbOperWrapper.getStorage().queryMethodCallById(methodCallId);
         if (writeDbData4MethodCall == null) {
             logger.error("未查询到指定方法调用的方法调用标记 {}", methodCallId);
             return false;
         }
 
-        SqlKeyEnum sqlKeyEnumUpdate = SqlKeyEnum.MC_UPDATE_FLAGS;
-        String sqlUpdate = dbOperWrapper.getCachedSql(sqlKeyEnumUpdate);
-        if (sqlUpdate == null) {
-            sqlUpdate = "update " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                    " set " + DC.MC_CALL_FLAGS + " = ?" +
-                    " where " + DC.MC_CALL_ID + " = ?";
-            sqlUpdate = dbOperWrapper.cacheSql(sqlKeyEnumUpdate, sqlUpdate);
-        }
-
         int newCallFlags = methodCallFlagsEnum.setFlag(writeDbData4MethodCall.getCallFlags());
-        int row = dbOperator.update(sqlUpdate, newCallFlags, methodCallId);
+        int row = dbOperWrapper.getStorage().updateMethodCallFlags(methodCallId, newCallFlags);
         logger.info("修改方法调用表 {} 方法调用标记: {} 行数: {}", methodCallId, newCallFlags, row);
         return row > 0;
     }
 
+    /**
+     * 批量更新方法调用表指定方法调用的标记，增加其他值
+     * 一次查询各方法调用当前的标记，再批量修改
+     *
+     * @param methodCallIdList    方法调用序号列表，数量不超过数据库分页操作数量
+     * @param methodCallFlagsEnum
+     * @return
+     */
+    public boolean updateMethodCallAddFlagsBatch(List<Integer> methodCallIdList, MethodCallFlagsEnum methodCallFlagsEnum) {
+        if (methodCallIdList.isEmpty()) {
+            return true;
+        }
+
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_FLAGS_BY_IDS;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum, methodCallIdList.size());
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.MC_CALL_ID, DC.MC_CALL_FLAGS) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALL_ID + " in " + JACGSqlUtil.genQuestionString(methodCallIdList.size());
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql, methodCallIdList.size());
+        }
+        List<WriteDbData4MethodCall> list = dbOperator.queryList(sql, WriteDbData4MethodCall.class, methodCallIdList.toArray());
+        if (list == null) {
+            return false;
+        }
+        if (list.size() != methodCallIdList.size()) {
+            logger.error("未查询到部分方法调用的方法调用标记 {} {}", methodCallIdList.size(), list.size());
+            return false;
+        }
+
+        Map<Integer, Integer> callFlagsMap = new HashMap<>(list.size());
+        for (WriteDbData4MethodCall writeDbData4MethodCall : list) {
+            callFlagsMap.put(writeDbData4MethodCall.getCallId(), methodCallFlagsEnum.setFlag(writeDbData4MethodCall.getCallFlags()));
+        }
+        boolean success = dbOperWrapper.getStorage().updateMethodCallFlagsBatch(callFlagsMap);
+        logger.info("批量修改方法调用表方法调用标记 {} 数量: {} 结果: {}", methodCallFlagsEnum, callFlagsMap.size(), success);
+        return success;
+    }
+
     /**
      * 人工向方法调用表写入数据
      * 在原有向数据库写入数据操作完成之后执行
@@ -165,11 +180,24 @@ public class MethodCallHandler extends BaseHandler {
                     null
             );
             Object[] arguments = JACGUtil.genMethodCallObjectArray(writeDbData4MethodCall);
-
-            String sql = dbOperWrapper.genAndCacheInsertSql(DbTableInfoEnum.DTIE_METHOD_CALL, DbInsertMode.DIME_INSERT);
-            return dbOperator.insert(sql, arguments);
+            return dbOperWrapper.getStorage().writeOne(DbTableInfoEnum.DTIE_METHOD_CALL, arguments);
         } finally {
             runningFlag.set(false);
         }
     }
+
+    /**
+     * 删除方法调用表中人工添加的方法调用，用于重新执行人工添加方法调用关系
+     *
+     * @return
+     */
+    public boolean deleteManualAddedMethodCall() {
+        // 通过方法调用关系存储删除，使存储中的方法调用关系保持一致
+        Integer row = dbOperWrapper.getStorage().deleteMethodCallByCallType(JavaCGCallTypeEnum.CTE_MANUAL_ADDED.getType());
+        if (row == null) {
+            return false;
+        }
+        logger.info("删除方法调用表中人工添加的方法调用 行数: {}", row);
+        return true;
+    }
 }
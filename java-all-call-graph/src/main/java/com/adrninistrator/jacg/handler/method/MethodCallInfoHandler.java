@@ -58,7 +58,49 @@ public class MethodCallInfoHandler extends BaseHandler {
             logger.warn("从{}表未查询到方法调用中被调用对象与参数使用的信息 callId: {}", DbTableInfoEnum.DTIE_METHOD_CALL_INFO.getSqlKey4Print(), callId);
             return null;
         }
+        return genObjArgsInfoInMethodCall(list);
+    }
+
+    /**
+     * 批量查询多个方法调用中被调用对象与参数使用的信息，一次查询多个方法调用，减少数据库操作次数
+     *
+     * @param callIdList 方法调用序号列表，数量不超过数据库分页操作数量
+     * @return key: 方法调用序号，value: 方法调用中被调用对象与参数使用的信息，未查询到信息的方法调用不在Map中；null: 查询失败
+     */
+    public Map<Integer, ObjArgsInfoInMethodCall> queryObjArgsInfoInMethodCallMap(List<Integer> callIdList) {
+        if (callIdList.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MCI_QUERY_VALUE_BY_IDS;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum, callIdList.size());
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.MCI_CALL_ID, DC.MCI_OBJ_ARGS_SEQ, DC.MCI_SEQ, DC.MCI_TYPE, DC.MCI_THE_VALUE) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL_INFO.getTableName() +
+                    " where " + DC.MCI_CALL_ID + " in " + JACGSqlUtil.genQuestionString(callIdList.size()) +
+                    " order by " + JACGSqlUtil.joinColumns(DC.MCI_CALL_ID, DC.MCI_OBJ_ARGS_SEQ, DC.MCI_SEQ);
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql, callIdList.size());
+        }
+        List<WriteDbData4MethodCallInfo> list = dbOperator.queryList(sql, WriteDbData4MethodCallInfo.class, callIdList.toArray());
+        if (list == null) {
+            return null;
+        }
+
+        // 按照方法调用序号对查询结果分组
+        Map<Integer, List<WriteDbData4MethodCallInfo>> methodCallInfoListMap = new HashMap<>();
+        for (WriteDbData4MethodCallInfo writeDbData4MethodCallInfo : list) {
+            methodCallInfoListMap.computeIfAbsent(writeDbData4MethodCallInfo.getCallId(), k -> new ArrayList<>()).add(writeDbData4MethodCallInfo);
+        }
+
+        Map<Integer, ObjArgsInfoInMethodCall> objArgsInfoInMethodCallMap = new HashMap<>(methodCallInfoListMap.size());
+        for (Map.Entry<Integer, List<WriteDbData4MethodCallInfo>> entry : methodCallInfoListMap.entrySet()) {
+            objArgsInfoInMethodCallMap.put(entry.getKey(), genObjArgsInfoInMethodCall(entry.getValue()));
+        }
+        return objArgsInfoInMethodCallMap;
+    }
 
+    // 根据一个方法调用对应的方法调用信息，生成被调用对象与参数使用的信息
+    private ObjArgsInfoInMethodCall genObjArgsInfoInMethodCall(List<WriteDbData4MethodCallInfo> list) {
         ObjArgsInfoInMethodCall objArgsInfoInMethodCall = new ObjArgsInfoInMethodCall();
         Map<Integer, Map<Integer, MethodCallInfo>> methodCallMapOuter = new HashMap<>();
         // 查询数据库查询结果
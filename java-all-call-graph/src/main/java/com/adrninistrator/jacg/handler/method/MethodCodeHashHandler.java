@@ -0,0 +1,314 @@
+package com.adrninistrator.jacg.handler.method;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbInsertMode;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4JarInfo;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCodeHash;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.handler.checkpoint.WriteDbCheckpointHandler;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.javacg.common.JavaCGConstants;
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.Code;
+import org.apache.bcel.classfile.CodeException;
+import org.apache.bcel.classfile.ConstantPool;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.Method;
+import org.apache.bcel.classfile.Utility;
+import org.apache.bcel.generic.Type;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 方法字节码HASH处理类，记录每个方法的字节码HASH，用于与上一次写入数据库时的结果比较，找到发生变化的方法
+ * 字节码HASH根据方法的访问标志、指令（常量使用实际值，不使用常量池序号）及异常表生成，不包含代码行号，仅修改注释或调整代码行号时不会变化
+ */
+public class MethodCodeHashHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(MethodCodeHashHandler.class);
+
+    // 写数据库时生成方法字节码HASH的阶段名称，阶段完成时方法字节码HASH表中的数据是完整的
+    public static final String STAGE_GEN_METHOD_CODE_HASH = "handleMethodCodeHash";
+
+    public MethodCodeHashHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+    }
+
+    public MethodCodeHashHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+    }
+
+    /**
+     * 将当前的方法字节码HASH保存到上一次的方法字节码HASH表，需要在清理数据库表之前执行
+     * 上一次写入数据库时未完成生成方法字节码HASH的阶段，或方法字节码HASH表为空时，不保存，保留原有的上一次的方法字节码HASH
+     *
+     * @return
+     */
+    public boolean backupMethodCodeHash() {
+        WriteDbCheckpointHandler checkpointHandler = new WriteDbCheckpointHandler(dbOperWrapper);
+        if (!checkpointHandler.loadLastCheckpoints()) {
+            return false;
+        }
+        if (!checkpointHandler.isStageDone(STAGE_GEN_METHOD_CODE_HASH)) {
+            logger.warn("上一次写入数据库时未完成生成方法字节码HASH，保留原有的上一次的方法字节码HASH");
+            return true;
+        }
+
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MCH_QUERY_COUNT;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select count(*) from " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getTableName();
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        Long num = dbOperator.queryObjectOneColumn(sql, Long.class);
+        if (num == null) {
+            return false;
+        }
+        if (num == 0L) {
+            logger.warn("方法字节码HASH表为空，保留原有的上一次的方法字节码HASH");
+            return true;
+        }
+
+        if (!dbOperator.truncateTable(DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName())) {
+            return false;
+        }
+
+        sqlKeyEnum = SqlKeyEnum.MCH_BACKUP;
+        sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            String columns = JACGSqlUtil.joinColumns(DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getColumns());
+            sql = "insert into " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName() + "(" + columns + ")" +
+                    " select " + columns +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getTableName();
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        Integer row = dbOperator.update(sql);
+        if (row == null) {
+            return false;
+        }
+        logger.info("保存上一次的方法字节码HASH数量 {}", row);
+        return true;
+    }
+
+    /**
+     * 读取jar包信息表中的jar包或目录中的class文件，生成方法字节码HASH并写入数据库
+     * 需要在类名表写入完毕后执行
+     *
+     * @param allowedClassPrefixSet 需要处理的类名前缀，为空时处理所有的类
+     * @param batchSize             批量写入数据库时每次插入的数量
+     * @return
+     */
+    public boolean genMethodCodeHash(Set<String> allowedClassPrefixSet, int batchSize) {
+        List<WriteDbData4JarInfo> jarInfoList = queryJarInfoList();
+        if (jarInfoList == null) {
+            return false;
+        }
+
+        MethodCodeHashWriter methodCodeHashWriter = new MethodCodeHashWriter(allowedClassPrefixSet, batchSize);
+        try {
+            for (WriteDbData4JarInfo jarInfo : jarInfoList) {
+                String jarFullPath = jarInfo.getJarFullPath();
+                if (JavaCGConstants.FILE_KEY_JAR_INFO_PREFIX.equals(jarInfo.getJarType())) {
+                    if (!handleJar(jarFullPath, methodCodeHashWriter)) {
+                        return false;
+                    }
+                } else if (JACGFileUtil.isDirectoryExists(jarFullPath)) {
+                    if (!handleDir(jarFullPath, methodCodeHashWriter)) {
+                        return false;
+                    }
+                } else {
+                    logger.warn("目录不存在，不生成方法字节码HASH {}", jarFullPath);
+                }
+            }
+            if (!methodCodeHashWriter.flush()) {
+                return false;
+            }
+        } catch (Exception e) {
+            logger.error("error ", e);
+            return false;
+        }
+        logger.info("写入方法字节码HASH数量 {}", methodCodeHashWriter.methodHashSet.size());
+        return true;
+    }
+
+    // 查询jar包信息，按jar包序号排序，同名类出现多次时使用第一次出现的
+    private List<WriteDbData4JarInfo> queryJarInfoList() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.JI_QUERY_ALL_ORDER_BY_NUM;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.JI_JAR_NUM, DC.JI_JAR_TYPE, DC.JI_JAR_FULL_PATH) +
+                    " from " + DbTableInfoEnum.DTIE_JAR_INFO.getTableName() +
+                    " order by " + DC.JI_JAR_NUM;
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4JarInfo.class);
+    }
+
+    // 处理jar包中的class文件，jar包中的jar包不处理
+    private boolean handleJar(String jarFilePath, MethodCodeHashWriter methodCodeHashWriter) throws IOException {
+        try (JarFile jarFile = new JarFile(jarFilePath)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry jarEntry = entries.nextElement();
+                if (jarEntry.isDirectory() || !JACGFileUtil.checkFileExt(jarEntry.getName(), JACGConstants.EXT_CLASS)) {
+                    continue;
+                }
+                try (InputStream inputStream = jarFile.getInputStream(jarEntry)) {
+                    if (!handleClass(new ClassParser(inputStream, jarEntry.getName()).parse(), methodCodeHashWriter)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // 处理目录中的class文件
+    private boolean handleDir(String dirPath, MethodCodeHashWriter methodCodeHashWriter) throws IOException {
+        List<String> classFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(dirPath, null, classFilePathList, JACGConstants.EXT_CLASS);
+        for (String classFilePath : classFilePathList) {
+            if (!handleClass(new ClassParser(classFilePath).parse(), methodCodeHashWriter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 处理class中的方法
+    private boolean handleClass(JavaClass javaClass, MethodCodeHashWriter methodCodeHashWriter) {
+        String className = javaClass.getClassName();
+        if (!methodCodeHashWriter.checkAllowedClass(className)) {
+            return true;
+        }
+
+        String simpleClassName = null;
+        ConstantPool constantPool = javaClass.getConstantPool();
+        for (Method method : javaClass.getMethods()) {
+            Code code = method.getCode();
+            if (code == null) {
+                // 抽象方法、native方法没有字节码
+                continue;
+            }
+            String fullMethod = genFullMethod(className, method);
+            String methodHash = JACGUtil.genHashWithLen(fullMethod);
+            if (!methodCodeHashWriter.methodHashSet.add(methodHash)) {
+                // 同名类出现多次时使用第一次出现的
+                continue;
+            }
+            if (simpleClassName == null) {
+                simpleClassName = dbOperWrapper.getSimpleClassName(className);
+            }
+            String codeHash = genCodeHash(method, code, constantPool);
+            if (!methodCodeHashWriter.add(new WriteDbData4MethodCodeHash(methodHash, simpleClassName, codeHash, fullMethod))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 生成完整方法，格式与java-callgraph2生成的相同
+    private String genFullMethod(String className, Method method) {
+        StringBuilder stringBuilder = new StringBuilder(className).append(JavaCGConstants.FLAG_COLON).append(method.getName())
+                .append(JavaCGConstants.FLAG_LEFT_BRACKET);
+        Type[] argumentTypes = method.getArgumentTypes();
+        for (int i = 0; i < argumentTypes.length; i++) {
+            if (i > 0) {
+                stringBuilder.append(JavaCGConstants.FLAG_COMMA);
+            }
+            stringBuilder.append(argumentTypes[i].toString());
+        }
+        return stringBuilder.append(JavaCGConstants.FLAG_RIGHT_BRACKET).toString();
+    }
+
+    // 生成方法字节码HASH
+    private String genCodeHash(Method method, Code code, ConstantPool constantPool) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(method.getAccessFlags()).append(JACGConstants.NEW_LINE)
+                .append(Utility.codeToString(code.getCode(), constantPool, 0, -1, false));
+        CodeException[] exceptionTable = code.getExceptionTable();
+        if (exceptionTable != null) {
+            for (CodeException codeException : exceptionTable) {
+                stringBuilder.append(JACGConstants.NEW_LINE).append(codeException.toString(constantPool, false));
+            }
+        }
+        return DigestUtils.md5Hex(stringBuilder.toString());
+    }
+
+    // 批量写入方法字节码HASH
+    private class MethodCodeHashWriter {
+        private final Set<String> allowedClassPrefixSet;
+
+        private final int batchSize;
+
+        private final String sql;
+
+        private final List<Object[]> objectList;
+
+        // 已处理的方法HASH+长度
+        private final Set<String> methodHashSet = new HashSet<>();
+
+        MethodCodeHashWriter(Set<String> allowedClassPrefixSet, int batchSize) {
+            this.allowedClassPrefixSet = allowedClassPrefixSet;
+            this.batchSize = batchSize;
+            sql = dbOperWrapper.genAndCacheInsertSql(DbTableInfoEnum.DTIE_METHOD_CODE_HASH, DbInsertMode.DIME_INSERT);
+            objectList = new ArrayList<>(batchSize);
+        }
+
+        // 判断类是否需要处理
+        boolean checkAllowedClass(String className) {
+            if (allowedClassPrefixSet == null || allowedClassPrefixSet.isEmpty()) {
+                return true;
+            }
+            for (String allowedClassPrefix : allowedClassPrefixSet) {
+                if (className.startsWith(allowedClassPrefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean add(WriteDbData4MethodCodeHash methodCodeHash) {
+            objectList.add(new Object[]{
+                    methodCodeHash.getMethodHash(),
+                    methodCodeHash.getSimpleClassName(),
+                    methodCodeHash.getCodeHash(),
+                    methodCodeHash.getFullMethod()
+            });
+            if (objectList.size() >= batchSize) {
+                return flush();
+            }
+            return true;
+        }
+
+        boolean flush() {
+            if (objectList.isEmpty()) {
+                return true;
+            }
+            if (!dbOperator.batchInsert(sql, objectList)) {
+                return false;
+            }
+            objectList.clear();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.adrninistrator.jacg.handler.method;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbInsertMode;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodStats;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.util.JACGClassMethodUtil;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/25
+ * @description: 方法调用统计信息处理类，记录方法的出度、入度，以及预估的向下/向上调用链规模，用于生成调用链时按预估开销对任务排序
+ * 同时记录直接调用方法的不同类数量及不同Jar包数量，用于查询被调用最多、调用其他方法最多等热点方法
+ */
+public class MethodStatsHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(MethodStatsHandler.class);
+
+    // 预估调用链规模时的最大迭代轮数，相当于只统计该深度以内的调用链
+    public static final int EST_MAX_ROUND = 32;
+
+    // 预估的调用链规模的上限，出现循环调用或调用链规模过大时使用
+    public static final long EST_MAX_VALUE = 1_000_000_000L;
+
+    // 记录调用关系的数组初始大小
+    private static final int EDGE_INIT_SIZE = 1024;
+
+    public MethodStatsHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+    }
+
+    public MethodStatsHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+    }
+
+    /**
+     * 根据方法调用表生成方法调用统计信息并写入数据库
+     * 预估的调用链规模为从当前方法出发（限制深度）可以到达的调用路径数量，与生成的调用链文件行数近似
+     *
+     * @param batchSize 批量写入数据库时每次插入的数量
+     * @return
+     */
+    public boolean genMethodStats(int batchSize) {
+        // 方法HASH+长度（方法在数据库中的唯一标识）与方法序号的映射
+        Map<String, Integer> methodIdMap = new HashMap<>();
+        List<WriteDbData4MethodStats> methodStatsList = new ArrayList<>();
+        // 各方法所在的Jar包序号，下标为方法序号，Jar包序号可能为null
+        List<Integer> methodJarNumList = new ArrayList<>();
+        // 调用关系，高32位为调用方序号，低32位为被调用方序号，全部读取后排序去重
+        long[] edges = new long[EDGE_INIT_SIZE];
+        int edgeNum = 0;
+
+        int startCallId = 0;
+        while (true) {
+            // 分页查询方法调用关系
+            List<WriteDbData4MethodCall> methodCallList = queryMethodCallByPage(startCallId);
+            if (methodCallList == null) {
+                return false;
+            }
+            for (WriteDbData4MethodCall methodCall : methodCallList) {
+                int callerId = getMethodId(methodCall.getCallerMethodHash(), methodCall.getCallerSimpleClassName(), methodCall.getCallerFullMethod(),
+                        methodCall.getCallerJarNum(), methodIdMap, methodStatsList, methodJarNumList);
+                int calleeId = getMethodId(methodCall.getCalleeMethodHash(), methodCall.getCalleeSimpleClassName(), methodCall.getCalleeFullMethod(),
+                        methodCall.getCalleeJarNum(), methodIdMap, methodStatsList, methodJarNumList);
+                if (edgeNum == edges.length) {
+                    edges = Arrays.copyOf(edges, edgeNum * 2);
+                }
+                edges[edgeNum++] = ((long) callerId << 32) | calleeId;
+                startCallId = methodCall.getCallId();
+            }
+            if (methodCallList.size() < JACGConstants.DB_PAGE_HANDLE_SIZE) {
+                break;
+            }
+        }
+        // 对调用关系排序后去重，同一个调用方与被调用方之间可能存在多次调用
+        Arrays.sort(edges, 0, edgeNum);
+        edgeNum = removeDupSorted(edges, edgeNum);
+
+        int methodNum = methodStatsList.size();
+        // 生成邻接表，出边与入边
+        int[][] outEdges = genAdjacency(methodNum, edges, edgeNum, true);
+        int[][] inEdges = genAdjacency(methodNum, edges, edgeNum, false);
+        edges = null;
+
+        long[] estCalleeNums = estimateReachable(outEdges);
+        long[] estCallerNums = estimateReachable(inEdges);
+
+        // 统计直接调用各方法的不同类数量及不同Jar包数量
+        Map<String, Integer> classIdMap = new HashMap<>();
+        int[] methodClassIds = new int[methodNum];
+        for (int i = 0; i < methodNum; i++) {
+            methodClassIds[i] = getValueId(methodStatsList.get(i).getSimpleClassName(), classIdMap);
+        }
+        Map<Integer, Integer> jarIdMap = new HashMap<>();
+        int[] methodJarIds = new int[methodNum];
+        for (int i = 0; i < methodNum; i++) {
+            Integer jarNum = methodJarNumList.get(i);
+            methodJarIds[i] = jarNum == null ? -1 : getValueId(jarNum, jarIdMap);
+        }
+        methodJarNumList.clear();
+        int[] callerClassNums = countDistinctValues(inEdges, methodClassIds, classIdMap.size());
+        int[] callerJarSpreads = countDistinctValues(inEdges, methodJarIds, jarIdMap.size());
+
+        for (int i = 0; i < methodNum; i++) {
+            WriteDbData4MethodStats methodStats = methodStatsList.get(i);
+            methodStats.setOutDegree(outEdges[i].length);
+            methodStats.setInDegree(inEdges[i].length);
+            methodStats.setEstCalleeNum(estCalleeNums[i]);
+            methodStats.setEstCallerNum(estCallerNums[i]);
+            methodStats.setCallerClassNum(callerClassNums[i]);
+            methodStats.setCallerJarSpread(callerJarSpreads[i]);
+        }
+
+        // 写入数据库
+        String sql = dbOperWrapper.genAndCacheInsertSql(DbTableInfoEnum.DTIE_METHOD_STATS, DbInsertMode.DIME_INSERT);
+        List<Object[]> objectList = new ArrayList<>(Math.min(batchSize, methodNum));
+        for (WriteDbData4MethodStats methodStats : methodStatsList) {
+            objectList.add(genObjectArray(methodStats));
+            if (objectList.size() >= batchSize) {
+                if (!dbOperator.batchInsert(sql, objectList)) {
+                    return false;
+                }
+                objectList.clear();
+            }
+        }
+        if (!objectList.isEmpty() && !dbOperator.batchInsert(sql, objectList)) {
+            return false;
+        }
+        logger.info("写入方法调用统计信息数量 {}", methodNum);
+        return true;
+    }
+
+    /**
+     * 查询指定类的方法调用统计信息
+     *
+     * @param simpleClassName 唯一类名
+     * @return null: 查询失败
+     */
+    public List<WriteDbData4MethodStats> queryMethodStatsByClass(String simpleClassName) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MS_QUERY_BY_CLASS;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DbTableInfoEnum.DTIE_METHOD_STATS.getColumns()) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_STATS.getTableName() +
+                    " where " + DC.MS_SIMPLE_CLASS_NAME + " = ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodStats.class, simpleClassName);
+    }
+
+    /**
+     * 查询入度最大的方法，即被最多不同方法直接调用的方法
+     *
+     * @param limit 查询的数量
+     * @return null: 查询失败
+     */
+    public List<WriteDbData4MethodStats> queryTopByInDegree(int limit) {
+        return queryTopMethodStats(SqlKeyEnum.MS_QUERY_TOP_IN_DEGREE, DC.MS_IN_DEGREE, limit);
+    }
+
+    /**
+     * 查询出度最大的方法，即直接调用最多不同方法的方法
+     *
+     * @param limit 查询的数量
+     * @return null: 查询失败
+     */
+    public List<WriteDbData4MethodStats> queryTopByOutDegree(int limit) {
+        return queryTopMethodStats(SqlKeyEnum.MS_QUERY_TOP_OUT_DEGREE, DC.MS_OUT_DEGREE, limit);
+    }
+
+    /**
+     * 查询被最多不同类直接调用的方法
+     *
+     * @param limit 查询的数量
+     * @return null: 查询失败
+     */
+    public List<WriteDbData4MethodStats> queryTopByCallerClassNum(int limit) {
+        return queryTopMethodStats(SqlKeyEnum.MS_QUERY_TOP_CALLER_CLASS_NUM, DC.MS_CALLER_CLASS_NUM, limit);
+    }
+
+    // 按指定字段从大到小查询方法调用统计信息，相同时按方法HASH+长度排序，使结果固定
+    private List<WriteDbData4MethodStats> queryTopMethodStats(SqlKeyEnum sqlKeyEnum, String orderColumn, int limit) {
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DbTableInfoEnum.DTIE_METHOD_STATS.getColumns()) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_STATS.getTableName() +
+                    " order by " + orderColumn + " desc, " + DC.MS_METHOD_HASH +
+                    " limit ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodStats.class, limit);
+    }
+
+    // 分页查询方法调用关系
+    private List<WriteDbData4MethodCall> queryMethodCallByPage(int startCallId) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_ALL_BY_PAGE;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + JACGSqlUtil.joinColumns(DC.MC_CALL_ID, DC.MC_CALLER_METHOD_HASH, DC.MC_CALLER_SIMPLE_CLASS_NAME, DC.MC_CALLER_FULL_METHOD,
+                    DC.MC_CALLER_JAR_NUM, DC.MC_CALLEE_METHOD_HASH, DC.MC_CALLEE_SIMPLE_CLASS_NAME, DC.MC_CALLEE_FULL_METHOD, DC.MC_CALLEE_JAR_NUM) +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALL_ID + " > ?" +
+                    " order by " + DC.MC_CALL_ID +
+                    " limit ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryList(sql, WriteDbData4MethodCall.class, startCallId, JACGConstants.DB_PAGE_HANDLE_SIZE);
+    }
+
+    // 获取方法对应的序号，不存在时生成
+    private int getMethodId(String methodHash, String simpleClassName, String fullMethod, Integer jarNum, Map<String, Integer> methodIdMap,
+                            List<WriteDbData4MethodStats> methodStatsList, List<Integer> methodJarNumList) {
+        Integer methodId = methodIdMap.get(methodHash);
+        if (methodId != null) {
+            if (jarNum != null && methodJarNumList.get(methodId) == null) {
+                methodJarNumList.set(methodId, jarNum);
+            }
+            return methodId;
+        }
+        int newMethodId = methodStatsList.size();
+        methodIdMap.put(methodHash, newMethodId);
+        String methodName = JACGClassMethodUtil.getMethodNameFromFull(fullMethod);
+        methodStatsList.add(new WriteDbData4MethodStats(methodHash, simpleClassName, methodName, fullMethod));
+        methodJarNumList.add(jarNum);
+        return newMethodId;
+    }
+
+    // 获取值对应的序号，不存在时生成
+    private <T> int getValueId(T value, Map<T, Integer> valueIdMap) {
+        Integer valueId = valueIdMap.get(value);
+        if (valueId != null) {
+            return valueId;
+        }
+        int newValueId = valueIdMap.size();
+        valueIdMap.put(value, newValueId);
+        return newValueId;
+    }
+
+    /*
+        统计每个方法的相邻方法对应的不同值的数量，例如调用方法所在的不同类数量
+        使用数组记录各个值最后一次被统计时对应的方法序号，避免对每个方法创建Set
+     */
+    private int[] countDistinctValues(int[][] adjacency, int[] methodValueIds, int valueNum) {
+        int methodNum = adjacency.length;
+        int[] counts = new int[methodNum];
+        int[] lastMethodIds = new int[valueNum];
+        Arrays.fill(lastMethodIds, -1);
+        for (int i = 0; i < methodNum; i++) {
+            for (int next : adjacency[i]) {
+                int valueId = methodValueIds[next];
+                if (valueId >= 0 && lastMethodIds[valueId] != i) {
+                    lastMethodIds[valueId] = i;
+                    counts[i]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    // 对已排序的数组去重，返回去重后的元素数量
+    private int removeDupSorted(long[] array, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int newLength = 1;
+        for (int i = 1; i < length; i++) {
+            if (array[i] != array[newLength - 1]) {
+                array[newLength++] = array[i];
+            }
+        }
+        return newLength;
+    }
+
+    // 生成邻接表
+    private int[][] genAdjacency(int methodNum, long[] edges, int edgeNum, boolean out) {
+        int[] degrees = new int[methodNum];
+        for (int i = 0; i < edgeNum; i++) {
+            degrees[out ? getEdgeCaller(edges[i]) : getEdgeCallee(edges[i])]++;
+        }
+        int[][] adjacency = new int[methodNum][];
+        for (int i = 0; i < methodNum; i++) {
+            adjacency[i] = new int[degrees[i]];
+        }
+        Arrays.fill(degrees, 0);
+        for (int i = 0; i < edgeNum; i++) {
+            int caller = getEdgeCaller(edges[i]);
+            int callee = getEdgeCallee(edges[i]);
+            int from = out ? caller : callee;
+            int to = out ? callee : caller;
+            adjacency[from][degrees[from]++] = to;
+        }
+        return adjacency;
+    }
+
+    private int getEdgeCaller(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    private int getEdgeCallee(long edge) {
+        return (int) edge;
+    }
+
+    /*
+        预估每个方法可以到达的调用路径数量，每一轮使用上一轮的结果计算：est(v) = 出度(v) + sum(est(下一层方法))
+        对于没有循环调用的情况，轮数达到最大深度后结果不再变化；存在循环调用时，结果会增加至上限或达到最大轮数
+     */
+    private long[] estimateReachable(int[][] adjacency) {
+        int methodNum = adjacency.length;
+        long[] lastEsts = new long[methodNum];
+        long[] currentEsts = new long[methodNum];
+        for (int round = 0; round < EST_MAX_ROUND; round++) {
+            boolean changed = false;
+            for (int i = 0; i < methodNum; i++) {
+                long est = adjacency[i].length;
+                for (int next : adjacency[i]) {
+                    est += lastEsts[next];
+                    if (est >= EST_MAX_VALUE) {
+                        est = EST_MAX_VALUE;
+                        break;
+                    }
+                }
+                currentEsts[i] = est;
+                if (est != lastEsts[i]) {
+                    changed = true;
+                }
+            }
+            long[] tmp = lastEsts;
+            lastEsts = currentEsts;
+            currentEsts = tmp;
+            if (!changed) {
+                break;
+            }
+        }
+        return lastEsts;
+    }
+
+    private Object[] genObjectArray(WriteDbData4MethodStats methodStats) {
+        return new Object[]{
+                methodStats.getMethodHash(),
+                methodStats.getSimpleClassName(),
+                methodStats.getMethodName(),
+                methodStats.getOutDegree(),
+                methodStats.getInDegree(),
+                methodStats.getEstCalleeNum(),
+                methodStats.getEstCallerNum(),
+                methodStats.getCallerClassNum(),
+                methodStats.getCallerJarSpread(),
+                methodStats.getFullMethod()
+        };
+    }
+}
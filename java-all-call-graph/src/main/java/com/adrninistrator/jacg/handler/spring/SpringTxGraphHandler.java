@@ -0,0 +1,467 @@
+package com.adrninistrator.jacg.handler.spring;
+
+import com.adrninistrator.jacg.common.JACGCommonNameConstants;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.MethodCallFlagsEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.call_graph.ChildCallSuperInfo;
+import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
+import com.adrninistrator.jacg.dto.method.MethodAndHash;
+import com.adrninistrator.jacg.dto.method.MethodDetail;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4LambdaMethodInfo;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.extractor.dto.common.extract.CallerExtractedLine;
+import com.adrninistrator.jacg.handler.annotation.AnnotationHandler;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.handler.call_graph.CallGraphIgnoreRule;
+import com.adrninistrator.jacg.handler.call_graph.ChildMethodReplaceHandler;
+import com.adrninistrator.jacg.handler.extends_impl.JACGExtendsImplHandler;
+import com.adrninistrator.jacg.util.JACGClassMethodUtil;
+import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
+import com.adrninistrator.javacg.common.JavaCGConstants;
+import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import com.adrninistrator.javacg.dto.stack.ListAsStack;
+import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/27
+ * @description: 直接通过数据库中的方法调用关系，查找Spring事务入口方法向下调用的指定方法，不需要生成方法完整调用链文件及调用堆栈文件
+ * 遍历方法调用的规则与生成向下的方法完整调用链文件时相同：跳过被禁用及需要忽略的方法调用，将父类方法替换为子类方法，出现循环调用时不再向下遍历
+ * 对于重复出现的子树，与根据调用堆栈文件查找时展开对子树的引用相同，直接使用第一次出现时子树中满足条件的方法调用
+ * 与根据调用堆栈文件查找时的区别：方法固定使用完整方法（与调用链文件中输出完整方法时相同），行号为方法调用在调用方法中的代码行号
+ * 被调用方法在调用方法中已被调用过时忽略，根据被调用的完整方法及状态判断，不比较方法调用业务功能数据
+ */
+public class SpringTxGraphHandler extends BaseHandler {
+    private static final Logger logger = LoggerFactory.getLogger(SpringTxGraphHandler.class);
+
+    // 状态：在其他线程执行
+    public static final int STATE_RUN_IN_OTHER_THREAD = 1;
+
+    // 状态：在事务中执行
+    public static final int STATE_RUN_IN_TRANSACTION = 1 << 1;
+
+    // 使用@Transactional注解的方法HASH+长度
+    private final Set<String> txAnnotationMethodHashSet = new HashSet<>();
+
+    // 使用@Async注解的方法HASH+长度
+    private final Set<String> asyncAnnotationMethodHashSet = new HashSet<>();
+
+    // 将父类方法替换为子类方法的处理类
+    private final ChildMethodReplaceHandler childMethodReplaceHandler;
+
+    // 需要忽略的方法的规则，为null时不忽略方法
+    private final CallGraphIgnoreRule callGraphIgnoreRule;
+
+    // 重复出现的子树是否直接使用第一次出现时的结果，与生成调用链文件时是否引用之前出现的子树的配置相同
+    private final boolean callGraphSubtreeRef;
+
+    // 被调用方法在调用方法中已被调用过时是否忽略，与生成调用链文件时的配置相同
+    private final boolean ignoreDupCalleeInOneCaller;
+
+    public SpringTxGraphHandler(ConfigureWrapper configureWrapper) {
+        super(configureWrapper);
+        callGraphIgnoreRule = CallGraphIgnoreRule.genInstance(configureWrapper);
+        if (callGraphIgnoreRule == null) {
+            close();
+            throw new JavaCGRuntimeException("读取生成方法完整调用链时需要忽略的方法的配置文件失败");
+        }
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, new JACGExtendsImplHandler(dbOperWrapper));
+        callGraphSubtreeRef = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF);
+        ignoreDupCalleeInOneCaller = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER);
+        init();
+    }
+
+    /**
+     * 使用该构造函数时不会忽略方法，仅跳过被禁用的方法调用，重复出现的子树直接使用第一次出现时的结果
+     * 需要与根据调用堆栈文件查找的结果一致时，使用可以指定配置的构造函数
+     *
+     * @param dbOperWrapper
+     */
+    public SpringTxGraphHandler(DbOperWrapper dbOperWrapper) {
+        super(dbOperWrapper);
+        callGraphIgnoreRule = null;
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, new JACGExtendsImplHandler(dbOperWrapper));
+        callGraphSubtreeRef = true;
+        ignoreDupCalleeInOneCaller = false;
+        init();
+    }
+
+    /**
+     * @param dbOperWrapper
+     * @param configureWrapper 用于读取需要忽略的方法，及生成调用链文件的相关配置
+     */
+    public SpringTxGraphHandler(DbOperWrapper dbOperWrapper, ConfigureWrapper configureWrapper) {
+        super(dbOperWrapper);
+        callGraphIgnoreRule = CallGraphIgnoreRule.genInstance(configureWrapper);
+        if (callGraphIgnoreRule == null) {
+            throw new JavaCGRuntimeException("读取生成方法完整调用链时需要忽略的方法的配置文件失败");
+        }
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, new JACGExtendsImplHandler(dbOperWrapper));
+        callGraphSubtreeRef = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF);
+        ignoreDupCalleeInOneCaller = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER);
+        init();
+    }
+
+    // 查询使用Spring事务、异步注解的方法
+    private void init() {
+        try (AnnotationHandler annotationHandler = new AnnotationHandler(dbOperWrapper)) {
+            txAnnotationMethodHashSet.addAll(annotationHandler.queryMethodsWithAnnotations(false, JACGCommonNameConstants.SPRING_TX_ANNOTATION));
+            asyncAnnotationMethodHashSet.addAll(annotationHandler.queryMethodsWithAnnotations(false, JACGCommonNameConstants.SPRING_ASYNC_ANNOTATION));
+        }
+    }
+
+    /**
+     * 判断方法是否使用了@Transactional注解
+     *
+     * @param methodHash 方法HASH+长度
+     * @return
+     */
+    public boolean checkTxAnnotationMethod(String methodHash) {
+        return txAnnotationMethodHashSet.contains(methodHash);
+    }
+
+    /**
+     * 判断被调用方法是否为TransactionTemplate.execute()方法
+     *
+     * @param calleeMethodDetail
+     * @return
+     */
+    public static boolean checkTxTplExecute(MethodDetail calleeMethodDetail) {
+        return JACGCommonNameConstants.SPRING_TRANSACTION_TEMPLATE_CLASS.equals(calleeMethodDetail.getClassName()) &&
+                "execute".equals(calleeMethodDetail.getMethodName());
+    }
+
+    /**
+     * 从入口方法开始遍历向下的方法调用，查找满足条件的被调用方法
+     * 返回结果的格式与根据调用堆栈文件生成的结果相同，数据序号为查找到的顺序，行号为方法调用在调用方法中的代码行号
+     * 被调用方法在向下的调用链中每出现一次，返回一条记录
+     *
+     * @param entryFullMethod 入口方法
+     * @param checkEntry      是否判断入口方法是否满足条件，与根据调用堆栈文件查找时是否处理调用链文件第0层的方法对应
+     * @param calleeFilter    判断被调用方法是否满足条件，参数1: 被调用方法详情，参数2: 被调用方法HASH+长度
+     * @return 满足条件的方法调用信息列表
+     */
+    public List<CallerExtractedLine> findCalleeInGraph(String entryFullMethod, boolean checkEntry, BiPredicate<MethodDetail, String> calleeFilter) {
+        List<CallerExtractedLine> callerExtractedLineList = new ArrayList<>();
+        // 判断配置文件中是否已指定忽略当前方法
+        if (callGraphIgnoreRule != null && callGraphIgnoreRule.ignoreCurrentMethod(null, entryFullMethod)) {
+            logger.info("配置文件中已指定忽略当前方法，不处理 {}", entryFullMethod);
+            return callerExtractedLineList;
+        }
+
+        String entryMethodHash = JACGUtil.genHashWithLen(entryFullMethod);
+        if (checkEntry && calleeFilter.test(JACGClassMethodUtil.genMethodDetail(entryFullMethod), entryMethodHash)) {
+            // 入口方法满足条件，不存在上一层方法
+            callerExtractedLineList.add(genCallerExtractedLine(callerExtractedLineList.size() + 1, new MatchedCall(JavaCGConstants.METHOD_CALL_ID_START,
+                    JavaCGConstants.DEFAULT_LINE_NUMBER, entryFullMethod, null, 0), 0));
+        }
+
+        /*
+            记录重复出现的子树中满足条件的方法调用
+            key
+                子树根节点的方法HASH+长度
+            value
+                子树中满足条件的方法调用，状态为相对于子树根节点的状态
+         */
+        Map<String, List<MatchedCall>> subtreeMatchedCallMap = callGraphSubtreeRef ? new HashMap<>() : null;
+        // 记录子类方法调用父类方法对应信息的栈
+        ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack = new ListAsStack<>();
+        ListAsStack<GraphNode> nodeStack = new ListAsStack<>();
+        nodeStack.push(new GraphNode(entryMethodHash, entryFullMethod, 0, 0));
+
+        while (!nodeStack.isEmpty()) {
+            GraphNode node = nodeStack.peek();
+            // 查询当前节点的下一个被调用方法
+            WriteDbData4MethodCall calleeMethod = dbOperWrapper.getStorage().queryNextCallee(node.methodHash, node.methodCallId, JACGConstants.LINE_NUM_NONE,
+                    JACGConstants.LINE_NUM_NONE);
+            if (calleeMethod == null) {
+                // 当前节点的被调用方法已处理完毕
+                if (subtreeMatchedCallMap != null) {
+                    recordSubtree(nodeStack, subtreeMatchedCallMap);
+                }
+                // 将对应层级的子类方法调用父类方法对应信息出栈
+                childMethodReplaceHandler.removeChildCallSuperInfo(childCallSuperInfoStack, nodeStack.getHead());
+                nodeStack.removeTop();
+                continue;
+            }
+            node.methodCallId = calleeMethod.getCallId();
+
+            String callType = calleeMethod.getCallType();
+            // 处理子类方法调用父类方法的相关信息
+            MethodAndHash calleeMethodAndHash = childMethodReplaceHandler.handleChildCallSuperInfo(childCallSuperInfoStack, nodeStack.getHead(),
+                    calleeMethod.getCalleeFullMethod(), node.fullMethod, callType, calleeMethod.getCalleeMethodHash());
+            String calleeFullMethod = calleeMethodAndHash.getFullMethod();
+            String calleeMethodHash = calleeMethodAndHash.getMethodHash();
+
+            if (!JavaCGYesNoEnum.isYes(calleeMethod.getEnabled()) ||
+                    (callGraphIgnoreRule != null && callGraphIgnoreRule.ignoreCurrentMethod(callType, calleeFullMethod))) {
+                // 跳过被禁用及需要忽略的方法调用
+                continue;
+            }
+
+            // 当前方法调用对应的状态
+            int callState = genCallState(calleeMethod, calleeMethodHash);
+            if (ignoreDupCalleeInOneCaller && !node.addRecordedCallee(calleeFullMethod + JACGConstants.FLAG_TAB + callState)) {
+                // 当前被调用方法在调用方法中已被调用过，忽略
+                continue;
+            }
+            node.hasCallee = true;
+
+            // 判断是否出现循环调用
+            int back2Level = JACGConstants.NO_CYCLE_CALL_FLAG;
+            for (int i = 0; i <= nodeStack.getHead(); i++) {
+                if (calleeMethodHash.equals(nodeStack.getElement(i).methodHash)) {
+                    back2Level = i;
+                    break;
+                }
+            }
+
+            // 判断是否使用之前出现的子树
+            List<MatchedCall> refMatchedCallList = null;
+            if (subtreeMatchedCallMap != null) {
+                if (back2Level != JACGConstants.NO_CYCLE_CALL_FLAG) {
+                    // 出现循环调用，循环调用的层级之下的各层级的子树依赖更上层的调用方法，不能被使用
+                    for (int i = back2Level + 1; i <= nodeStack.getHead(); i++) {
+                        nodeStack.getElement(i).dependOnUpper = true;
+                    }
+                } else if (childCallSuperInfoStack.isEmpty()) {
+                    // 存在子类方法调用父类方法对应信息时，被调用方法的子树可能与之前出现的不同，不使用
+                    refMatchedCallList = subtreeMatchedCallMap.get(calleeMethodHash);
+                }
+            }
+
+            if (calleeFilter.test(JACGClassMethodUtil.genMethodDetail(calleeFullMethod), calleeMethodHash)) {
+                addMatchedCall(callerExtractedLineList, nodeStack, subtreeMatchedCallMap != null, new MatchedCall(calleeMethod.getCallId(),
+                        calleeMethod.getCallerLineNumber(), calleeFullMethod, node.fullMethod, callState));
+            }
+
+            if (back2Level != JACGConstants.NO_CYCLE_CALL_FLAG) {
+                // 出现循环调用，不再向下遍历
+                continue;
+            }
+
+            if (refMatchedCallList != null) {
+                // 使用之前出现的子树中满足条件的方法调用，不再向下遍历
+                for (MatchedCall refMatchedCall : refMatchedCallList) {
+                    addMatchedCall(callerExtractedLineList, nodeStack, true, refMatchedCall.copy(callState | refMatchedCall.state));
+                }
+                continue;
+            }
+
+            // 向下传递状态
+            GraphNode nextNode = new GraphNode(calleeMethodHash, calleeFullMethod, node.state | callState, callState);
+            // 存在子类方法调用父类方法对应信息时，子树依赖更上层的调用方法
+            nextNode.dependOnUpper = !childCallSuperInfoStack.isEmpty();
+            nodeStack.push(nextNode);
+        }
+        return callerExtractedLineList;
+    }
+
+    /**
+     * 记录满足条件的方法调用
+     *
+     * @param callerExtractedLineList
+     * @param nodeStack
+     * @param recordInSubtree         是否需要记录到各层级的子树中
+     * @param matchedCall             满足条件的方法调用，状态为相对于栈顶节点的状态
+     */
+    private void addMatchedCall(List<CallerExtractedLine> callerExtractedLineList, ListAsStack<GraphNode> nodeStack, boolean recordInSubtree, MatchedCall matchedCall) {
+        callerExtractedLineList.add(genCallerExtractedLine(callerExtractedLineList.size() + 1, matchedCall, nodeStack.peek().state | matchedCall.state));
+        if (!recordInSubtree) {
+            return;
+        }
+
+        // 入口方法对应的子树不需要记录
+        int relativeState = matchedCall.state;
+        for (int i = nodeStack.getHead(); i > 0; i--) {
+            GraphNode node = nodeStack.getElement(i);
+            if (!node.dependOnUpper) {
+                node.addMatchedCall(matchedCall.copy(relativeState));
+            }
+            relativeState |= node.callState;
+        }
+    }
+
+    /**
+     * 当前节点的子树处理完毕时，记录可以被使用的子树
+     *
+     * @param nodeStack
+     * @param subtreeMatchedCallMap
+     */
+    private void recordSubtree(ListAsStack<GraphNode> nodeStack, Map<String, List<MatchedCall>> subtreeMatchedCallMap) {
+        if (nodeStack.atBottom()) {
+            // 入口方法不需要记录
+            return;
+        }
+
+        GraphNode node = nodeStack.peek();
+        if (node.dependOnUpper || !node.hasCallee) {
+            // 子树依赖更上层的调用方法，或不存在子树，不记录
+            return;
+        }
+        subtreeMatchedCallMap.putIfAbsent(node.methodHash, node.matchedCallList != null ? node.matchedCallList : Collections.emptyList());
+    }
+
+    // 生成方法调用对应的状态，与生成方法完整调用链时增加在其他线程执行、在事务中执行标志的规则相同
+    private int genCallState(WriteDbData4MethodCall calleeMethod, String calleeMethodHash) {
+        String callType = calleeMethod.getCallType();
+        // 与生成调用链文件时相同，仅当被调用方法有注解时才判断方法上的注解
+        boolean checkAnnotation = MethodCallFlagsEnum.MCFE_EE_METHOD_ANNOTATION.checkFlag(calleeMethod.getCallFlags());
+        int state = 0;
+        if (StringUtils.equalsAny(callType,
+                JavaCGCallTypeEnum.CTE_RUNNABLE_INIT_RUN2.getType(),
+                JavaCGCallTypeEnum.CTE_CALLABLE_INIT_CALL2.getType(),
+                JavaCGCallTypeEnum.CTE_THREAD_START_RUN.getType()) ||
+                (checkAnnotation && asyncAnnotationMethodHashSet.contains(calleeMethodHash))) {
+            state |= STATE_RUN_IN_OTHER_THREAD;
+        }
+        if (StringUtils.equalsAny(callType,
+                JavaCGCallTypeEnum.CTE_TX_CALLBACK_INIT_CALL2.getType(),
+                JavaCGCallTypeEnum.CTE_TX_CALLBACK_WR_INIT_CALL2.getType()) ||
+                (checkAnnotation && txAnnotationMethodHashSet.contains(calleeMethodHash))) {
+            state |= STATE_RUN_IN_TRANSACTION;
+        }
+
+        if (JavaCGCallTypeEnum.CTE_LAMBDA.getType().equals(callType)) {
+            WriteDbData4LambdaMethodInfo lambdaCalleeInfo = dbOperWrapper.getLambdaCalleeInfo(calleeMethod.getCallId());
+            if (lambdaCalleeInfo != null) {
+                String lambdaCalleeClassName = lambdaCalleeInfo.getLambdaCalleeClassName();
+                String lambdaCalleeMethodName = lambdaCalleeInfo.getLambdaCalleeMethodName();
+                if ((JavaCGCommonNameConstants.CLASS_NAME_RUNNABLE.equals(lambdaCalleeClassName) && JavaCGCommonNameConstants.METHOD_RUNNABLE_RUN.equals(lambdaCalleeMethodName))
+                        || (JavaCGCommonNameConstants.CLASS_NAME_CALLABLE.equals(lambdaCalleeClassName) && JavaCGCommonNameConstants.METHOD_CALLABLE_CALL.equals(lambdaCalleeMethodName))) {
+                    state |= STATE_RUN_IN_OTHER_THREAD;
+                } else if (JavaCGCommonNameConstants.CLASS_NAME_TRANSACTION_CALLBACK.equals(lambdaCalleeClassName) &&
+                        JavaCGCommonNameConstants.METHOD_DO_IN_TRANSACTION.equals(lambdaCalleeMethodName)) {
+                    state |= STATE_RUN_IN_TRANSACTION;
+                }
+            }
+        }
+        return state;
+    }
+
+    // 生成满足条件的方法调用信息
+    private CallerExtractedLine genCallerExtractedLine(int dataSeq, MatchedCall matchedCall, int state) {
+        boolean runInOtherThread = (state & STATE_RUN_IN_OTHER_THREAD) != 0;
+        boolean runInTransaction = (state & STATE_RUN_IN_TRANSACTION) != 0;
+
+        CallGraphLineParsed callGraphLineParsed = new CallGraphLineParsed();
+        callGraphLineParsed.setMethodDetail(JACGClassMethodUtil.genMethodDetail(matchedCall.calleeFullMethod));
+        callGraphLineParsed.setCallId(matchedCall.callId);
+        callGraphLineParsed.setCallerLineNumber(matchedCall.callerLineNumber);
+        callGraphLineParsed.setRunInOtherThread(runInOtherThread);
+        callGraphLineParsed.setRunInTransaction(runInTransaction);
+
+        CallerExtractedLine callerExtractedLine = new CallerExtractedLine();
+        callerExtractedLine.setDataSeq(dataSeq);
+        callerExtractedLine.setLineNumber(matchedCall.callerLineNumber);
+        callerExtractedLine.setLineContent(matchedCall.calleeFullMethod);
+        callerExtractedLine.setCallGraphLineParsed(callGraphLineParsed);
+        if (matchedCall.callerFullMethod != null) {
+            CallGraphLineParsed lastLineParsed = new CallGraphLineParsed();
+            lastLineParsed.setMethodDetail(JACGClassMethodUtil.genMethodDetail(matchedCall.callerFullMethod));
+            callerExtractedLine.setLastLineContent(matchedCall.callerFullMethod);
+            callerExtractedLine.setLastLineParsed(lastLineParsed);
+        }
+        callerExtractedLine.setRunInOtherThread(runInOtherThread);
+        callerExtractedLine.setRunInTransaction(runInTransaction);
+        return callerExtractedLine;
+    }
+
+    // 遍历方法调用时使用的节点
+    private static class GraphNode {
+        // 方法HASH+长度
+        private final String methodHash;
+
+        // 完整方法
+        private final String fullMethod;
+
+        // 当前方法被调用时的状态，包含上层方法调用的状态
+        private final int state;
+
+        // 当前方法被调用的方法调用对应的状态
+        private final int callState;
+
+        // 已处理的被调用方法对应的方法调用ID
+        private int methodCallId = JavaCGConstants.METHOD_CALL_ID_START;
+
+        // 是否存在需要处理的被调用方法
+        private boolean hasCallee;
+
+        // 子树是否依赖更上层的调用方法
+        private boolean dependOnUpper;
+
+        // 子树中满足条件的方法调用
+        private List<MatchedCall> matchedCallList;
+
+        // 已处理的被调用方法，被调用方法在调用方法中已被调用过时忽略时使用
+        private Set<String> recordedCalleeSet;
+
+        GraphNode(String methodHash, String fullMethod, int state, int callState) {
+            this.methodHash = methodHash;
+            this.fullMethod = fullMethod;
+            this.state = state;
+            this.callState = callState;
+        }
+
+        void addMatchedCall(MatchedCall matchedCall) {
+            if (matchedCallList == null) {
+                matchedCallList = new ArrayList<>();
+            }
+            matchedCallList.add(matchedCall);
+        }
+
+        boolean addRecordedCallee(String callee) {
+            if (recordedCalleeSet == null) {
+                recordedCalleeSet = new HashSet<>();
+            }
+            return recordedCalleeSet.add(callee);
+        }
+    }
+
+    // 满足条件的方法调用
+    private static class MatchedCall {
+        // 方法调用ID
+        private final int callId;
+
+        // 方法调用在调用方法中的代码行号
+        private final int callerLineNumber;
+
+        // 被调用完整方法
+        private final String calleeFullMethod;
+
+        // 调用完整方法，为null时代表入口方法
+        private final String callerFullMethod;
+
+        // 相对于所在节点的状态
+        private final int state;
+
+        MatchedCall(int callId, int callerLineNumber, String calleeFullMethod, String callerFullMethod, int state) {
+            this.callId = callId;
+            this.callerLineNumber = callerLineNumber;
+            this.calleeFullMethod = calleeFullMethod;
+            this.callerFullMethod = callerFullMethod;
+            this.state = state;
+        }
+
+        MatchedCall copy(int newState) {
+            return new MatchedCall(callId, callerLineNumber, calleeFullMethod, callerFullMethod, newState);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
 import com.adrninistrator.jacg.dboper.DbOperWrapper;
 import com.adrninistrator.jacg.dboper.DbOperator;
 import com.adrninistrator.jacg.dto.write_db.AbstractWriteDbData;
-import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4WriteDbCheckpoint;
+import com.adrninistrator.jacg.handler.checkpoint.WriteDbCheckpointHandler;
+import com.adrninistrator.jacg.perf.JACGPerfRecorder;
 import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.common.enums.JavaCGOutPutFileTypeEnum;
 import com.adrninistrator.javacg.dto.output.JavaCGOutputInfo;
@@ -19,11 +21,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -48,10 +51,8 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
     // 需要处理的包名/类名前缀
     private Set<String> allowedClassPrefixSet;
 
-    private ThreadPoolExecutor threadPoolExecutor;
-
-    // 任务最大队列数
-    private int taskQueueMaxSize;
+    // 执行写数据库任务的执行器，提交任务时在不允许执行时等待
+    private Executor taskExecutor;
 
     // 批量插入数据库记录数
     private int writeRecordNum;
@@ -86,6 +87,40 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
     // 当前需要读取的文件描述
     private String fileDesc;
 
+    // 性能数据记录对象，可为null
+    private JACGPerfRecorder perfRecorder;
+
+    // 等待线程池可执行任务的耗时，单位为纳秒
+    private long waitTPENanos;
+
+    // 写数据库检查点处理类，为null时不记录检查点
+    private WriteDbCheckpointHandler checkpointHandler;
+
+    // 上一次执行时记录的检查点，为null时代表不是恢复执行
+    private WriteDbData4WriteDbCheckpoint lastCheckpoint;
+
+    // 需要读取的文件HASH，不需要读取文件时为空字符串
+    private String inputHash = "";
+
+    // 上一次执行时已连续提交的批次中的记录数，恢复执行时这些记录不再写入数据库
+    private int resumeRecordNum;
+
+    // 下一个批次的序号
+    private int nextBatchSeq;
+
+    // 以下字段在多个线程中使用，需要在对committedBatchSet加锁后访问
+    // 已提交的批次序号
+    private final BitSet committedBatchSet = new BitSet();
+
+    // 已提交但前面存在未提交批次的各批次记录数，key: 批次序号
+    private final Map<Integer, Integer> batchRecordNumMap = new HashMap<>();
+
+    // 第一个未提交的批次序号
+    private int firstUncommittedBatchSeq;
+
+    // 已连续提交的批次中的记录数
+    private int committedRecordNum;
+
     public AbstractWriteDbHandler() {
         JACGWriteDbHandler jacgWriteDbHandler = this.getClass().getAnnotation(JACGWriteDbHandler.class);
         if (jacgWriteDbHandler == null) {
@@ -247,9 +282,14 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
      * @return
      */
     public boolean handle(JavaCGOutputInfo javaCGOutputInfo) {
+        long startTime = System.currentTimeMillis();
         List<T> dataList = new ArrayList<>(batchSize);
 
         String filePath = mainFile ? javaCGOutputInfo.getMainFilePath(mainFileTypeEnum) : javaCGOutputInfo.getOtherFilePath(otherFileName);
+        if (!checkInputHash(filePath)) {
+            return false;
+        }
+
         try (BufferedReader br = JavaCGFileUtil.genBufferedReader(filePath)) {
             String line;
             while ((line = br.readLine()) != null) {
@@ -287,6 +327,10 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
         } catch (Exception e) {
             logger.error("error ", e);
             return false;
+        } finally {
+            if (perfRecorder != null) {
+                perfRecorder.recordWriteDbHandler(currentSimpleClassName, fileName, writeRecordNum, System.currentTimeMillis() - startTime, waitTPENanos);
+            }
         }
     }
 
@@ -311,30 +355,119 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
             return;
         }
 
+        // 恢复执行时，上一次执行时已连续提交的记录不再写入数据库
+        int skipNum = Math.max(0, Math.min(resumeRecordNum - writeRecordNum, dataList.size()));
         writeRecordNum += dataList.size();
         if (logger.isDebugEnabled()) {
-            logger.debug("写入数据库 {} {}", currentSimpleClassName, dataList.size());
+            logger.debug("写入数据库 {} {} {}", currentSimpleClassName, dataList.size(), skipNum);
         }
-        // 生成用于插入数据的sql语句
-        String sql = dbOperWrapper.genAndCacheInsertSql(dbTableInfoEnum, DbInsertMode.DIME_INSERT);
-
         // 根据需要写入的数据生成Object数组
-        List<Object[]> objectList = new ArrayList<>(dataList.size());
-        for (T data : dataList) {
-            // genObjectArray()方法在当前线程中执行，没有线程安全问题
-            objectList.add(genObjectArray(data));
+        List<Object[]> objectList = new ArrayList<>(dataList.size() - skipNum);
+        for (int i = 0; i < dataList.size(); i++) {
+            // genObjectArray()方法在当前线程中执行，没有线程安全问题，其中可能会生成记录ID，不需要写入的记录也需要执行
+            Object[] objectArray = genObjectArray(dataList.get(i));
+            if (i >= skipNum) {
+                objectList.add(objectArray);
+            }
         }
+        dataList.clear();
+        if (objectList.isEmpty()) {
+            return;
+        }
+        int batchSeq = nextBatchSeq++;
 
-        // 等待直到允许任务执行
-        JACGUtil.wait4TPEExecute(threadPoolExecutor, taskQueueMaxSize);
-
-        threadPoolExecutor.execute(() -> {
+        // 提交任务，等待直到允许任务执行
+        long waitStartTime = System.nanoTime();
+        taskExecutor.execute(() -> {
             // 指量写入数据库
-            if (!dbOperator.batchInsert(sql, objectList)) {
+            if (!writeBatch(objectList)) {
                 failFlag.set(true);
+                return;
             }
+            commitBatch(batchSeq, objectList.size());
         });
-        dataList.clear();
+        waitTPENanos += System.nanoTime() - waitStartTime;
+    }
+
+    // 批量写入数据库
+    private boolean writeBatch(List<Object[]> objectList) {
+        if (lastCheckpoint != null) {
+            /*
+                恢复执行时，上一次执行时在已连续提交的批次之后的批次可能已写入数据库，使用replace写入，避免主键冲突
+                恢复执行时不支持使用本地文件存储方法调用关系，直接写入数据库
+             */
+            return dbOperator.batchInsert(dbOperWrapper.genAndCacheInsertSql(dbTableInfoEnum, DbInsertMode.DIME_REPLACE), objectList);
+        }
+        return dbOperWrapper.getStorage().writeBatch(dbTableInfoEnum, objectList);
+    }
+
+    // 记录批次已提交，已连续提交的批次中的记录数增加时记录检查点
+    private void commitBatch(int batchSeq, int recordNum) {
+        if (checkpointHandler == null) {
+            return;
+        }
+
+        synchronized (committedBatchSet) {
+            committedBatchSet.set(batchSeq);
+            batchRecordNumMap.put(batchSeq, recordNum);
+            int lastCommittedRecordNum = committedRecordNum;
+            while (committedBatchSet.get(firstUncommittedBatchSeq)) {
+                committedRecordNum += batchRecordNumMap.remove(firstUncommittedBatchSeq);
+                committedBatchSet.clear(firstUncommittedBatchSeq);
+                firstUncommittedBatchSeq++;
+            }
+            if (committedRecordNum > lastCommittedRecordNum) {
+                // 记录检查点失败时不影响写入数据库，恢复执行时会重新写入对应的记录
+                checkpointHandler.recordHandler(currentSimpleClassName, inputHash, committedRecordNum, false);
+            }
+        }
+    }
+
+    // 记录检查点时计算需要读取的文件HASH，恢复执行时检查与上一次执行时是否相同
+    private boolean checkInputHash(String filePath) {
+        if (checkpointHandler == null) {
+            return true;
+        }
+
+        inputHash = WriteDbCheckpointHandler.genFileHash(filePath);
+        if (inputHash == null) {
+            return false;
+        }
+        if (lastCheckpoint != null && !inputHash.equals(lastCheckpoint.getInputHash())) {
+            logger.error("{} 需要读取的文件与上一次执行时不同，不能恢复执行，请不指定恢复执行后重新执行 {}", currentSimpleClassName, filePath);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 初始化写数据库检查点，若上一次执行时存在当前类的检查点，则恢复执行
+     * 需要在写入数据库之前调用
+     *
+     * @param checkpointHandler
+     */
+    public void initCheckpoint(WriteDbCheckpointHandler checkpointHandler) {
+        this.checkpointHandler = checkpointHandler;
+        lastCheckpoint = checkpointHandler.getLastCheckpoint(currentSimpleClassName);
+        if (lastCheckpoint != null) {
+            resumeRecordNum = lastCheckpoint.getRecordNum();
+            committedRecordNum = resumeRecordNum;
+            logger.info("{} 恢复执行，上一次执行时已写入数据库的记录数 {}", currentSimpleClassName, resumeRecordNum);
+        }
+    }
+
+    /**
+     * 记录当前类写入数据库已完成的检查点，需要在所有批次写入数据库完毕后调用
+     *
+     * @return
+     */
+    public boolean recordCheckpointDone() {
+        if (checkpointHandler == null) {
+            return true;
+        }
+        synchronized (committedBatchSet) {
+            return checkpointHandler.recordHandler(currentSimpleClassName, inputHash, committedRecordNum, true);
+        }
     }
 
     /**
@@ -404,6 +537,10 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
         return fileDesc;
     }
 
+    public String getInputHash() {
+        return inputHash;
+    }
+
     //
     public void setDbOperWrapper(DbOperWrapper dbOperWrapper) {
         this.dbOperWrapper = dbOperWrapper;
@@ -421,11 +558,11 @@ public abstract class AbstractWriteDbHandler<T extends AbstractWriteDbData> {
         this.allowedClassPrefixSet = allowedClassPrefixSet;
     }
 
-    public void setThreadPoolExecutor(ThreadPoolExecutor threadPoolExecutor) {
-        this.threadPoolExecutor = threadPoolExecutor;
+    public void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
     }
 
-    public void setTaskQueueMaxSize(int taskQueueMaxSize) {
-        this.taskQueueMaxSize = taskQueueMaxSize;
+    public void setPerfRecorder(JACGPerfRecorder perfRecorder) {
+        this.perfRecorder = perfRecorder;
     }
 }
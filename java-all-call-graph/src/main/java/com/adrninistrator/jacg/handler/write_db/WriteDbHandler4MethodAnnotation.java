@@ -4,6 +4,7 @@ import com.adrninistrator.jacg.annotation.util.AnnotationAttributesParseUtil;
 import com.adrninistrator.jacg.common.JACGConstants;
 import com.adrninistrator.jacg.common.annotations.JACGWriteDbHandler;
 import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.dto.method.MethodHashFlags;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodAnnotation;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4SpringController;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
@@ -16,10 +17,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * @author adrninistrator
@@ -42,11 +41,8 @@ public class WriteDbHandler4MethodAnnotation extends AbstractWriteDbHandler<Writ
     // 将Spring Controller信息写入数据库的类
     private WriteDbHandler4SpringController writeDbHandler4SpringController;
 
-    // Spring Controller对应的方法HASH+长度
-    private Set<String> springControllerMethodHashSet = new HashSet<>();
-
-    // 有注解的方法HASH+长度
-    private Set<String> withAnnotationMethodHashSet = new HashSet<>();
+    // 各方法HASH+长度对应的标记，记录Spring Controller对应的方法、有注解的方法
+    private MethodHashFlags methodHashFlags = new MethodHashFlags();
 
     // Spring Controller相关信息
     private final List<WriteDbData4SpringController> writeDbData4SpringControllerList = new ArrayList<>(batchSize);
@@ -77,7 +73,7 @@ public class WriteDbHandler4MethodAnnotation extends AbstractWriteDbHandler<Writ
         }
 
         // 记录有注解的方法HASH+长度
-        withAnnotationMethodHashSet.add(methodHash);
+        methodHashFlags.addFlag(methodHash, MethodHashFlags.FLAG_WITH_ANNOTATION);
 
         // 处理Spring Controller相关注解
         boolean isSpringMappingAnnotation = handleSpringControllerAnnotation(methodHash, fullMethod, simpleClassName, annotationName, attributeName, attributeValue);
@@ -155,7 +151,7 @@ public class WriteDbHandler4MethodAnnotation extends AbstractWriteDbHandler<Writ
         }
 
         // 记录Spring Controller对应的方法HASH+长度
-        springControllerMethodHashSet.add(methodHash);
+        methodHashFlags.addFlag(methodHash, MethodHashFlags.FLAG_SPRING_CONTROLLER);
 
         if (classRequestMappingPathList.isEmpty()) {
             // 假如类的path列表为空，则创建为只有一个空字符串的列表
@@ -211,11 +207,7 @@ public class WriteDbHandler4MethodAnnotation extends AbstractWriteDbHandler<Writ
         this.writeDbHandler4SpringController = writeDbHandler4SpringController;
     }
 
-    public void setSpringControllerMethodHashSet(Set<String> springControllerMethodHashSet) {
-        this.springControllerMethodHashSet = springControllerMethodHashSet;
-    }
-
-    public void setWithAnnotationMethodHashSet(Set<String> withAnnotationMethodHashSet) {
-        this.withAnnotationMethodHashSet = withAnnotationMethodHashSet;
+    public void setMethodHashFlags(MethodHashFlags methodHashFlags) {
+        this.methodHashFlags = methodHashFlags;
     }
 }
@@ -2,13 +2,12 @@ package com.adrninistrator.jacg.handler.write_db;
 
 import com.adrninistrator.jacg.common.annotations.JACGWriteDbHandler;
 import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.dto.method.MethodHashFlags;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodArgGenericsType;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
 import com.adrninistrator.javacg.common.enums.JavaCGOutPutFileTypeEnum;
 
-import java.util.Set;
-
 /**
  * @author adrninistrator
  * @date 2023/3/20
@@ -23,8 +22,8 @@ import java.util.Set;
         dbTableInfoEnum = DbTableInfoEnum.DTIE_METHOD_ARG_GENERICS_TYPE
 )
 public class WriteDbHandler4MethodArgGenericsType extends AbstractWriteDbHandler<WriteDbData4MethodArgGenericsType> {
-    // 方法参数存在泛型类型的方法HASH+长度
-    private Set<String> withGenericsTypeMethodHash;
+    // 各方法HASH+长度对应的标记，记录方法参数存在泛型类型的方法
+    private MethodHashFlags methodHashFlags;
 
     @Override
     protected WriteDbData4MethodArgGenericsType genData(String[] array) {
@@ -42,7 +41,7 @@ public class WriteDbHandler4MethodArgGenericsType extends AbstractWriteDbHandler
         int typeSeq = Integer.parseInt(array[3]);
         String genericsType = array[4];
 
-        withGenericsTypeMethodHash.add(methodHash);
+        methodHashFlags.addFlag(methodHash, MethodHashFlags.FLAG_WITH_GENERICS_TYPE);
         return new WriteDbData4MethodArgGenericsType(methodHash,
                 simpleClassName,
                 argSeq,
@@ -89,7 +88,7 @@ public class WriteDbHandler4MethodArgGenericsType extends AbstractWriteDbHandler
         };
     }
 
-    public void setWithGenericsTypeMethodHash(Set<String> withGenericsTypeMethodHash) {
-        this.withGenericsTypeMethodHash = withGenericsTypeMethodHash;
+    public void setMethodHashFlags(MethodHashFlags methodHashFlags) {
+        this.methodHashFlags = methodHashFlags;
     }
 }
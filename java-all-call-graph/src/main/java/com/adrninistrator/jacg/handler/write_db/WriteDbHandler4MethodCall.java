@@ -3,6 +3,7 @@ package com.adrninistrator.jacg.handler.write_db;
 import com.adrninistrator.jacg.common.annotations.JACGWriteDbHandler;
 import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
 import com.adrninistrator.jacg.common.enums.MethodCallFlagsEnum;
+import com.adrninistrator.jacg.dto.method.MethodHashFlags;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
@@ -12,6 +13,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.BitSet;
 import java.util.Set;
 
 /**
@@ -30,17 +32,11 @@ import java.util.Set;
 public class WriteDbHandler4MethodCall extends AbstractWriteDbHandler<WriteDbData4MethodCall> {
     private static final Logger logger = LoggerFactory.getLogger(WriteDbHandler4MethodCall.class);
 
-    // Spring Controller对应的方法HASH+长度
-    private Set<String> springControllerMethodHashSet;
+    // 各方法HASH+长度对应的标记，包括Spring Controller、有注解、方法参数存在泛型类型
+    private MethodHashFlags methodHashFlags;
 
-    // 有注解的方法HASH+长度
-    private Set<String> withAnnotationMethodHashSet;
-
-    // 被调用对象及参数存在信息的call_id
-    private Set<Integer> withInfoCallIdSet;
-
-    // 方法参数存在泛型类型的方法HASH+长度
-    private Set<String> withGenericsTypeMethodHash;
+    // 被调用对象及参数存在信息的call_id，call_id为连续的整数，使用BitSet记录
+    private BitSet withInfoCallIdBitSet;
 
     // 保存MyBatis Mapper类名
     private Set<String> myBatisMapperSet;
@@ -143,23 +139,26 @@ public class WriteDbHandler4MethodCall extends AbstractWriteDbHandler<WriteDbDat
         String callerMethodHash = writeDbData4MethodCall.getCallerMethodHash();
         String calleeMethodHash = writeDbData4MethodCall.getCalleeMethodHash();
         String calleeClassName = JACGClassMethodUtil.getClassNameFromMethod(writeDbData4MethodCall.getCalleeFullMethod());
+        // 调用方与被调用方的标记各查询一次
+        int callerMethodFlags = methodHashFlags.getFlags(callerMethodHash);
+        int calleeMethodFlags = methodHashFlags.getFlags(calleeMethodHash);
         int callFlags = 0;
-        if (springControllerMethodHashSet.contains(callerMethodHash)) {
+        if (MethodHashFlags.checkFlag(callerMethodFlags, MethodHashFlags.FLAG_SPRING_CONTROLLER)) {
             callFlags = MethodCallFlagsEnum.MCFE_ER_SPRING_CONTROLLER.setFlag(callFlags);
         }
-        if (withAnnotationMethodHashSet.contains(callerMethodHash)) {
+        if (MethodHashFlags.checkFlag(callerMethodFlags, MethodHashFlags.FLAG_WITH_ANNOTATION)) {
             callFlags = MethodCallFlagsEnum.MCFE_ER_METHOD_ANNOTATION.setFlag(callFlags);
         }
-        if (withAnnotationMethodHashSet.contains(calleeMethodHash)) {
+        if (MethodHashFlags.checkFlag(calleeMethodFlags, MethodHashFlags.FLAG_WITH_ANNOTATION)) {
             callFlags = MethodCallFlagsEnum.MCFE_EE_METHOD_ANNOTATION.setFlag(callFlags);
         }
-        if (withInfoCallIdSet.contains(callId)) {
+        if (withInfoCallIdBitSet.get(callId)) {
             callFlags = MethodCallFlagsEnum.MCFE_METHOD_CALL_INFO.setFlag(callFlags);
         }
-        if (withGenericsTypeMethodHash.contains(calleeMethodHash)) {
+        if (MethodHashFlags.checkFlag(calleeMethodFlags, MethodHashFlags.FLAG_WITH_GENERICS_TYPE)) {
             callFlags = MethodCallFlagsEnum.MCFE_EE_WITH_GENERICS_TYPE.setFlag(callFlags);
         }
-        if (withGenericsTypeMethodHash.contains(callerMethodHash)) {
+        if (MethodHashFlags.checkFlag(callerMethodFlags, MethodHashFlags.FLAG_WITH_GENERICS_TYPE)) {
             callFlags = MethodCallFlagsEnum.MCFE_ER_WITH_GENERICS_TYPE.setFlag(callFlags);
         }
         if (myBatisMapperSet.contains(calleeClassName)) {
@@ -174,20 +173,12 @@ public class WriteDbHandler4MethodCall extends AbstractWriteDbHandler<WriteDbDat
     }
 
     //
-    public void setSpringControllerMethodHashSet(Set<String> springControllerMethodHashSet) {
-        this.springControllerMethodHashSet = springControllerMethodHashSet;
-    }
-
-    public void setWithAnnotationMethodHashSet(Set<String> withAnnotationMethodHashSet) {
-        this.withAnnotationMethodHashSet = withAnnotationMethodHashSet;
-    }
-
-    public void setWithInfoCallIdSet(Set<Integer> withInfoCallIdSet) {
-        this.withInfoCallIdSet = withInfoCallIdSet;
+    public void setMethodHashFlags(MethodHashFlags methodHashFlags) {
+        this.methodHashFlags = methodHashFlags;
     }
 
-    public void setWithGenericsTypeMethodHash(Set<String> withGenericsTypeMethodHash) {
-        this.withGenericsTypeMethodHash = withGenericsTypeMethodHash;
+    public void setWithInfoCallIdBitSet(BitSet withInfoCallIdBitSet) {
+        this.withInfoCallIdBitSet = withInfoCallIdBitSet;
     }
 
     public void setMyBatisMapperSet(Set<String> myBatisMapperSet) {
@@ -7,7 +7,7 @@ import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.common.enums.JavaCGOutPutFileTypeEnum;
 import com.adrninistrator.javacg.util.JavaCGUtil;
 
-import java.util.Set;
+import java.util.BitSet;
 
 /**
  * @author adrninistrator
@@ -24,7 +24,7 @@ import java.util.Set;
 )
 public class WriteDbHandler4MethodCallInfo extends AbstractWriteDbHandler<WriteDbData4MethodCallInfo> {
     // 被调用对象及参数存在信息的call_id
-    private Set<Integer> withInfoCallIdSet;
+    private BitSet withInfoCallIdBitSet;
 
     @Override
     protected WriteDbData4MethodCallInfo genData(String[] array) {
@@ -42,7 +42,7 @@ public class WriteDbHandler4MethodCallInfo extends AbstractWriteDbHandler<WriteD
         }
 
         // 记录被调用对象及参数存在信息的call_id
-        withInfoCallIdSet.add(callId);
+        withInfoCallIdBitSet.set(callId);
         return new WriteDbData4MethodCallInfo(callId,
                 Integer.parseInt(objArgsSeq),
                 Integer.parseInt(seq),
@@ -82,7 +82,7 @@ public class WriteDbHandler4MethodCallInfo extends AbstractWriteDbHandler<WriteD
         };
     }
 
-    public void setWithInfoCallIdSet(Set<Integer> withInfoCallIdSet) {
-        this.withInfoCallIdSet = withInfoCallIdSet;
+    public void setWithInfoCallIdBitSet(BitSet withInfoCallIdBitSet) {
+        this.withInfoCallIdBitSet = withInfoCallIdBitSet;
     }
 }
@@ -10,9 +10,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,7 +27,7 @@ public class MarkdownWriter implements AutoCloseable {
     // 标题是否显示数量序号
     private final boolean showTitleSeq;
 
-    private final BufferedWriter writer;
+    private final Writer writer;
 
     // 上一次添加的标题级别
     private int lastAddedTitleLevel;
@@ -45,8 +45,18 @@ public class MarkdownWriter implements AutoCloseable {
     private int tableColumnNum = 0;
 
     public MarkdownWriter(String mdFilePath, boolean showTitleSeq) throws FileNotFoundException {
+        this(JavaCGFileUtil.genBufferedWriter(mdFilePath), showTitleSeq);
+    }
+
+    /**
+     * 使用指定的Writer写入，例如异步写文件的Writer
+     *
+     * @param writer
+     * @param showTitleSeq 标题是否显示数量序号
+     */
+    public MarkdownWriter(Writer writer, boolean showTitleSeq) {
         this.showTitleSeq = showTitleSeq;
-        writer = JavaCGFileUtil.genBufferedWriter(mdFilePath);
+        this.writer = writer;
         if (showTitleSeq) {
             titleLevelSeqMap = new HashMap<>();
         }
@@ -0,0 +1,364 @@
+package com.adrninistrator.jacg.perf;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.dboper.DbOperator;
+import com.adrninistrator.jacg.markdown.writer.MarkdownWriter;
+import com.adrninistrator.jacg.util.JACGJsonUtil;
+import com.adrninistrator.javacg.util.JavaCGFileUtil;
+import com.adrninistrator.javacg.util.JavaCGUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/13
+ * @description: 记录一次执行过程中的性能数据，包括各阶段耗时、写数据库处理类耗时、各sql语句耗时、线程池使用情况，执行完毕后生成报告文件
+ */
+public class JACGPerfRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(JACGPerfRecorder.class);
+
+    // 数据库查询次数较多的任务，记录的查询次数最多的sql语句数量
+    public static final int TOP_SQL_NUM_OF_TASK = 5;
+
+    // 按预估开销排序执行时，在报告中显示的实际耗时最长的任务数量
+    public static final int TOP_TASK_NUM_OF_COST = 20;
+
+    // 执行的入口简单类名
+    private final String entrySimpleClassName;
+
+    // 各阶段的耗时，key: 阶段名称，value: [耗时（毫秒）, 是否成功 1/0]
+    private final Map<String, long[]> stageSpendMap = new LinkedHashMap<>();
+
+    // 各写数据库处理类的性能数据
+    private final List<Map<String, Object>> writeDbHandlerPerfList = new ArrayList<>();
+
+    // 线程池采样
+    private final List<ThreadPoolSampler> threadPoolSamplerList = new ArrayList<>();
+
+    // 数据库查询次数较多的任务
+    private final List<Map<String, Object>> taskQueryFlaggedList = new ArrayList<>();
+
+    // 记录过数据库查询次数的任务数量
+    private int taskQueryRecordedNum;
+
+    // 所有任务的数据库查询次数总和
+    private long taskQueryTotalNum;
+
+    // 有预估开销的任务的预估开销与实际开销
+    private final List<Map<String, Object>> taskCostList = new ArrayList<>();
+
+    public JACGPerfRecorder(String entrySimpleClassName) {
+        this.entrySimpleClassName = entrySimpleClassName;
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     *
+     * @param stageName 阶段名称
+     * @param startTime 开始时间，System.currentTimeMillis()
+     * @param success   是否执行成功
+     */
+    public synchronized void recordStage(String stageName, long startTime, boolean success) {
+        long spendTime = System.currentTimeMillis() - startTime;
+        logger.info("{} 阶段 {} 执行{}，耗时: {} S", entrySimpleClassName, stageName, success ? "完毕" : "失败", spendTime / 1000.0D);
+        // 同一个阶段执行多次时，耗时累加
+        long[] stageSpend = stageSpendMap.computeIfAbsent(stageName, k -> new long[]{0L, 1L});
+        stageSpend[0] += spendTime;
+        if (!success) {
+            stageSpend[1] = 0L;
+        }
+    }
+
+    /**
+     * 记录写数据库处理类的性能数据
+     *
+     * @param handlerSimpleClassName 处理类的简单类名
+     * @param fileName               处理的文件名
+     * @param recordNum              写入数据库的记录数
+     * @param spendTime              总耗时，单位为毫秒
+     * @param waitTPENanos           等待线程池可执行任务的耗时，单位为纳秒
+     */
+    public synchronized void recordWriteDbHandler(String handlerSimpleClassName, String fileName, int recordNum, long spendTime, long waitTPENanos) {
+        Map<String, Object> handlerPerfMap = new LinkedHashMap<>();
+        handlerPerfMap.put("handler", handlerSimpleClassName);
+        handlerPerfMap.put("fileName", fileName);
+        handlerPerfMap.put("recordNum", recordNum);
+        handlerPerfMap.put("spendMs", spendTime);
+        handlerPerfMap.put("waitThreadPoolMs", waitTPENanos / 1000000L);
+        writeDbHandlerPerfList.add(handlerPerfMap);
+    }
+
+    /**
+     * 记录一个生成调用链任务的数据库查询次数，查询次数与生成的调用链行数的比例超过阈值，或超过了查询次数限制时进行提示
+     *
+     * @param taskQueryCounter
+     * @param queryRatioThreshold 数据库查询次数与生成的调用链行数的比例阈值，为0时不检查
+     * @param dbOperator
+     */
+    public synchronized void recordTaskQuery(TaskQueryCounter taskQueryCounter, int queryRatioThreshold, DbOperator dbOperator) {
+        taskQueryRecordedNum++;
+        taskQueryTotalNum += taskQueryCounter.getQueryNum();
+
+        if (taskQueryCounter.getPredictedCost() >= 0L) {
+            // 记录任务的预估开销与实际开销
+            long spendTime = taskQueryCounter.getSpendTime();
+            logger.info("{} 任务执行完毕 {} 预估开销: {} 实际调用链行数: {} 耗时: {} 毫秒", entrySimpleClassName, taskQueryCounter.getTaskDesc(),
+                    taskQueryCounter.getPredictedCost(), taskQueryCounter.getOutputLineNum(), spendTime);
+            Map<String, Object> taskCostMap = new LinkedHashMap<>();
+            taskCostMap.put("task", taskQueryCounter.getTaskDesc());
+            taskCostMap.put("predictedCost", taskQueryCounter.getPredictedCost());
+            taskCostMap.put("outputLineNum", taskQueryCounter.getOutputLineNum());
+            taskCostMap.put("spendMs", spendTime);
+            taskCostList.add(taskCostMap);
+        }
+
+        boolean overRatio = queryRatioThreshold > 0 && taskQueryCounter.getQueryRatio() > queryRatioThreshold;
+        if (!overRatio && !taskQueryCounter.isTruncated()) {
+            return;
+        }
+
+        // 记录查询次数最多的sql语句
+        List<Map.Entry<String, Integer>> sqlCountList = new ArrayList<>(taskQueryCounter.getSqlCountMap().entrySet());
+        sqlCountList.sort((o1, o2) -> Integer.compare(o2.getValue(), o1.getValue()));
+        Map<String, Integer> topSqlKeyCountMap = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(sqlCountList.size(), TOP_SQL_NUM_OF_TASK); i++) {
+            Map.Entry<String, Integer> sqlCountEntry = sqlCountList.get(i);
+            String sqlKey = dbOperator.getSqlKey(sqlCountEntry.getKey());
+            topSqlKeyCountMap.put(sqlKey != null ? sqlKey : sqlCountEntry.getKey(), sqlCountEntry.getValue());
+        }
+
+        logger.warn("{} 任务的数据库查询次数较多 {} 查询次数: {} 调用链行数: {} 是否截断: {} 查询次数最多的sql语句: {}", entrySimpleClassName, taskQueryCounter.getTaskDesc(),
+                taskQueryCounter.getQueryNum(), taskQueryCounter.getOutputLineNum(), taskQueryCounter.isTruncated(), topSqlKeyCountMap);
+
+        Map<String, Object> taskQueryMap = new LinkedHashMap<>();
+        taskQueryMap.put("task", taskQueryCounter.getTaskDesc());
+        taskQueryMap.put("queryNum", taskQueryCounter.getQueryNum());
+        taskQueryMap.put("outputLineNum", taskQueryCounter.getOutputLineNum());
+        taskQueryMap.put("queryRatio", taskQueryCounter.getQueryRatio());
+        taskQueryMap.put("truncated", taskQueryCounter.isTruncated());
+        taskQueryMap.put("topSqlKeys", topSqlKeyCountMap);
+        taskQueryFlaggedList.add(taskQueryMap);
+    }
+
+    /**
+     * 开始对线程池进行采样
+     *
+     * @param threadPoolExecutor
+     */
+    public synchronized void startSampleThreadPool(ThreadPoolExecutor threadPoolExecutor) {
+        ThreadPoolSampler threadPoolSampler = new ThreadPoolSampler(threadPoolExecutor, "jacg_perf_sampler-" + (threadPoolSamplerList.size() + 1));
+        threadPoolSamplerList.add(threadPoolSampler);
+        threadPoolSampler.start();
+    }
+
+    // 停止对线程池进行采样
+    public synchronized void stopSampleThreadPool() {
+        for (ThreadPoolSampler threadPoolSampler : threadPoolSamplerList) {
+            threadPoolSampler.stop();
+        }
+    }
+
+    /**
+     * 生成性能报告文件，包括markdown与JSON格式
+     *
+     * @param outputDirPath 报告文件所在目录
+     * @param dbOperator    数据库操作对象，可为null
+     */
+    public synchronized void writeReport(String outputDirPath, DbOperator dbOperator) {
+        stopSampleThreadPool();
+
+        String reportFilePathPrefix = JavaCGUtil.addSeparator4FilePath(outputDirPath) + JACGConstants.FILE_JACG_PERF_REPORT;
+        Map<String, Object> reportMap = genReportMap(dbOperator);
+        String mdFilePath = reportFilePathPrefix + JACGConstants.EXT_MD;
+        String jsonFilePath = reportFilePathPrefix + JACGConstants.EXT_JSON;
+        logger.info("{} 性能报告保存到以下文件\n{}\n{}", entrySimpleClassName, mdFilePath, jsonFilePath);
+        writeMdReport(mdFilePath, reportMap);
+
+        try (BufferedWriter writer = JavaCGFileUtil.genBufferedWriter(jsonFilePath)) {
+            writer.write(JACGJsonUtil.getJsonStrPretty(reportMap));
+        } catch (Exception e) {
+            logger.error("{} error ", entrySimpleClassName, e);
+        }
+    }
+
+    // 生成报告数据
+    private Map<String, Object> genReportMap(DbOperator dbOperator) {
+        Map<String, Object> reportMap = new LinkedHashMap<>();
+        reportMap.put("entryClass", entrySimpleClassName);
+
+        List<Map<String, Object>> stageList = new ArrayList<>(stageSpendMap.size());
+        for (Map.Entry<String, long[]> entry : stageSpendMap.entrySet()) {
+            Map<String, Object> stageMap = new LinkedHashMap<>();
+            stageMap.put("stage", entry.getKey());
+            stageMap.put("spendMs", entry.getValue()[0]);
+            stageMap.put("success", entry.getValue()[1] == 1L);
+            stageList.add(stageMap);
+        }
+        reportMap.put("stages", stageList);
+        reportMap.put("writeDbHandlers", writeDbHandlerPerfList);
+
+        List<Map<String, Object>> sqlList = new ArrayList<>();
+        if (dbOperator != null) {
+            for (Map.Entry<String, SqlPerfStat> entry : dbOperator.getSqlPerfStatMap().entrySet()) {
+                String sql = entry.getKey();
+                SqlPerfStat sqlPerfStat = entry.getValue();
+                Map<String, Object> sqlMap = new LinkedHashMap<>();
+                sqlMap.put("sqlKey", dbOperator.getSqlKey(sql));
+                sqlMap.put("sql", sql);
+                sqlMap.put("count", sqlPerfStat.getCount());
+                sqlMap.put("failCount", sqlPerfStat.getFailCount());
+                sqlMap.put("totalMs", sqlPerfStat.getTotalMs());
+                sqlMap.put("avgMs", sqlPerfStat.getAvgMs());
+                sqlMap.put("maxMs", sqlPerfStat.getMaxMs());
+                Map<String, Long> histogramMap = new LinkedHashMap<>();
+                String[] histogramDesc = SqlPerfStat.getHistogramDesc();
+                long[] histogram = sqlPerfStat.getHistogram();
+                for (int i = 0; i < histogram.length; i++) {
+                    histogramMap.put(histogramDesc[i], histogram[i]);
+                }
+                sqlMap.put("histogram", histogramMap);
+                sqlList.add(sqlMap);
+            }
+            // 按总耗时从大到小排序
+            sqlList.sort((o1, o2) -> Double.compare((Double) o2.get("totalMs"), (Double) o1.get("totalMs")));
+        }
+        reportMap.put("sqls", sqlList);
+
+        List<Map<String, Object>> threadPoolList = new ArrayList<>(threadPoolSamplerList.size());
+        for (ThreadPoolSampler threadPoolSampler : threadPoolSamplerList) {
+            Map<String, Object> threadPoolMap = new LinkedHashMap<>();
+            threadPoolMap.put("maxPoolSize", threadPoolSampler.getMaxPoolSize());
+            threadPoolMap.put("sampleCount", threadPoolSampler.getSampleCount());
+            threadPoolMap.put("activeCountAvg", threadPoolSampler.getActiveCountAvg());
+            threadPoolMap.put("activeCountMax", threadPoolSampler.getActiveCountMax());
+            threadPoolMap.put("utilization", threadPoolSampler.getUtilization());
+            threadPoolMap.put("queueSizeAvg", threadPoolSampler.getQueueSizeAvg());
+            threadPoolMap.put("queueSizeMax", threadPoolSampler.getQueueSizeMax());
+            threadPoolMap.put("completedTaskCount", threadPoolSampler.getCompletedTaskCount());
+            threadPoolList.add(threadPoolMap);
+        }
+        reportMap.put("threadPools", threadPoolList);
+
+        Map<String, Object> taskQueryMap = new LinkedHashMap<>();
+        taskQueryMap.put("taskNum", taskQueryRecordedNum);
+        taskQueryMap.put("totalQueryNum", taskQueryTotalNum);
+        taskQueryMap.put("flaggedTasks", taskQueryFlaggedList);
+        reportMap.put("taskQueries", taskQueryMap);
+
+        if (!taskCostList.isEmpty()) {
+            // 按预估开销从大到小排序，记录预估排名
+            List<Map<String, Object>> taskCostSortedList = new ArrayList<>(taskCostList);
+            taskCostSortedList.sort((o1, o2) -> Long.compare((Long) o2.get("predictedCost"), (Long) o1.get("predictedCost")));
+            for (int i = 0; i < taskCostSortedList.size(); i++) {
+                taskCostSortedList.get(i).put("predictedRank", i + 1);
+            }
+            // 按实际耗时从大到小排序
+            taskCostSortedList.sort((o1, o2) -> Long.compare((Long) o2.get("spendMs"), (Long) o1.get("spendMs")));
+            reportMap.put("taskCosts", taskCostSortedList);
+        }
+        return reportMap;
+    }
+
+    // 生成markdown格式的报告
+    @SuppressWarnings("unchecked")
+    private void writeMdReport(String mdFilePath, Map<String, Object> reportMap) {
+        try (MarkdownWriter markdownWriter = new MarkdownWriter(mdFilePath, true)) {
+            markdownWriter.addTitle(1, "当前执行的类名");
+            markdownWriter.addLineWithNewLine(entrySimpleClassName);
+
+            markdownWriter.addTitle(1, "各阶段耗时");
+            markdownWriter.addTableHead("阶段", "耗时（毫秒）", "是否成功");
+            for (Map<String, Object> stageMap : (List<Map<String, Object>>) reportMap.get("stages")) {
+                markdownWriter.addTableBody(String.valueOf(stageMap.get("stage")), String.valueOf(stageMap.get("spendMs")), String.valueOf(stageMap.get("success")));
+            }
+            markdownWriter.addEmptyLine();
+
+            if (!writeDbHandlerPerfList.isEmpty()) {
+                markdownWriter.addTitle(1, "写数据库处理类耗时");
+                markdownWriter.addTableHead("处理类", "文件名", "记录数", "耗时（毫秒）", "等待线程池耗时（毫秒）");
+                for (Map<String, Object> handlerPerfMap : writeDbHandlerPerfList) {
+                    markdownWriter.addTableBody(String.valueOf(handlerPerfMap.get("handler")), String.valueOf(handlerPerfMap.get("fileName")),
+                            String.valueOf(handlerPerfMap.get("recordNum")), String.valueOf(handlerPerfMap.get("spendMs")),
+                            String.valueOf(handlerPerfMap.get("waitThreadPoolMs")));
+                }
+                markdownWriter.addEmptyLine();
+            }
+
+            List<Map<String, Object>> sqlList = (List<Map<String, Object>>) reportMap.get("sqls");
+            if (!sqlList.isEmpty()) {
+                markdownWriter.addTitle(1, "sql语句耗时（按总耗时从大到小排序）");
+                List<String> columnList = new ArrayList<>(Arrays.asList("sql语句key", "执行次数", "失败次数", "总耗时（毫秒）", "平均耗时（毫秒）", "最大耗时（毫秒）"));
+                columnList.addAll(Arrays.asList(SqlPerfStat.getHistogramDesc()));
+                markdownWriter.addTableHead(columnList.toArray(new String[0]));
+                for (Map<String, Object> sqlMap : sqlList) {
+                    List<String> valueList = new ArrayList<>();
+                    Object sqlKey = sqlMap.get("sqlKey");
+                    valueList.add(sqlKey != null ? String.valueOf(sqlKey) : String.valueOf(sqlMap.get("sql")));
+                    valueList.add(String.valueOf(sqlMap.get("count")));
+                    valueList.add(String.valueOf(sqlMap.get("failCount")));
+                    valueList.add(String.format("%.3f", (Double) sqlMap.get("totalMs")));
+                    valueList.add(String.format("%.3f", (Double) sqlMap.get("avgMs")));
+                    valueList.add(String.format("%.3f", (Double) sqlMap.get("maxMs")));
+                    for (Long histogramCount : ((Map<String, Long>) sqlMap.get("histogram")).values()) {
+                        valueList.add(String.valueOf(histogramCount));
+                    }
+                    markdownWriter.addTableBody(valueList.toArray(new String[0]));
+                }
+                markdownWriter.addEmptyLine();
+            }
+
+            List<Map<String, Object>> threadPoolList = (List<Map<String, Object>>) reportMap.get("threadPools");
+            if (!threadPoolList.isEmpty()) {
+                markdownWriter.addTitle(1, "线程池使用情况（每" + ThreadPoolSampler.SAMPLE_INTERVAL_MS + "毫秒采样一次）");
+                markdownWriter.addTableHead("最大线程数", "采样次数", "平均活跃线程数", "最大活跃线程数", "平均利用率", "平均队列长度", "最大队列长度", "完成任务数");
+                for (Map<String, Object> threadPoolMap : threadPoolList) {
+                    markdownWriter.addTableBody(String.valueOf(threadPoolMap.get("maxPoolSize")), String.valueOf(threadPoolMap.get("sampleCount")),
+                            String.format("%.2f", (Double) threadPoolMap.get("activeCountAvg")), String.valueOf(threadPoolMap.get("activeCountMax")),
+                            String.format("%.2f%%", (Double) threadPoolMap.get("utilization") * 100), String.format("%.2f", (Double) threadPoolMap.get("queueSizeAvg")),
+                            String.valueOf(threadPoolMap.get("queueSizeMax")), String.valueOf(threadPoolMap.get("completedTaskCount")));
+                }
+                markdownWriter.addEmptyLine();
+            }
+
+            if (taskQueryRecordedNum > 0) {
+                markdownWriter.addTitle(1, "生成调用链任务的数据库查询次数");
+                markdownWriter.addTableHead("任务数量", "数据库查询次数总和", "查询次数较多的任务数量");
+                markdownWriter.addTableBody(String.valueOf(taskQueryRecordedNum), String.valueOf(taskQueryTotalNum), String.valueOf(taskQueryFlaggedList.size()));
+                markdownWriter.addEmptyLine();
+
+                if (!taskQueryFlaggedList.isEmpty()) {
+                    markdownWriter.addTitle(2, "数据库查询次数较多的任务");
+                    markdownWriter.addTableHead("任务", "查询次数", "调用链行数", "查询次数/调用链行数", "是否截断", "查询次数最多的sql语句");
+                    for (Map<String, Object> taskQuery : taskQueryFlaggedList) {
+                        markdownWriter.addTableBody(String.valueOf(taskQuery.get("task")), String.valueOf(taskQuery.get("queryNum")),
+                                String.valueOf(taskQuery.get("outputLineNum")), String.format("%.2f", (Double) taskQuery.get("queryRatio")),
+                                String.valueOf(taskQuery.get("truncated")), String.valueOf(taskQuery.get("topSqlKeys")));
+                    }
+                    markdownWriter.addEmptyLine();
+                }
+            }
+
+            List<Map<String, Object>> taskCostSortedList = (List<Map<String, Object>>) reportMap.get("taskCosts");
+            if (taskCostSortedList != null) {
+                markdownWriter.addTitle(1, "实际耗时最长的任务（共" + taskCostSortedList.size() + "个任务按预估开销从大到小执行）");
+                markdownWriter.addTableHead("任务", "预估开销", "预估开销排名", "调用链行数", "耗时（毫秒）");
+                for (int i = 0; i < Math.min(taskCostSortedList.size(), TOP_TASK_NUM_OF_COST); i++) {
+                    Map<String, Object> taskCost = taskCostSortedList.get(i);
+                    markdownWriter.addTableBody(String.valueOf(taskCost.get("task")), String.valueOf(taskCost.get("predictedCost")),
+                            String.valueOf(taskCost.get("predictedRank")), String.valueOf(taskCost.get("outputLineNum")), String.valueOf(taskCost.get("spendMs")));
+                }
+                markdownWriter.addEmptyLine();
+            }
+        } catch (Exception e) {
+            logger.error("{} error ", entrySimpleClassName, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.adrninistrator.jacg.perf;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/13
+ * @description: 一个sql语句的执行次数及耗时统计，支持多线程并发记录
+ */
+public class SqlPerfStat {
+
+    // 耗时分布的区间上限，单位为毫秒，最后还有一个大于最大上限的区间
+    public static final long[] HISTOGRAM_BOUNDS_MS = new long[]{1L, 5L, 10L, 50L, 100L, 500L, 1000L};
+
+    // 执行次数
+    private final LongAdder count = new LongAdder();
+
+    // 执行失败次数
+    private final LongAdder failCount = new LongAdder();
+
+    // 总耗时，单位为纳秒
+    private final LongAdder totalNanos = new LongAdder();
+
+    // 最大耗时，单位为纳秒
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    // 各耗时区间的执行次数
+    private final LongAdder[] histogram = new LongAdder[HISTOGRAM_BOUNDS_MS.length + 1];
+
+    public SqlPerfStat() {
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次sql语句执行
+     *
+     * @param spendNanos 耗时，单位为纳秒
+     * @param success    是否执行成功
+     */
+    public void record(long spendNanos, boolean success) {
+        count.increment();
+        if (!success) {
+            failCount.increment();
+        }
+        totalNanos.add(spendNanos);
+        maxNanos.accumulate(spendNanos);
+
+        long spendMs = TimeUnit.NANOSECONDS.toMillis(spendNanos);
+        int index = 0;
+        while (index < HISTOGRAM_BOUNDS_MS.length && spendMs >= HISTOGRAM_BOUNDS_MS[index]) {
+            index++;
+        }
+        histogram[index].increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getFailCount() {
+        return failCount.sum();
+    }
+
+    public double getTotalMs() {
+        return totalNanos.sum() / 1000000.0D;
+    }
+
+    public double getAvgMs() {
+        long currentCount = count.sum();
+        if (currentCount == 0) {
+            return 0.0D;
+        }
+        return totalNanos.sum() / 1000000.0D / currentCount;
+    }
+
+    public double getMaxMs() {
+        return maxNanos.get() / 1000000.0D;
+    }
+
+    public long[] getHistogram() {
+        long[] result = new long[histogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            result[i] = histogram[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * 获取耗时分布区间的描述
+     *
+     * @return
+     */
+    public static String[] getHistogramDesc() {
+        String[] descArray = new String[HISTOGRAM_BOUNDS_MS.length + 1];
+        for (int i = 0; i < HISTOGRAM_BOUNDS_MS.length; i++) {
+            descArray[i] = "<" + HISTOGRAM_BOUNDS_MS[i] + "ms";
+        }
+        descArray[HISTOGRAM_BOUNDS_MS.length] = ">=" + HISTOGRAM_BOUNDS_MS[HISTOGRAM_BOUNDS_MS.length - 1] + "ms";
+        return descArray;
+    }
+}
@@ -0,0 +1,116 @@
+package com.adrninistrator.jacg.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 记录一个生成调用链任务执行的数据库查询次数及生成的调用链行数，只在执行任务的线程中使用
+ */
+public class TaskQueryCounter {
+
+    // 任务描述
+    private final String taskDesc;
+
+    // 当前任务允许执行的最大数据库查询次数，0代表不限制
+    private final int queryBudget;
+
+    // 各sql语句的执行次数，key: sql语句
+    private final Map<String, Integer> sqlCountMap = new HashMap<>();
+
+    // 数据库查询次数
+    private int queryNum;
+
+    // 生成的调用链行数
+    private int outputLineNum;
+
+    // 是否因为超过数据库查询次数限制而截断了调用链
+    private boolean truncated;
+
+    // 任务开始时间，System.currentTimeMillis()
+    private final long startTime;
+
+    // 任务的预估开销，小于0代表未预估
+    private long predictedCost = -1L;
+
+    public TaskQueryCounter(String taskDesc, int queryBudget) {
+        this.taskDesc = taskDesc;
+        this.queryBudget = queryBudget;
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 记录一次sql语句执行
+     *
+     * @param sql
+     */
+    public void recordQuery(String sql) {
+        queryNum++;
+        sqlCountMap.merge(sql, 1, Integer::sum);
+    }
+
+    // 记录生成了一行调用链
+    public void addOutputLine() {
+        outputLineNum++;
+    }
+
+    /**
+     * 判断数据库查询次数是否超过了限制
+     *
+     * @return true: 超过 false: 未超过
+     */
+    public boolean isOverBudget() {
+        return queryBudget > 0 && queryNum > queryBudget;
+    }
+
+    /**
+     * 获取数据库查询次数与生成的调用链行数的比例，未生成调用链行时使用1作为行数
+     *
+     * @return
+     */
+    public double getQueryRatio() {
+        return (double) queryNum / Math.max(outputLineNum, 1);
+    }
+
+    public String getTaskDesc() {
+        return taskDesc;
+    }
+
+    public int getQueryBudget() {
+        return queryBudget;
+    }
+
+    public Map<String, Integer> getSqlCountMap() {
+        return sqlCountMap;
+    }
+
+    public int getQueryNum() {
+        return queryNum;
+    }
+
+    public int getOutputLineNum() {
+        return outputLineNum;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    // 获取任务从开始到当前的耗时，单位为毫秒
+    public long getSpendTime() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    public long getPredictedCost() {
+        return predictedCost;
+    }
+
+    public void setPredictedCost(long predictedCost) {
+        this.predictedCost = predictedCost;
+    }
+}
@@ -0,0 +1,108 @@
+package com.adrninistrator.jacg.perf;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/13
+ * @description: 定时对线程池的活跃线程数与任务队列长度进行采样
+ */
+public class ThreadPoolSampler {
+
+    // 采样间隔，单位为毫秒
+    public static final long SAMPLE_INTERVAL_MS = 100L;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private final Thread sampleThread;
+
+    private volatile boolean running = true;
+
+    // 以下字段只在采样线程中修改，读取时需要在停止采样之后
+    private long sampleCount;
+
+    private long activeCountSum;
+
+    private int activeCountMax;
+
+    private long queueSizeSum;
+
+    private int queueSizeMax;
+
+    public ThreadPoolSampler(ThreadPoolExecutor threadPoolExecutor, String threadName) {
+        this.threadPoolExecutor = threadPoolExecutor;
+
+        sampleThread = new Thread(this::doSample);
+        sampleThread.setName(threadName);
+        // 采样线程设置为守护线程，不影响JVM退出
+        sampleThread.setDaemon(true);
+    }
+
+    public void start() {
+        sampleThread.start();
+    }
+
+    // 停止采样，并等待采样线程结束
+    public void stop() {
+        running = false;
+        sampleThread.interrupt();
+        try {
+            sampleThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void doSample() {
+        while (running && !threadPoolExecutor.isTerminated()) {
+            int activeCount = threadPoolExecutor.getActiveCount();
+            int queueSize = threadPoolExecutor.getQueue().size();
+            sampleCount++;
+            activeCountSum += activeCount;
+            activeCountMax = Math.max(activeCountMax, activeCount);
+            queueSizeSum += queueSize;
+            queueSizeMax = Math.max(queueSizeMax, queueSize);
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                // 停止采样时会中断采样线程，不需要打印异常
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public int getMaxPoolSize() {
+        return threadPoolExecutor.getMaximumPoolSize();
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public double getActiveCountAvg() {
+        return sampleCount == 0 ? 0.0D : (double) activeCountSum / sampleCount;
+    }
+
+    public int getActiveCountMax() {
+        return activeCountMax;
+    }
+
+    // 线程池平均利用率，即平均活跃线程数与最大线程数的比例
+    public double getUtilization() {
+        int maxPoolSize = getMaxPoolSize();
+        return maxPoolSize == 0 ? 0.0D : getActiveCountAvg() / maxPoolSize;
+    }
+
+    public double getQueueSizeAvg() {
+        return sampleCount == 0 ? 0.0D : (double) queueSizeSum / sampleCount;
+    }
+
+    public int getQueueSizeMax() {
+        return queueSizeMax;
+    }
+
+    public long getCompletedTaskCount() {
+        return threadPoolExecutor.getCompletedTaskCount();
+    }
+}
@@ -6,6 +6,7 @@ import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
 import com.adrninistrator.jacg.common.enums.DefaultBusinessDataTypeEnum;
 import com.adrninistrator.jacg.common.enums.MethodCallFlagsEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
 import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
 import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
 import com.adrninistrator.jacg.dto.annotation.BaseAnnotationAttribute;
@@ -13,23 +14,22 @@ import com.adrninistrator.jacg.dto.call_graph.CallGraphNode4Callee;
 import com.adrninistrator.jacg.dto.call_graph.SuperCallChildInfo;
 import com.adrninistrator.jacg.dto.method.MethodAndHash;
 import com.adrninistrator.jacg.dto.task.CalleeEntryMethodTaskInfo;
+import com.adrninistrator.jacg.dto.task.CalleeMethodTaskInfo;
 import com.adrninistrator.jacg.dto.task.CalleeTaskInfo;
 import com.adrninistrator.jacg.dto.task.FindMethodTaskInfo;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodStats;
 import com.adrninistrator.jacg.markdown.writer.MarkdownWriter;
+import com.adrninistrator.jacg.perf.TaskQueryCounter;
 import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
 import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
 import com.adrninistrator.jacg.util.JACGFileUtil;
 import com.adrninistrator.jacg.util.JACGSqlUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
-import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
 import com.adrninistrator.javacg.common.JavaCGConstants;
-import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
 import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
 import com.adrninistrator.javacg.dto.stack.ListAsStack;
-import com.adrninistrator.javacg.util.JavaCGFileUtil;
-import com.adrninistrator.javacg.util.JavaCGMethodUtil;
 import com.adrninistrator.javacg.util.JavaCGUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -38,9 +38,9 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -58,6 +58,9 @@ import java.util.Set;
 public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
     private static final Logger logger = LoggerFactory.getLogger(RunnerGenAllGraph4Callee.class);
 
+    // 按预估开销排序时，等待执行的被调用方法任务，只在提交任务的线程中使用
+    private final List<CalleeMethodTaskInfo> pendingCalleeMethodTaskList = new ArrayList<>();
+
     @Override
     public boolean preHandle() {
         // 公共预处理
@@ -80,7 +83,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             return false;
         }
 
-        return true;
+        // 初始化生成调用链清单
+        return initGenCallGraphManifest();
     }
 
     @Override
@@ -97,7 +101,11 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
         }
 
         // 将输出的方法文件合并为类对应的文件
-        combineClassFile();
+        if (!combineClassFile()) {
+            // 记录执行失败的任务信息
+            recordTaskFail();
+            return;
+        }
 
         // 打印提示信息
         printNoticeInfo();
@@ -125,9 +133,21 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             }
         }
 
+        if (taskOrderByCost) {
+            // 按预估开销从大到小执行任务
+            sortTaskByCost(pendingCalleeMethodTaskList, CalleeMethodTaskInfo::getEstCost);
+            for (CalleeMethodTaskInfo calleeMethodTaskInfo : pendingCalleeMethodTaskList) {
+                submitOneCalleeMethod(calleeMethodTaskInfo.getCalleeSimpleClassName(), calleeMethodTaskInfo.getCalleeMethodHash(), calleeMethodTaskInfo.getCalleeFullMethod(),
+                        calleeMethodTaskInfo.getCallFlags(), calleeMethodTaskInfo.getOrigTaskText(), calleeMethodTaskInfo.getEstCost());
+            }
+            pendingCalleeMethodTaskList.clear();
+        }
+
         // 等待直到任务执行完毕
         wait4TPEDone();
-        return true;
+
+        // 等待直到输出文件写入完毕，之后需要合并输出文件
+        return waitOutputWriteDone();
     }
 
     // 生成需要处理的任务信息
@@ -288,10 +308,38 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
                                        String entryCalleeFullMethod,
                                        int callFlags,
                                        String origTaskText) {
-        // 等待直到允许任务执行
-        JACGUtil.wait4TPEExecute(threadPoolExecutor, taskQueueMaxSize);
+        if (taskOrderByCost) {
+            // 按预估开销排序时，先记录任务，全部任务生成后再执行
+            long estCost = estimateCalleeMethodCost(entryCalleeSimpleClassName, entryCalleeMethodHash);
+            pendingCalleeMethodTaskList.add(new CalleeMethodTaskInfo(entryCalleeSimpleClassName, entryCalleeMethodHash, entryCalleeFullMethod, callFlags, origTaskText,
+                    estCost));
+            return;
+        }
+
+        submitOneCalleeMethod(entryCalleeSimpleClassName, entryCalleeMethodHash, entryCalleeFullMethod, callFlags, origTaskText, -1L);
+    }
+
+    // 根据方法调用统计信息预估被调用方法任务的开销，即生成的向上调用链行数
+    private long estimateCalleeMethodCost(String calleeSimpleClassName, String calleeMethodHash) {
+        for (WriteDbData4MethodStats methodStats : getMethodStatsOfClass(calleeSimpleClassName)) {
+            if (methodStats.getMethodHash().equals(calleeMethodHash)) {
+                return methodStats.getEstCallerNum();
+            }
+        }
+        return 0L;
+    }
 
-        threadPoolExecutor.execute(() -> {
+    // 提交处理一个被调用方法的任务
+    private void submitOneCalleeMethod(String entryCalleeSimpleClassName,
+                                       String entryCalleeMethodHash,
+                                       String entryCalleeFullMethod,
+                                       int callFlags,
+                                       String origTaskText,
+                                       long estCost) {
+        // 提交任务，等待直到允许任务执行
+        executeTask(() -> {
+            // 开始记录当前任务的数据库查询次数
+            startTaskQueryCount(origTaskText != null ? origTaskText : entryCalleeFullMethod, estCost);
             try {
                 // 执行处理一个被调用方法
                 if (!doHandleOneCalleeMethod(entryCalleeSimpleClassName, entryCalleeMethodHash, entryCalleeFullMethod, callFlags, origTaskText)) {
@@ -302,6 +350,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
                 logger.error("error {} ", origTaskText, e);
                 // 记录执行失败的任务信息
                 recordTaskFail(origTaskText != null ? origTaskText : entryCalleeFullMethod);
+            } finally {
+                endTaskQueryCount();
             }
         });
     }
@@ -315,7 +365,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
         String entryMethodName = JACGClassMethodUtil.getMethodNameFromFull(entryCalleeFullMethod);
         // 生成方法对应的调用链文件名
         String outputFilePath4Method = currentOutputDirPath + File.separator + JACGConstants.DIR_OUTPUT_METHODS + File.separator +
-                JACGCallGraphFileUtil.getCallGraphMethodFileName(entryCalleeSimpleClassName, entryMethodName, entryCalleeMethodHash) + JACGConstants.EXT_TXT;
+                JACGCallGraphFileUtil.getCallGraphMethodFileName(entryCalleeSimpleClassName, entryMethodName, entryCalleeMethodHash) + JACGConstants.EXT_TXT +
+                outputCompressTypeEnum.getExt();
         logger.info("当前方法输出文件名 {}", outputFilePath4Method);
 
         // 判断文件是否生成过
@@ -324,7 +375,13 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             return true;
         }
 
-        try (BufferedWriter writer4Method = JavaCGFileUtil.genBufferedWriter(outputFilePath4Method)) {
+        // 判断上一次执行时是否已完成，已生成的方法文件在之后合并为类对应的文件时仍会使用
+        if (isGenTaskDone(outputFilePath4Method)) {
+            logger.info("上一次执行时当前文件已生成，不再处理 {} {} {}", origTaskText, entryCalleeFullMethod, outputFilePath4Method);
+            return true;
+        }
+
+        try (Writer writer4Method = genCallGraphWriter(outputFilePath4Method)) {
             // 判断配置文件中是否已指定忽略当前方法
             if (ignoreCurrentMethod(null, entryCalleeFullMethod)) {
                 logger.info("配置文件中已指定忽略当前方法，不处理 {}", entryCalleeFullMethod);
@@ -332,11 +389,17 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             }
 
             // 记录一个被调用方法的调用链信息
-            return recordOneCalleeMethod(entryCalleeSimpleClassName, entryCalleeMethodHash, entryCalleeFullMethod, callFlags, writer4Method);
+            if (!recordOneCalleeMethod(entryCalleeSimpleClassName, entryCalleeMethodHash, entryCalleeFullMethod, callFlags, writer4Method)) {
+                return false;
+            }
         } catch (Exception e) {
             logger.error("error {} {} ", entryCalleeSimpleClassName, outputFilePath4Method, e);
             return false;
         }
+
+        // 记录当前任务已完成，需要在调用链文件的Writer关闭之后记录
+        recordGenTaskDone(outputFilePath4Method);
+        return true;
     }
 
     // 记录一个被调用方法的调用链信息
@@ -344,7 +407,7 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
                                           String entryCalleeMethodHash,
                                           String entryCalleeFullMethod,
                                           int callFlags,
-                                          BufferedWriter writer4Method) throws IOException {
+                                          Writer writer4Method) throws IOException {
         StringBuilder calleeInfo = new StringBuilder();
 
         // 在文件第1行写入当前方法的完整信息
@@ -482,7 +545,15 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
 
         // 输出结果数量
         int recordNum = 0;
+        // 当前任务的数据库查询次数记录对象
+        TaskQueryCounter taskQueryCounter = dbOperator.getTaskQueryCounter();
         while (true) {
+            if (checkTaskQueryOverBudget(taskQueryCounter, entryCalleeFullMethod)) {
+                // 数据库查询次数超过限制，截断调用链
+                entryCallerMethodList.add(new ImmutablePair<>(JACGConstants.CALL_GRAPH_TRUNCATED_BY_QUERY_BUDGET, Boolean.FALSE));
+                return true;
+            }
+
             // 从栈顶获取当前正在处理的节点
             CallGraphNode4Callee callGraphNode4Callee = callGraphNode4CalleeStack.peek();
 
@@ -509,7 +580,7 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             String callType = callerMethod.getCallType();
 
             // 处理父类方法调用子类方法的相关信息
-            MethodAndHash callerMethodAndHash = handleSuperCallChildInfo(superCallChildInfoStack, callGraphNode4CalleeStack.getHead(), calleeFullMethod, callerFullMethod,
+            MethodAndHash callerMethodAndHash = childMethodReplaceHandler.handleSuperCallChildInfo(superCallChildInfoStack, callGraphNode4CalleeStack.getHead(), calleeFullMethod, callerFullMethod,
                     callType, origCallerMethodHash);
             if (callerMethodAndHash == null) {
                 // 处理失败
@@ -519,8 +590,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             callerFullMethod = callerMethodAndHash.getFullMethod();
             String callerMethodHash = callerMethodAndHash.getMethodHash();
 
-            // 处理被忽略的方法
-            if (handleIgnoredMethod(callType, callerFullMethod, callerMethodHash, callGraphNode4CalleeStack, enabled, methodCallId)) {
+            // 处理被忽略的方法，当前处理节点的callerMethodHash需要使用原始调用方法HASH+长度，与查询条件对应
+            if (handleIgnoredMethod(callType, callerFullMethod, origCallerMethodHash, callGraphNode4CalleeStack, enabled, methodCallId)) {
                 continue;
             }
 
@@ -531,6 +602,9 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             Pair<String, Boolean> pair = recordCallerInfo(callerFullMethod, methodCallId, callerMethod.getCallFlags(), callType, callerMethod.getCallerLineNumber(),
                     callGraphNode4CalleeStack.getHead(), callerMethodHash, back2Level);
             entryCallerMethodList.add(pair);
+            if (taskQueryCounter != null) {
+                taskQueryCounter.addOutputLine();
+            }
 
             // 记录可能出现一对多的方法调用
             if (!recordMethodCallMayBeMulti(methodCallId, callType)) {
@@ -569,14 +643,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             return true;
         }
 
-        if (!superCallChildInfoStack.isEmpty()) {
-            // 记录父类方法调用子类方法对应信息的栈非空
-            SuperCallChildInfo topSuperCallChildInfo = superCallChildInfoStack.peek();
-            if (topSuperCallChildInfo.getChildCalleeNodeLevel() == callGraphNode4CalleeStack.getHead()) {
-                // 记录父类方法调用子类方法对应信息的栈顶元素，与方法调用节点栈出栈的级别相同，出栈
-                superCallChildInfoStack.removeTop();
-            }
-        }
+        // 将对应层级的父类方法调用子类方法对应信息出栈
+        childMethodReplaceHandler.removeSuperCallChildInfo(superCallChildInfoStack, callGraphNode4CalleeStack.getHead());
 
         // 当前处理的节点不是最下层节点，返回下一层处理，出栈
         callGraphNode4CalleeStack.removeTop();
@@ -586,118 +654,12 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
         return false;
     }
 
-    // 处理父类方法调用子类方法的相关信息
-    private MethodAndHash handleSuperCallChildInfo(ListAsStack<SuperCallChildInfo> superCallChildInfoStack,
-                                                   int nodeLevel,
-                                                   String calleeFullMethod,
-                                                   String callerFullMethod,
-                                                   String callType,
-                                                   String callerMethodHash) {
-        if (JavaCGCallTypeEnum.CTE_SUPER_CALL_CHILD.getType().equals(callType)) {
-            // 当前方法调用类型是父类调用子类方法，记录父类方法调用子类方法对应信息的栈入栈
-            String calleeClassName = JACGClassMethodUtil.getClassNameFromMethod(calleeFullMethod);
-            String calleeSimpleClassName = dbOperWrapper.getSimpleClassName(calleeClassName);
-            SuperCallChildInfo superCallChildInfo = new SuperCallChildInfo(nodeLevel, calleeSimpleClassName, calleeClassName, calleeFullMethod);
-            superCallChildInfoStack.push(superCallChildInfo);
-            return new MethodAndHash(callerFullMethod, callerMethodHash);
-        }
-
-        // 获取子类的调用方法
-        Pair<Boolean, MethodAndHash> pair = getSCCChildFullMethod(superCallChildInfoStack, callerFullMethod);
-        if (Boolean.TRUE.equals(pair.getLeft())) {
-            // 使用子类的调用方法
-            return pair.getRight();
-        }
-
-        return new MethodAndHash(callerFullMethod, callerMethodHash);
-    }
-
-    /**
-     * 获取子类的调用方法，若不满足则使用原始方法
-     *
-     * @param superCallChildInfoStack
-     * @param callerFullMethod
-     * @return left true: 使用子类的调用方法 false: 使用原始的调用方法
-     * @return right: 子类的调用方法、方法HASH+长度
-     */
-    private Pair<Boolean, MethodAndHash> getSCCChildFullMethod(ListAsStack<SuperCallChildInfo> superCallChildInfoStack, String callerFullMethod) {
-        // 判断父类方法调用子类方法对应信息的栈是否有数据
-        if (superCallChildInfoStack.isEmpty()) {
-            return new ImmutablePair<>(Boolean.FALSE, null);
-        }
-
-        String callerMethodWithArgs = JACGClassMethodUtil.getMethodNameWithArgsFromFull(callerFullMethod);
-        if (callerMethodWithArgs.startsWith(JavaCGCommonNameConstants.METHOD_NAME_INIT)) {
-            // 调用方法为构造函数，使用原始调用方法
-            return new ImmutablePair<>(Boolean.FALSE, null);
-        }
-
-        String callerClassName = JACGClassMethodUtil.getClassNameFromMethod(callerFullMethod);
-        String callerSimpleClassName = dbOperWrapper.getSimpleClassName(callerClassName);
-
-        String sccChildFullMethod = null;
-        String sccChildMethodHash = null;
-        // 保存上一次处理的被调用唯一类名
-        String lastChildCalleeSimpleClassName = null;
-        // 对父类方法调用子类方法对应信息的栈，从栈顶往下遍历
-        for (int i = superCallChildInfoStack.getHead(); i >= 0; i--) {
-            SuperCallChildInfo superCallChildSInfo = superCallChildInfoStack.getElement(i);
-            String childCalleeSimpleClassName = superCallChildSInfo.getChildCalleeSimpleClassName();
-
-            if (lastChildCalleeSimpleClassName != null) {
-                if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(lastChildCalleeSimpleClassName, childCalleeSimpleClassName)) {
-                    // 当前已不是第一次处理，判断上次的子类是否为当前子类的父类，若是则可以继续处理，若否则结束循环
-                    break;
-                }
-                logger.debug("继续处理子类 {} {}", lastChildCalleeSimpleClassName, childCalleeSimpleClassName);
-            }
-            lastChildCalleeSimpleClassName = childCalleeSimpleClassName;
-
-            // 判断父类方法调用子类方法对应信息的栈的调用类（对应子类）是否为当前调用类的子类
-            if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(callerSimpleClassName, childCalleeSimpleClassName)) {
-                // 父类方法调用子类方法对应信息的栈的调用类（对应子类）不是当前被调用类的子类
-                break;
-            }
-            // 父类方法调用子类方法对应信息的栈的调用类为当前被调用类的子类
-            String tmpSccChildFullMethod = JavaCGMethodUtil.formatFullMethodWithArgs(superCallChildSInfo.getChildCalleeClassName(), callerMethodWithArgs);
-
-            // 判断子类方法是否有被调用方法
-            SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MI_QUERY_SIMPLE_CLASS_NAME;
-            String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-            if (sql == null) {
-                sql = " select " + DC.MI_SIMPLE_CLASS_NAME +
-                        " from " + DbTableInfoEnum.DTIE_METHOD_INFO.getTableName() +
-                        " where " + DC.MI_SIMPLE_CLASS_NAME + " = ?" +
-                        " and " + DC.MI_FULL_METHOD + " like concat(?, '%')" +
-                        " limit 1";
-                sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-            }
-            String simpleClassName = dbOperator.queryObjectOneColumn(sql, String.class, childCalleeSimpleClassName, tmpSccChildFullMethod);
-            if (simpleClassName != null) {
-                // 子类方法存在，需要继续使用栈中的数据进行处理
-                continue;
-            }
-
-            // 子类方法存在，使用子类方法
-            sccChildFullMethod = tmpSccChildFullMethod;
-            sccChildMethodHash = JACGUtil.genHashWithLen(sccChildFullMethod);
-        }
-
-        if (sccChildFullMethod != null && sccChildMethodHash != null) {
-            logger.debug("替换子类的向上的方法调用 {} {}", callerFullMethod, sccChildFullMethod);
-            // 使用子类对应的方法，返回子类方法及子类方法HASH+长度
-            return new ImmutablePair<>(Boolean.TRUE, new MethodAndHash(sccChildFullMethod, sccChildMethodHash));
-        }
-        // 使用原始被调用方法
-        return new ImmutablePair<>(Boolean.FALSE, null);
-    }
-
     /**
      * 处理被忽略的方法
      *
      * @param callType
      * @param callerFullMethod
-     * @param callerMethodHash
+     * @param origCallerMethodHash      原始调用方法HASH+长度
      * @param callGraphNode4CalleeStack
      * @param enabled
      * @param methodCallId
@@ -705,7 +667,7 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
      */
     private boolean handleIgnoredMethod(String callType,
                                         String callerFullMethod,
-                                        String callerMethodHash,
+                                        String origCallerMethodHash,
                                         ListAsStack<CallGraphNode4Callee> callGraphNode4CalleeStack,
                                         int enabled,
                                         int methodCallId) {
@@ -713,7 +675,7 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
         if (ignoreCurrentMethod(callType, callerFullMethod) || !JavaCGYesNoEnum.isYes(enabled)) {
             // 当前记录需要忽略
             // 更新当前处理节点的调用者方法HASH
-            callGraphNode4CalleeStack.peek().setCallerMethodHash(callerMethodHash);
+            callGraphNode4CalleeStack.peek().setCallerMethodHash(origCallerMethodHash);
 
             if (!JavaCGYesNoEnum.isYes(enabled)) {
                 // 记录被禁用的方法调用
@@ -792,49 +754,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
 
     // 查询当前节点的一个上层调用方法
     private WriteDbData4MethodCall queryOneCallerMethod(CallGraphNode4Callee callGraphNode4Callee) {
-        // 确定通过调用方法进行查询使用的SQL语句
-        String sql = chooseQueryByCalleeMethodSql(callGraphNode4Callee.getCallerMethodHash());
-
-        if (callGraphNode4Callee.getCallerMethodHash() == null) {
-            // 第一次查询
-            return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, callGraphNode4Callee.getCalleeMethodHash());
-        }
-        // 不是第一次查询
-        return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, callGraphNode4Callee.getCalleeMethodHash(), callGraphNode4Callee.getCallerMethodHash());
-    }
-
-    // 确定通过调用方法进行查询使用的SQL语句
-    protected String chooseQueryByCalleeMethodSql(String callerMethodHash) {
-        if (callerMethodHash == null) {
-            // 第一次查询
-            SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_ONE_CALLER1;
-            String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-            if (sql == null) {
-                // 确定查询被调用关系时所需字段
-                sql = "select " + chooseCallerColumns() +
-                        " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                        " where " + DC.MC_CALLEE_METHOD_HASH + " = ?" +
-                        " order by " + DC.MC_CALLER_METHOD_HASH +
-                        " limit 1";
-                sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-            }
-            return sql;
-        }
-
-        // 不是第一次查询
-        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_ONE_CALLER2;
-        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-        if (sql == null) {
-            // 确定查询被调用关系时所需字段
-            sql = "select " + chooseCallerColumns() +
-                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                    " where " + DC.MC_CALLEE_METHOD_HASH + " = ?" +
-                    " and " + DC.MC_CALLER_METHOD_HASH + " > ?" +
-                    " order by " + DC.MC_CALLER_METHOD_HASH +
-                    " limit 1";
-            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-        }
-        return sql;
+        // 调用方法HASH+长度为null时为第一次查询
+        return dbOperWrapper.getStorage().queryNextCaller(callGraphNode4Callee.getCalleeMethodHash(), callGraphNode4Callee.getCallerMethodHash());
     }
 
     // 记录调用方法信息
@@ -923,19 +844,6 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
         return JACGClassMethodUtil.getClassAndMethodName(calleeSimpleClassName, calleeMethodName);
     }
 
-    // 确定查询被调用关系时所需字段
-    private String chooseCallerColumns() {
-        return JACGSqlUtil.joinColumns(
-                DC.MC_CALL_ID,
-                DC.MC_CALL_TYPE,
-                DC.MC_ENABLED,
-                DC.MC_CALLER_METHOD_HASH,
-                DC.MC_CALLER_FULL_METHOD,
-                DC.MC_CALLER_LINE_NUMBER,
-                DC.MC_CALL_FLAGS
-        );
-    }
-
     // 打印存在一对多的方法调用，自定义处理
     @Override
     protected void printMultiMethodCallCustom(String callerMethodHash, MarkdownWriter markdownWriter) throws IOException {
@@ -969,17 +877,19 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
         markdownWriter.addCodeBlock();
     }
 
-    // 将输出的方法文件合并为类对应的文件
-    private void combineClassFile() {
-        List<File> methodOutputFileList = JACGFileUtil.findFileInCurrentDir(currentOutputDirPath + File.separator + JACGConstants.DIR_OUTPUT_METHODS, JACGConstants.EXT_TXT);
+    // 将输出的方法文件合并为类对应的文件，各个类的文件合并在线程池中并行执行
+    private boolean combineClassFile() {
+        // 查找方法对应的调用链文件，包括压缩后的文件
+        List<File> methodOutputFileList = JACGFileUtil.findFileInCurrentDir(currentOutputDirPath + File.separator + JACGConstants.DIR_OUTPUT_METHODS,
+                OutputCompressTypeEnum.genFileExtsWithCompress(JACGConstants.EXT_TXT));
         if (JavaCGUtil.isCollectionEmpty(methodOutputFileList)) {
-            return;
+            return true;
         }
 
         String lastClassName = null;
         List<File> combineMethodFileList = new ArrayList<>();
         for (File methodOutputFile : methodOutputFileList) {
-            String methodOutputFileName = methodOutputFile.getName();
+            String methodOutputFileName = OutputCompressTypeEnum.removeCompressExt(methodOutputFile.getName());
             if (methodOutputFileName.endsWith(JACGConstants.EXT_EMPTY_TXT)) {
                 // 跳过空文件
                 continue;
@@ -989,8 +899,8 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
             String className = JACGCallGraphFileUtil.getClassNameFromMethodFileName(methodOutputFileName);
             if (lastClassName != null && !className.equals(lastClassName)) {
                 // 处理到下一个类的文件，合并之前类的文件
-                doCombineClassFile(lastClassName, combineMethodFileList);
-                combineMethodFileList.clear();
+                submitCombineClassFile(lastClassName, combineMethodFileList);
+                combineMethodFileList = new ArrayList<>();
             }
 
             combineMethodFileList.add(methodOutputFile);
@@ -999,14 +909,35 @@ public class RunnerGenAllGraph4Callee extends AbstractRunnerGenCallGraph {
 
         if (!combineMethodFileList.isEmpty()) {
             // 合并最后一个类的文件
-            doCombineClassFile(lastClassName, combineMethodFileList);
+            submitCombineClassFile(lastClassName, combineMethodFileList);
         }
+
+        // 等待直到任务执行完毕
+        wait4TPEDone();
+        return !someTaskFail;
+    }
+
+    // 提交将输出的方法文件合并为类对应的文件的任务
+    private void submitCombineClassFile(String className, List<File> combineMethodFileList) {
+        // 提交任务，等待直到允许任务执行
+        executeTask(() -> {
+            try {
+                if (!doCombineClassFile(className, combineMethodFileList)) {
+                    // 记录执行失败的任务信息
+                    recordTaskFail(className);
+                }
+            } catch (Exception e) {
+                logger.error("error {} ", className, e);
+                // 记录执行失败的任务信息
+                recordTaskFail(className);
+            }
+        });
     }
 
     // 执行将输出的方法文件合并为类对应的文件
-    private void doCombineClassFile(String lastClassName, List<File> combineMethodFileList) {
-        String classFilePath = currentOutputDirPath + File.separator + lastClassName + JACGConstants.EXT_TXT;
+    private boolean doCombineClassFile(String className, List<File> combineMethodFileList) {
+        String classFilePath = currentOutputDirPath + File.separator + className + JACGConstants.EXT_TXT + outputCompressTypeEnum.getExt();
         logger.info("将以下类对应的方法文件合并为类对应的文件 {}", classFilePath);
-        JACGFileUtil.combineTextFile(classFilePath, combineMethodFileList);
+        return JACGFileUtil.combineTextFileByChannel(classFilePath, combineMethodFileList, outputCompressTypeEnum);
     }
 }
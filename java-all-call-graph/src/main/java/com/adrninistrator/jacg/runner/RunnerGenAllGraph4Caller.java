@@ -1,5 +1,6 @@
 package com.adrninistrator.jacg.runner;
 
+import com.adrninistrator.jacg.call_graph_binary.CallGraphBinaryWriter;
 import com.adrninistrator.jacg.common.DC;
 import com.adrninistrator.jacg.common.JACGConstants;
 import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
@@ -12,38 +13,35 @@ import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
 import com.adrninistrator.jacg.dto.annotation.BaseAnnotationAttribute;
 import com.adrninistrator.jacg.dto.call_graph.CallGraphNode4Caller;
 import com.adrninistrator.jacg.dto.call_graph.ChildCallSuperInfo;
+import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
 import com.adrninistrator.jacg.dto.method.MethodAndHash;
 import com.adrninistrator.jacg.dto.task.CallerTaskInfo;
 import com.adrninistrator.jacg.dto.task.FindMethodTaskInfo;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodStats;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MyBatisMSWriteTable;
 import com.adrninistrator.jacg.handler.dto.mybatis.MyBatisMySqlTableInfo;
+import com.adrninistrator.jacg.perf.TaskQueryCounter;
 import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
 import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
 import com.adrninistrator.jacg.util.JACGClassMethodUtil;
 import com.adrninistrator.jacg.util.JACGFileUtil;
 import com.adrninistrator.jacg.util.JACGJsonUtil;
 import com.adrninistrator.jacg.util.JACGSqlUtil;
-import com.adrninistrator.jacg.util.JACGUtil;
-import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
 import com.adrninistrator.javacg.common.JavaCGConstants;
-import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
 import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
 import com.adrninistrator.javacg.dto.stack.ListAsStack;
-import com.adrninistrator.javacg.util.JavaCGFileUtil;
-import com.adrninistrator.javacg.util.JavaCGMethodUtil;
 import com.adrninistrator.javacg.util.JavaCGUtil;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +63,12 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
     // 在一个调用方法中出现多次的被调用方法（包含方法调用业务功能数据），是否需要忽略
     private boolean ignoreDupCalleeInOneCaller;
 
+    // 是否生成二进制格式的调用链文件代替文本格式的调用链文件
+    private boolean callGraphGenBinary;
+
+    // 对于重复出现的子树，是否仅在第一次出现时输出，之后输出对第一次出现的行号的引用
+    private boolean callGraphSubtreeRef;
+
     @Override
     public boolean preHandle() {
         // 公共预处理
@@ -82,7 +86,14 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             return false;
         }
 
+        // 初始化生成调用链清单
+        if (!initGenCallGraphManifest()) {
+            return false;
+        }
+
         ignoreDupCalleeInOneCaller = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER);
+        callGraphGenBinary = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY);
+        callGraphSubtreeRef = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF);
         return true;
     }
 
@@ -104,23 +115,33 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             return false;
         }
 
+        if (taskOrderByCost) {
+            // 按预估开销从大到小对任务排序
+            for (CallerTaskInfo callerTaskInfo : callerTaskInfoList) {
+                callerTaskInfo.setEstCost(estimateCallerTaskCost(callerTaskInfo));
+            }
+            sortTaskByCost(callerTaskInfoList, CallerTaskInfo::getEstCost);
+        }
+
         // 创建线程
         createThreadPoolExecutor(callerTaskInfoList.size());
 
         // 执行任务并等待
         runAndWait(callerTaskInfoList);
 
-        return true;
+        // 等待直到输出文件写入完毕
+        return waitOutputWriteDone();
     }
 
     // 执行任务并等待
     private void runAndWait(List<CallerTaskInfo> callerTaskInfoList) {
         // 遍历需要处理的任务
         for (CallerTaskInfo callerTaskInfo : callerTaskInfoList) {
-            // 等待直到允许任务执行
-            JACGUtil.wait4TPEExecute(threadPoolExecutor, taskQueueMaxSize);
-
-            threadPoolExecutor.execute(() -> {
+            // 提交任务，等待直到允许任务执行
+            executeTask(() -> {
+                // 开始记录当前任务的数据库查询次数
+                startTaskQueryCount(callerTaskInfo.getOrigText() != null ? callerTaskInfo.getOrigText() :
+                        callerTaskInfo.getCallerSimpleClassName() + JavaCGConstants.FLAG_COLON + callerTaskInfo.getCallerMethodName(), callerTaskInfo.getEstCost());
                 try {
                     // 处理一个任务
                     if (!handleOneTask(callerTaskInfo)) {
@@ -131,6 +152,8 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
                     logger.error("error {} ", JACGJsonUtil.getJsonStr(callerTaskInfo), e);
                     // 记录执行失败的任务信息
                     recordTaskFail(callerTaskInfo.getOrigText());
+                } finally {
+                    endTaskQueryCount();
                 }
             });
         }
@@ -139,6 +162,30 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
         wait4TPEDone();
     }
 
+    /**
+     * 根据方法调用统计信息预估任务的开销，即生成的向下调用链行数
+     * 通过方法名指定任务时，累加名称匹配的方法的预估开销；通过代码行号指定任务时，使用类中预估开销最大的方法
+     *
+     * @param callerTaskInfo
+     * @return
+     */
+    private long estimateCallerTaskCost(CallerTaskInfo callerTaskInfo) {
+        String callerMethodName = callerTaskInfo.getCallerMethodName();
+        boolean withArgs = callerMethodName != null && callerMethodName.contains(JavaCGConstants.FLAG_LEFT_BRACKET);
+        long estCost = 0L;
+        for (WriteDbData4MethodStats methodStats : getMethodStatsOfClass(callerTaskInfo.getCallerSimpleClassName())) {
+            if (callerMethodName == null) {
+                estCost = Math.max(estCost, methodStats.getEstCalleeNum());
+                continue;
+            }
+            String methodName = withArgs ? JACGClassMethodUtil.getMethodNameWithArgsFromFull(methodStats.getFullMethod()) : methodStats.getMethodName();
+            if (callerMethodName.equals(methodName)) {
+                estCost += methodStats.getEstCalleeNum();
+            }
+        }
+        return estCost;
+    }
+
     // 生成需要执行的任务信息
     private List<CallerTaskInfo> genCallerTaskInfo() {
         Set<String> handledClassNameSet = new HashSet<>();
@@ -337,8 +384,9 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             // 假如有指定行号时，再加上：@[起始行号]-[结束行号]
             outputFilePath.append(JACGConstants.FLAG_AT).append(entryLineNumStart).append(JACGConstants.FLAG_MINUS).append(entryLineNumEnd);
         }
-        outputFilePath.append(JACGConstants.EXT_TXT);
-        String outputFileName = outputFilePath.toString();
+        String outputFilePathWithoutExt = outputFilePath.toString();
+        // 生成二进制格式的调用链文件时，不再生成文本格式的调用链文件
+        String outputFileName = outputFilePathWithoutExt + (callGraphGenBinary ? JACGConstants.EXT_CALL_GRAPH_BINARY : JACGConstants.EXT_TXT) + outputCompressTypeEnum.getExt();
         logger.info("当前输出文件名 {} {}", outputFileName, entryCallerFullMethod);
 
         // 判断文件是否生成过
@@ -347,10 +395,20 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             return true;
         }
 
-        try (BufferedWriter writer = JavaCGFileUtil.genBufferedWriter(outputFileName)) {
+        // 判断上一次执行时是否已完成
+        if (isGenTaskDone(outputFileName)) {
+            logger.info("上一次执行时当前文件已生成，不再处理 {} {} {}", callerTaskInfo.getOrigText(), entryCallerFullMethod, outputFileName);
+            return true;
+        }
+
+        try (Writer writer = callGraphGenBinary ? null : genCallGraphWriter(outputFileName);
+             CallGraphBinaryWriter binaryWriter = genCallGraphBinaryWriter(outputFileName)) {
             // 判断配置文件中是否已指定忽略当前方法
             if (ignoreCurrentMethod(null, entryCallerFullMethod)) {
                 logger.info("配置文件中已指定忽略当前方法，不处理 {}", entryCallerFullMethod);
+                if (binaryWriter != null) {
+                    binaryWriter.finish();
+                }
                 return true;
             }
 
@@ -362,7 +420,7 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             String calleeInfo = chooseCalleeInfo(entryCallerFullMethod, entryCallerClassName, entryCallerMethodName, entryCallerSimpleClassName);
 
             // 第2行写入当前方法的信息
-            stringBuilder.append(JACGCallGraphFileUtil.genOutputPrefix(JACGConstants.CALL_GRAPH_METHOD_LEVEL_START)).append(calleeInfo);
+            StringBuilder entryCallInfo = new StringBuilder(calleeInfo);
 
             int callFlags = findMethodTaskInfo.getCallFlags();
             // 判断调用方法上是否有注解
@@ -371,26 +429,44 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
                 // 添加方法注解信息
                 getMethodAnnotationInfo(entryCallerFullMethod, entryCallerMethodHash, methodAnnotations);
                 if (methodAnnotations.length() > 0) {
-                    stringBuilder.append(methodAnnotations);
+                    entryCallInfo.append(methodAnnotations);
                 }
             }
 
             if (businessDataTypeSet.contains(DefaultBusinessDataTypeEnum.BDTE_METHOD_ARG_GENERICS_TYPE.getType())) {
                 // 显示方法参数泛型类型
-                if (!addMethodArgGenericsTypeInfo(true, callFlags, entryCallerMethodHash, stringBuilder)) {
+                if (!addMethodArgGenericsTypeInfo(true, callFlags, entryCallerMethodHash, entryCallInfo)) {
                     return false;
                 }
             }
 
-            stringBuilder.append(JACGConstants.NEW_LINE);
-            writer.write(stringBuilder.toString());
+            stringBuilder.append(JACGCallGraphFileUtil.genOutputPrefix(JACGConstants.CALL_GRAPH_METHOD_LEVEL_START))
+                    .append(entryCallInfo)
+                    .append(JACGConstants.NEW_LINE);
+            if (writer != null) {
+                writer.write(stringBuilder.toString());
+            } else {
+                // 在二进制格式的调用链文件中写入当前方法的信息
+                binaryWriter.writeLine(JACGCallGraphFileUtil.parseCallInfo(JACGConstants.CALL_GRAPH_METHOD_LEVEL_START, entryCallerFullMethod,
+                        entryCallInfo.toString()));
+            }
 
             // 根据指定的调用者方法HASH，查找所有被调用的方法信息
-            return genAllGraph4Caller(entryCallerMethodHash, entryCallerFullMethod, entryLineNumStart, entryLineNumEnd, writer);
+            if (!genAllGraph4Caller(entryCallerMethodHash, entryCallerFullMethod, entryLineNumStart, entryLineNumEnd, writer, binaryWriter)) {
+                return false;
+            }
+            if (binaryWriter != null) {
+                // 调用链生成成功，写入文件结束记录
+                binaryWriter.finish();
+            }
         } catch (Exception e) {
             logger.error("error ", e);
             return false;
         }
+
+        // 记录当前任务已完成，需要在调用链文件的Writer关闭之后记录
+        recordGenTaskDone(outputFileName);
+        return true;
     }
 
     // 通过方法名称获取调用者方法
@@ -484,6 +560,20 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
         return JACGFileUtil.createNewFile(finalFilePath);
     }
 
+    /**
+     * 生成写二进制格式的调用链文件的对象，通过输出目录对应的写文件线程异步写入
+     *
+     * @param outputFileName 二进制格式的调用链文件路径
+     * @return 不需要生成二进制格式的调用链文件时返回null
+     * @throws IOException
+     */
+    private CallGraphBinaryWriter genCallGraphBinaryWriter(String outputFileName) throws IOException {
+        if (!callGraphGenBinary) {
+            return null;
+        }
+        return new CallGraphBinaryWriter(outputDirWriter.genOutputStream(outputFileName, outputCompressTypeEnum));
+    }
+
     /**
      * 根据指定的调用者方法HASH，查找所有被调用方法信息
      *
@@ -498,7 +588,27 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
                                          String entryCallerFullMethod,
                                          int entryLineNumStart,
                                          int entryLineNumEnd,
-                                         BufferedWriter writer) throws IOException {
+                                         Writer writer) throws IOException {
+        return genAllGraph4Caller(entryCallerMethodHash, entryCallerFullMethod, entryLineNumStart, entryLineNumEnd, writer, null);
+    }
+
+    /**
+     * 根据指定的调用者方法HASH，查找所有被调用方法信息
+     *
+     * @param entryCallerMethodHash
+     * @param entryCallerFullMethod 仅代表调用当前方法时的调用者方法，不代表以下while循环中每次处理到的调用者方法
+     * @param entryLineNumStart
+     * @param entryLineNumEnd
+     * @param writer                写文本格式的调用链文件的对象，为null时不生成
+     * @param binaryWriter          写二进制格式的调用链文件的对象，为null时不生成
+     * @return
+     */
+    protected boolean genAllGraph4Caller(String entryCallerMethodHash,
+                                         String entryCallerFullMethod,
+                                         int entryLineNumStart,
+                                         int entryLineNumEnd,
+                                         Writer writer,
+                                         CallGraphBinaryWriter binaryWriter) throws IOException {
         // 记录当前处理的方法调用信息的栈
         ListAsStack<CallGraphNode4Caller> callGraphNode4CallerStack = new ListAsStack<>();
         // 记录子类方法调用父类方法对应信息的栈
@@ -522,7 +632,28 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             recordedCalleeStack.push(new HashSet<>());
         }
 
+        // 记录可以被引用的子树，key: 子树根节点的方法HASH+长度，value: 子树根节点在调用链文件中对应的行号
+        Map<String, Integer> subtreeLineNumMap = null;
+        if (callGraphSubtreeRef) {
+            subtreeLineNumMap = new HashMap<>();
+        }
+        // 当前已写入调用链文件的行号
+        int outputLineNum = JACGConstants.CALL_GRAPH_4ER_HEADER_LINE_NUM;
+
+        // 当前任务的数据库查询次数记录对象
+        TaskQueryCounter taskQueryCounter = dbOperator.getTaskQueryCounter();
         while (true) {
+            if (checkTaskQueryOverBudget(taskQueryCounter, entryCallerFullMethod)) {
+                // 数据库查询次数超过限制，截断调用链
+                if (writer != null) {
+                    writer.write(JACGConstants.CALL_GRAPH_TRUNCATED_BY_QUERY_BUDGET + JACGConstants.NEW_LINE);
+                }
+                if (binaryWriter != null) {
+                    binaryWriter.writeTruncated();
+                }
+                return true;
+            }
+
             int lineNumStart = JACGConstants.LINE_NUM_NONE;
             int lineNumEnd = JACGConstants.LINE_NUM_NONE;
             if (callGraphNode4CallerStack.atBottom()) {
@@ -535,6 +666,10 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             // 查询当前节点的一个下层被调用方法
             WriteDbData4MethodCall calleeMethod = queryOneCalleeMethod(callGraphNode4Caller, lineNumStart, lineNumEnd);
             if (calleeMethod == null) {
+                if (subtreeLineNumMap != null) {
+                    // 当前节点的下层调用链已处理完毕，记录可以被引用的子树
+                    recordSubtree(callGraphNode4CallerStack, subtreeLineNumMap, outputLineNum);
+                }
                 // 查询到被调用方法为空时的处理
                 if (handleCalleeEmptyResult(callGraphNode4CallerStack, childCallSuperInfoStack, recordedCalleeStack)) {
                     return true;
@@ -553,7 +688,7 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             String calleeMethodHash = calleeMethod.getCalleeMethodHash();
 
             // 处理子类方法调用父类方法的相关信息
-            MethodAndHash calleeMethodAndHash = handleChildCallSuperInfo(childCallSuperInfoStack, callGraphNode4CallerStack.getHead(), calleeFullMethod, callerFullMethod,
+            MethodAndHash calleeMethodAndHash = childMethodReplaceHandler.handleChildCallSuperInfo(childCallSuperInfoStack, callGraphNode4CallerStack.getHead(), calleeFullMethod, callerFullMethod,
                     callType, calleeMethodHash);
             if (calleeMethodAndHash == null) {
                 // 处理失败
@@ -584,8 +719,25 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             // 处理方法调用的节点信息
             int back2Level = handleCallerNodeInfo(callGraphNode4CallerStack, calleeMethodHash, calleeFullMethod, showCalleeMethodNum);
 
+            // 判断是否引用之前出现的子树
+            int subtreeRefLineNum = JACGConstants.NO_SUBTREE_REF_FLAG;
+            if (subtreeLineNumMap != null) {
+                subtreeRefLineNum = handleSubtreeRef(callGraphNode4CallerStack, childCallSuperInfoStack, subtreeLineNumMap, back2Level, calleeMethodHash);
+            }
+
             // 记录被调用方法信息
-            recordCalleeInfo(callerFullMethod, calleeMethod.getCallerLineNumber(), callGraphNode4CallerStack.getHead(), back2Level, calleeInfo, writer);
+            if (writer != null) {
+                recordCalleeInfo(callerFullMethod, calleeMethod.getCallerLineNumber(), callGraphNode4CallerStack.getHead(), back2Level, subtreeRefLineNum, calleeInfo, writer);
+            }
+            if (binaryWriter != null) {
+                // 在二进制格式的调用链文件中记录被调用方法信息
+                recordCalleeInfo4Binary(callerFullMethod, calleeFullMethod, methodCallId, calleeMethod.getCallerLineNumber(), callGraphNode4CallerStack.getHead(),
+                        back2Level, subtreeRefLineNum, calleeInfo, binaryWriter);
+            }
+            outputLineNum++;
+            if (taskQueryCounter != null) {
+                taskQueryCounter.addOutputLine();
+            }
 
             // 记录可能出现一对多的方法调用
             if (!recordMethodCallMayBeMulti(methodCallId, callType)) {
@@ -600,8 +752,16 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
                 continue;
             }
 
+            if (subtreeRefLineNum != JACGConstants.NO_SUBTREE_REF_FLAG) {
+                // 引用之前出现的子树，不再往下处理被调用的方法
+                continue;
+            }
+
             // 获取下一层节点
             CallGraphNode4Caller nextCallGraphNode4Caller = new CallGraphNode4Caller(calleeMethodHash, JavaCGConstants.METHOD_CALL_ID_START, calleeFullMethod);
+            nextCallGraphNode4Caller.setOutputLineNum(outputLineNum);
+            // 存在子类方法调用父类方法对应信息时，下层调用链依赖更上层的调用方法
+            nextCallGraphNode4Caller.setDependOnUpper(!childCallSuperInfoStack.isEmpty());
             callGraphNode4CallerStack.push(nextCallGraphNode4Caller);
 
             // 继续下一层处理
@@ -627,112 +787,57 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
         return false;
     }
 
-    // 处理子类方法调用父类方法的相关信息
-    private MethodAndHash handleChildCallSuperInfo(ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack,
-                                                   int nodeLevel,
-                                                   String calleeFullMethod,
-                                                   String callerFullMethod,
-                                                   String callType,
-                                                   String calleeMethodHash) {
-        if (JavaCGCallTypeEnum.CTE_CHILD_CALL_SUPER.getType().equals(callType)
-                || JavaCGCallTypeEnum.CTE_CHILD_CALL_SUPER_SPECIAL.getType().equals(callType)) {
-            // 当前方法调用类型是子类调用父类方法，记录子类方法调用父类方法对应信息的栈入栈
-            String callerClassName = JACGClassMethodUtil.getClassNameFromMethod(callerFullMethod);
-            String callerSimpleClassName = dbOperWrapper.getSimpleClassName(callerClassName);
-            ChildCallSuperInfo childCallSuperInfo = new ChildCallSuperInfo(nodeLevel, callerSimpleClassName, callerClassName, callerFullMethod);
-            childCallSuperInfoStack.push(childCallSuperInfo);
-            return new MethodAndHash(calleeFullMethod, calleeMethodHash);
-        }
-
-        // 获取子类的被调用方法
-        Pair<Boolean, MethodAndHash> pair = getCCSChildFullMethod(childCallSuperInfoStack, calleeFullMethod);
-        if (Boolean.TRUE.equals(pair.getLeft())) {
-            // 使用子类的被调用方法
-            return pair.getRight();
-        }
-
-        return new MethodAndHash(calleeFullMethod, calleeMethodHash);
-    }
-
     /**
-     * 获取子类的被调用方法，若不满足则使用原始方法
+     * 判断被调用方法是否引用之前出现的子树
      *
+     * @param callGraphNode4CallerStack
      * @param childCallSuperInfoStack
-     * @param calleeFullMethod
-     * @return left true: 使用子类的被调用方法 false: 使用原始的被调用方法
-     * @return right: 子类的被调用方法、方法HASH+长度
+     * @param subtreeLineNumMap
+     * @param back2Level
+     * @param calleeMethodHash
+     * @return 引用的子树在调用链文件中对应的行号，JACGConstants.NO_SUBTREE_REF_FLAG: 不引用
      */
-    private Pair<Boolean, MethodAndHash> getCCSChildFullMethod(ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack, String calleeFullMethod) {
-        // 判断子类方法调用父类方法对应信息的栈是否有数据
-        if (childCallSuperInfoStack.isEmpty()) {
-            return new ImmutablePair<>(Boolean.FALSE, null);
+    private int handleSubtreeRef(ListAsStack<CallGraphNode4Caller> callGraphNode4CallerStack,
+                                 ListAsStack<ChildCallSuperInfo> childCallSuperInfoStack,
+                                 Map<String, Integer> subtreeLineNumMap,
+                                 int back2Level,
+                                 String calleeMethodHash) {
+        if (back2Level != JACGConstants.NO_CYCLE_CALL_FLAG) {
+            // 出现循环调用，循环调用的层级之下的各层级的下层调用链依赖更上层的调用方法，不能被引用
+            for (int i = back2Level + 1; i <= callGraphNode4CallerStack.getHead(); i++) {
+                callGraphNode4CallerStack.getElement(i).setDependOnUpper(true);
+            }
+            return JACGConstants.NO_SUBTREE_REF_FLAG;
         }
 
-        String calleeMethodWithArgs = JACGClassMethodUtil.getMethodNameWithArgsFromFull(calleeFullMethod);
-        if (calleeMethodWithArgs.startsWith(JavaCGCommonNameConstants.METHOD_NAME_INIT)) {
-            // 被调用方法为构造函数，使用原始被调用方法
-            return new ImmutablePair<>(Boolean.FALSE, null);
+        if (!childCallSuperInfoStack.isEmpty()) {
+            // 存在子类方法调用父类方法对应信息时，被调用方法的下层调用链可能与之前出现的不同，不引用
+            return JACGConstants.NO_SUBTREE_REF_FLAG;
         }
 
-        String calleeClassName = JACGClassMethodUtil.getClassNameFromMethod(calleeFullMethod);
-        String calleeSimpleClassName = dbOperWrapper.getSimpleClassName(calleeClassName);
-
-        String ccsChildFullMethod = null;
-        String ccsChildMethodHash = null;
-        // 保存上一次处理的被调用唯一类名
-        String lastChildCallerSimpleClassName = null;
-        // 对子类方法调用父类方法对应信息的栈，从栈顶往下遍历
-        for (int i = childCallSuperInfoStack.getHead(); i >= 0; i--) {
-            ChildCallSuperInfo childCallSuperInfo = childCallSuperInfoStack.getElement(i);
-            String childCallerSimpleClassName = childCallSuperInfo.getChildCallerSimpleClassName();
-
-            if (lastChildCallerSimpleClassName != null) {
-                if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(lastChildCallerSimpleClassName, childCallerSimpleClassName)) {
-                    // 当前已不是第一次处理，判断上次的子类是否为当前子类的父类，若是则可以继续处理，若否则结束循环
-                    break;
-                }
-                logger.debug("继续处理子类 {} {}", lastChildCallerSimpleClassName, childCallerSimpleClassName);
-            }
-            lastChildCallerSimpleClassName = childCallerSimpleClassName;
-
-            // 判断子类方法调用父类方法对应信息的栈的调用类（对应子类）是否为当前被调用类的子类
-            if (!jacgExtendsImplHandler.checkExtendsOrImplBySimple(calleeSimpleClassName, childCallerSimpleClassName)) {
-                // 子类方法调用父类方法对应信息的栈的调用类（对应子类）不是当前被调用类的子类
-                break;
-            }
-            // 子类方法调用父类方法对应信息的栈的调用类为当前被调用类的子类
-            String tmpCcsChildFullMethod = JavaCGMethodUtil.formatFullMethodWithArgs(childCallSuperInfo.getChildCallerClassName(), calleeMethodWithArgs);
-
-            // 判断子类方法是否有被调用方法
-            SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MI_QUERY_METHOD_HASH;
-            String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-            if (sql == null) {
-                sql = " select " + DC.MI_METHOD_HASH +
-                        " from " + DbTableInfoEnum.DTIE_METHOD_INFO.getTableName() +
-                        " where " + DC.MI_SIMPLE_CLASS_NAME + " = ?" +
-                        " and " + DC.MI_FULL_METHOD + " like concat(?, '%')" +
-                        " limit 1";
-                sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-            }
-
-            String tmpCcsChildMethodHash = dbOperator.queryObjectOneColumn(sql, String.class, childCallerSimpleClassName, tmpCcsChildFullMethod);
-            if (tmpCcsChildMethodHash == null) {
-                // 子类方法不存在，需要继续使用栈中的数据进行处理，可能栈底是子类，栈顶是父类
-                continue;
-            }
+        Integer refLineNum = subtreeLineNumMap.get(calleeMethodHash);
+        return refLineNum != null ? refLineNum : JACGConstants.NO_SUBTREE_REF_FLAG;
+    }
 
-            // 子类方法存在，使用子类方法
-            ccsChildFullMethod = tmpCcsChildFullMethod;
-            ccsChildMethodHash = tmpCcsChildMethodHash;
+    /**
+     * 当前节点的下层调用链处理完毕时，记录可以被引用的子树
+     *
+     * @param callGraphNode4CallerStack
+     * @param subtreeLineNumMap
+     * @param outputLineNum             当前已写入调用链文件的行号
+     */
+    private void recordSubtree(ListAsStack<CallGraphNode4Caller> callGraphNode4CallerStack, Map<String, Integer> subtreeLineNumMap, int outputLineNum) {
+        if (callGraphNode4CallerStack.atBottom()) {
+            // 入口方法不需要记录
+            return;
         }
 
-        if (ccsChildFullMethod != null) {
-            logger.debug("替换子类的向下的方法调用 {} {}", calleeFullMethod, ccsChildFullMethod);
-            // 使用子类对应的方法，返回子类方法及子类方法HASH+长度
-            return new ImmutablePair<>(Boolean.TRUE, new MethodAndHash(ccsChildFullMethod, ccsChildMethodHash));
+        CallGraphNode4Caller callGraphNode4Caller = callGraphNode4CallerStack.peek();
+        if (callGraphNode4Caller.isDependOnUpper() || callGraphNode4Caller.getOutputLineNum() == outputLineNum) {
+            // 下层调用链依赖更上层的调用方法，或不存在下层调用链，不记录
+            return;
         }
-        // 使用原始被调用方法
-        return new ImmutablePair<>(Boolean.FALSE, null);
+        subtreeLineNumMap.putIfAbsent(callGraphNode4Caller.getCallerMethodHash(), callGraphNode4Caller.getOutputLineNum());
     }
 
     /**
@@ -840,33 +945,7 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
 
     // 查询当前节点的一个下层被调用方法
     private WriteDbData4MethodCall queryOneCalleeMethod(CallGraphNode4Caller callGraphNode4Caller, int lineNumStart, int lineNumEnd) {
-        // 判断查询时是否使用代码行号
-        boolean useLineNum = lineNumStart != JACGConstants.LINE_NUM_NONE && lineNumEnd != JACGConstants.LINE_NUM_NONE;
-        SqlKeyEnum sqlKeyEnum = useLineNum ? SqlKeyEnum.MC_QUERY_ONE_CALLEE_CHECK_LINE_NUM : SqlKeyEnum.MC_QUERY_ONE_CALLEE;
-        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
-        if (sql == null) {
-            // 确定查询被调用关系时所需字段
-            sql = "select " + chooseCalleeColumns() +
-                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
-                    " where " + DC.MC_CALLER_METHOD_HASH + " = ?" +
-                    " and " + DC.MC_CALL_ID + " > ?";
-            if (useLineNum) {
-                sql = sql + " and " + DC.MC_CALLER_LINE_NUMBER + " >= ? and " + DC.MC_CALLER_LINE_NUMBER + " <= ?";
-            }
-            sql = sql + " order by " + DC.MC_CALL_ID +
-                    " limit 1";
-            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
-        }
-
-        List<Object> argList = new ArrayList<>(4);
-        argList.add(callGraphNode4Caller.getCallerMethodHash());
-        argList.add(callGraphNode4Caller.getMethodCallId());
-        if (lineNumStart != JACGConstants.LINE_NUM_NONE && lineNumEnd != JACGConstants.LINE_NUM_NONE) {
-            argList.add(lineNumStart);
-            argList.add(lineNumEnd);
-        }
-
-        return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, argList.toArray());
+        return dbOperWrapper.getStorage().queryNextCallee(callGraphNode4Caller.getCallerMethodHash(), callGraphNode4Caller.getMethodCallId(), lineNumStart, lineNumEnd);
     }
 
     /**
@@ -891,14 +970,8 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             recordedCalleeStack.removeTop();
         }
 
-        if (!childCallSuperInfoStack.isEmpty()) {
-            // 记录子类方法调用父类方法对应信息的栈非空
-            ChildCallSuperInfo topChildCallSuperInfo = childCallSuperInfoStack.peek();
-            if (topChildCallSuperInfo.getChildCallerNodeLevel() == callGraphNode4CallerStack.getHead()) {
-                // 记录子类方法调用父类方法对应信息的栈顶元素，与方法调用节点栈出栈的级别相同，出栈
-                childCallSuperInfoStack.removeTop();
-            }
-        }
+        // 将对应层级的子类方法调用父类方法对应信息出栈
+        childMethodReplaceHandler.removeChildCallSuperInfo(childCallSuperInfoStack, callGraphNode4CallerStack.getHead());
 
         // 删除栈顶元素
         callGraphNode4CallerStack.removeTop();
@@ -1001,8 +1074,9 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
                                     int callerLineNumber,
                                     int currentNodeLevel,
                                     int back2Level,
+                                    int subtreeRefLineNum,
                                     String calleeInfo,
-                                    BufferedWriter writer) throws IOException {
+                                    Writer writer) throws IOException {
         StringBuilder stringBuilder = new StringBuilder();
         // 生成输出文件前缀，包含了当前方法的调用层级
         String prefix = JACGCallGraphFileUtil.genOutputPrefix(currentNodeLevel + 1);
@@ -1030,11 +1104,52 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
             stringBuilder.append(JACGConstants.FLAG_TAB).append(JACGCallGraphFileUtil.genCycleCallFlag(back2Level));
         }
 
+        // 写入引用之前出现的子树的标志
+        if (subtreeRefLineNum != JACGConstants.NO_SUBTREE_REF_FLAG) {
+            stringBuilder.append(JACGConstants.FLAG_TAB).append(JACGCallGraphFileUtil.genSubtreeRefFlag(subtreeRefLineNum));
+        }
+
         // 写入换行符
         stringBuilder.append(JACGConstants.NEW_LINE);
         writer.write(stringBuilder.toString());
     }
 
+    /**
+     * 在二进制格式的调用链文件中记录被调用方法信息
+     *
+     * @param callerFullMethod  调用者完整方法
+     * @param calleeFullMethod  被调用完整方法
+     * @param methodCallId      方法调用ID
+     * @param callerLineNumber  调用者代码行号
+     * @param currentNodeLevel  当前节点的方法级别
+     * @param back2Level        循环调用对应的方法级别
+     * @param subtreeRefLineNum 引用之前出现的子树对应的行号
+     * @param calleeInfo        被调用方法信息（包含方法注解信息、方法调用业务功能数据）
+     * @param binaryWriter      写二进制格式的调用链文件的对象
+     * @throws IOException
+     */
+    protected void recordCalleeInfo4Binary(String callerFullMethod,
+                                           String calleeFullMethod,
+                                           int methodCallId,
+                                           int callerLineNumber,
+                                           int currentNodeLevel,
+                                           int back2Level,
+                                           int subtreeRefLineNum,
+                                           String calleeInfo,
+                                           CallGraphBinaryWriter binaryWriter) throws IOException {
+        CallGraphLineParsed callGraphLineParsed = JACGCallGraphFileUtil.parseCallInfo(currentNodeLevel + 1, calleeFullMethod, calleeInfo);
+        callGraphLineParsed.setCallId(methodCallId);
+        callGraphLineParsed.setCallerLineNumber(callerLineNumber);
+        String callerClassName = JACGClassMethodUtil.getClassNameFromMethod(callerFullMethod);
+        callGraphLineParsed.setCallerSimpleClassName(dbOperWrapper.getSimpleClassName(callerClassName));
+        if (back2Level != JACGConstants.NO_CYCLE_CALL_FLAG) {
+            callGraphLineParsed.setCycleCall(true);
+            callGraphLineParsed.setCycleCallLevel(back2Level);
+        }
+        callGraphLineParsed.setSubtreeRefLineNum(subtreeRefLineNum);
+        binaryWriter.writeLine(callGraphLineParsed);
+    }
+
     // 确定写入输出文件的当前调用方法信息
     private String chooseCalleeInfo(String callerFullMethod, String callerClassName, String callerMethodName, String callerSimpleClassName) {
         if (OutputDetailEnum.ODE_1 == outputDetailEnum) {
@@ -1048,19 +1163,6 @@ public class RunnerGenAllGraph4Caller extends AbstractRunnerGenCallGraph {
         return JACGClassMethodUtil.getClassAndMethodName(callerSimpleClassName, callerMethodName);
     }
 
-    // 确定查询调用关系时所需字段
-    private String chooseCalleeColumns() {
-        return JACGSqlUtil.joinColumns(
-                DC.MC_CALL_ID,
-                DC.MC_CALL_TYPE,
-                DC.MC_ENABLED,
-                DC.MC_CALLEE_FULL_METHOD,
-                DC.MC_CALLEE_METHOD_HASH,
-                DC.MC_CALLER_LINE_NUMBER,
-                DC.MC_CALL_FLAGS
-        );
-    }
-
     // 获取调用者完整类名
     private String getCallerClassName(String callerSimpleClassName) {
         String existedClassName = simpleAndClassNameMap.get(callerSimpleClassName);
@@ -88,6 +88,20 @@ public class RunnerWriteCallGraphFile extends AbstractRunner {
 
     // 调用java-callgraph2生成jar包的方法调用关系
     protected boolean callJavaCallGraph2() {
+        if (!prepareJavaCallGraph2() || !runJavaCallGraph2()) {
+            return false;
+        }
+        afterJavaCallGraph2();
+        return true;
+    }
+
+    /**
+     * 调用java-callgraph2之前的准备，检查需要处理的jar包，生成java-callgraph2的配置信息并添加代码解析扩展类
+     * 需要读取配置参数的操作都在当前方法中执行
+     *
+     * @return
+     */
+    protected boolean prepareJavaCallGraph2() {
         List<String> jarPathList = getJarPathList();
         if (JavaCGUtil.isCollectionEmpty(jarPathList)) {
             logger.error("请在配置文件 {} 中指定需要处理的jar包，或保存class、jar文件的目录", OtherConfigFileUseListEnum.OCFULE_JAR_DIR.getKey());
@@ -111,10 +125,15 @@ public class RunnerWriteCallGraphFile extends AbstractRunner {
         jCallGraph.setAnnotationAttributesFormatter(new AnnotationAttributesFormatter());
 
         // 添加用于对代码进行解析的处理类
-        if (!addCodeParserExtensions()) {
-            return false;
-        }
+        return addCodeParserExtensions();
+    }
 
+    /**
+     * 调用java-callgraph2，需要先执行prepareJavaCallGraph2()
+     *
+     * @return
+     */
+    protected boolean runJavaCallGraph2() {
         // 调用java-callgraph2
         logger.info("调用java-callgraph2生成jar包的方法调用关系");
         boolean success = jCallGraph.run(javaCGConfigureWrapper);
@@ -126,13 +145,18 @@ public class RunnerWriteCallGraphFile extends AbstractRunner {
         // 获取输出信息
         javaCGOutputInfo = jCallGraph.getJavaCGOutputInfo();
         currentOutputDirPath = javaCGOutputInfo.getOutputDirPath();
+        return true;
+    }
 
+    /**
+     * 调用java-callgraph2之后的处理，打印当前使用的配置信息
+     */
+    protected void afterJavaCallGraph2() {
         // 打印当前使用的配置信息
         printAllConfigInfo();
 
         // 打印java-callgraph2当前使用的配置信息
         printJavaCGUsedConfigInfo();
-        return true;
     }
 
     // 添加代码解析扩展类
@@ -8,8 +8,14 @@ import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
 import com.adrninistrator.jacg.common.enums.InputDirEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.StorageTypeEnum;
+import com.adrninistrator.jacg.dboper.H2MemDbHandler;
+import com.adrninistrator.jacg.dto.method.MethodHashFlags;
 import com.adrninistrator.jacg.extensions.manual_add_method_call.AbstractManualAddMethodCall1;
+import com.adrninistrator.jacg.handler.checkpoint.WriteDbCheckpointHandler;
 import com.adrninistrator.jacg.handler.method.MethodCallHandler;
+import com.adrninistrator.jacg.handler.method.MethodCodeHashHandler;
+import com.adrninistrator.jacg.handler.method.MethodStatsHandler;
 import com.adrninistrator.jacg.handler.write_db.AbstractWriteDbHandler;
 import com.adrninistrator.jacg.handler.write_db.WriteDbHandler4ClassAnnotation;
 import com.adrninistrator.jacg.handler.write_db.WriteDbHandler4ClassInfo;
@@ -38,18 +44,22 @@ import com.adrninistrator.jacg.util.JACGSqlUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
 import com.adrninistrator.javacg.common.enums.JavaCGOutPutFileTypeEnum;
 import com.adrninistrator.javacg.util.JavaCGUtil;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author adrninistrator
@@ -60,6 +70,12 @@ import java.util.Set;
 public class RunnerWriteDb extends RunnerWriteCallGraphFile {
     private static final Logger logger = LoggerFactory.getLogger(RunnerWriteDb.class);
 
+    // 阶段名称：调用java-callgraph2
+    private static final String STAGE_CALL_JAVA_CALL_GRAPH2 = "callJavaCallGraph2";
+
+    // 阶段名称：在数据库中写入允许处理的类名前缀
+    private static final String STAGE_WRITE_ALLOWED_CLASS_PREFIX = "writeAllowedClassPrefix";
+
     // 需要处理的包名/类名前缀
     private Set<String> allowedClassPrefixSet;
 
@@ -84,6 +100,24 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
     // 是否使用H2数据库
     private boolean useH2Db;
 
+    // 写数据库检查点处理类，使用H2内存数据库时为null，不记录检查点
+    private WriteDbCheckpointHandler checkpointHandler;
+
+    // 是否根据上一次执行时记录的检查点恢复执行
+    private boolean resume;
+
+    // 当前阶段创建的写入数据库的类
+    private final List<AbstractWriteDbHandler<?>> stageWriteDbHandlerList = new ArrayList<>();
+
+    /*
+        已执行完毕，但写入的数据可能还未全部提交的阶段
+        key
+            阶段名称
+        value
+            阶段创建的写入数据库的类
+     */
+    private final Map<String, List<AbstractWriteDbHandler<?>>> pendingStageMap = new LinkedHashMap<>();
+
     @Override
     public boolean preHandle() {
         // 读取其他配置文件
@@ -112,6 +146,16 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
         // 初始化方法调用处理类
         methodCallHandler = new MethodCallHandler(dbOperWrapper);
+
+        // 是否根据上一次执行时记录的检查点恢复执行，使用H2内存数据库时不会记录检查点
+        resume = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME);
+        if (resume && StorageTypeEnum.STE_EMBEDDED_KV.getType().equals(configureWrapper.getMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE))) {
+            logger.warn("方法调用关系的存储方式为 {} 时不支持恢复执行，执行所有阶段", StorageTypeEnum.STE_EMBEDDED_KV);
+            resume = false;
+        }
+        if (!dbOperator.isUseH2MemDb()) {
+            checkpointHandler = new WriteDbCheckpointHandler(dbOperWrapper);
+        }
         return true;
     }
 
@@ -122,6 +166,47 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
             // 记录执行失败
             recordTaskFail();
         }
+
+        if (dbOperator.isUseH2MemDb()) {
+            // 关闭H2内存数据库，释放占用的内存
+            genH2MemDbHandler().shutdownMemDb();
+        }
+    }
+
+    /**
+     * 使用H2数据库且指定先写入H2内存数据库时，预估内存占用未超过JVM最大堆内存的指定百分比时使用H2内存数据库，否则直接写入H2数据库文件
+     *
+     * @return
+     */
+    @Override
+    protected boolean useH2MemDb() {
+        if (!Boolean.TRUE.equals(configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2)) ||
+                !Boolean.TRUE.equals(configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_IN_MEMORY))) {
+            return false;
+        }
+
+        if (Boolean.TRUE.equals(configureWrapper.getMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME))) {
+            logger.info("指定了恢复执行，需要使用上一次执行时在H2数据库文件中记录的检查点，不使用H2内存数据库");
+            return false;
+        }
+
+        // 根据需要处理的jar包或目录大小预估内存占用
+        long jarSize = 0;
+        for (String jarPath : configureWrapper.getOtherConfigList(OtherConfigFileUseListEnum.OCFULE_JAR_DIR, true)) {
+            File jarFile = new File(jarPath);
+            if (jarFile.exists()) {
+                jarSize += FileUtils.sizeOf(jarFile);
+            }
+        }
+        long estimatedSize = jarSize * JACGConstants.H2_MEM_DB_SIZE_RATE;
+        int maxHeapPercent = configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT);
+        long maxSize = Runtime.getRuntime().maxMemory() / 100 * maxHeapPercent;
+        if (estimatedSize > maxSize) {
+            logger.warn("使用H2内存数据库预估的内存占用 {} 超过JVM最大堆内存的 {}% {}，直接写入H2数据库文件", estimatedSize, maxHeapPercent, maxSize);
+            return false;
+        }
+        logger.info("使用H2内存数据库写入，预估的内存占用 {} 允许使用的内存 {}", estimatedSize, maxSize);
+        return true;
     }
 
     @Override
@@ -143,101 +228,274 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
     // 执行实际处理
     private boolean operate() {
+        // 调用java-callgraph2之前的准备
+        if (!runStage("prepareJavaCallGraph2", this::prepareJavaCallGraph2)) {
+            return false;
+        }
+
+        // 需要处理的jar包或目录的HASH，用于判断是否可以恢复执行
+        String jarDirHash = JACGFileUtil.genJarDirFingerprint(getJarPathList());
+        if (jarDirHash == null) {
+            return false;
+        }
+
+        // 数据库的准备操作
+        if (!prepareDb(jarDirHash)) {
+            return false;
+        }
+
+        // 调用java-callgraph2生成jar包的方法调用关系
+        if (!runStage(STAGE_CALL_JAVA_CALL_GRAPH2, this::runJavaCallGraph2)) {
+            return false;
+        }
+        if (checkpointHandler != null) {
+            checkpointHandler.recordStageDone(STAGE_CALL_JAVA_CALL_GRAPH2, jarDirHash, 0);
+        }
+
+        // 调用java-callgraph2之后的处理
+        afterJavaCallGraph2();
+
+        // 创建线程，参数指定为null，不调小实际创建的线程数
+        createThreadPoolExecutor(null);
+
+        // 处理java-callgraph2生成的文件并写入数据库
+        return writeDb();
+    }
+
+    // 数据库的准备操作
+    private boolean prepareDb(String jarDirHash) {
         // 创建数据库表
-        if (!createTables()) {
+        if (!runStage("createTables", this::createTables)) {
+            return false;
+        }
+
+        // 判断是否恢复执行，需要在清理数据库表之前执行
+        String allowedClassPrefixHash = WriteDbCheckpointHandler.genStringsHash(genSortedAllowedClassPrefixList());
+        if (!runStage("prepareResume", () -> prepareResume(jarDirHash, allowedClassPrefixHash))) {
             return false;
         }
 
-        // 清理数据库表
-        if (!truncateTables()) {
+        // 清理数据库表，恢复执行时不清理
+        if (!resume && !runStage("truncateTables", this::truncateTables)) {
             return false;
         }
 
         // 添加用于人工添加方法调用关系的处理类
-        if (!addManualAddMethodCallExtensions()) {
+        if (!runStage("addManualAddMethodCallExtensions", this::addManualAddMethodCallExtensions)) {
             return false;
         }
 
         // 在数据库中写入允许处理的类名前缀
-        if (!writeAllowedClassPrefix()) {
+        return runCheckpointStage(STAGE_WRITE_ALLOWED_CLASS_PREFIX, allowedClassPrefixHash, this::writeAllowedClassPrefix,
+                () -> dbOperator.truncateTable(DbTableInfoEnum.DTIE_ALLOWED_CLASS_PREFIX.getTableName()));
+    }
+
+    // 判断是否根据上一次执行时记录的检查点恢复执行，需要处理的jar包或目录，或允许处理的类名前缀与上一次执行时不同时不恢复执行
+    private boolean prepareResume(String jarDirHash, String allowedClassPrefixHash) {
+        if (!resume) {
+            return true;
+        }
+        if (checkpointHandler == null) {
+            resume = false;
+            return true;
+        }
+
+        if (!checkpointHandler.loadLastCheckpoints()) {
+            return false;
+        }
+        if (!checkpointHandler.hasLastCheckpoints()) {
+            logger.info("上一次执行时未记录检查点，执行所有阶段");
+            resume = false;
+            return true;
+        }
+        if (!checkpointHandler.isStageDone(STAGE_CALL_JAVA_CALL_GRAPH2, jarDirHash) ||
+                !checkpointHandler.isStageDone(STAGE_WRITE_ALLOWED_CLASS_PREFIX, allowedClassPrefixHash)) {
+            logger.warn("需要处理的jar包或目录，或允许处理的类名前缀与上一次执行时不同，不能恢复执行，执行所有阶段");
+            checkpointHandler.clearLastCheckpoints();
+            resume = false;
+            return true;
+        }
+        logger.info("根据上一次执行时记录的检查点恢复执行");
+        return true;
+    }
+
+    /**
+     * 执行不读取文件的阶段并记录检查点，恢复执行时跳过上一次执行时已完成的阶段
+     * 恢复执行且阶段未完成时，先执行清理操作，删除上一次执行时写入的部分数据
+     *
+     * @param stageName 阶段名称
+     * @param inputHash 阶段的输入HASH，没有时使用空字符串
+     * @param stage     阶段的处理
+     * @param cleanup   清理操作
+     * @return
+     */
+    private boolean runCheckpointStage(String stageName, String inputHash, BooleanSupplier stage, BooleanSupplier cleanup) {
+        if (resume) {
+            if (checkpointHandler.isStageDone(stageName, inputHash)) {
+                logger.info("上一次执行时已完成，跳过阶段 {}", stageName);
+                return true;
+            }
+            if (!cleanup.getAsBoolean()) {
+                return false;
+            }
+        }
+
+        if (!runStage(stageName, stage)) {
             return false;
         }
+        if (checkpointHandler != null) {
+            checkpointHandler.recordStageDone(stageName, inputHash, 0);
+        }
+        return true;
+    }
 
-        // 调用java-callgraph2生成jar包的方法调用关系
-        if (!callJavaCallGraph2()) {
+    /**
+     * 执行读取文件写入数据库的阶段，阶段的检查点在写入的数据全部提交后记录
+     * 恢复执行时，阶段中各个写入数据库的类会重新读取文件，上一次执行时已提交的记录不再写入数据库
+     * 阶段中读取文件时生成的数据在后续阶段不需要使用时，可以跳过上一次执行时已完成的阶段
+     *
+     * @param stageName 阶段名称
+     * @param skippable 上一次执行时已完成时，是否可以跳过
+     * @param stage     阶段的处理
+     * @return
+     */
+    private boolean runWriteDbStage(String stageName, boolean skippable, BooleanSupplier stage) {
+        if (resume && skippable && checkpointHandler.isStageDone(stageName)) {
+            logger.info("上一次执行时已完成，跳过阶段 {}", stageName);
+            return true;
+        }
+
+        stageWriteDbHandlerList.clear();
+        if (!runStage(stageName, stage)) {
             return false;
         }
+        if (checkpointHandler != null) {
+            pendingStageMap.put(stageName, new ArrayList<>(stageWriteDbHandlerList));
+        }
+        return true;
+    }
 
-        // 创建线程，参数指定为null，不调小实际创建的线程数
-        createThreadPoolExecutor(null);
+    // 记录已执行完毕且写入的数据已全部提交的阶段的检查点，需要在等待线程池任务执行完毕后调用
+    private void recordPendingStages() {
+        for (Map.Entry<String, List<AbstractWriteDbHandler<?>>> entry : pendingStageMap.entrySet()) {
+            List<String> inputHashList = new ArrayList<>(entry.getValue().size());
+            int recordNum = 0;
+            boolean failed = false;
+            for (AbstractWriteDbHandler<?> writeDbHandler : entry.getValue()) {
+                if (writeDbHandler.checkFailed() || !writeDbHandler.recordCheckpointDone()) {
+                    failed = true;
+                    break;
+                }
+                inputHashList.add(writeDbHandler.getInputHash());
+                recordNum += writeDbHandler.getWriteRecordNum();
+            }
+            if (!failed) {
+                checkpointHandler.recordStageDone(entry.getKey(), WriteDbCheckpointHandler.genStringsHash(inputHashList), recordNum);
+            }
+        }
+        pendingStageMap.clear();
+    }
 
+    // 处理java-callgraph2生成的文件并写入数据库
+    private boolean writeDb() {
         // 处理引用的类信息，需要首先处理
-        if (!handleClassName()) {
+        if (!runWriteDbStage("handleClassName", true, this::handleClassName)) {
             return false;
         }
 
         // 处理jar包信息
-        if (!handleJarInfo()) {
+        if (!runWriteDbStage("handleJarInfo", true, this::handleJarInfo)) {
             return false;
         }
 
-        Set<String> springControllerMethodHashSet = new HashSet<>();
-        Set<String> withAnnotationMethodHashSet = new HashSet<>();
-        // 处理注解信息
-        handleAnnotations(springControllerMethodHashSet, withAnnotationMethodHashSet);
+        // 各方法HASH+长度对应的标记
+        MethodHashFlags methodHashFlags = new MethodHashFlags();
+        // 处理注解信息，生成的各方法HASH+长度对应的标记在后续阶段需要使用，不能跳过
+        runWriteDbStage("handleAnnotations", false, () -> {
+            handleAnnotations(methodHashFlags);
+            return true;
+        });
 
-        Set<String> withGenericsTypeMethodHash = new HashSet<>();
-        Set<Integer> withInfoCallIdSet = new HashSet<>();
-        // 处理方法
-        if (!handleMethod(withGenericsTypeMethodHash, withInfoCallIdSet)) {
+        // 被调用对象及参数存在信息的call_id
+        BitSet withInfoCallIdBitSet = new BitSet();
+        // 处理方法，生成的数据在后续阶段需要使用，不能跳过
+        if (!runWriteDbStage("handleMethod", false, () -> handleMethod(methodHashFlags, withInfoCallIdBitSet))) {
             return false;
         }
 
         // 处理类的信息
-        if (!handleClassInfo()) {
+        if (!runWriteDbStage("handleClassInfo", true, this::handleClassInfo)) {
             return false;
         }
 
         // 处理继承与实现相关信息
-        if (!handleExtendsImpl()) {
+        if (!runWriteDbStage("handleExtendsImpl", true, this::handleExtendsImpl)) {
             return false;
         }
 
         // 处理Lambda表达式方法信息
-        if (!handleLambdaMethodInfo()) {
+        if (!runWriteDbStage("handleLambdaMethodInfo", true, this::handleLambdaMethodInfo)) {
             return false;
         }
 
         // 处理Spring Bean信息
-        if (!handleSpringInfo()) {
+        if (!runWriteDbStage("handleSpringInfo", true, this::handleSpringInfo)) {
             return false;
         }
 
         Set<String> myBatisMapperSet = new HashSet<>();
         Set<String> myBatisMapperMethodWriteSet = new HashSet<>();
-        // 处理MyBatis信息
-        if (!handleMyBatisInfo(myBatisMapperSet, myBatisMapperMethodWriteSet)) {
+        // 处理MyBatis信息，生成的数据在后续阶段需要使用，不能跳过
+        if (!runWriteDbStage("handleMyBatisInfo", false, () -> handleMyBatisInfo(myBatisMapperSet, myBatisMapperMethodWriteSet))) {
             return false;
         }
 
         // 类的签名中涉及继承与实现的信息1
-        if (!handleClassSignatureEi1()) {
+        if (!runWriteDbStage("handleClassSignatureEi1", true, this::handleClassSignatureEi1)) {
             return false;
         }
 
         // 处理方法调用关系文件（需要在后面处理）
-        if (!handleMethodCall(springControllerMethodHashSet, withAnnotationMethodHashSet, withInfoCallIdSet, withGenericsTypeMethodHash, myBatisMapperSet,
-                myBatisMapperMethodWriteSet)) {
+        if (!runWriteDbStage("handleMethodCall", true, () -> handleMethodCall(methodHashFlags, withInfoCallIdBitSet, myBatisMapperSet,
+                myBatisMapperMethodWriteSet))) {
             return false;
         }
+        // 方法调用关系文件处理完毕时已等待写入数据库完毕，记录之前各阶段的检查点
+        recordPendingStages();
 
         // 人工添加方法调用关系（需要在方法调用关系文件处理完毕后执行）
-        if (!manualAddMethodCall()) {
+        if (!runCheckpointStage("manualAddMethodCall", "", this::manualAddMethodCall, methodCallHandler::deleteManualAddedMethodCall)) {
+            return false;
+        }
+
+        // 生成方法调用统计信息（需要在方法调用关系全部写入后执行）
+        if (!runCheckpointStage("handleMethodStats", "", this::handleMethodStats,
+                () -> dbOperator.truncateTable(DbTableInfoEnum.DTIE_METHOD_STATS.getTableName()))) {
+            return false;
+        }
+
+        // 生成方法字节码HASH，用于分析方法变化的影响范围
+        if (!runCheckpointStage(MethodCodeHashHandler.STAGE_GEN_METHOD_CODE_HASH, "", this::handleMethodCodeHash,
+                () -> dbOperator.truncateTable(DbTableInfoEnum.DTIE_METHOD_CODE_HASH.getTableName()))) {
+            return false;
+        }
+        // 使用H2内存数据库时不记录检查点，仅记录生成方法字节码HASH的阶段已完成，下一次写入数据库时用于判断方法字节码HASH是否完整
+        if (dbOperator.isUseH2MemDb() && !new WriteDbCheckpointHandler(dbOperWrapper).recordStageDone(MethodCodeHashHandler.STAGE_GEN_METHOD_CODE_HASH, "", 0)) {
             return false;
         }
 
         // 检查执行结果
-        if (!checkResult()) {
+        if (!runStage("checkResult", this::checkResult)) {
+            return false;
+        }
+
+        // 写数据库完成，记录新的数据库内容版本，生成调用链时用于判断数据库内容是否变化
+        if (!runStage("recordDataVersion", dbOperWrapper::recordDataVersion)) {
+            return false;
+        }
+
+        // 使用H2内存数据库时，保存到H2数据库文件
+        if (dbOperator.isUseH2MemDb() && !runStage("persistH2MemDb", () -> genH2MemDbHandler().persistToFile())) {
             return false;
         }
 
@@ -289,8 +547,7 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
         // 生成用于插入数据的sql语句
         String sql = dbOperWrapper.genAndCacheInsertSql(DbTableInfoEnum.DTIE_ALLOWED_CLASS_PREFIX, DbInsertMode.DIME_INSERT);
-        List<String> allowedClassPrefixList = new ArrayList<>(allowedClassPrefixSet);
-        Collections.sort(allowedClassPrefixList);
+        List<String> allowedClassPrefixList = genSortedAllowedClassPrefixList();
         for (int i = 0; i < allowedClassPrefixList.size(); i++) {
             if (!dbOperator.insert(sql, i, allowedClassPrefixList.get(i))) {
                 return false;
@@ -299,6 +556,13 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
         return true;
     }
 
+    // 获取排序后的允许处理的类名前缀
+    private List<String> genSortedAllowedClassPrefixList() {
+        List<String> allowedClassPrefixList = new ArrayList<>(allowedClassPrefixSet);
+        Collections.sort(allowedClassPrefixList);
+        return allowedClassPrefixList;
+    }
+
     // 创建数据库表
     private boolean createTables() {
         logger.info("创建数据库表");
@@ -379,9 +643,25 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
     // 清理数据库表
     private boolean truncateTables() {
+        // 保存上一次的方法字节码HASH，用于分析方法变化的影响范围
+        if (dbOperator.isUseH2MemDb()) {
+            // 使用H2内存数据库时，上一次的方法字节码HASH在H2数据库文件中，H2数据库文件中的方法字节码HASH不完整时，保留原有的上一次的方法字节码HASH
+            H2MemDbHandler h2MemDbHandler = genH2MemDbHandler();
+            DbTableInfoEnum srcTable = h2MemDbHandler.checkMethodCodeHashInFileComplete() ? DbTableInfoEnum.DTIE_METHOD_CODE_HASH :
+                    DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST;
+            if (!h2MemDbHandler.copyTableFromFile(srcTable, DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST, dbInsertBatchSize)) {
+                return false;
+            }
+        } else {
+            MethodCodeHashHandler methodCodeHashHandler = new MethodCodeHashHandler(dbOperWrapper);
+            if (!methodCodeHashHandler.backupMethodCodeHash()) {
+                return false;
+            }
+        }
+
         logger.info("清理数据库表");
         for (DbTableInfoEnum dbTableInfoEnum : DbTableInfoEnum.values()) {
-            if (DbTableInfoEnum.DTIE_ILLEGAL != dbTableInfoEnum &&
+            if (DbTableInfoEnum.DTIE_ILLEGAL != dbTableInfoEnum && DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST != dbTableInfoEnum &&
                     !dbOperator.truncateTable(dbTableInfoEnum.getTableName())) {
                 return false;
             }
@@ -391,13 +671,17 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
     private void initWriteDbHandler(AbstractWriteDbHandler<?> writeDbHandler) {
         writeDbHandlerMap.put(writeDbHandler.getCurrentSimpleClassName(), writeDbHandler);
+        stageWriteDbHandlerList.add(writeDbHandler);
+        if (checkpointHandler != null) {
+            writeDbHandler.initCheckpoint(checkpointHandler);
+        }
 
         writeDbHandler.setDbOperWrapper(dbOperWrapper);
+        writeDbHandler.setPerfRecorder(perfRecorder);
         writeDbHandler.setDbOperator(dbOperator);
         writeDbHandler.setBatchSize(dbInsertBatchSize);
         writeDbHandler.setAllowedClassPrefixSet(allowedClassPrefixSet);
-        writeDbHandler.setThreadPoolExecutor(threadPoolExecutor);
-        writeDbHandler.setTaskQueueMaxSize(taskQueueMaxSize);
+        writeDbHandler.setTaskExecutor(this::executeTask);
     }
 
     // 处理引用的类信息，需要首先处理
@@ -416,7 +700,11 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
         }
 
         // 将类名表中的同名类更新为使用完整类名，并记录同名类
-        return dbOperWrapper.updateAllSimpleName2Full();
+        if (!dbOperWrapper.updateAllSimpleName2Full()) {
+            return false;
+        }
+        // 恢复执行时，上一次执行时可能已更新了部分同名类，需要从数据库重新查询同名类
+        return !resume || dbOperWrapper.findDuplicateClass();
     }
 
     // 处理jar包信息
@@ -427,7 +715,7 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
     }
 
     // 处理注解信息
-    private boolean handleAnnotations(Set<String> springControllerMethodHashSet, Set<String> withAnnotationMethodHashSet) {
+    private boolean handleAnnotations(MethodHashFlags methodHashFlags) {
         WriteDbHandler4MethodAnnotation writeDbHandler4MethodAnnotation = new WriteDbHandler4MethodAnnotation();
         // 处理类注解信息
         WriteDbHandler4ClassAnnotation writeDbHandler4ClassAnnotation = new WriteDbHandler4ClassAnnotation();
@@ -446,13 +734,12 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
         initWriteDbHandler(writeDbHandler4MethodAnnotation);
         writeDbHandler4MethodAnnotation.setClassRequestMappingMap(classRequestMappingMap);
         writeDbHandler4MethodAnnotation.setWriteDbHandler4SpringController(writeDbHandler4SpringController);
-        writeDbHandler4MethodAnnotation.setSpringControllerMethodHashSet(springControllerMethodHashSet);
-        writeDbHandler4MethodAnnotation.setWithAnnotationMethodHashSet(withAnnotationMethodHashSet);
+        writeDbHandler4MethodAnnotation.setMethodHashFlags(methodHashFlags);
         return writeDbHandler4MethodAnnotation.handle(javaCGOutputInfo);
     }
 
     // 处理方法
-    private boolean handleMethod(Set<String> withGenericsTypeMethodHash, Set<Integer> withInfoCallIdSet) {
+    private boolean handleMethod(MethodHashFlags methodHashFlags, BitSet withInfoCallIdBitSet) {
         // 处理方法行号
         WriteDbHandler4MethodLineNumber writeDbHandler4MethodLineNumber = new WriteDbHandler4MethodLineNumber();
         initWriteDbHandler(writeDbHandler4MethodLineNumber);
@@ -473,7 +760,7 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
         // 处理方法参数泛型类型
         WriteDbHandler4MethodArgGenericsType writeDbHandler4MethodArgGenericsType = new WriteDbHandler4MethodArgGenericsType();
-        writeDbHandler4MethodArgGenericsType.setWithGenericsTypeMethodHash(withGenericsTypeMethodHash);
+        writeDbHandler4MethodArgGenericsType.setMethodHashFlags(methodHashFlags);
         initWriteDbHandler(writeDbHandler4MethodArgGenericsType);
         if (!writeDbHandler4MethodArgGenericsType.handle(javaCGOutputInfo)) {
             return false;
@@ -488,7 +775,7 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
 
         // 处理方法调用信息（需要在处理方法调用关系文件之前完成）
         WriteDbHandler4MethodCallInfo writeDbHandler4MethodCallInfo = new WriteDbHandler4MethodCallInfo();
-        writeDbHandler4MethodCallInfo.setWithInfoCallIdSet(withInfoCallIdSet);
+        writeDbHandler4MethodCallInfo.setWithInfoCallIdBitSet(withInfoCallIdBitSet);
         initWriteDbHandler(writeDbHandler4MethodCallInfo);
         return writeDbHandler4MethodCallInfo.handle(javaCGOutputInfo);
     }
@@ -570,22 +857,20 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
     }
 
     // 处理方法调用关系文件
-    private boolean handleMethodCall(Set<String> springControllerMethodHashSet,
-                                     Set<String> withAnnotationMethodHashSet,
-                                     Set<Integer> withInfoCallIdSet,
-                                     Set<String> withGenericsTypeMethodHash,
+    private boolean handleMethodCall(MethodHashFlags methodHashFlags,
+                                     BitSet withInfoCallIdBitSet,
                                      Set<String> myBatisMapperSet,
                                      Set<String> myBatisMapperMethodWriteSet) {
         // 等待直到任务执行完毕，等待前面的其他文件写入数据库完毕
         wait4TPEDone();
+        // 记录之前各阶段的检查点
+        recordPendingStages();
 
         // 写入数据库，方法调用关系相关类
         WriteDbHandler4MethodCall writeDbHandler4MethodCall = new WriteDbHandler4MethodCall();
         initWriteDbHandler(writeDbHandler4MethodCall);
-        writeDbHandler4MethodCall.setSpringControllerMethodHashSet(springControllerMethodHashSet);
-        writeDbHandler4MethodCall.setWithAnnotationMethodHashSet(withAnnotationMethodHashSet);
-        writeDbHandler4MethodCall.setWithInfoCallIdSet(withInfoCallIdSet);
-        writeDbHandler4MethodCall.setWithGenericsTypeMethodHash(withGenericsTypeMethodHash);
+        writeDbHandler4MethodCall.setMethodHashFlags(methodHashFlags);
+        writeDbHandler4MethodCall.setWithInfoCallIdBitSet(withInfoCallIdBitSet);
         writeDbHandler4MethodCall.setMyBatisMapperSet(myBatisMapperSet);
         writeDbHandler4MethodCall.setMyBatisMapperMethodWriteSet(myBatisMapperMethodWriteSet);
         if (!writeDbHandler4MethodCall.handle(javaCGOutputInfo)) {
@@ -607,6 +892,22 @@ public class RunnerWriteDb extends RunnerWriteCallGraphFile {
         return true;
     }
 
+    // 生成方法调用统计信息，用于生成调用链时按预估开销对任务排序
+    private boolean handleMethodStats() {
+        MethodStatsHandler methodStatsHandler = new MethodStatsHandler(dbOperWrapper);
+        return methodStatsHandler.genMethodStats(dbInsertBatchSize);
+    }
+
+    // 生成方法字节码HASH
+    private boolean handleMethodCodeHash() {
+        MethodCodeHashHandler methodCodeHashHandler = new MethodCodeHashHandler(dbOperWrapper);
+        return methodCodeHashHandler.genMethodCodeHash(allowedClassPrefixSet, dbInsertBatchSize);
+    }
+
+    private H2MemDbHandler genH2MemDbHandler() {
+        return new H2MemDbHandler(dbOperWrapper, configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH));
+    }
+
     // 显示H2数据库JDBC URL
     private void printH2JdbcUrl() {
         String h2DbFilePath = JACGFileUtil.getCanonicalPath(getH2DbFile());
@@ -8,7 +8,9 @@ import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.jacg.dboper.DbOperWrapper;
 import com.adrninistrator.jacg.dboper.DbOperator;
 import com.adrninistrator.jacg.handler.extends_impl.JACGExtendsImplHandler;
+import com.adrninistrator.jacg.perf.JACGPerfRecorder;
 import com.adrninistrator.jacg.thread.ThreadFactory4TPE;
+import com.adrninistrator.jacg.thread.VirtualThreadSupport;
 import com.adrninistrator.jacg.util.JACGFileUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
 import com.adrninistrator.javacg.util.JavaCGUtil;
@@ -23,9 +25,13 @@ import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author adrninistrator
@@ -54,6 +60,12 @@ public abstract class AbstractRunner {
 
     protected ThreadPoolExecutor threadPoolExecutor;
 
+    // 使用虚拟线程时的任务执行器，每个任务使用一个虚拟线程执行，使用虚拟线程时threadPoolExecutor为null
+    private ExecutorService virtualThreadExecutor;
+
+    // 使用虚拟线程时，已提交且未执行完毕的任务数量
+    private final AtomicInteger virtualTaskNum = new AtomicInteger(0);
+
     // 任务执行失败标志
     protected boolean someTaskFail = false;
 
@@ -68,6 +80,9 @@ public abstract class AbstractRunner {
 
     protected final String currentSimpleClassName = this.getClass().getSimpleName();
 
+    // 性能数据记录对象
+    protected final JACGPerfRecorder perfRecorder = new JACGPerfRecorder(currentSimpleClassName);
+
     /**
      * 入口方法
      *
@@ -113,7 +128,7 @@ public abstract class AbstractRunner {
                 // 需要操作数据库时执行的操作
                 appName = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_APP_NAME);
                 // 完成需要使用的基础配置的初始化
-                dbOperWrapper = DbOperWrapper.genInstance(configureWrapper, currentSimpleClassName);
+                dbOperWrapper = DbOperWrapper.genInstance(configureWrapper, currentSimpleClassName, useH2MemDb());
                 dbOperator = dbOperWrapper.getDbOperator();
                 jacgExtendsImplHandler = new JACGExtendsImplHandler(dbOperWrapper);
             }
@@ -156,13 +171,22 @@ public abstract class AbstractRunner {
             }
 
             // 预处理
-            if (!preHandle()) {
+            if (!runStage("preHandle", this::preHandle)) {
                 logger.error("{} 预处理失败", currentSimpleClassName);
                 return false;
             }
 
             // 执行处理
-            handle();
+            runStage("handle", () -> {
+                handle();
+                return !someTaskFail;
+            });
+
+            // 执行处理完毕后的收尾操作，需要在确定执行结果之前执行
+            if (!afterHandle()) {
+                // 记录执行失败的任务信息
+                recordTaskFail();
+            }
 
             if (someTaskFail) {
                 logger.error("{} 执行失败", currentSimpleClassName);
@@ -177,11 +201,40 @@ public abstract class AbstractRunner {
             logger.error("error {} ", currentSimpleClassName, e);
             return false;
         } finally {
+            // 生成性能报告，需要在关闭数据源之前执行
+            writePerfReport();
             // 结束前的处理，需要确保能执行到，在其中会关闭数据源
             beforeExit();
         }
     }
 
+    /**
+     * 执行一个阶段的处理，并记录耗时
+     *
+     * @param stageName 阶段名称
+     * @param stage     阶段的处理
+     * @return true: 成功；false: 失败
+     */
+    protected boolean runStage(String stageName, BooleanSupplier stage) {
+        long startTime = System.currentTimeMillis();
+        boolean success = false;
+        try {
+            success = stage.getAsBoolean();
+            return success;
+        } finally {
+            perfRecorder.recordStage(stageName, startTime, success);
+        }
+    }
+
+    // 生成性能报告，保存在当前的输出目录中
+    protected void writePerfReport() {
+        if (currentOutputDirPath == null) {
+            perfRecorder.stopSampleThreadPool();
+            return;
+        }
+        perfRecorder.writeReport(currentOutputDirPath, dbOperator);
+    }
+
     /**
      * 预检查
      *
@@ -204,15 +257,37 @@ public abstract class AbstractRunner {
         return true;
     }
 
+    /**
+     * 执行处理完毕后的收尾操作，在确定执行结果之前执行，失败时本次执行失败
+     * 抛出异常等情况下可能不会执行，需要确保释放的资源在beforeExit()中也要处理
+     *
+     * @return true: 成功；false: 失败
+     */
+    protected boolean afterHandle() {
+        // 关闭方法调用关系存储，有修改时保存，beforeExit()中再次关闭时不会重复保存
+        if (dbOperWrapper != null && !dbOperWrapper.getStorage().close()) {
+            logger.error("关闭方法调用关系存储失败");
+            return false;
+        }
+        return true;
+    }
+
     // 结束前的处理
     protected void beforeExit() {
         if (dbOperator != null) {
+            // 关闭方法调用关系存储，有修改时保存
+            if (!dbOperWrapper.getStorage().close()) {
+                recordTaskFail();
+            }
             dbOperator.closeDs();
         }
 
         if (threadPoolExecutor != null) {
             threadPoolExecutor.shutdown();
         }
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
 
         if (someTaskFail) {
             logger.error("{} 有任务执行失败，请检查\n{}", currentSimpleClassName, StringUtils.join(failTaskList, "\n"));
@@ -234,16 +309,73 @@ public abstract class AbstractRunner {
             configureWrapper.setMainConfig(ConfigKeyEnum.CKE_THREAD_NUM, String.valueOf(taskNum));
         }
 
+        if (configureWrapper.getMainConfig(ConfigKeyEnum.CKE_THREAD_USE_VIRTUAL)) {
+            if (VirtualThreadSupport.isSupported()) {
+                // 使用虚拟线程
+                createVirtualThreadExecutor(threadNum);
+                return;
+            }
+            logger.warn("{} 当前Java版本不支持虚拟线程，使用普通线程 {}", currentSimpleClassName, System.getProperty("java.version"));
+        }
+
         // 任务队列最大长度，设置为线程数2倍
         taskQueueMaxSize = threadNum * 2;
         threadPoolExecutor = new ThreadPoolExecutor(threadNum, threadNum, 10L, TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(taskQueueMaxSize), new ThreadFactory4TPE(JACGConstants.THREAD_NAME_PREFIX_WORKER));
+        // 对线程池的使用情况进行采样
+        perfRecorder.startSampleThreadPool(threadPoolExecutor);
+    }
+
+    /**
+     * 创建每个任务使用一个虚拟线程的执行器，阻塞在数据库操作上的任务不再占用平台线程
+     * 不限制虚拟线程数量及任务数量，同时执行数据库操作的数量由配置文件中的线程数（与数据源连接池数量一致）限制
+     *
+     * @param dbPermitNum 允许同时执行数据库操作的数量
+     */
+    private void createVirtualThreadExecutor(int dbPermitNum) {
+        logger.info("{} 使用虚拟线程，同时执行数据库操作的数量 {}", currentSimpleClassName, dbPermitNum);
+        if (dbOperator != null) {
+            dbOperator.limitDbConcurrency(dbPermitNum);
+        }
+        virtualThreadExecutor = VirtualThreadSupport.genExecutor(JACGConstants.THREAD_NAME_PREFIX_VIRTUAL_WORKER);
+    }
+
+    /**
+     * 提交任务
+     * 使用线程池时，在任务队列已满时等待；使用虚拟线程时直接提交
+     *
+     * @param task
+     */
+    protected void executeTask(Runnable task) {
+        if (virtualThreadExecutor == null) {
+            JACGUtil.wait4TPEExecute(threadPoolExecutor, taskQueueMaxSize);
+            threadPoolExecutor.execute(task);
+            return;
+        }
+
+        virtualTaskNum.incrementAndGet();
+        try {
+            virtualThreadExecutor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    virtualTaskNum.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualTaskNum.decrementAndGet();
+            throw e;
+        }
     }
 
     // 等待直到任务执行完毕
     protected void wait4TPEDone() {
         while (true) {
-            if (threadPoolExecutor.getActiveCount() == 0 && threadPoolExecutor.getQueue().isEmpty()) {
+            if (virtualThreadExecutor != null) {
+                if (virtualTaskNum.get() == 0) {
+                    return;
+                }
+            } else if (threadPoolExecutor.getActiveCount() == 0 && threadPoolExecutor.getQueue().isEmpty()) {
                 return;
             }
             logger.debug("{} wait4TPEDone ...", currentSimpleClassName);
@@ -251,6 +383,15 @@ public abstract class AbstractRunner {
         }
     }
 
+    /**
+     * 是否使用了虚拟线程执行任务
+     *
+     * @return
+     */
+    public boolean isUseVirtualThread() {
+        return virtualThreadExecutor != null;
+    }
+
     // 获取H2数据库文件对象
     protected File getH2DbFile() {
         return new File(configureWrapper.getMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH) + JACGConstants.H2_FILE_EXT);
@@ -316,6 +457,15 @@ public abstract class AbstractRunner {
         }
     }
 
+    /**
+     * 使用H2数据库时，是否使用H2内存数据库，在初始化数据库操作对象时调用
+     *
+     * @return true: 使用H2内存数据库 false: 使用H2数据库文件
+     */
+    protected boolean useH2MemDb() {
+        return false;
+    }
+
     /**
      * 是否需要操作数据库
      *
@@ -10,6 +10,7 @@ import com.adrninistrator.jacg.common.enums.DefaultBusinessDataTypeEnum;
 import com.adrninistrator.jacg.common.enums.MethodCallFlagsEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
 import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
 import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
 import com.adrninistrator.jacg.dto.annotation.BaseAnnotationAttribute;
@@ -20,14 +21,21 @@ import com.adrninistrator.jacg.dto.write_db.WriteDbData4JarInfo;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4LambdaMethodInfo;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
 import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodLineNumber;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodStats;
 import com.adrninistrator.jacg.handler.annotation.AnnotationHandler;
+import com.adrninistrator.jacg.handler.call_graph.CallGraphIgnoreRule;
+import com.adrninistrator.jacg.handler.call_graph.ChildMethodReplaceHandler;
+import com.adrninistrator.jacg.handler.checkpoint.GenCallGraphManifestHandler;
+import com.adrninistrator.jacg.handler.checkpoint.WriteDbCheckpointHandler;
 import com.adrninistrator.jacg.handler.dto.business_data.BaseBusinessData;
 import com.adrninistrator.jacg.handler.dto.method_arg_generics_type.MethodArgGenericsTypeInfo;
 import com.adrninistrator.jacg.handler.method.MethodArgGenericsTypeHandler;
 import com.adrninistrator.jacg.handler.method.MethodCallInfoHandler;
+import com.adrninistrator.jacg.handler.method.MethodStatsHandler;
 import com.adrninistrator.jacg.handler.mybatis.MyBatisMapperHandler;
 import com.adrninistrator.jacg.markdown.enums.MDCodeBlockTypeEnum;
 import com.adrninistrator.jacg.markdown.writer.MarkdownWriter;
+import com.adrninistrator.jacg.perf.TaskQueryCounter;
 import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
 import com.adrninistrator.jacg.runner.RunnerWriteDb;
 import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
@@ -36,6 +44,7 @@ import com.adrninistrator.jacg.util.JACGFileUtil;
 import com.adrninistrator.jacg.util.JACGJsonUtil;
 import com.adrninistrator.jacg.util.JACGSqlUtil;
 import com.adrninistrator.jacg.util.JACGUtil;
+import com.adrninistrator.jacg.writer.AsyncOutputDirWriter;
 import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
 import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.common.enums.JavaCGCallTypeEnum;
@@ -47,6 +56,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -55,7 +65,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
 
 /**
  * @author adrninistrator
@@ -78,17 +90,11 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
      */
     protected Map<String, String> simpleClassNameMap = new HashMap<>();
 
-    // 当方法调用类型在以下Set中时，生成方法完整调用链时忽略
-    protected Set<String> ignoreCallTypeSet;
+    // 生成方法完整调用链时需要忽略的方法的规则
+    protected CallGraphIgnoreRule callGraphIgnoreRule;
 
-    // 当类名包含以下关键字时，生成方法完整调用链时忽略
-    protected Set<String> ignoreClassKeywordSet;
-
-    // 完整方法（类名+方法名+参数）为以下前缀时，生成方法完整调用链时忽略
-    protected Set<String> ignoreFullMethodPrefixSet;
-
-    // 当方法名为以下前缀时，生成方法完整调用链时忽略
-    protected Set<String> ignoreMethodPrefixSet;
+    // 生成方法完整调用链时，将父类方法替换为子类方法的处理类
+    protected ChildMethodReplaceHandler childMethodReplaceHandler;
 
     // 需要显示的业务功能数据类型，Set格式
     protected Set<String> businessDataTypeSet;
@@ -154,9 +160,44 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
     // 输出结果展示详细程度枚举
     protected OutputDetailEnum outputDetailEnum;
 
+    // 当前输出目录对应的异步写文件处理类
+    protected AsyncOutputDirWriter outputDirWriter;
+
+    // 生成的调用链文件的压缩方式
+    protected OutputCompressTypeEnum outputCompressTypeEnum;
+
+    // 每个任务的数据库查询次数与生成的调用链行数的比例阈值，为0时不检查
+    protected int taskQueryRatioThreshold;
+
+    // 每个任务允许执行的最大数据库查询次数，为0时不限制
+    protected int taskQueryBudget;
+
+    // 是否按照预估开销从大到小的顺序执行任务
+    protected boolean taskOrderByCost;
+
+    // 方法调用统计信息处理类
+    protected MethodStatsHandler methodStatsHandler;
+
+    // 类对应的方法调用统计信息，key: 唯一类名，只在提交任务的线程中使用
+    private final Map<String, List<WriteDbData4MethodStats>> methodStatsCacheMap = new HashMap<>();
+
+    // 是否根据输出目录中的清单文件恢复执行
+    protected boolean genCallGraphResume;
+
+    // 生成调用链清单处理类，未初始化时为null
+    protected GenCallGraphManifestHandler genCallGraphManifestHandler;
+
     // 公共预处理
     protected boolean commonPreHandle() {
         outputDetailEnum = OutputDetailEnum.getFromDetail(configureWrapper.getMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_OUTPUT_DETAIL));
+        taskQueryRatioThreshold = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_TASK_QUERY_RATIO_THRESHOLD);
+        taskQueryBudget = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_TASK_QUERY_BUDGET);
+        outputCompressTypeEnum = OutputCompressTypeEnum.getFromType(configureWrapper.getMainConfig(ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE));
+        taskOrderByCost = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_TASK_ORDER_BY_COST);
+        genCallGraphResume = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_GEN_CALL_GRAPH_RESUME);
+        if (taskOrderByCost) {
+            methodStatsHandler = new MethodStatsHandler(dbOperWrapper);
+        }
 
         // 从数据库查询数据需要在以上检查H2数据库文件之后
         if (!dbOperWrapper.findDuplicateClass()) {
@@ -188,32 +229,236 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
         return true;
     }
 
-    // 初始化保存类及方法上的注解信息
-    protected void initAnnotationStorage() {
-        annotationHandler = new AnnotationHandler(dbOperWrapper);
+    /**
+     * 开始记录当前线程执行的任务的数据库查询次数
+     *
+     * @param taskDesc 任务描述
+     */
+    protected void startTaskQueryCount(String taskDesc) {
+        startTaskQueryCount(taskDesc, -1L);
     }
 
-    // 获取生成方法完整调用链时需要忽略的信息
-    protected boolean initIgnoreInfo() {
-        ignoreCallTypeSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_CALL_TYPE, true);
-        if (ignoreCallTypeSet == null) {
+    /**
+     * 开始记录当前线程执行的任务的数据库查询次数，并记录任务的预估开销
+     *
+     * @param taskDesc      任务描述
+     * @param predictedCost 任务的预估开销，小于0代表未预估
+     */
+    protected void startTaskQueryCount(String taskDesc, long predictedCost) {
+        TaskQueryCounter taskQueryCounter = dbOperator.startTaskQueryCount(taskDesc, taskQueryBudget);
+        taskQueryCounter.setPredictedCost(predictedCost);
+    }
+
+    /**
+     * 获取指定类的方法调用统计信息，查询结果会缓存
+     *
+     * @param simpleClassName 唯一类名
+     * @return 查询失败或不存在时返回空列表
+     */
+    protected List<WriteDbData4MethodStats> getMethodStatsOfClass(String simpleClassName) {
+        List<WriteDbData4MethodStats> methodStatsList = methodStatsCacheMap.get(simpleClassName);
+        if (methodStatsList == null) {
+            methodStatsList = methodStatsHandler.queryMethodStatsByClass(simpleClassName);
+            if (methodStatsList == null) {
+                methodStatsList = Collections.emptyList();
+            }
+            methodStatsCacheMap.put(simpleClassName, methodStatsList);
+        }
+        return methodStatsList;
+    }
+
+    /**
+     * 按预估开销从大到小对任务排序，预估开销相同时保持原有顺序
+     *
+     * @param taskList     任务列表
+     * @param costFunction 获取任务预估开销的方法
+     * @param <T>
+     */
+    protected <T> void sortTaskByCost(List<T> taskList, ToLongFunction<T> costFunction) {
+        taskList.sort((o1, o2) -> Long.compare(costFunction.applyAsLong(o2), costFunction.applyAsLong(o1)));
+        if (logger.isDebugEnabled()) {
+            for (T task : taskList) {
+                logger.debug("按预估开销排序后的任务 {} {}", costFunction.applyAsLong(task), JACGJsonUtil.getJsonStr(task));
+            }
+        }
+    }
+
+    // 结束记录当前线程执行的任务的数据库查询次数，并记录到性能报告中
+    protected void endTaskQueryCount() {
+        TaskQueryCounter taskQueryCounter = dbOperator.endTaskQueryCount();
+        if (taskQueryCounter != null) {
+            perfRecorder.recordTaskQuery(taskQueryCounter, taskQueryRatioThreshold, dbOperator);
+        }
+    }
+
+    /**
+     * 生成写输出文件的Writer，数据由输出目录对应的写文件线程异步写入
+     *
+     * @param filePath 文件路径
+     * @return
+     */
+    protected Writer genOutputWriter(String filePath) {
+        return outputDirWriter.genWriter(filePath);
+    }
+
+    /**
+     * 生成写调用链文件的Writer，按配置的方式压缩
+     *
+     * @param filePath 文件路径，需要包含压缩后缀
+     * @return
+     */
+    protected Writer genCallGraphWriter(String filePath) {
+        return outputDirWriter.genWriter(filePath, outputCompressTypeEnum);
+    }
+
+    /**
+     * 等待直到输出文件写入完毕，在需要读取输出文件前调用
+     *
+     * @return true: 写文件均成功，false: 有写文件失败
+     */
+    protected boolean waitOutputWriteDone() {
+        if (outputDirWriter == null) {
+            return true;
+        }
+        if (!outputDirWriter.waitDone()) {
+            logger.error("有输出文件写入失败，请检查 {}", currentOutputDirPath);
             return false;
         }
+        return true;
+    }
+
+    /**
+     * 初始化生成调用链清单，需要在创建输出目录之后执行，未指定恢复执行时不处理
+     *
+     * @return
+     */
+    protected boolean initGenCallGraphManifest() {
+        if (!genCallGraphResume) {
+            return true;
+        }
+        genCallGraphManifestHandler = new GenCallGraphManifestHandler(dbOperWrapper);
+        return genCallGraphManifestHandler.init(currentOutputDirPath, outputDirWriter, genCallGraphConfigHash());
+    }
+
+    /**
+     * 判断上一次执行时生成指定调用链文件的任务是否已完成
+     *
+     * @param outputFilePath 调用链文件路径
+     * @return
+     */
+    protected boolean isGenTaskDone(String outputFilePath) {
+        return genCallGraphManifestHandler != null && genCallGraphManifestHandler.isTaskDone(outputFilePath);
+    }
+
+    /**
+     * 记录生成指定调用链文件的任务已完成，需要在调用链文件的Writer关闭之后调用
+     *
+     * @param outputFilePath 调用链文件路径
+     */
+    protected void recordGenTaskDone(String outputFilePath) {
+        if (genCallGraphManifestHandler != null) {
+            genCallGraphManifestHandler.recordTaskDone(outputFilePath);
+        }
+    }
+
+    // 生成影响调用链文件内容的配置参数HASH，需要在初始化忽略信息、注解处理类及业务功能数据类型之后执行
+    private String genCallGraphConfigHash() {
+        List<String> configList = new ArrayList<>();
+        configList.add(this.getClass().getName());
+        for (ConfigKeyEnum configKeyEnum : new ConfigKeyEnum[]{
+                ConfigKeyEnum.CKE_CALL_GRAPH_OUTPUT_DETAIL,
+                ConfigKeyEnum.CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER,
+                ConfigKeyEnum.CKE_TASK_QUERY_BUDGET,
+                ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE,
+                ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY,
+                ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF}) {
+            configList.add(configKeyEnum.getKey() + JavaCGConstants.FLAG_EQUAL + configureWrapper.getMainConfig(configKeyEnum, false));
+        }
+        // Set中的元素排序后使用
+        configList.add(new TreeSet<>(callGraphIgnoreRule.getIgnoreCallTypeSet()).toString());
+        configList.add(new TreeSet<>(callGraphIgnoreRule.getIgnoreClassKeywordSet()).toString());
+        configList.add(new TreeSet<>(callGraphIgnoreRule.getIgnoreFullMethodPrefixSet()).toString());
+        configList.add(new TreeSet<>(callGraphIgnoreRule.getIgnoreMethodPrefixSet()).toString());
+        configList.add(new TreeSet<>(businessDataTypeSet).toString());
+        for (AbstractAnnotationFormatter annotationFormatter : annotationFormatterList) {
+            configList.add(annotationFormatter.getClass().getName());
+        }
+        return WriteDbCheckpointHandler.genStringsHash(configList);
+    }
+
+    @Override
+    protected boolean afterHandle() {
+        boolean success = super.afterHandle();
+        // 结束写文件线程，有输出文件写入失败时本次执行失败
+        if (!closeOutputDirWriter()) {
+            success = false;
+        }
+        return success;
+    }
 
-        ignoreClassKeywordSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_CLASS_KEYWORD, true);
-        if (ignoreClassKeywordSet == null) {
+    @Override
+    protected void beforeExit() {
+        // 未执行afterHandle()时，在这里结束写文件线程
+        if (!closeOutputDirWriter()) {
+            recordTaskFail();
+        }
+        super.beforeExit();
+    }
+
+    /**
+     * 等待输出文件写入完毕后结束写文件线程，之后不能再写输出文件
+     *
+     * @return true: 写文件均成功，或写文件线程已结束，false: 有写文件失败
+     */
+    private boolean closeOutputDirWriter() {
+        if (genCallGraphManifestHandler != null) {
+            // 清单文件由写文件线程关闭，需要在结束写文件线程之前执行
+            genCallGraphManifestHandler.close();
+            genCallGraphManifestHandler = null;
+        }
+        if (outputDirWriter == null) {
+            return true;
+        }
+        outputDirWriter.close();
+        boolean fail = outputDirWriter.isFail();
+        outputDirWriter = null;
+        if (fail) {
+            logger.error("有输出文件写入失败，请检查 {}", currentOutputDirPath);
             return false;
         }
+        return true;
+    }
 
-        ignoreFullMethodPrefixSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_FULL_METHOD_PREFIX, true);
-        if (ignoreFullMethodPrefixSet == null) {
+    /**
+     * 检查当前任务的数据库查询次数是否超过限制
+     *
+     * @param taskQueryCounter 可为null
+     * @param entryFullMethod  入口方法
+     * @return true: 超过限制，需要截断当前任务的调用链 false: 未超过限制
+     */
+    protected boolean checkTaskQueryOverBudget(TaskQueryCounter taskQueryCounter, String entryFullMethod) {
+        if (taskQueryCounter == null || !taskQueryCounter.isOverBudget()) {
             return false;
         }
 
-        ignoreMethodPrefixSet = configureWrapper.getOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_METHOD_PREFIX, true);
-        if (ignoreMethodPrefixSet == null) {
+        taskQueryCounter.setTruncated(true);
+        logger.error("当前任务的数据库查询次数 {} 超过限制，截断调用链 {}\n若需要生成完整的调用链，可修改配置文件 {} 中的参数 {}", taskQueryCounter.getQueryNum(), entryFullMethod,
+                ConfigKeyEnum.CKE_TASK_QUERY_BUDGET.getFileName(), ConfigKeyEnum.CKE_TASK_QUERY_BUDGET.getKey());
+        return true;
+    }
+
+    // 初始化保存类及方法上的注解信息
+    protected void initAnnotationStorage() {
+        annotationHandler = new AnnotationHandler(dbOperWrapper);
+    }
+
+    // 获取生成方法完整调用链时需要忽略的信息，以及将父类方法替换为子类方法的处理类
+    protected boolean initIgnoreInfo() {
+        callGraphIgnoreRule = CallGraphIgnoreRule.genInstance(configureWrapper);
+        if (callGraphIgnoreRule == null) {
             return false;
         }
+        childMethodReplaceHandler = new ChildMethodReplaceHandler(dbOperWrapper, jacgExtendsImplHandler);
         return true;
     }
 
@@ -319,6 +564,10 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
                     return false;
                 }
                 outputDirPrefix += outputSubDirNameInProperties;
+            } else if (genCallGraphResume) {
+                logger.error("恢复执行时需要指定与上一次执行时相同的子目录名 {} {}", ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME.getFileName(),
+                        ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME.getKey());
+                return false;
             } else {
                 // 使用当前时间作为子目录名
                 outputDirPrefix += JavaCGUtil.currentTime();
@@ -328,7 +577,7 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
             currentOutputDirPath = currentOutputDir.getAbsolutePath();
             logger.info("创建保存输出文件的目录 {}", currentOutputDirPath);
 
-            if (StringUtils.isNotBlank(outputSubDirNameInProperties) && currentOutputDir.exists()) {
+            if (StringUtils.isNotBlank(outputSubDirNameInProperties) && currentOutputDir.exists() && !genCallGraphResume) {
                 logger.error("指定的输出目录已存在，若确实需要在该目录中输出，请先删除该目录\n{} {} {}\n{}", ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME.getFileName(),
                         ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME.getKey(), outputSubDirNameInProperties, currentOutputDirPath);
                 return false;
@@ -340,6 +589,9 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
             }
         }
 
+        // 创建当前输出目录对应的异步写文件处理类
+        outputDirWriter = new AsyncOutputDirWriter(currentOutputDirPath);
+
         // 打印当前使用的配置信息
         printAllConfigInfo();
         return true;
@@ -464,7 +716,7 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
         }
 
         logger.info("{} 存在一对多的方法调用，打印相关信息 {}", callTypeEnum, filePath);
-        try (MarkdownWriter markdownWriter = new MarkdownWriter(filePath, true)) {
+        try (MarkdownWriter markdownWriter = new MarkdownWriter(genOutputWriter(filePath), true)) {
             markdownWriter.addTitle(1, "说明");
 
             if (JavaCGCallTypeEnum.CTE_INTERFACE_CALL_IMPL_CLASS == callTypeEnum) {
@@ -536,7 +788,7 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
 
         logger.info("{} 存在被禁用的方法调用，打印相关信息 {}", callTypeEnum, filePath);
 
-        try (MarkdownWriter markdownWriter = new MarkdownWriter(filePath, true)) {
+        try (MarkdownWriter markdownWriter = new MarkdownWriter(genOutputWriter(filePath), true)) {
             markdownWriter.addTitle(1, "说明");
 
             if (JavaCGCallTypeEnum.CTE_INTERFACE_CALL_IMPL_CLASS == callTypeEnum) {
@@ -954,70 +1206,6 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
         return callFlags;
     }
 
-    /**
-     * 判断方法调用类型是否需要忽略
-     *
-     * @param callType 方法调用类型
-     * @return true: 忽略，false: 需要处理
-     */
-    protected boolean isIgnoredCallType(String callType) {
-        return ignoreCallTypeSet.contains(callType);
-    }
-
-    /**
-     * 根据前缀判断完整方法（类名+方法名+参数）是否需要忽略
-     *
-     * @param fullMethod 完整方法（类名+方法名+参数）
-     * @return true: 忽略，false: 需要处理
-     */
-    protected boolean isIgnoredFullMethodWithPrefixByFullMethod(String fullMethod) {
-        for (String ignoreFullMethodPrefix : ignoreFullMethodPrefixSet) {
-            if (fullMethod.startsWith(ignoreFullMethodPrefix)) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("忽略完整方法使用该前缀的方法 {} {}", ignoreFullMethodPrefix, fullMethod);
-                }
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * 根据前缀判断方法名是否需要忽略
-     *
-     * @param methodName 方法名
-     * @return true: 忽略，false: 需要处理
-     */
-    protected boolean isIgnoredMethodWithPrefixByMethodName(String methodName) {
-        for (String ignoreMethodPrefix : ignoreMethodPrefixSet) {
-            if (methodName.startsWith(ignoreMethodPrefix)) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("忽略方法名使用该前缀的方法 {} {}", ignoreMethodPrefix, methodName);
-                }
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * 根据关键字判断类名是否需要忽略
-     *
-     * @param className 完整类名
-     * @return true: 忽略，false: 需要处理
-     */
-    protected boolean isIgnoredClassWithKeywordByClass(String className) {
-        for (String ignoreClassKeyword : ignoreClassKeywordSet) {
-            if (className.contains(ignoreClassKeyword)) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("忽略类名包含该关键字的方法 {} {}", ignoreClassKeyword, className);
-                }
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * 判断当前找到的方法是否需要忽略
      *
@@ -1026,40 +1214,7 @@ public abstract class AbstractRunnerGenCallGraph extends AbstractRunner {
      * @return false: 不忽略 true: 忽略
      */
     protected boolean ignoreCurrentMethod(String callType, String fullMethod) {
-        // 判断方法调用类型是否需要忽略
-        if (isIgnoredCallType(callType)) {
-            return true;
-        }
-
-        String className = JACGClassMethodUtil.getClassNameFromMethod(fullMethod);
-        // 根据关键字判断类名是否需要忽略
-        if (isIgnoredClassWithKeywordByClass(className)) {
-            return true;
-        }
-
-        // 根据前缀判断完整方法（类名+方法名+参数）是否需要忽略
-        if (isIgnoredFullMethodWithPrefixByFullMethod(fullMethod)) {
-            return true;
-        }
-
-        String methodNameWithArgs = JACGClassMethodUtil.getMethodNameWithArgsFromFull(fullMethod);
-        /*
-            根据方法名前缀判断是否需要忽略，使用包含参数的方法名进行比较
-            若当前调用类型为Runnable/Callable实现类子类构造函数调用run()方法，或其他类似情况，则不判断方法名前缀是否需要忽略（<init> -> run()，可能会被指定为忽略）
-         */
-        if (!StringUtils.equalsAny(callType,
-                JavaCGCallTypeEnum.CTE_RUNNABLE_INIT_RUN1.getType(),
-                JavaCGCallTypeEnum.CTE_RUNNABLE_INIT_RUN2.getType(),
-                JavaCGCallTypeEnum.CTE_CALLABLE_INIT_CALL1.getType(),
-                JavaCGCallTypeEnum.CTE_CALLABLE_INIT_CALL2.getType(),
-                JavaCGCallTypeEnum.CTE_TX_CALLBACK_INIT_CALL1.getType(),
-                JavaCGCallTypeEnum.CTE_TX_CALLBACK_INIT_CALL2.getType(),
-                JavaCGCallTypeEnum.CTE_TX_CALLBACK_WR_INIT_CALL1.getType(),
-                JavaCGCallTypeEnum.CTE_TX_CALLBACK_WR_INIT_CALL2.getType()
-        ) && isIgnoredMethodWithPrefixByMethodName(methodNameWithArgs)) {
-            return true;
-        }
-        return false;
+        return callGraphIgnoreRule.ignoreCurrentMethod(callType, fullMethod);
     }
 
     /**
@@ -0,0 +1,540 @@
+package com.adrninistrator.jacg.storage;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.common.enums.StorageTypeEnum;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import org.apache.commons.lang3.ArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 方法调用关系存储，使用本地文件及内存实现，适用于单机执行
+ * 写入时数据同时写入数据库，其他表及需要直接查询数据库表的功能不受影响
+ * 方法调用关系在内存中按调用方法、被调用方法建立有序索引，生成调用链时不需要查询数据库
+ * 关闭时将方法调用关系保存到本地文件，文件中的字符串按字典编码，其他进程生成调用链时从文件加载
+ * 本地文件中记录保存时的数据库内容版本，加载时与数据库中记录的版本不一致则不使用本地文件，改为从数据库分页加载
+ * 修改方法调用关系前先完成加载，再同时修改数据库与内存中的数据
+ */
+public class JACGEmbeddedKVStorage extends JACGSqlStorage {
+    private static final Logger logger = LoggerFactory.getLogger(JACGEmbeddedKVStorage.class);
+
+    // 文件标识
+    private static final int FILE_MAGIC = 0x4A414347;
+
+    // 文件格式版本
+    private static final int FILE_VERSION = 3;
+
+    private static final String[] METHOD_CALL_COLUMNS = DbTableInfoEnum.DTIE_METHOD_CALL.getColumns();
+    private static final int INDEX_CALL_ID = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALL_ID);
+    private static final int INDEX_CALL_TYPE = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALL_TYPE);
+    private static final int INDEX_ENABLED = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_ENABLED);
+    private static final int INDEX_CALLER_METHOD_HASH = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALLER_METHOD_HASH);
+    private static final int INDEX_CALLER_FULL_METHOD = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALLER_FULL_METHOD);
+    private static final int INDEX_CALLER_LINE_NUMBER = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALLER_LINE_NUMBER);
+    private static final int INDEX_CALLEE_METHOD_HASH = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALLEE_METHOD_HASH);
+    private static final int INDEX_CALLEE_FULL_METHOD = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALLEE_FULL_METHOD);
+    private static final int INDEX_CALL_FLAGS = ArrayUtils.indexOf(METHOD_CALL_COLUMNS, DC.MC_CALL_FLAGS);
+
+    // 调用方法索引中的排序：方法调用序号
+    private static final Comparator<WriteDbData4MethodCall> CALLER_COMPARATOR = Comparator.comparingInt(WriteDbData4MethodCall::getCallId);
+
+    // 被调用方法索引中的排序：调用方法HASH+长度、方法调用序号
+    private static final Comparator<WriteDbData4MethodCall> CALLEE_COMPARATOR = Comparator.comparing(WriteDbData4MethodCall::getCallerMethodHash)
+            .thenComparingInt(WriteDbData4MethodCall::getCallId);
+
+    // 保存方法调用关系的文件路径
+    private final String filePath;
+
+    // 方法调用关系，key: 方法调用序号
+    private final Map<Integer, WriteDbData4MethodCall> methodCallMap = new ConcurrentHashMap<>();
+
+    // 按调用方法建立的索引，key: 调用方法HASH+长度，value: 按方法调用序号升序排列的方法调用
+    private volatile Map<String, WriteDbData4MethodCall[]> callerIndexMap;
+
+    // 按被调用方法建立的索引，key: 被调用方法HASH+长度，value: 按调用方法HASH+长度升序排列的方法调用
+    private volatile Map<String, WriteDbData4MethodCall[]> calleeIndexMap;
+
+    // 方法调用关系是否已从本地文件或数据库完整加载
+    private volatile boolean loaded = false;
+
+    // 本地文件不可用，需要使用数据库查询
+    private volatile boolean useSql = false;
+
+    // 是否存在未保存到本地文件的修改
+    private volatile boolean dirty = false;
+
+    public JACGEmbeddedKVStorage(DbOperWrapper dbOperWrapper, String filePath) {
+        super(dbOperWrapper);
+        this.filePath = filePath;
+        logger.info("使用本地文件保存方法调用关系 {}", filePath);
+    }
+
+    @Override
+    public boolean writeBatch(DbTableInfoEnum dbTableInfoEnum, List<Object[]> objectList) {
+        // 写入方法调用前先完成加载
+        boolean useMemory = DbTableInfoEnum.DTIE_METHOD_CALL == dbTableInfoEnum && ensureLoaded();
+        if (!super.writeBatch(dbTableInfoEnum, objectList)) {
+            return false;
+        }
+        if (useMemory) {
+            for (Object[] arguments : objectList) {
+                addMethodCall(arguments);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean writeOne(DbTableInfoEnum dbTableInfoEnum, Object[] arguments) {
+        boolean useMemory = DbTableInfoEnum.DTIE_METHOD_CALL == dbTableInfoEnum && ensureLoaded();
+        if (!super.writeOne(dbTableInfoEnum, arguments)) {
+            return false;
+        }
+        if (useMemory) {
+            addMethodCall(arguments);
+        }
+        return true;
+    }
+
+    @Override
+    public WriteDbData4MethodCall queryMethodCallById(int methodCallId) {
+        if (!ensureLoaded()) {
+            return super.queryMethodCallById(methodCallId);
+        }
+        return methodCallMap.get(methodCallId);
+    }
+
+    @Override
+    public WriteDbData4MethodCall queryNextCallee(String callerMethodHash, int afterCallId, int lineNumStart, int lineNumEnd) {
+        if (!ensureLoaded()) {
+            return super.queryNextCallee(callerMethodHash, afterCallId, lineNumStart, lineNumEnd);
+        }
+
+        WriteDbData4MethodCall[] methodCalls = getCallerIndexMap().get(callerMethodHash);
+        if (methodCalls == null) {
+            return null;
+        }
+
+        // 二分查找第一个方法调用序号大于指定值的方法调用
+        int low = 0;
+        int high = methodCalls.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (methodCalls[mid].getCallId() <= afterCallId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        boolean useLineNum = lineNumStart != JACGConstants.LINE_NUM_NONE && lineNumEnd != JACGConstants.LINE_NUM_NONE;
+        for (int i = low; i < methodCalls.length; i++) {
+            WriteDbData4MethodCall methodCall = methodCalls[i];
+            if (!useLineNum || (methodCall.getCallerLineNumber() >= lineNumStart && methodCall.getCallerLineNumber() <= lineNumEnd)) {
+                return methodCall;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public WriteDbData4MethodCall queryNextCaller(String calleeMethodHash, String afterCallerMethodHash) {
+        if (!ensureLoaded()) {
+            return super.queryNextCaller(calleeMethodHash, afterCallerMethodHash);
+        }
+
+        WriteDbData4MethodCall[] methodCalls = getCalleeIndexMap().get(calleeMethodHash);
+        if (methodCalls == null) {
+            return null;
+        }
+        if (afterCallerMethodHash == null) {
+            return methodCalls[0];
+        }
+
+        // 二分查找第一个调用方法HASH+长度大于指定值的方法调用
+        int low = 0;
+        int high = methodCalls.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (methodCalls[mid].getCallerMethodHash().compareTo(afterCallerMethodHash) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < methodCalls.length ? methodCalls[low] : null;
+    }
+
+    @Override
+    public int updateMethodCallEnabled(int methodCallId, int enabled) {
+        boolean useMemory = ensureLoaded();
+        int row = super.updateMethodCallEnabled(methodCallId, enabled);
+        if (row > 0 && useMemory) {
+            WriteDbData4MethodCall methodCall = methodCallMap.get(methodCallId);
+            if (methodCall != null) {
+                methodCall.setEnabled(enabled);
+                dirty = true;
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public int updateMethodCallFlags(int methodCallId, int callFlags) {
+        boolean useMemory = ensureLoaded();
+        int row = super.updateMethodCallFlags(methodCallId, callFlags);
+        if (row > 0 && useMemory) {
+            WriteDbData4MethodCall methodCall = methodCallMap.get(methodCallId);
+            if (methodCall != null) {
+                methodCall.setCallFlags(callFlags);
+                dirty = true;
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public boolean updateMethodCallFlagsBatch(Map<Integer, Integer> callFlagsMap) {
+        boolean useMemory = !callFlagsMap.isEmpty() && ensureLoaded();
+        if (!super.updateMethodCallFlagsBatch(callFlagsMap)) {
+            return false;
+        }
+        if (useMemory) {
+            for (Map.Entry<Integer, Integer> entry : callFlagsMap.entrySet()) {
+                WriteDbData4MethodCall methodCall = methodCallMap.get(entry.getKey());
+                if (methodCall != null) {
+                    methodCall.setCallFlags(entry.getValue());
+                    dirty = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Integer deleteMethodCallByCallType(String callType) {
+        boolean useMemory = ensureLoaded();
+        Integer row = super.deleteMethodCallByCallType(callType);
+        if (row != null && row > 0 && useMemory) {
+            synchronized (this) {
+                methodCallMap.values().removeIf(methodCall -> callType.equals(methodCall.getCallType()));
+                // 删除数据后需要重新建立索引
+                callerIndexMap = null;
+                calleeIndexMap = null;
+                dirty = true;
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public boolean close() {
+        if (!dirty) {
+            return true;
+        }
+        if (saveFile()) {
+            dirty = false;
+            return true;
+        }
+        return false;
+    }
+
+    // 记录方法调用
+    private void addMethodCall(Object[] arguments) {
+        WriteDbData4MethodCall methodCall = new WriteDbData4MethodCall();
+        methodCall.setCallId((Integer) arguments[INDEX_CALL_ID]);
+        methodCall.setCallType((String) arguments[INDEX_CALL_TYPE]);
+        methodCall.setEnabled((Integer) arguments[INDEX_ENABLED]);
+        methodCall.setCallerMethodHash((String) arguments[INDEX_CALLER_METHOD_HASH]);
+        methodCall.setCallerFullMethod((String) arguments[INDEX_CALLER_FULL_METHOD]);
+        methodCall.setCallerLineNumber((Integer) arguments[INDEX_CALLER_LINE_NUMBER]);
+        methodCall.setCalleeMethodHash((String) arguments[INDEX_CALLEE_METHOD_HASH]);
+        methodCall.setCalleeFullMethod((String) arguments[INDEX_CALLEE_FULL_METHOD]);
+        methodCall.setCallFlags((Integer) arguments[INDEX_CALL_FLAGS]);
+        methodCallMap.put(methodCall.getCallId(), methodCall);
+
+        // 写入数据后需要重新建立索引
+        callerIndexMap = null;
+        calleeIndexMap = null;
+        dirty = true;
+    }
+
+    /**
+     * 确保方法调用关系已从本地文件加载，本地文件不可用时从数据库加载
+     *
+     * @return true: 可以使用内存查询，false: 需要使用数据库查询
+     */
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return true;
+        }
+        if (useSql) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (loaded) {
+                return true;
+            }
+            if (useSql) {
+                return false;
+            }
+            if (loadFile()) {
+                loaded = true;
+                return true;
+            }
+            if (loadFromDb()) {
+                loaded = true;
+                // 关闭时保存到本地文件
+                dirty = true;
+                return true;
+            }
+            logger.warn("方法调用关系加载失败，使用数据库查询 {}", filePath);
+            useSql = true;
+            return false;
+        }
+    }
+
+    // 获取按调用方法建立的索引
+    private Map<String, WriteDbData4MethodCall[]> getCallerIndexMap() {
+        Map<String, WriteDbData4MethodCall[]> indexMap = callerIndexMap;
+        if (indexMap == null) {
+            synchronized (this) {
+                indexMap = callerIndexMap;
+                if (indexMap == null) {
+                    indexMap = buildIndexMap(true);
+                    callerIndexMap = indexMap;
+                }
+            }
+        }
+        return indexMap;
+    }
+
+    // 获取按被调用方法建立的索引
+    private Map<String, WriteDbData4MethodCall[]> getCalleeIndexMap() {
+        Map<String, WriteDbData4MethodCall[]> indexMap = calleeIndexMap;
+        if (indexMap == null) {
+            synchronized (this) {
+                indexMap = calleeIndexMap;
+                if (indexMap == null) {
+                    indexMap = buildIndexMap(false);
+                    calleeIndexMap = indexMap;
+                }
+            }
+        }
+        return indexMap;
+    }
+
+    /**
+     * 建立索引
+     *
+     * @param byCaller true: 按调用方法建立，false: 按被调用方法建立
+     * @return
+     */
+    private Map<String, WriteDbData4MethodCall[]> buildIndexMap(boolean byCaller) {
+        Map<String, List<WriteDbData4MethodCall>> listMap = new HashMap<>();
+        for (WriteDbData4MethodCall methodCall : methodCallMap.values()) {
+            String key = byCaller ? methodCall.getCallerMethodHash() : methodCall.getCalleeMethodHash();
+            listMap.computeIfAbsent(key, k -> new ArrayList<>()).add(methodCall);
+        }
+
+        Comparator<WriteDbData4MethodCall> comparator = byCaller ? CALLER_COMPARATOR : CALLEE_COMPARATOR;
+        Map<String, WriteDbData4MethodCall[]> indexMap = new HashMap<>(listMap.size());
+        for (Map.Entry<String, List<WriteDbData4MethodCall>> entry : listMap.entrySet()) {
+            WriteDbData4MethodCall[] methodCalls = entry.getValue().toArray(new WriteDbData4MethodCall[0]);
+            Arrays.sort(methodCalls, comparator);
+            indexMap.put(entry.getKey(), methodCalls);
+        }
+        logger.info("建立方法调用关系索引 {} 方法数量 {}", byCaller ? "调用方法" : "被调用方法", indexMap.size());
+        return indexMap;
+    }
+
+    // 将方法调用关系保存到本地文件
+    private synchronized boolean saveFile() {
+        long startTime = System.currentTimeMillis();
+        // 生成字符串字典
+        Map<String, Integer> dictMap = new HashMap<>();
+        List<String> dictList = new ArrayList<>();
+        List<WriteDbData4MethodCall> methodCallList = new ArrayList<>(methodCallMap.values());
+        methodCallList.sort(CALLER_COMPARATOR);
+        for (WriteDbData4MethodCall methodCall : methodCallList) {
+            addDict(dictMap, dictList, methodCall.getCallType());
+            addDict(dictMap, dictList, methodCall.getCallerMethodHash());
+            addDict(dictMap, dictList, methodCall.getCallerFullMethod());
+            addDict(dictMap, dictList, methodCall.getCalleeMethodHash());
+            addDict(dictMap, dictList, methodCall.getCalleeFullMethod());
+        }
+        // 记录数据库内容版本，加载时与数据库中记录的版本比较
+        String dataVersion = dbOperWrapper.queryDataVersion();
+        if (dataVersion == null) {
+            logger.warn("数据库中未记录数据库内容版本，可能写数据库未完成，不保存方法调用关系到本地文件 {}", filePath);
+            return true;
+        }
+
+        File file = new File(filePath);
+        File tmpFile = new File(filePath + JACGConstants.EXT_TMP);
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            logger.error("创建目录失败 {}", dir.getAbsolutePath());
+            return false;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()), 1024 * 64))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeUTF(dataVersion);
+            out.writeInt(dictList.size());
+            for (String str : dictList) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(methodCallList.size());
+            for (WriteDbData4MethodCall methodCall : methodCallList) {
+                out.writeInt(methodCall.getCallId());
+                out.writeInt(dictMap.get(methodCall.getCallType()));
+                out.writeInt(methodCall.getEnabled());
+                out.writeInt(dictMap.get(methodCall.getCallerMethodHash()));
+                out.writeInt(dictMap.get(methodCall.getCallerFullMethod()));
+                out.writeInt(methodCall.getCallerLineNumber());
+                out.writeInt(dictMap.get(methodCall.getCalleeMethodHash()));
+                out.writeInt(dictMap.get(methodCall.getCalleeFullMethod()));
+                out.writeInt(methodCall.getCallFlags());
+            }
+        } catch (IOException e) {
+            logger.error("保存方法调用关系到本地文件失败 {} ", tmpFile.getAbsolutePath(), e);
+            return false;
+        }
+
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error("重命名文件失败 {} {} ", tmpFile.getAbsolutePath(), file.getAbsolutePath(), e);
+            return false;
+        }
+        logger.info("保存方法调用关系到本地文件 {} 数量 {} 耗时 {} 毫秒", file.getAbsolutePath(), methodCallList.size(), System.currentTimeMillis() - startTime);
+        return true;
+    }
+
+    // 记录字符串字典
+    private void addDict(Map<String, Integer> dictMap, List<String> dictList, String str) {
+        if (!dictMap.containsKey(str)) {
+            dictMap.put(str, dictList.size());
+            dictList.add(str);
+        }
+    }
+
+    // 从本地文件加载方法调用关系
+    private boolean loadFile() {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            logger.info("保存方法调用关系的本地文件不存在，从数据库加载，可使用 {} 方式执行写数据库操作生成该文件 {}", StorageTypeEnum.STE_EMBEDDED_KV.getType(),
+                    file.getAbsolutePath());
+            return false;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 1024 * 64))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                logger.error("保存方法调用关系的本地文件格式不匹配 {}", file.getAbsolutePath());
+                return false;
+            }
+
+            // 检查本地文件与数据库中记录的数据库内容版本是否一致
+            String dataVersion = in.readUTF();
+            String dbDataVersion = dbOperWrapper.queryDataVersion();
+            if (!dataVersion.equals(dbDataVersion)) {
+                logger.warn("保存方法调用关系的本地文件与数据库不一致，数据库内容版本 {} {}", dataVersion, dbDataVersion);
+                return false;
+            }
+
+            int dictSize = in.readInt();
+            String[] dict = new String[dictSize];
+            for (int i = 0; i < dictSize; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                dict[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int methodCallNum = in.readInt();
+            for (int i = 0; i < methodCallNum; i++) {
+                WriteDbData4MethodCall methodCall = new WriteDbData4MethodCall();
+                methodCall.setCallId(in.readInt());
+                methodCall.setCallType(dict[in.readInt()]);
+                methodCall.setEnabled(in.readInt());
+                methodCall.setCallerMethodHash(dict[in.readInt()]);
+                methodCall.setCallerFullMethod(dict[in.readInt()]);
+                methodCall.setCallerLineNumber(in.readInt());
+                methodCall.setCalleeMethodHash(dict[in.readInt()]);
+                methodCall.setCalleeFullMethod(dict[in.readInt()]);
+                methodCall.setCallFlags(in.readInt());
+                methodCallMap.put(methodCall.getCallId(), methodCall);
+            }
+            logger.info("从本地文件加载方法调用关系 {} 数量 {} 耗时 {} 毫秒", file.getAbsolutePath(), methodCallNum, System.currentTimeMillis() - startTime);
+            return true;
+        } catch (Exception e) {
+            logger.error("从本地文件加载方法调用关系失败 {} ", file.getAbsolutePath(), e);
+            methodCallMap.clear();
+            return false;
+        }
+    }
+
+    // 从数据库分页加载方法调用关系
+    private boolean loadFromDb() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_STORAGE_BY_PAGE;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + METHOD_CALL_COLUMNS +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALL_ID + " > ?" +
+                    " order by " + DC.MC_CALL_ID +
+                    " limit ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+
+        long startTime = System.currentTimeMillis();
+        methodCallMap.clear();
+        int startCallId = 0;
+        while (true) {
+            List<WriteDbData4MethodCall> methodCallList = dbOperator.queryList(sql, WriteDbData4MethodCall.class, startCallId, JACGConstants.DB_PAGE_HANDLE_SIZE);
+            if (methodCallList == null) {
+                methodCallMap.clear();
+                return false;
+            }
+            for (WriteDbData4MethodCall methodCall : methodCallList) {
+                methodCallMap.put(methodCall.getCallId(), methodCall);
+                startCallId = methodCall.getCallId();
+            }
+            if (methodCallList.size() < JACGConstants.DB_PAGE_HANDLE_SIZE) {
+                break;
+            }
+        }
+        callerIndexMap = null;
+        calleeIndexMap = null;
+        logger.info("从数据库加载方法调用关系 数量 {} 耗时 {} 毫秒", methodCallMap.size(), System.currentTimeMillis() - startTime);
+        return true;
+    }
+}
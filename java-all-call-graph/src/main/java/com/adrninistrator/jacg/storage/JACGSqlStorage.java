@@ -0,0 +1,231 @@
+package com.adrninistrator.jacg.storage;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.DbInsertMode;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.SqlKeyEnum;
+import com.adrninistrator.jacg.dboper.DbOperWrapper;
+import com.adrninistrator.jacg.dboper.DbOperator;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.util.JACGSqlUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 方法调用关系存储，使用数据库（H2或MySQL）实现
+ */
+public class JACGSqlStorage implements JACGStorage {
+
+    // 查询方法调用时使用的字段
+    protected static final String METHOD_CALL_COLUMNS = JACGSqlUtil.joinColumns(
+            DC.MC_CALL_ID,
+            DC.MC_CALL_TYPE,
+            DC.MC_ENABLED,
+            DC.MC_CALLER_METHOD_HASH,
+            DC.MC_CALLER_FULL_METHOD,
+            DC.MC_CALLER_LINE_NUMBER,
+            DC.MC_CALLEE_METHOD_HASH,
+            DC.MC_CALLEE_FULL_METHOD,
+            DC.MC_CALL_FLAGS
+    );
+
+    // 查询被调用关系时所需字段
+    private static final String CALLEE_COLUMNS = JACGSqlUtil.joinColumns(
+            DC.MC_CALL_ID,
+            DC.MC_CALL_TYPE,
+            DC.MC_ENABLED,
+            DC.MC_CALLEE_FULL_METHOD,
+            DC.MC_CALLEE_METHOD_HASH,
+            DC.MC_CALLER_LINE_NUMBER,
+            DC.MC_CALL_FLAGS
+    );
+
+    // 查询调用关系时所需字段
+    private static final String CALLER_COLUMNS = JACGSqlUtil.joinColumns(
+            DC.MC_CALL_ID,
+            DC.MC_CALL_TYPE,
+            DC.MC_ENABLED,
+            DC.MC_CALLER_METHOD_HASH,
+            DC.MC_CALLER_FULL_METHOD,
+            DC.MC_CALLER_LINE_NUMBER,
+            DC.MC_CALL_FLAGS
+    );
+
+    protected final DbOperWrapper dbOperWrapper;
+
+    protected final DbOperator dbOperator;
+
+    public JACGSqlStorage(DbOperWrapper dbOperWrapper) {
+        this.dbOperWrapper = dbOperWrapper;
+        this.dbOperator = dbOperWrapper.getDbOperator();
+    }
+
+    @Override
+    public boolean writeBatch(DbTableInfoEnum dbTableInfoEnum, List<Object[]> objectList) {
+        // 生成用于插入数据的sql语句
+        String sql = dbOperWrapper.genAndCacheInsertSql(dbTableInfoEnum, DbInsertMode.DIME_INSERT);
+        return dbOperator.batchInsert(sql, objectList);
+    }
+
+    @Override
+    public boolean writeOne(DbTableInfoEnum dbTableInfoEnum, Object[] arguments) {
+        String sql = dbOperWrapper.genAndCacheInsertSql(dbTableInfoEnum, DbInsertMode.DIME_INSERT);
+        return dbOperator.insert(sql, arguments) && dbOperWrapper.recordDataVersion();
+    }
+
+    @Override
+    public WriteDbData4MethodCall queryMethodCallById(int methodCallId) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_BY_ID;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + METHOD_CALL_COLUMNS +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALL_ID + " = ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, methodCallId);
+    }
+
+    @Override
+    public WriteDbData4MethodCall queryNextCallee(String callerMethodHash, int afterCallId, int lineNumStart, int lineNumEnd) {
+        // 判断查询时是否使用代码行号
+        boolean useLineNum = lineNumStart != JACGConstants.LINE_NUM_NONE && lineNumEnd != JACGConstants.LINE_NUM_NONE;
+        SqlKeyEnum sqlKeyEnum = useLineNum ? SqlKeyEnum.MC_QUERY_ONE_CALLEE_CHECK_LINE_NUM : SqlKeyEnum.MC_QUERY_ONE_CALLEE;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + CALLEE_COLUMNS +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALLER_METHOD_HASH + " = ?" +
+                    " and " + DC.MC_CALL_ID + " > ?";
+            if (useLineNum) {
+                sql = sql + " and " + DC.MC_CALLER_LINE_NUMBER + " >= ? and " + DC.MC_CALLER_LINE_NUMBER + " <= ?";
+            }
+            sql = sql + " order by " + DC.MC_CALL_ID +
+                    " limit 1";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+
+        List<Object> argList = new ArrayList<>(4);
+        argList.add(callerMethodHash);
+        argList.add(afterCallId);
+        if (useLineNum) {
+            argList.add(lineNumStart);
+            argList.add(lineNumEnd);
+        }
+        return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, argList.toArray());
+    }
+
+    @Override
+    public WriteDbData4MethodCall queryNextCaller(String calleeMethodHash, String afterCallerMethodHash) {
+        if (afterCallerMethodHash == null) {
+            // 第一次查询
+            SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_ONE_CALLER1;
+            String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+            if (sql == null) {
+                sql = "select " + CALLER_COLUMNS +
+                        " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                        " where " + DC.MC_CALLEE_METHOD_HASH + " = ?" +
+                        " order by " + DC.MC_CALLER_METHOD_HASH +
+                        " limit 1";
+                sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+            }
+            return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, calleeMethodHash);
+        }
+
+        // 不是第一次查询
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_QUERY_ONE_CALLER2;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "select " + CALLER_COLUMNS +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALLEE_METHOD_HASH + " = ?" +
+                    " and " + DC.MC_CALLER_METHOD_HASH + " > ?" +
+                    " order by " + DC.MC_CALLER_METHOD_HASH +
+                    " limit 1";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return dbOperator.queryObject(sql, WriteDbData4MethodCall.class, calleeMethodHash, afterCallerMethodHash);
+    }
+
+    @Override
+    public int updateMethodCallEnabled(int methodCallId, int enabled) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_UPDATE_ENABLED;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "update " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " set " + DC.MC_ENABLED + " = ?" +
+                    " where " + DC.MC_CALL_ID + " = ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+
+        Integer row = dbOperator.update(sql, enabled, methodCallId);
+        return recordDataVersion(row);
+    }
+
+    @Override
+    public int updateMethodCallFlags(int methodCallId, int callFlags) {
+        Integer row = dbOperator.update(genUpdateMethodCallFlagsSql(), callFlags, methodCallId);
+        return recordDataVersion(row);
+    }
+
+    @Override
+    public boolean updateMethodCallFlagsBatch(Map<Integer, Integer> callFlagsMap) {
+        if (callFlagsMap.isEmpty()) {
+            return true;
+        }
+
+        List<Object[]> argumentList = new ArrayList<>(callFlagsMap.size());
+        for (Map.Entry<Integer, Integer> entry : callFlagsMap.entrySet()) {
+            argumentList.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        return dbOperator.batchUpdate(genUpdateMethodCallFlagsSql(), argumentList) && dbOperWrapper.recordDataVersion();
+    }
+
+    @Override
+    public Integer deleteMethodCallByCallType(String callType) {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_DELETE_BY_CALL_TYPE;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "delete from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " where " + DC.MC_CALL_TYPE + " = ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        Integer row = dbOperator.update(sql, callType);
+        if (row == null || (row > 0 && !dbOperWrapper.recordDataVersion())) {
+            return null;
+        }
+        return row;
+    }
+
+    // 修改数据后记录新的数据库内容版本，记录失败时返回修改的行数为0
+    private int recordDataVersion(Integer row) {
+        if (row == null || row == 0) {
+            return 0;
+        }
+        return dbOperWrapper.recordDataVersion() ? row : 0;
+    }
+
+    // 生成修改方法调用表方法调用标记的sql语句
+    private String genUpdateMethodCallFlagsSql() {
+        SqlKeyEnum sqlKeyEnum = SqlKeyEnum.MC_UPDATE_FLAGS;
+        String sql = dbOperWrapper.getCachedSql(sqlKeyEnum);
+        if (sql == null) {
+            sql = "update " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() +
+                    " set " + DC.MC_CALL_FLAGS + " = ?" +
+                    " where " + DC.MC_CALL_ID + " = ?";
+            sql = dbOperWrapper.cacheSql(sqlKeyEnum, sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean close() {
+        // 数据已写入数据库，不需要处理
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+package com.adrninistrator.jacg.storage;
+
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 方法调用关系存储接口，写入数据库的处理类及生成调用链时通过当前接口进行批量写入、按键查询、按调用方/被调用方范围查询
+ * 查询方法返回的方法调用对象中，仅包含生成调用链所需的字段：
+ * call_id、call_type、enabled、caller_method_hash、caller_full_method、caller_line_number、callee_method_hash、callee_full_method、call_flags
+ */
+public interface JACGStorage {
+
+    /**
+     * 批量写入数据
+     *
+     * @param dbTableInfoEnum 数据库表信息
+     * @param objectList      需要写入的数据，每个元素对应一行数据，字段顺序与数据库表信息中的字段顺序一致
+     * @return true: 成功，false: 失败
+     */
+    boolean writeBatch(DbTableInfoEnum dbTableInfoEnum, List<Object[]> objectList);
+
+    /**
+     * 写入一条数据
+     *
+     * @param dbTableInfoEnum 数据库表信息
+     * @param arguments       需要写入的数据，字段顺序与数据库表信息中的字段顺序一致
+     * @return true: 成功，false: 失败
+     */
+    boolean writeOne(DbTableInfoEnum dbTableInfoEnum, Object[] arguments);
+
+    /**
+     * 根据方法调用序号查询方法调用
+     *
+     * @param methodCallId 方法调用序号
+     * @return null: 不存在
+     */
+    WriteDbData4MethodCall queryMethodCallById(int methodCallId);
+
+    /**
+     * 查询指定调用方法中，方法调用序号大于指定值的第一个方法调用（按方法调用序号升序）
+     *
+     * @param callerMethodHash 调用方法HASH+长度
+     * @param afterCallId      方法调用序号需要大于的值
+     * @param lineNumStart     调用方法代码行号开始，为JACGConstants.LINE_NUM_NONE时不判断
+     * @param lineNumEnd       调用方法代码行号结束，为JACGConstants.LINE_NUM_NONE时不判断
+     * @return null: 不存在
+     */
+    WriteDbData4MethodCall queryNextCallee(String callerMethodHash, int afterCallId, int lineNumStart, int lineNumEnd);
+
+    /**
+     * 查询指定被调用方法中，调用方法HASH+长度大于指定值的第一个方法调用（按调用方法HASH+长度升序）
+     *
+     * @param calleeMethodHash      被调用方法HASH+长度
+     * @param afterCallerMethodHash 调用方法HASH+长度需要大于的值，为null时查询第一个
+     * @return null: 不存在
+     */
+    WriteDbData4MethodCall queryNextCaller(String calleeMethodHash, String afterCallerMethodHash);
+
+    /**
+     * 修改方法调用表启用标志
+     *
+     * @param methodCallId 方法调用序号
+     * @param enabled      启用标志
+     * @return 修改的行数
+     */
+    int updateMethodCallEnabled(int methodCallId, int enabled);
+
+    /**
+     * 修改方法调用表方法调用标记
+     *
+     * @param methodCallId 方法调用序号
+     * @param callFlags    方法调用标记
+     * @return 修改的行数
+     */
+    int updateMethodCallFlags(int methodCallId, int callFlags);
+
+    /**
+     * 批量修改方法调用表方法调用标记
+     *
+     * @param callFlagsMap key: 方法调用序号，value: 方法调用标记
+     * @return true: 成功，false: 失败
+     */
+    boolean updateMethodCallFlagsBatch(Map<Integer, Integer> callFlagsMap);
+
+    /**
+     * 删除方法调用表中指定调用类型的方法调用
+     *
+     * @param callType 调用类型
+     * @return 删除的行数，失败时返回null
+     */
+    Integer deleteMethodCallByCallType(String callType);
+
+    /**
+     * 关闭存储，存在未持久化的修改时进行持久化
+     *
+     * @return true: 成功，false: 失败
+     */
+    boolean close();
+}
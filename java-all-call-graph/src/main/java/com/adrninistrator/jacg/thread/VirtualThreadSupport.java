@@ -0,0 +1,46 @@
+package com.adrninistrator.jacg.thread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 虚拟线程支持，当前类为Java 8版本，不支持虚拟线程
+ * 在Java 21及以上版本运行时，会使用jar包中META-INF/versions/21目录中的同名类（src/main/java21目录中的代码）
+ */
+public class VirtualThreadSupport {
+
+    private VirtualThreadSupport() {
+        throw new IllegalStateException("illegal");
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     *
+     * @return
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * 生成创建虚拟线程的ThreadFactory
+     *
+     * @param threadNamePrefix 线程名称前缀
+     * @return 不支持虚拟线程时返回null
+     */
+    public static ThreadFactory genThreadFactory(String threadNamePrefix) {
+        return null;
+    }
+
+    /**
+     * 生成每个任务使用一个虚拟线程执行的ExecutorService
+     *
+     * @param threadNamePrefix 线程名称前缀
+     * @return 不支持虚拟线程时返回null
+     */
+    public static ExecutorService genExecutor(String threadNamePrefix) {
+        return null;
+    }
+}
@@ -198,6 +198,46 @@ public class JACGCallGraphFileUtil {
         return String.format(JACGConstants.CALL_FLAG_CYCLE, back2Level);
     }
 
+    /**
+     * 生成引用之前出现的子树的标志
+     *
+     * @param refLineNum 子树第一次出现时对应的调用链文件行号
+     * @return
+     */
+    public static String genSubtreeRefFlag(int refLineNum) {
+        return String.format(JACGConstants.CALL_FLAG_SUBTREE_REF, refLineNum);
+    }
+
+    /**
+     * 获取调用链文件行中引用之前出现的子树对应的行号（不对行数据进行完整解析）
+     *
+     * @param line
+     * @return 未引用之前出现的子树时返回JACGConstants.NO_SUBTREE_REF_FLAG
+     */
+    public static int getSubtreeRefLineNum(String line) {
+        String refLineNum = StringUtils.substringBetween(line, JACGConstants.FLAG_TAB + JACGConstants.CALL_FLAG_SUBTREE_REF_START, JACGConstants.CALL_FLAG_SUBTREE_REF_END);
+        if (!JavaCGUtil.isNumStr(refLineNum)) {
+            return JACGConstants.NO_SUBTREE_REF_FLAG;
+        }
+        return Integer.parseInt(refLineNum);
+    }
+
+    /**
+     * 修改调用链文件行的方法级别
+     *
+     * @param line     调用链文件行内容
+     * @param oldLevel 原有的方法级别
+     * @param newLevel 新的方法级别
+     * @return
+     */
+    public static String changeCallGraphLineLevel(String line, int oldLevel, int newLevel) {
+        String oldPrefix = genOutputPrefix(oldLevel);
+        if (!line.startsWith(oldPrefix)) {
+            throw new JavaCGRuntimeException("调用链文件行的方法级别与预期不一致 " + oldLevel + " " + line);
+        }
+        return genOutputPrefix(newLevel) + line.substring(oldPrefix.length());
+    }
+
     /**
      * 替换TAB、回车、换行等字符
      * 假如调用链文件数据中包含了以上字符，会导致调用链文件行分隔时出现问题，因此需要替换
@@ -356,9 +396,103 @@ public class JACGCallGraphFileUtil {
         // 处理完整方法及注解
         handleFullMethodWithAnnotations(callGraphLineParsed, fullMethodWithAnnotations);
 
+        // 处理调用链文件行中方法之后的列
+        parseCallGraphColumns(line, callGraphLineParsed, lineColumns, nextStartIndex);
+        return callGraphLineParsed;
+    }
+
+    /**
+     * 解析生成调用链时的方法调用信息（不包含方法级别等前缀），使用完整方法生成方法详细信息
+     * 用于生成二进制格式的调用链文件，避免读取时再解析文本
+     *
+     * @param methodLevel 方法级别
+     * @param fullMethod  完整方法
+     * @param callInfo    方法调用信息，包含方法、注解、方法调用业务功能数据、循环调用等标志
+     * @return
+     */
+    public static CallGraphLineParsed parseCallInfo(int methodLevel, String fullMethod, String callInfo) {
+        String[] columns = StringUtils.splitPreserveAllTokens(callInfo, JACGConstants.FLAG_TAB);
+        CallGraphLineParsed callGraphLineParsed = new CallGraphLineParsed();
+        callGraphLineParsed.setMethodLevel(methodLevel);
+        callGraphLineParsed.setMethodDetail(JACGClassMethodUtil.genMethodDetail(fullMethod));
+
+        // 第1列中第1个@之后为注解信息
+        int index = columns[0].indexOf(JACGConstants.FLAG_AT);
+        if (index != -1) {
+            String annotations = columns[0].substring(index + JACGConstants.FLAG_AT.length());
+            callGraphLineParsed.setAnnotations(StringUtils.splitPreserveAllTokens(annotations, JACGConstants.FLAG_AT));
+        }
+
+        // 处理方法之后的列
+        parseCallGraphColumns(callInfo, callGraphLineParsed, columns, 1);
+        return callGraphLineParsed;
+    }
+
+    /**
+     * 根据向下的方法完整调用链解析后的内容生成对应的调用链文件行，用于处理二进制格式的调用链文件
+     * 方法使用完整方法展示，各标志的格式与生成调用链文件时相同
+     *
+     * @param callGraphLineParsed 从二进制格式的调用链文件读取的内容
+     * @return
+     */
+    public static String genCallGraphLine4er(CallGraphLineParsed callGraphLineParsed) {
+        StringBuilder line = new StringBuilder(genOutputPrefix(callGraphLineParsed.getMethodLevel()));
+        if (callGraphLineParsed.getMethodLevel() != JACGConstants.CALL_GRAPH_METHOD_LEVEL_START) {
+            // 调用者行号信息
+            line.append(JACGConstants.FLAG_LEFT_PARENTHESES)
+                    .append(callGraphLineParsed.getCallerSimpleClassName())
+                    .append(JavaCGConstants.FLAG_COLON)
+                    .append(callGraphLineParsed.getCallerLineNumber())
+                    .append(JACGConstants.FLAG_RIGHT_PARENTHESES)
+                    .append(JACGConstants.FLAG_TAB);
+        }
+        line.append(callGraphLineParsed.getMethodDetail().getFullMethod());
+
+        String[] annotations = callGraphLineParsed.getAnnotations();
+        if (annotations != null) {
+            for (String annotation : annotations) {
+                line.append(JACGConstants.FLAG_AT).append(annotation);
+            }
+        }
+
+        List<BaseBusinessData> businessDataList = callGraphLineParsed.getBusinessDataList();
+        if (businessDataList != null) {
+            for (BaseBusinessData businessData : businessDataList) {
+                line.append(JACGConstants.FLAG_TAB)
+                        .append(JACGConstants.CALL_FLAG_BUSINESS_DATA)
+                        .append(businessData.getDataType())
+                        .append(JACGConstants.FLAG_AT)
+                        .append(businessData.getDataValue());
+            }
+        }
+
+        if (callGraphLineParsed.isRunInOtherThread()) {
+            line.append(JACGConstants.CALL_FLAG_RUN_IN_OTHER_THREAD);
+        }
+        if (callGraphLineParsed.isRunInTransaction()) {
+            line.append(JACGConstants.CALL_FLAG_RUN_IN_TRANSACTION);
+        }
+        if (callGraphLineParsed.isCycleCall()) {
+            line.append(JACGConstants.FLAG_TAB).append(genCycleCallFlag(callGraphLineParsed.getCycleCallLevel()));
+        }
+        if (callGraphLineParsed.getSubtreeRefLineNum() != JACGConstants.NO_SUBTREE_REF_FLAG) {
+            line.append(JACGConstants.FLAG_TAB).append(genSubtreeRefFlag(callGraphLineParsed.getSubtreeRefLineNum()));
+        }
+        return line.toString();
+    }
+
+    /**
+     * 处理调用链文件行中方法之后的列
+     *
+     * @param line                行内容
+     * @param callGraphLineParsed 行解析后的内容
+     * @param lineColumns         行内容分隔后的列
+     * @param nextStartIndex      后续内容起始下标
+     */
+    private static void parseCallGraphColumns(String line, CallGraphLineParsed callGraphLineParsed, String[] lineColumns, int nextStartIndex) {
         if (lineColumns.length <= nextStartIndex) {
             // 当前行不存在需要继续处理的列
-            return callGraphLineParsed;
+            return;
         }
 
         // 当前行存在需要继续处理的列
@@ -382,6 +516,13 @@ public class JACGCallGraphFileUtil {
                     throw new JavaCGRuntimeException("方法调用行内容非法 " + line);
                 }
                 callGraphLineParsed.setCycleCallLevel(Integer.parseInt(level));
+            } else if (column.startsWith(JACGConstants.CALL_FLAG_SUBTREE_REF_START) && column.endsWith(JACGConstants.CALL_FLAG_SUBTREE_REF_END)) {
+                // 引用之前出现的子树
+                String refLineNum = StringUtils.substringBetween(column, JACGConstants.CALL_FLAG_SUBTREE_REF_START, JACGConstants.CALL_FLAG_SUBTREE_REF_END);
+                if (!JavaCGUtil.isNumStr(refLineNum)) {
+                    throw new JavaCGRuntimeException("方法调用行内容非法 " + line);
+                }
+                callGraphLineParsed.setSubtreeRefLineNum(Integer.parseInt(refLineNum));
             } else if (JACGConstants.CALLEE_FLAG_ENTRY_NO_TAB.equals(column)) {
                 // 入口方法
                 callGraphLineParsed.setEntryMethod(true);
@@ -394,7 +535,6 @@ public class JACGCallGraphFileUtil {
             }
         }
         callGraphLineParsed.setBusinessDataList(businessDataList);
-        return callGraphLineParsed;
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.adrninistrator.jacg.util;
 
 import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
 import com.adrninistrator.javacg.common.JavaCGConstants;
 import com.adrninistrator.javacg.exceptions.JavaCGRuntimeException;
 import com.adrninistrator.javacg.util.JavaCGFileUtil;
@@ -13,24 +14,38 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author adrninistrator
@@ -42,6 +57,9 @@ public class JACGFileUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JACGFileUtil.class);
 
+    // 压缩及解压时使用的缓冲区大小
+    private static final int COMPRESS_BUFFER_SIZE = 1024 * 64;
+
     public static File findFile(String filePath) {
         // 尝试通过文件路径获取文件
         File file = new File(filePath);
@@ -265,12 +283,24 @@ public class JACGFileUtil {
      * @return
      */
     public static boolean combineTextFile(String destFilePath, List<File> srcFileList) {
+        return combineTextFile(destFilePath, srcFileList, OutputCompressTypeEnum.OCTE_NONE);
+    }
+
+    /**
+     * 将指定的一个或多个文本类型的源文件合并为目录文件，源文件可以是压缩文件
+     *
+     * @param destFilePath           目标文件路径
+     * @param srcFileList            源文件列表
+     * @param outputCompressTypeEnum 目标文件的压缩方式
+     * @return
+     */
+    public static boolean combineTextFile(String destFilePath, List<File> srcFileList, OutputCompressTypeEnum outputCompressTypeEnum) {
         if (JavaCGUtil.isCollectionEmpty(srcFileList)) {
             logger.error("指定的源文件列表为空");
             return false;
         }
 
-        try (BufferedWriter writer = JavaCGFileUtil.genBufferedWriter(destFilePath)) {
+        try (BufferedWriter writer = genBufferedWriter(destFilePath, outputCompressTypeEnum)) {
             for (File file : srcFileList) {
                 // 拷贝指定文件的内容
                 if (!copyFileContent(writer, file)) {
@@ -284,9 +314,122 @@ public class JACGFileUtil {
         }
     }
 
+    /**
+     * 将指定的一个或多个文本类型的源文件合并为目录文件，通过FileChannel.transferTo直接拷贝文件内容，不需要逐行读取及写入
+     * 源文件的压缩方式与目标文件不同时，使用逐行拷贝的方式合并；源文件不以换行符结尾时补充换行符，使合并结果与逐行拷贝的方式一致
+     * 对于gzip压缩文件，将多个gzip数据直接拼接后仍然是合法的gzip文件
+     *
+     * @param destFilePath           目标文件路径
+     * @param srcFileList            源文件列表
+     * @param outputCompressTypeEnum 目标文件的压缩方式
+     * @return
+     */
+    public static boolean combineTextFileByChannel(String destFilePath, List<File> srcFileList, OutputCompressTypeEnum outputCompressTypeEnum) {
+        if (JavaCGUtil.isCollectionEmpty(srcFileList)) {
+            logger.error("指定的源文件列表为空");
+            return false;
+        }
+
+        for (File srcFile : srcFileList) {
+            if (!checkFileCompressType(srcFile, outputCompressTypeEnum)) {
+                logger.warn("源文件的压缩方式与目标文件不同，使用逐行拷贝的方式合并 {} {}", srcFile.getAbsolutePath(), outputCompressTypeEnum);
+                return combineTextFile(destFilePath, srcFileList, outputCompressTypeEnum);
+            }
+        }
+
+        try (FileChannel destChannel = FileChannel.open(new File(destFilePath).toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            // 每个文件之后写入的分隔内容，与逐行拷贝时一致，为一个换行符
+            byte[] separatorBytes = genCompressBytes(JACGConstants.NEW_LINE.getBytes(StandardCharsets.UTF_8), outputCompressTypeEnum);
+            // 源文件不以换行符结尾时，逐行拷贝会在最后一行之后补充换行符，再写入分隔内容
+            byte[] missingNewLineBytes = genCompressBytes((JACGConstants.NEW_LINE + JACGConstants.NEW_LINE).getBytes(StandardCharsets.UTF_8),
+                    outputCompressTypeEnum);
+            for (File srcFile : srcFileList) {
+                try (FileChannel srcChannel = FileChannel.open(srcFile.toPath(), StandardOpenOption.READ)) {
+                    long size = srcChannel.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += srcChannel.transferTo(position, size - position, destChannel);
+                    }
+                }
+                ByteBuffer separatorBuffer = ByteBuffer.wrap(checkEndsWithNewLine(srcFile, outputCompressTypeEnum) ? separatorBytes : missingNewLineBytes);
+                while (separatorBuffer.hasRemaining()) {
+                    destChannel.write(separatorBuffer);
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("error {} ", destFilePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * 检查文件内容是否以换行符结尾，空文件也认为以换行符结尾
+     * 未压缩的文件直接读取最后一个字节，压缩文件需要解压后读取最后一个字节
+     *
+     * @param file
+     * @param outputCompressTypeEnum 文件的压缩方式
+     * @return
+     * @throws IOException
+     */
+    private static boolean checkEndsWithNewLine(File file, OutputCompressTypeEnum outputCompressTypeEnum) throws IOException {
+        int lastByte = -1;
+        if (OutputCompressTypeEnum.OCTE_NONE == outputCompressTypeEnum) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size == 0) {
+                    return true;
+                }
+                ByteBuffer byteBuffer = ByteBuffer.allocate(1);
+                channel.read(byteBuffer, size - 1);
+                lastByte = byteBuffer.get(0) & 0xff;
+            }
+        } else {
+            try (InputStream inputStream = genInputStream(file)) {
+                byte[] buffer = new byte[COMPRESS_BUFFER_SIZE];
+                int readSize;
+                while ((readSize = inputStream.read(buffer)) != -1) {
+                    if (readSize > 0) {
+                        lastByte = buffer[readSize - 1] & 0xff;
+                    }
+                }
+            }
+            if (lastByte == -1) {
+                return true;
+            }
+        }
+        return lastByte == '\n';
+    }
+
+    // 检查文件的压缩方式是否与指定的压缩方式相同，根据文件后缀判断
+    private static boolean checkFileCompressType(File file, OutputCompressTypeEnum outputCompressTypeEnum) {
+        String fileName = file.getName();
+        if (OutputCompressTypeEnum.OCTE_NONE == outputCompressTypeEnum) {
+            return fileName.equals(OutputCompressTypeEnum.removeCompressExt(fileName));
+        }
+        return fileName.endsWith(outputCompressTypeEnum.getExt());
+    }
+
+    /**
+     * 按指定的方式对数据进行压缩
+     *
+     * @param data
+     * @param outputCompressTypeEnum
+     * @return
+     * @throws IOException
+     */
+    public static byte[] genCompressBytes(byte[] data, OutputCompressTypeEnum outputCompressTypeEnum) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (OutputStream outputStream = genCompressOutputStream(byteArrayOutputStream, outputCompressTypeEnum)) {
+            outputStream.write(data);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
     // 拷贝指定文件的内容
     public static boolean copyFileContent(BufferedWriter writer, File file) {
-        try (BufferedReader br = JavaCGFileUtil.genBufferedReader(file)) {
+        try (BufferedReader br = genBufferedReader(file)) {
             String line;
             while ((line = br.readLine()) != null) {
                 writer.write(line + JACGConstants.NEW_LINE);
@@ -299,6 +442,89 @@ public class JACGFileUtil {
         }
     }
 
+    /**
+     * 生成读取文本文件的BufferedReader，若文件使用gzip压缩则自动解压
+     *
+     * @param filePath
+     * @return
+     * @throws IOException
+     */
+    public static BufferedReader genBufferedReader(String filePath) throws IOException {
+        return genBufferedReader(new File(filePath));
+    }
+
+    /**
+     * 生成读取文本文件的BufferedReader，若文件使用gzip压缩则自动解压
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static BufferedReader genBufferedReader(File file) throws IOException {
+        return JavaCGFileUtil.genBufferedReader(genInputStream(file));
+    }
+
+    /**
+     * 生成读取文件的InputStream，若文件使用gzip压缩则自动解压
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static InputStream genInputStream(File file) throws IOException {
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file), COMPRESS_BUFFER_SIZE);
+        try {
+            // 根据文件头判断是否为gzip压缩文件
+            inputStream.mark(2);
+            int byte1 = inputStream.read();
+            int byte2 = inputStream.read();
+            inputStream.reset();
+            if (byte1 == (GZIPInputStream.GZIP_MAGIC & 0xff) && byte2 == ((GZIPInputStream.GZIP_MAGIC >> 8) & 0xff)) {
+                inputStream = new GZIPInputStream(inputStream, COMPRESS_BUFFER_SIZE);
+            }
+        } catch (IOException e) {
+            IOUtils.closeQuietly(inputStream);
+            throw e;
+        }
+        return inputStream;
+    }
+
+    /**
+     * 生成写文本文件的BufferedWriter，按指定的方式压缩
+     *
+     * @param filePath
+     * @param outputCompressTypeEnum
+     * @return
+     * @throws IOException
+     */
+    public static BufferedWriter genBufferedWriter(String filePath, OutputCompressTypeEnum outputCompressTypeEnum) throws IOException {
+        if (OutputCompressTypeEnum.OCTE_NONE == outputCompressTypeEnum) {
+            return JavaCGFileUtil.genBufferedWriter(filePath);
+        }
+        OutputStream outputStream = genCompressOutputStream(new FileOutputStream(filePath), outputCompressTypeEnum);
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 按指定的方式对输出流进行压缩
+     *
+     * @param outputStream
+     * @param outputCompressTypeEnum
+     * @return
+     * @throws IOException
+     */
+    public static OutputStream genCompressOutputStream(OutputStream outputStream, OutputCompressTypeEnum outputCompressTypeEnum) throws IOException {
+        switch (outputCompressTypeEnum) {
+            case OCTE_NONE:
+                return outputStream;
+            case OCTE_GZIP:
+                return new GZIPOutputStream(outputStream, COMPRESS_BUFFER_SIZE);
+            default:
+                IOUtils.closeQuietly(outputStream);
+                throw new JavaCGRuntimeException("不支持的压缩方式 " + outputCompressTypeEnum);
+        }
+    }
+
     public static boolean isFileExists(String filePath) {
         File file = new File(filePath);
         return file.exists() && file.isFile();
@@ -341,6 +567,38 @@ public class JACGFileUtil {
         }
     }
 
+    /**
+     * 根据jar包或目录中各文件的相对路径、大小及修改时间生成标识，用于判断jar包或目录是否有变化
+     * 目录中的文件新增、删除或修改时标识都会变化，不存在的jar包或目录也会参与生成标识
+     *
+     * @param jarPathList jar包或目录路径列表
+     * @return null: 遍历jar包或目录失败
+     */
+    public static String genJarDirFingerprint(List<String> jarPathList) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (String jarPath : jarPathList) {
+            stringBuilder.append(jarPath).append(JACGConstants.NEW_LINE);
+            Path path = Paths.get(jarPath);
+            if (!Files.exists(path)) {
+                continue;
+            }
+
+            List<Path> filePathList;
+            try (Stream<Path> pathStream = Files.walk(path)) {
+                filePathList = pathStream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            } catch (Exception e) {
+                logger.error("遍历jar包或目录失败 {} ", jarPath, e);
+                return null;
+            }
+            for (Path filePath : filePathList) {
+                File file = filePath.toFile();
+                stringBuilder.append(replaceFilePathSeparator(path.relativize(filePath).toString())).append(JACGConstants.FLAG_TAB).append(file.length())
+                        .append(JACGConstants.FLAG_TAB).append(file.lastModified()).append(JACGConstants.NEW_LINE);
+            }
+        }
+        return DigestUtils.md5Hex(stringBuilder.toString());
+    }
+
     /**
      * 生成文件
      *
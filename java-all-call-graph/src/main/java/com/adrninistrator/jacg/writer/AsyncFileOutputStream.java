@@ -0,0 +1,98 @@
+package com.adrninistrator.jacg.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/16
+ * @description: 异步写文件的OutputStream，用于写入二进制数据，写入的数据先缓存在当前线程，达到指定大小后交给输出目录对应的写文件线程写入文件
+ * 调用close()后文件由写文件线程关闭，需要通过AsyncOutputDirWriter.waitDone()等待写入完成
+ * 同一个对象只允许在一个线程中使用
+ */
+public class AsyncFileOutputStream extends OutputStream {
+
+    // 每次交给写文件线程的字节数量
+    private static final int CHUNK_SIZE = 1024 * 64;
+
+    private final AsyncOutputDirWriter outputDirWriter;
+
+    // 文件在写文件线程中的状态，与写字符数据时使用的对象相同
+    private final AsyncFileWriter fileState;
+
+    private byte[] buffer = new byte[CHUNK_SIZE];
+
+    private int count = 0;
+
+    private boolean closed = false;
+
+    AsyncFileOutputStream(AsyncOutputDirWriter outputDirWriter, AsyncFileWriter fileState) {
+        this.outputDirWriter = outputDirWriter;
+        this.fileState = fileState;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkStatus();
+        if (count == CHUNK_SIZE) {
+            handOff();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkStatus();
+        while (len > 0) {
+            if (count == CHUNK_SIZE) {
+                handOff();
+            }
+            int length = Math.min(len, CHUNK_SIZE - count);
+            System.arraycopy(b, off, buffer, count, length);
+            count += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkStatus();
+        handOff();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        handOff();
+        outputDirWriter.submitClose(fileState);
+    }
+
+    // 将缓存的数据交给写文件线程，交出的数组不再修改
+    private void handOff() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        byte[] data = buffer;
+        if (count < CHUNK_SIZE) {
+            data = new byte[count];
+            System.arraycopy(buffer, 0, data, 0, count);
+        } else {
+            buffer = new byte[CHUNK_SIZE];
+        }
+        count = 0;
+        outputDirWriter.submitBytes(fileState, data);
+    }
+
+    private void checkStatus() throws IOException {
+        if (closed) {
+            throw new IOException("文件已关闭 " + fileState.getFilePath());
+        }
+        if (fileState.isFail()) {
+            throw new IOException("写文件失败 " + fileState.getFilePath());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.adrninistrator.jacg.writer;
+
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/15
+ * @description: 异步写文件的Writer，写入的数据先缓存在当前线程，达到指定大小后交给输出目录对应的写文件线程写入文件
+ * 调用flush()时不会等待数据写入磁盘；调用close()后文件由写文件线程关闭，需要通过AsyncOutputDirWriter.waitDone()等待写入完成
+ * 同一个对象只允许在一个线程中使用
+ */
+public class AsyncFileWriter extends Writer {
+
+    // 每次交给写文件线程的字符数量
+    private static final int CHUNK_SIZE = 1024 * 32;
+
+    private final AsyncOutputDirWriter outputDirWriter;
+
+    private final String filePath;
+
+    private final OutputCompressTypeEnum outputCompressTypeEnum;
+
+    private StringBuilder buffer = new StringBuilder(CHUNK_SIZE);
+
+    private boolean closed = false;
+
+    // 以下字段仅在写文件线程中使用
+    private FileChannel fileChannel;
+
+    // 需要压缩时使用的压缩流
+    private OutputStream compressStream;
+
+    // 写文件是否失败
+    private volatile boolean fail = false;
+
+    AsyncFileWriter(AsyncOutputDirWriter outputDirWriter, String filePath, OutputCompressTypeEnum outputCompressTypeEnum) {
+        this.outputDirWriter = outputDirWriter;
+        this.filePath = filePath;
+        this.outputCompressTypeEnum = outputCompressTypeEnum;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        checkStatus();
+        buffer.append(cbuf, off, len);
+        tryHandOff();
+    }
+
+    @Override
+    public void write(String str) throws IOException {
+        checkStatus();
+        buffer.append(str);
+        tryHandOff();
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        checkStatus();
+        buffer.append(str, off, off + len);
+        tryHandOff();
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        checkStatus();
+        buffer.append((char) c);
+        tryHandOff();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkStatus();
+        handOffWithoutSplit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        handOff(buffer.length());
+        outputDirWriter.submitClose(this);
+    }
+
+    // 缓存的数据达到指定大小时交给写文件线程
+    private void tryHandOff() throws IOException {
+        if (buffer.length() >= CHUNK_SIZE) {
+            handOffWithoutSplit();
+        }
+    }
+
+    // 将缓存的数据交给写文件线程，避免将代理对拆分到两次写入中
+    private void handOffWithoutSplit() throws IOException {
+        int length = buffer.length();
+        if (length > 0 && Character.isHighSurrogate(buffer.charAt(length - 1))) {
+            length--;
+        }
+        handOff(length);
+    }
+
+    private void handOff(int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        String data = buffer.substring(0, length);
+        if (length == buffer.length()) {
+            buffer = new StringBuilder(CHUNK_SIZE);
+        } else {
+            buffer.delete(0, length);
+        }
+        outputDirWriter.submitData(this, data);
+    }
+
+    private void checkStatus() throws IOException {
+        if (closed) {
+            throw new IOException("文件已关闭 " + filePath);
+        }
+        if (fail) {
+            throw new IOException("写文件失败 " + filePath);
+        }
+    }
+
+    String getFilePath() {
+        return filePath;
+    }
+
+    OutputCompressTypeEnum getOutputCompressTypeEnum() {
+        return outputCompressTypeEnum;
+    }
+
+    OutputStream getCompressStream() {
+        return compressStream;
+    }
+
+    void setCompressStream(OutputStream compressStream) {
+        this.compressStream = compressStream;
+    }
+
+    FileChannel getFileChannel() {
+        return fileChannel;
+    }
+
+    void setFileChannel(FileChannel fileChannel) {
+        this.fileChannel = fileChannel;
+    }
+
+    boolean isFail() {
+        return fail;
+    }
+
+    void setFail() {
+        fail = true;
+    }
+}
@@ -0,0 +1,353 @@
+package com.adrninistrator.jacg.writer;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/15
+ * @description: 一个输出目录对应的异步写文件处理类
+ * 每个输出目录使用一个写文件线程，生成调用链的线程将数据放入有界队列后即返回，不会因为磁盘写入而阻塞（仅当队列已满时等待）
+ * 写文件线程使用较大的直接内存缓冲区进行编码，并通过FileChannel写入文件，需要压缩时写入对应的压缩流
+ */
+public class AsyncOutputDirWriter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncOutputDirWriter.class);
+
+    // 队列中允许的最大任务数量
+    private static final int QUEUE_CAPACITY = 256;
+
+    // 写文件线程使用的直接内存缓冲区大小
+    private static final int DIRECT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final AtomicInteger THREAD_SEQ = new AtomicInteger(0);
+
+    // 写文件任务
+    private static class WriteTask {
+        // 对应的文件，为null时代表等待任务
+        private final AsyncFileWriter fileWriter;
+
+        // 需要写入的字符数据，与以下字节数据均为null时代表关闭文件
+        private final String data;
+
+        // 需要写入的字节数据
+        private final byte[] bytes;
+
+        // 等待任务对应的锁存器
+        private final CountDownLatch latch;
+
+        WriteTask(AsyncFileWriter fileWriter, String data, CountDownLatch latch) {
+            this(fileWriter, data, null, latch);
+        }
+
+        WriteTask(AsyncFileWriter fileWriter, String data, byte[] bytes, CountDownLatch latch) {
+            this.fileWriter = fileWriter;
+            this.data = data;
+            this.bytes = bytes;
+            this.latch = latch;
+        }
+    }
+
+    // 任务结束标志
+    private static final WriteTask STOP_TASK = new WriteTask(null, null, null);
+
+    private final String outputDirPath;
+
+    private final BlockingQueue<WriteTask> taskQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final Thread writeThread;
+
+    // 写文件线程使用的直接内存缓冲区
+    private final ByteBuffer directBuffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+
+    // 写入压缩流时使用的缓冲区
+    private final byte[] compressBytes = new byte[1024 * 64];
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // 是否有写文件失败
+    private final AtomicBoolean failFlag = new AtomicBoolean(false);
+
+    private boolean closed = false;
+
+    public AsyncOutputDirWriter(String outputDirPath) {
+        this.outputDirPath = outputDirPath;
+        writeThread = new Thread(this::doWrite, JACGConstants.THREAD_NAME_PREFIX_OUTPUT_WRITER + "-" + THREAD_SEQ.incrementAndGet());
+        writeThread.setDaemon(true);
+        writeThread.start();
+        logger.info("启动写文件线程 {} {}", writeThread.getName(), outputDirPath);
+    }
+
+    /**
+     * 生成写指定文件的Writer，需要在当前目录或子目录中
+     *
+     * @param filePath 文件路径
+     * @return
+     */
+    public Writer genWriter(String filePath) {
+        return new AsyncFileWriter(this, filePath, OutputCompressTypeEnum.OCTE_NONE);
+    }
+
+    /**
+     * 生成写指定文件的Writer，按指定的方式压缩，需要在当前目录或子目录中
+     *
+     * @param filePath               文件路径，需要包含压缩后缀
+     * @param outputCompressTypeEnum 压缩方式
+     * @return
+     */
+    public Writer genWriter(String filePath, OutputCompressTypeEnum outputCompressTypeEnum) {
+        return new AsyncFileWriter(this, filePath, outputCompressTypeEnum);
+    }
+
+    /**
+     * 生成写指定文件的OutputStream，用于写入二进制数据，按指定的方式压缩，需要在当前目录或子目录中
+     *
+     * @param filePath               文件路径，需要包含压缩后缀
+     * @param outputCompressTypeEnum 压缩方式
+     * @return
+     */
+    public OutputStream genOutputStream(String filePath, OutputCompressTypeEnum outputCompressTypeEnum) {
+        return new AsyncFileOutputStream(this, new AsyncFileWriter(this, filePath, outputCompressTypeEnum));
+    }
+
+    /**
+     * 等待直到之前提交的写文件任务执行完毕
+     *
+     * @return true: 写文件均成功，false: 有写文件失败
+     */
+    public boolean waitDone() {
+        if (!closed) {
+            CountDownLatch latch = new CountDownLatch(1);
+            if (submit(new WriteTask(null, null, latch))) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    logger.error("等待写文件任务执行完毕被中断 {}", outputDirPath);
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return !failFlag.get();
+    }
+
+    /**
+     * 等待写文件任务执行完毕后结束写文件线程，结束后可通过isFail()判断是否有写文件失败
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        submit(STOP_TASK);
+        try {
+            writeThread.join();
+        } catch (InterruptedException e) {
+            logger.error("等待写文件线程结束被中断 {}", outputDirPath);
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        logger.info("写文件线程结束 {} {}", writeThread.getName(), outputDirPath);
+    }
+
+    public boolean isFail() {
+        return failFlag.get();
+    }
+
+    // 写入数据
+    void submitData(AsyncFileWriter fileWriter, String data) throws IOException {
+        if (!submit(new WriteTask(fileWriter, data, null))) {
+            throw new IOException("提交写文件任务失败 " + fileWriter.getFilePath());
+        }
+    }
+
+    // 写入字节数据
+    void submitBytes(AsyncFileWriter fileWriter, byte[] bytes) throws IOException {
+        if (!submit(new WriteTask(fileWriter, null, bytes, null))) {
+            throw new IOException("提交写文件任务失败 " + fileWriter.getFilePath());
+        }
+    }
+
+    // 关闭文件
+    void submitClose(AsyncFileWriter fileWriter) throws IOException {
+        if (!submit(new WriteTask(fileWriter, null, null))) {
+            throw new IOException("提交关闭文件任务失败 " + fileWriter.getFilePath());
+        }
+    }
+
+    private boolean submit(WriteTask writeTask) {
+        if (closed || !writeThread.isAlive()) {
+            logger.error("写文件线程已结束 {}", outputDirPath);
+            return false;
+        }
+        try {
+            // 队列已满时等待
+            taskQueue.put(writeTask);
+            return true;
+        } catch (InterruptedException e) {
+            logger.error("提交写文件任务被中断 {}", outputDirPath);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 写文件线程执行的操作
+    private void doWrite() {
+        while (true) {
+            WriteTask writeTask;
+            try {
+                writeTask = taskQueue.take();
+            } catch (InterruptedException e) {
+                logger.error("写文件线程被中断 {}", outputDirPath);
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (writeTask == STOP_TASK) {
+                return;
+            }
+            if (writeTask.fileWriter == null) {
+                // 等待任务，之前的任务已执行完毕
+                writeTask.latch.countDown();
+                continue;
+            }
+
+            AsyncFileWriter fileWriter = writeTask.fileWriter;
+            if (fileWriter.isFail()) {
+                // 当前文件之前已写入失败，忽略
+                continue;
+            }
+            try {
+                if (writeTask.data != null) {
+                    writeData(fileWriter, writeTask.data);
+                } else if (writeTask.bytes != null) {
+                    writeBytes(fileWriter, writeTask.bytes);
+                } else {
+                    closeFile(fileWriter);
+                }
+            } catch (Exception e) {
+                logger.error("写文件失败 {} ", fileWriter.getFilePath(), e);
+                fileWriter.setFail();
+                failFlag.set(true);
+                closeFileQuietly(fileWriter);
+            }
+        }
+    }
+
+    // 将数据编码后写入文件
+    private void writeData(AsyncFileWriter fileWriter, String data) throws IOException {
+        FileChannel fileChannel = getFileChannel(fileWriter);
+        CharBuffer charBuffer = CharBuffer.wrap(data);
+        encoder.reset();
+        while (true) {
+            CoderResult coderResult = encoder.encode(charBuffer, directBuffer, true);
+            if (coderResult.isOverflow()) {
+                writeBuffer(fileWriter, fileChannel);
+                continue;
+            }
+            break;
+        }
+        while (encoder.flush(directBuffer).isOverflow()) {
+            writeBuffer(fileWriter, fileChannel);
+        }
+        writeBuffer(fileWriter, fileChannel);
+    }
+
+    // 将字节数据写入文件
+    private void writeBytes(AsyncFileWriter fileWriter, byte[] bytes) throws IOException {
+        FileChannel fileChannel = getFileChannel(fileWriter);
+        OutputStream compressStream = fileWriter.getCompressStream();
+        if (compressStream != null) {
+            compressStream.write(bytes);
+            return;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer);
+        }
+    }
+
+    // 将缓冲区中的数据写入文件
+    private void writeBuffer(AsyncFileWriter fileWriter, FileChannel fileChannel) throws IOException {
+        directBuffer.flip();
+        OutputStream compressStream = fileWriter.getCompressStream();
+        if (compressStream != null) {
+            // 需要压缩时，将数据拷贝后写入压缩流
+            while (directBuffer.hasRemaining()) {
+                int length = Math.min(directBuffer.remaining(), compressBytes.length);
+                directBuffer.get(compressBytes, 0, length);
+                compressStream.write(compressBytes, 0, length);
+            }
+        } else {
+            while (directBuffer.hasRemaining()) {
+                fileChannel.write(directBuffer);
+            }
+        }
+        directBuffer.clear();
+    }
+
+    // 获取文件对应的FileChannel，在写文件线程中打开
+    private FileChannel getFileChannel(AsyncFileWriter fileWriter) throws IOException {
+        FileChannel fileChannel = fileWriter.getFileChannel();
+        if (fileChannel == null) {
+            fileChannel = FileChannel.open(Paths.get(fileWriter.getFilePath()), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            fileWriter.setFileChannel(fileChannel);
+            if (OutputCompressTypeEnum.OCTE_NONE != fileWriter.getOutputCompressTypeEnum()) {
+                fileWriter.setCompressStream(JACGFileUtil.genCompressOutputStream(Channels.newOutputStream(fileChannel), fileWriter.getOutputCompressTypeEnum()));
+            }
+        }
+        return fileChannel;
+    }
+
+    private void closeFile(AsyncFileWriter fileWriter) throws IOException {
+        // 未写入数据时也需要生成文件
+        FileChannel fileChannel = getFileChannel(fileWriter);
+        OutputStream compressStream = fileWriter.getCompressStream();
+        fileWriter.setFileChannel(null);
+        fileWriter.setCompressStream(null);
+        if (compressStream != null) {
+            // 关闭压缩流时会写入剩余数据并关闭FileChannel
+            compressStream.close();
+            return;
+        }
+        fileChannel.close();
+    }
+
+    private void closeFileQuietly(AsyncFileWriter fileWriter) {
+        FileChannel fileChannel = fileWriter.getFileChannel();
+        if (fileChannel == null) {
+            return;
+        }
+        fileWriter.setFileChannel(null);
+        fileWriter.setCompressStream(null);
+        try {
+            fileChannel.close();
+        } catch (IOException e) {
+            logger.error("关闭文件失败 {} ", fileWriter.getFilePath(), e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.adrninistrator.jacg.thread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 虚拟线程支持，当前类为Java 21版本，打包在jar包的META-INF/versions/21目录中
+ */
+public class VirtualThreadSupport {
+
+    private VirtualThreadSupport() {
+        throw new IllegalStateException("illegal");
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     *
+     * @return
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * 生成创建虚拟线程的ThreadFactory
+     *
+     * @param threadNamePrefix 线程名称前缀
+     * @return
+     */
+    public static ThreadFactory genThreadFactory(String threadNamePrefix) {
+        return Thread.ofVirtual().name(threadNamePrefix + "-", 1).factory();
+    }
+
+    /**
+     * 生成每个任务使用一个虚拟线程执行的ExecutorService
+     *
+     * @param threadNamePrefix 线程名称前缀
+     * @return
+     */
+    public static ExecutorService genExecutor(String threadNamePrefix) {
+        return Executors.newThreadPerTaskExecutor(genThreadFactory(threadNamePrefix));
+    }
+}
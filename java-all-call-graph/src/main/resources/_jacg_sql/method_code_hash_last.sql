@@ -0,0 +1,8 @@
+CREATE TABLE if not exists jacg_method_code_hash_last_{appName} (
+  method_hash varchar(30) NOT NULL COMMENT '方法hash+字节数',
+  simple_class_name varchar(500) NOT NULL COMMENT '唯一类名',
+  code_hash varchar(32) NOT NULL COMMENT '方法字节码HASH，不包含代码行号',
+  full_method text NOT NULL COMMENT '完整方法（类名+方法名+参数）',
+  PRIMARY KEY (method_hash),
+  INDEX idx_mchl_scn_{appName} (simple_class_name(255))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin COMMENT='上一次写入数据库时的方法字节码HASH表';
@@ -0,0 +1,17 @@
+CREATE TABLE if not exists jacg_method_stats_{appName} (
+  method_hash varchar(30) NOT NULL COMMENT '方法hash+字节数',
+  simple_class_name varchar(500) NOT NULL COMMENT '唯一类名',
+  method_name varchar(300) NOT NULL COMMENT '方法名',
+  out_degree int NOT NULL COMMENT '出度，当前方法直接调用的不同方法数量',
+  in_degree int NOT NULL COMMENT '入度，直接调用当前方法的不同方法数量',
+  est_callee_num bigint NOT NULL COMMENT '预估的向下调用链规模',
+  est_caller_num bigint NOT NULL COMMENT '预估的向上调用链规模',
+  caller_class_num int NOT NULL COMMENT '直接调用当前方法的不同类数量',
+  caller_jar_spread int NOT NULL COMMENT '直接调用当前方法的方法所在的不同Jar包数量',
+  full_method text NOT NULL COMMENT '完整方法（类名+方法名+参数）',
+  PRIMARY KEY (method_hash),
+  INDEX idx_ms_scn_{appName} (simple_class_name(255)),
+  INDEX idx_ms_od_{appName} (out_degree),
+  INDEX idx_ms_id_{appName} (in_degree),
+  INDEX idx_ms_crcn_{appName} (caller_class_num)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin COMMENT='方法调用统计信息表';
\ No newline at end of file
@@ -0,0 +1,8 @@
+CREATE TABLE if not exists jacg_write_db_checkpoint_{appName} (
+  checkpoint_name varchar(100) NOT NULL COMMENT '检查点名称，阶段名称或写入数据库的处理类简单类名',
+  checkpoint_type varchar(10) NOT NULL COMMENT '检查点类型，stage: 阶段，handler: 写入数据库的处理类',
+  input_hash varchar(32) NOT NULL COMMENT '输入文件HASH（MD5），不需要读取文件时为空字符串',
+  record_num int NOT NULL COMMENT '已写入数据库的记录数，处理类对应已连续提交的批次中的记录数',
+  done tinyint NOT NULL COMMENT '是否已完成，1:是，0:否',
+  PRIMARY KEY (checkpoint_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin COMMENT='写数据库检查点表';
@@ -0,0 +1,18 @@
+package test.call_graph.spring.tx;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description:
+ */
+public abstract class AbstractSpringTxService {
+
+    public void doCommon() {
+        query();
+        System.setProperty("flag", "common");
+    }
+
+    protected void query() {
+        System.getenv("super");
+    }
+}
@@ -0,0 +1,72 @@
+package test.call_graph.spring.tx;
+
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description:
+ */
+public class SpringTxServiceImpl extends AbstractSpringTxService {
+
+    private TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void txEntry1() {
+        super.doCommon();
+        helper();
+        helper();
+        txInner();
+        new Thread(this::helper).start();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void txInner() {
+        helper();
+        cycleA(1);
+    }
+
+    public void txTpl1() {
+        transactionTemplate.execute(status -> {
+            helper();
+            txInner();
+            return null;
+        });
+    }
+
+    public void txTpl2() {
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                helper();
+                txInner();
+            }
+        });
+    }
+
+    @Override
+    protected void query() {
+        System.getProperty("child");
+    }
+
+    private void helper() {
+        System.currentTimeMillis();
+        System.out.println("helper");
+    }
+
+    private void cycleA(int i) {
+        if (i > 0) {
+            cycleB(i - 1);
+        }
+        System.nanoTime();
+    }
+
+    private void cycleB(int i) {
+        cycleA(i);
+        helper();
+    }
+}
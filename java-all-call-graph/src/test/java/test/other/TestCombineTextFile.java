@@ -0,0 +1,75 @@
+package test.other;
+
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/27
+ * @description: 通过FileChannel合并文件的结果，需要与逐行拷贝合并文件的结果相同
+ */
+public class TestCombineTextFile {
+
+    private static final String DIR_PATH = "build/test-combine-text-file";
+
+    // 源文件内容，包含以换行符结尾、不以换行符结尾、空文件、只有换行符等情况
+    private static final String[] SRC_CONTENTS = new String[]{
+            "[0]#test.Class1:method1()\n[1]#  [Class1:10]\ttest.Class2:method2()\n",
+            "[0]#test.Class1:method3()\n[1]#  [Class1:20]\ttest.Class3:method4()",
+            "",
+            "\n",
+            "[0]#test.Class1:数据库操作()\n\n[1]#  [Class1:30]\ttest.Class4:method5()"
+    };
+
+    @Test
+    public void testNone() throws IOException {
+        check(OutputCompressTypeEnum.OCTE_NONE);
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        check(OutputCompressTypeEnum.OCTE_GZIP);
+    }
+
+    private void check(OutputCompressTypeEnum outputCompressTypeEnum) throws IOException {
+        File dir = new File(DIR_PATH + File.separator + outputCompressTypeEnum.getType());
+        Assert.assertTrue(JACGFileUtil.isDirectoryExists(dir));
+
+        List<File> srcFileList = new ArrayList<>(SRC_CONTENTS.length);
+        for (int i = 0; i < SRC_CONTENTS.length; i++) {
+            File srcFile = new File(dir, "src" + i + ".txt" + outputCompressTypeEnum.getExt());
+            try (OutputStream outputStream = JACGFileUtil.genCompressOutputStream(Files.newOutputStream(srcFile.toPath()), outputCompressTypeEnum)) {
+                outputStream.write(SRC_CONTENTS[i].getBytes(StandardCharsets.UTF_8));
+            }
+            srcFileList.add(srcFile);
+        }
+
+        String byLineFilePath = new File(dir, "by_line.txt" + outputCompressTypeEnum.getExt()).getAbsolutePath();
+        String byChannelFilePath = new File(dir, "by_channel.txt" + outputCompressTypeEnum.getExt()).getAbsolutePath();
+        Assert.assertTrue(JACGFileUtil.combineTextFile(byLineFilePath, srcFileList, outputCompressTypeEnum));
+        Assert.assertTrue(JACGFileUtil.combineTextFileByChannel(byChannelFilePath, srcFileList, outputCompressTypeEnum));
+
+        String byLineContent = readContent(byLineFilePath);
+        Assert.assertEquals(byLineContent, readContent(byChannelFilePath));
+        // 每个源文件的内容之后都有一个空行
+        Assert.assertTrue(byLineContent.endsWith("method5()\n\n"));
+    }
+
+    private String readContent(String filePath) throws IOException {
+        try (InputStream inputStream = JACGFileUtil.genInputStream(new File(filePath))) {
+            return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package test.other;
+
+import com.adrninistrator.jacg.find_stack.MultiKeywordMatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 多关键字匹配，结果需要与逐个关键字使用String.contains()判断的结果相同
+ */
+public class TestMultiKeywordMatcher {
+
+    private static final List<String> TEXT_LIST = Arrays.asList(
+            "",
+            "a",
+            "ab",
+            "abc",
+            "xabcx",
+            "ushers",
+            "she sells",
+            "hisher",
+            "[1]#  [TestService:12]\ttest.mapper.TestMapper1:select1(java.lang.String)",
+            "[2]#    [TestService:30]\ttest.service.TestService:method(int)",
+            "[0]#test.service.TestService:method(int)\t!busi_data!method_arg_generics_type@{}",
+            "调用链文件行号: 12 数据库操作",
+            "调用链文件 数据",
+            "数据库",
+            "😀 emoji 😁",
+            "😁"
+    );
+
+    @Test
+    public void testOverlapKeywords() {
+        // 关键字互相重叠，及某个关键字为另一个关键字的后缀
+        check(Arrays.asList("he", "she", "his", "hers", "ers"));
+    }
+
+    @Test
+    public void testPrefixKeywords() {
+        // 关键字共享前缀，及某个关键字为另一个关键字的前缀
+        check(Arrays.asList("abcd", "abce", "abc", "abx", "test.mapper.TestMapper1:select1("));
+    }
+
+    @Test
+    public void testFailureJump() {
+        // 匹配失败后需要跳转到其他分支继续匹配
+        check(Arrays.asList("abcx", "bcd", "cde", "xab"));
+    }
+
+    @Test
+    public void testFewKeywords() {
+        // 关键字数量少于使用自动机的数量
+        List<String> keywordList = Arrays.asList("she", "TestMapper");
+        Assert.assertTrue(keywordList.size() < MultiKeywordMatcher.MIN_KEYWORD_NUM_USE_AUTOMATON);
+        check(keywordList);
+        check(Collections.singletonList("数据库"));
+    }
+
+    @Test
+    public void testEmptyKeywordList() {
+        MultiKeywordMatcher multiKeywordMatcher = new MultiKeywordMatcher(Collections.emptyList());
+        for (String text : TEXT_LIST) {
+            Assert.assertFalse(text, multiKeywordMatcher.match(text));
+        }
+    }
+
+    @Test
+    public void testEmptyKeyword() {
+        // 包含空字符串关键字时，任意字符串都匹配
+        check(Arrays.asList("x", ""));
+        check(Arrays.asList("x", "y", "z", ""));
+    }
+
+    @Test
+    public void testNonAscii() {
+        check(Arrays.asList("调用链文件", "数据库操作", "行号", "😀", "库操"));
+    }
+
+    @Test
+    public void testRandom() {
+        // 使用较小的字符集生成随机的关键字与字符串，使关键字之间、关键字与字符串之间大量重叠
+        Random random = new Random(0L);
+        char[] chars = {'a', 'b', 'c', '数', '据'};
+        for (int round = 0; round < 200; round++) {
+            int keywordNum = 1 + random.nextInt(10);
+            List<String> keywordList = new ArrayList<>(keywordNum);
+            for (int i = 0; i < keywordNum; i++) {
+                keywordList.add(genRandomString(random, chars, 1 + random.nextInt(4)));
+            }
+            List<String> textList = new ArrayList<>(TEXT_LIST);
+            for (int i = 0; i < 50; i++) {
+                textList.add(genRandomString(random, chars, random.nextInt(20)));
+            }
+            check(keywordList, textList);
+        }
+    }
+
+    private void check(List<String> keywordList) {
+        check(keywordList, TEXT_LIST);
+    }
+
+    // 比较多关键字匹配对象与逐个关键字判断的结果
+    private void check(List<String> keywordList, List<String> textList) {
+        MultiKeywordMatcher multiKeywordMatcher = new MultiKeywordMatcher(keywordList);
+        for (String text : textList) {
+            Assert.assertEquals(keywordList + " " + text, matchByContains(keywordList, text), multiKeywordMatcher.match(text));
+        }
+    }
+
+    private boolean matchByContains(List<String> keywordList, String text) {
+        for (String keyword : keywordList) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String genRandomString(Random random, char[] chars, int length) {
+        StringBuilder stringBuilder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            stringBuilder.append(chars[random.nextInt(chars.length)]);
+        }
+        return stringBuilder.toString();
+    }
+}
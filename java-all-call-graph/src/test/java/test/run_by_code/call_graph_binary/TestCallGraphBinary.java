@@ -0,0 +1,116 @@
+package test.run_by_code.call_graph_binary;
+
+import com.adrninistrator.jacg.call_graph_binary.CallGraphBinaryReader;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
+import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
+import com.adrninistrator.jacg.find_stack.FindCallStackTrace;
+import com.adrninistrator.jacg.markdown.JACGMarkdownConstants;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/16
+ * @description: 生成二进制格式的调用链文件，并读取解析后的内容
+ * 生成二进制格式的调用链文件时不生成文本格式的调用链文件，根据关键字生成的调用堆栈需要与使用文本格式的调用链文件时相同
+ */
+public class TestCallGraphBinary extends TestRunByCodeBase {
+    private static final Logger logger = LoggerFactory.getLogger(TestCallGraphBinary.class);
+
+    @Test
+    public void test() throws IOException {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, this.getClass().getSimpleName());
+
+        RunnerGenAllGraph4Caller runnerGenAllGraph4Caller = new RunnerGenAllGraph4Caller();
+        Assert.assertTrue(runnerGenAllGraph4Caller.run(configureWrapper));
+
+        List<String> binaryFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(runnerGenAllGraph4Caller.getCurrentOutputDirPath(), new HashSet<>(), binaryFilePathList, JACGConstants.EXT_CALL_GRAPH_BINARY);
+        Assert.assertFalse(binaryFilePathList.isEmpty());
+
+        // 不生成文本格式的调用链文件（内容为空的调用链文件除外）
+        List<String> txtFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(runnerGenAllGraph4Caller.getCurrentOutputDirPath(), null, txtFilePathList, JACGConstants.EXT_TXT);
+        for (String txtFilePath : txtFilePathList) {
+            Assert.assertTrue(txtFilePath, JACGCallGraphFileUtil.isEmptyCallGraphFileName(JACGFileUtil.getFileNameFromPath(txtFilePath)));
+        }
+
+        for (String binaryFilePath : binaryFilePathList) {
+            try (CallGraphBinaryReader callGraphBinaryReader = new CallGraphBinaryReader(binaryFilePath)) {
+                CallGraphLineParsed callGraphLineParsed = callGraphBinaryReader.next();
+                // 第1行为入口方法
+                Assert.assertNotNull(callGraphLineParsed);
+                Assert.assertEquals(JACGConstants.CALL_GRAPH_METHOD_LEVEL_START, callGraphLineParsed.getMethodLevel());
+
+                int lineNum = 1;
+                while ((callGraphLineParsed = callGraphBinaryReader.next()) != null) {
+                    Assert.assertTrue(callGraphLineParsed.getMethodLevel() > JACGConstants.CALL_GRAPH_METHOD_LEVEL_START);
+                    Assert.assertTrue(callGraphLineParsed.getCallId() > 0);
+                    Assert.assertNotNull(callGraphLineParsed.getCallerSimpleClassName());
+                    lineNum++;
+                }
+                logger.info("读取二进制格式的调用链文件 {} 行数 {}", binaryFilePath, lineNum);
+            }
+        }
+    }
+
+    @Test
+    public void testFindStack() {
+        // 从二进制格式的调用链文件生成的调用链行使用完整方法
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_OUTPUT_DETAIL, OutputDetailEnum.ODE_1.getDetail());
+        Map<String, String> stackMapTxt = findStack(false);
+        Map<String, String> stackMapBinary = findStack(true);
+        Assert.assertFalse(stackMapTxt.isEmpty());
+        Assert.assertEquals(stackMapTxt, stackMapBinary);
+    }
+
+    /**
+     * 根据关键字生成调用堆栈
+     *
+     * @param genBinary 是否生成二进制格式的调用链文件
+     * @return key: 调用堆栈文件名，value: 调用堆栈文件中代码块中的内容
+     */
+    private Map<String, String> findStack(boolean genBinary) {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY, String.valueOf(genBinary));
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, this.getClass().getSimpleName() + (genBinary ? "-stack-bin" : "-stack-txt"));
+
+        List<String> stackFilePathList = new FindCallStackTrace().find(false, configureWrapper);
+        Assert.assertFalse(stackFilePathList.isEmpty());
+
+        Map<String, String> stackMap = new TreeMap<>();
+        for (String stackFilePath : stackFilePathList) {
+            List<String> lineList = JACGFileUtil.readFile2List(stackFilePath, null);
+            Assert.assertNotNull(lineList);
+            StringBuilder stack = new StringBuilder();
+            boolean inCodeBlock = false;
+            for (String line : lineList) {
+                if (line.equals(JACGMarkdownConstants.FLAG_CODE)) {
+                    inCodeBlock = !inCodeBlock;
+                    continue;
+                }
+                if (inCodeBlock) {
+                    stack.append(line).append(JACGConstants.NEW_LINE);
+                }
+            }
+            stackMap.put(new File(stackFilePath).getName(), stack.toString());
+        }
+        return stackMap;
+    }
+}
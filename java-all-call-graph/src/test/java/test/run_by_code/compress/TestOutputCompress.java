@@ -0,0 +1,37 @@
+package test.run_by_code.compress;
+
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
+import com.adrninistrator.jacg.find_stack.FindCallStackTrace;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/15
+ * @description: 生成压缩后的调用链文件，并从压缩后的文件中查找调用堆栈
+ */
+public class TestOutputCompress extends TestRunByCodeBase {
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    @Test
+    public void test() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE, OutputCompressTypeEnum.OCTE_GZIP.getType());
+
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4caller");
+        Assert.assertTrue(new RunnerGenAllGraph4Caller().run(configureWrapper));
+
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4callee");
+        Assert.assertTrue(new RunnerGenAllGraph4Callee().run(configureWrapper));
+
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4ee_stack");
+        List<String> stackFilePathList = new FindCallStackTrace().find(true, configureWrapper);
+        Assert.assertNotNull(stackFilePathList);
+    }
+}
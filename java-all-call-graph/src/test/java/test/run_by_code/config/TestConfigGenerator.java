@@ -5,7 +5,9 @@ import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
 import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
 import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.OutputCompressTypeEnum;
 import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
+import com.adrninistrator.jacg.common.enums.StorageTypeEnum;
 import com.adrninistrator.jacg.conf.ConfigureWrapper;
 import com.adrninistrator.javacg.common.JavaCGCommonNameConstants;
 import test.call_graph.annotation.CallMethodWithAnnotation;
@@ -40,14 +42,30 @@ public class TestConfigGenerator {
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_APP_NAME, "test_rbc");
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_OUTPUT_DETAIL, OutputDetailEnum.ODE_2.getDetail());
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_THREAD_NUM, "20");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_THREAD_USE_VIRTUAL, Boolean.FALSE.toString());
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_IGNORE_DUP_CALLEE_IN_ONE_CALLER, Boolean.FALSE.toString());
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DB_INSERT_BATCH_SIZE, "1000");
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.TRUE.toString());
         configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_ROOT_PATH, "");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_QUERY_RATIO_THRESHOLD, "20");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_QUERY_BUDGET, "0");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_COMPRESS_TYPE, OutputCompressTypeEnum.OCTE_NONE.getType());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_ORDER_BY_COST, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE, StorageTypeEnum.STE_SQL.getType());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_PORT, "8123");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_CHECK_INTERVAL, "0");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN, "");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_WRITE_DB, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_GEN_CALL_GRAPH_RESUME, Boolean.FALSE.toString());
 
         // H2
         configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2, Boolean.TRUE.toString());
         configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH, "./build/jacg_h2db_rbc");
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_IN_MEMORY, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT, "50");
 
         // MySQL
 //        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2, Boolean.FALSE.toString());
@@ -0,0 +1,175 @@
+package test.run_by_code.daemon;
+
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.daemon.JACGDaemon;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.jacg.util.JACGJsonUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import test.call_graph.method_call.TestMCCallee;
+import test.call_graph.method_call.TestMCCaller;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 启动常驻分析进程，通过HTTP接口查询调用关系，检查各接口返回的HTTP状态码及响应内容
+ */
+public class TestJACGDaemon extends TestRunByCodeBase {
+
+    private static final String RELOAD_TOKEN = "test-reload-token";
+
+    private static final String HTTP_METHOD_GET = "GET";
+    private static final String HTTP_METHOD_POST = "POST";
+
+    @Test
+    public void testQuery() throws IOException {
+        try (JACGDaemon jacgDaemon = new JACGDaemon(configureWrapper)) {
+            Assert.assertTrue(jacgDaemon.start());
+
+            String callerMethod = encode(TestMCCaller.class.getName() + ":test1a");
+            String calleeMethod = encode(TestMCCallee.class.getName() + ":test1");
+
+            Map<String, Object> statusMap = queryOk(jacgDaemon, "/status", "status");
+            Assert.assertTrue(((Number) statusMap.get("methodNum")).intValue() > 0);
+            Assert.assertTrue(((Number) statusMap.get("edgeNum")).intValue() > 0);
+            Assert.assertEquals(1, ((Number) statusMap.get("loadTimes")).intValue());
+
+            Map<String, Object> calleeMap = queryOk(jacgDaemon, "/callee?method=" + callerMethod + "&depth=3", "callee");
+            Assert.assertFalse(((List<?>) calleeMap.get("methods")).isEmpty());
+            Assert.assertFalse(((List<?>) calleeMap.get("calls")).isEmpty());
+            Assert.assertEquals(3, ((Number) calleeMap.get("depth")).intValue());
+
+            Map<String, Object> callerMap = queryOk(jacgDaemon, "/caller?method=" + calleeMethod + "&depth=2", "caller");
+            Assert.assertFalse(((List<?>) callerMap.get("methods")).isEmpty());
+            Assert.assertFalse(((List<?>) callerMap.get("calls")).isEmpty());
+
+            Map<String, Object> stackMap = queryOk(jacgDaemon, "/stack?method=" + callerMethod + "&keyword=" + encode("System.getProperty"), "stack");
+            Assert.assertTrue(stackMap.containsKey("found"));
+            Assert.assertTrue(stackMap.get("stack") instanceof List);
+
+            Map<String, Object> annotationsMap = queryOk(jacgDaemon, "/annotations?method=" + callerMethod, "annotations");
+            Assert.assertFalse(annotationsMap.isEmpty());
+
+            Map<String, Object> childrenMap = queryOk(jacgDaemon, "/children?class=" + encode(TestMCCallee.class.getName()), "children");
+            Assert.assertEquals(TestMCCallee.class.getName(), childrenMap.get("class"));
+            Assert.assertTrue(childrenMap.get("children") instanceof List);
+
+            // 参数不合法时返回400
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/callee", null, HttpURLConnection.HTTP_BAD_REQUEST);
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/callee?method=" + encode("a.b.NotExists:notExists"), null, HttpURLConnection.HTTP_BAD_REQUEST);
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/caller?method=" + calleeMethod + "&depth=0", null, HttpURLConnection.HTTP_BAD_REQUEST);
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/caller?method=" + calleeMethod + "&depth=abc", null, HttpURLConnection.HTTP_BAD_REQUEST);
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/stack?method=" + callerMethod, null, HttpURLConnection.HTTP_BAD_REQUEST);
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/annotations", null, HttpURLConnection.HTTP_BAD_REQUEST);
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/children", null, HttpURLConnection.HTTP_BAD_REQUEST);
+        }
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN, RELOAD_TOKEN);
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_WRITE_DB, Boolean.FALSE.toString());
+        try (JACGDaemon jacgDaemon = new JACGDaemon(configureWrapper)) {
+            Assert.assertTrue(jacgDaemon.start());
+
+            // 需要使用POST方法
+            queryError(jacgDaemon, HTTP_METHOD_GET, "/reload", RELOAD_TOKEN, HttpURLConnection.HTTP_BAD_METHOD);
+            // 需要指定正确的令牌
+            queryError(jacgDaemon, HTTP_METHOD_POST, "/reload", null, HttpURLConnection.HTTP_FORBIDDEN);
+            queryError(jacgDaemon, HTTP_METHOD_POST, "/reload", RELOAD_TOKEN + "-wrong", HttpURLConnection.HTTP_FORBIDDEN);
+            // 未允许重新写入数据库
+            queryError(jacgDaemon, HTTP_METHOD_POST, "/reload?" + JACGDaemon.PARAM_WRITE_DB + "=true", RELOAD_TOKEN, HttpURLConnection.HTTP_FORBIDDEN);
+
+            Response response = query(jacgDaemon, HTTP_METHOD_POST, "/reload", RELOAD_TOKEN);
+            Assert.assertEquals(response.body, HttpURLConnection.HTTP_OK, response.statusCode);
+            Map<String, Object> reloadMap = parseBody(response, "reload");
+            Assert.assertEquals(2, ((Number) reloadMap.get("loadTimes")).intValue());
+
+            // 重新加载后可以继续查询，包括需要查询数据库的接口
+            queryOk(jacgDaemon, "/callee?method=" + encode(TestMCCaller.class.getName() + ":test1a"), "callee after reload");
+            queryOk(jacgDaemon, "/children?class=" + encode(TestMCCallee.class.getName()), "children after reload");
+        } finally {
+            configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN, "");
+        }
+    }
+
+    @Test
+    public void testReloadNoToken() throws IOException {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_DAEMON_RELOAD_TOKEN, "");
+        try (JACGDaemon jacgDaemon = new JACGDaemon(configureWrapper)) {
+            Assert.assertTrue(jacgDaemon.start());
+
+            // 未配置令牌时不允许通过HTTP接口重新加载
+            queryError(jacgDaemon, HTTP_METHOD_POST, "/reload", RELOAD_TOKEN, HttpURLConnection.HTTP_FORBIDDEN);
+            queryError(jacgDaemon, HTTP_METHOD_POST, "/reload", "", HttpURLConnection.HTTP_FORBIDDEN);
+
+            Map<String, Object> statusMap = queryOk(jacgDaemon, "/status", "status");
+            Assert.assertEquals(1, ((Number) statusMap.get("loadTimes")).intValue());
+        }
+    }
+
+    // 使用GET方法查询，需要返回200
+    private Map<String, Object> queryOk(JACGDaemon jacgDaemon, String path, String flag) throws IOException {
+        Response response = query(jacgDaemon, HTTP_METHOD_GET, path, null);
+        Assert.assertEquals(response.body, HttpURLConnection.HTTP_OK, response.statusCode);
+        Map<String, Object> resultMap = parseBody(response, flag);
+        Assert.assertFalse(response.body, resultMap.containsKey(JACGDaemon.RESULT_ERROR));
+        return resultMap;
+    }
+
+    // 查询，需要返回指定的HTTP状态码，且响应内容中包含错误信息
+    private void queryError(JACGDaemon jacgDaemon, String requestMethod, String path, String token, int expectedStatusCode) throws IOException {
+        Response response = query(jacgDaemon, requestMethod, path, token);
+        Assert.assertEquals(path + " " + response.body, expectedStatusCode, response.statusCode);
+        Map<String, Object> resultMap = parseBody(response, requestMethod + " " + path);
+        Assert.assertTrue(response.body, resultMap.get(JACGDaemon.RESULT_ERROR) instanceof String);
+    }
+
+    private Map<String, Object> parseBody(Response response, String flag) {
+        printObjectContent(response.body, flag);
+        Map<String, Object> resultMap = JACGJsonUtil.getMapFromJsonStr(response.body);
+        Assert.assertNotNull(response.body, resultMap);
+        return resultMap;
+    }
+
+    private Response query(JACGDaemon jacgDaemon, String requestMethod, String path, String token) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + jacgDaemon.getPort() + path).openConnection();
+        try {
+            connection.setRequestMethod(requestMethod);
+            if (token != null) {
+                connection.setRequestProperty(JACGDaemon.HEADER_TOKEN, token);
+            }
+            if (HTTP_METHOD_POST.equals(requestMethod)) {
+                connection.setDoOutput(true);
+                connection.getOutputStream().close();
+            }
+            Response response = new Response();
+            response.statusCode = connection.getResponseCode();
+            try (InputStream inputStream = response.statusCode == HttpURLConnection.HTTP_OK ? connection.getInputStream() : connection.getErrorStream()) {
+                response.body = JACGFileUtil.readInputStream2String(inputStream);
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private String encode(String str) throws IOException {
+        return URLEncoder.encode(str, StandardCharsets.UTF_8.name());
+    }
+
+    private static class Response {
+        int statusCode;
+        String body;
+    }
+}
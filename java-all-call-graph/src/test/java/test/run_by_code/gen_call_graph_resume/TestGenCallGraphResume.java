@@ -0,0 +1,136 @@
+package test.run_by_code.gen_call_graph_resume;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.handler.method.MethodCallHandler;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 生成调用链时根据输出目录中的清单文件恢复执行，只执行未完成或已失效的任务
+ */
+public class TestGenCallGraphResume extends TestRunByCodeBase {
+
+    // 修改调用链文件的修改时间为该值，用于判断调用链文件是否有重新生成
+    private static final long OLD_LAST_MODIFIED = 1000L * 1000L * 1000L * 1000L;
+
+    // 修改启用标志的方法调用序号
+    private static final int TOGGLE_METHOD_CALL_ID = 1;
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    @Test
+    public void test4Caller() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_GEN_CALL_GRAPH_RESUME, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4caller");
+        runThreeTimes(new RunnerGenAllGraph4Caller(), new RunnerGenAllGraph4Caller(), new RunnerGenAllGraph4Caller());
+    }
+
+    @Test
+    public void test4Callee() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_GEN_CALL_GRAPH_RESUME, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4callee");
+        runThreeTimes(new RunnerGenAllGraph4Callee(), new RunnerGenAllGraph4Callee(), new RunnerGenAllGraph4Callee());
+    }
+
+    @Test
+    public void testNoResume() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_GEN_CALL_GRAPH_RESUME, Boolean.FALSE.toString());
+        RunnerGenAllGraph4Caller runner = new RunnerGenAllGraph4Caller();
+        Assert.assertTrue(runner.run(configureWrapper));
+        // 未指定恢复执行时不生成清单文件
+        Assert.assertFalse(JACGFileUtil.isFileExists(runner.getCurrentOutputDirPath() + File.separator + JACGConstants.FILE_JACG_GEN_MANIFEST));
+    }
+
+    /**
+     * 执行三次
+     * 第二次执行时数据库未变化，已完成的任务会跳过，调用链文件不会重新生成
+     * 第三次执行前修改数据库，上一次执行时已完成的任务失效，调用链文件全部重新生成
+     */
+    private void runThreeTimes(AbstractRunnerGenCallGraph runner1, AbstractRunnerGenCallGraph runner2, AbstractRunnerGenCallGraph runner3) {
+        Assert.assertTrue(runner1.run(configureWrapper));
+        List<String> manifestList1 = readManifest(runner1.getCurrentOutputDirPath());
+        List<String> outputFilePathList1 = getOutputFilePathList(runner1.getCurrentOutputDirPath());
+        Assert.assertFalse(outputFilePathList1.isEmpty());
+        setOldLastModified(outputFilePathList1);
+
+        Assert.assertTrue(runner2.run(configureWrapper));
+        List<String> manifestList2 = readManifest(runner2.getCurrentOutputDirPath());
+        Assert.assertEquals(manifestList1.size(), manifestList2.size());
+        List<String> outputFilePathList2 = getOutputFilePathList(runner2.getCurrentOutputDirPath());
+        Assert.assertEquals(outputFilePathList1.size(), outputFilePathList2.size());
+        for (String outputFilePath : outputFilePathList2) {
+            Assert.assertEquals(outputFilePath, OLD_LAST_MODIFIED, new File(outputFilePath).lastModified());
+        }
+
+        try (ToggleMethodCallHandler toggleMethodCallHandler = new ToggleMethodCallHandler(configureWrapper)) {
+            Assert.assertTrue(toggleMethodCallHandler.toggleMethodCallEnabled(TOGGLE_METHOD_CALL_ID));
+            try {
+                Assert.assertTrue(runner3.run(configureWrapper));
+            } finally {
+                // 恢复修改的启用标志
+                Assert.assertTrue(toggleMethodCallHandler.toggleMethodCallEnabled(TOGGLE_METHOD_CALL_ID));
+            }
+        }
+        List<String> outputFilePathList3 = getOutputFilePathList(runner3.getCurrentOutputDirPath());
+        Assert.assertFalse(outputFilePathList3.isEmpty());
+        for (String outputFilePath : outputFilePathList3) {
+            Assert.assertNotEquals(outputFilePath, OLD_LAST_MODIFIED, new File(outputFilePath).lastModified());
+        }
+    }
+
+    private List<String> readManifest(String outputDirPath) {
+        List<String> manifestList = JACGFileUtil.readFile2List(outputDirPath + File.separator + JACGConstants.FILE_JACG_GEN_MANIFEST, null);
+        Assert.assertNotNull(manifestList);
+        printListContent(manifestList, outputDirPath);
+        return manifestList;
+    }
+
+    // 获取输出目录中的调用链文件路径，不包含清单文件
+    private List<String> getOutputFilePathList(String outputDirPath) {
+        List<String> outputFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(outputDirPath, null, outputFilePathList, JACGConstants.EXT_TXT);
+        outputFilePathList.removeIf(outputFilePath -> outputFilePath.endsWith(File.separator + JACGConstants.FILE_JACG_GEN_MANIFEST));
+        return outputFilePathList;
+    }
+
+    private void setOldLastModified(List<String> outputFilePathList) {
+        for (String outputFilePath : outputFilePathList) {
+            Assert.assertTrue(outputFilePath, new File(outputFilePath).setLastModified(OLD_LAST_MODIFIED));
+        }
+    }
+
+    // 修改方法调用启用标志的处理类
+    private static class ToggleMethodCallHandler extends MethodCallHandler {
+
+        ToggleMethodCallHandler(ConfigureWrapper configureWrapper) {
+            super(configureWrapper);
+        }
+
+        // 启用的方法调用修改为禁用，禁用的方法调用修改为启用
+        boolean toggleMethodCallEnabled(int methodCallId) {
+            WriteDbData4MethodCall methodCall = dbOperWrapper.getStorage().queryMethodCallById(methodCallId);
+            if (methodCall == null) {
+                return false;
+            }
+            if (methodCall.getEnabled() == JavaCGYesNoEnum.YES.getIntValue()) {
+                return disableMethodCall(methodCallId);
+            }
+            return enableMethodCall(methodCallId);
+        }
+    }
+}
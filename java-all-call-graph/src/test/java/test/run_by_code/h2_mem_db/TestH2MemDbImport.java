@@ -0,0 +1,110 @@
+package test.run_by_code.h2_mem_db;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.dboper.DbOperator;
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 写入数据库时先写入H2内存数据库，完成后保存到H2数据库文件
+ * 保存的H2数据库文件中各个表的记录数需要与直接写入H2数据库文件时相同
+ */
+public class TestH2MemDbImport extends TestRunByCodeBase {
+
+    private static final String H2_DB_FILE_PATH_DIRECT = "./build/jacg_h2db_rbc_direct";
+
+    private static final String H2_DB_FILE_PATH_MEM = "./build/jacg_h2db_rbc_mem";
+
+    private static final String H2_DB_FILE_PATH_OTHER_APP = "./build/jacg_h2db_rbc_other_app";
+
+    private static final String OTHER_APP_TABLE_NAME = "jacg_method_call_rbc_other_app";
+
+    @Test
+    public void test() throws Exception {
+        Map<String, Long> rowNumMapDirect = writeDb(H2_DB_FILE_PATH_DIRECT, false);
+        Map<String, Long> rowNumMapMem = writeDb(H2_DB_FILE_PATH_MEM, true);
+
+        Assert.assertFalse(rowNumMapDirect.isEmpty());
+        Assert.assertEquals(rowNumMapDirect, rowNumMapMem);
+
+        // 保存成功后不残留sql脚本文件及临时H2数据库文件
+        Assert.assertFalse(JACGFileUtil.isFileExists(H2_DB_FILE_PATH_MEM + JACGConstants.H2_SCRIPT_FILE_EXT));
+        Assert.assertFalse(JACGFileUtil.isFileExists(H2_DB_FILE_PATH_MEM + JACGConstants.H2_TMP_DB_FILE_SUFFIX + JACGConstants.H2_FILE_EXT));
+    }
+
+    /**
+     * H2数据库文件中其他应用（app.name不同）的表，在H2内存数据库保存到H2数据库文件后需要保留
+     */
+    @Test
+    public void testKeepOtherAppTables() throws Exception {
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(H2_DB_FILE_PATH_OTHER_APP), "", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists " + OTHER_APP_TABLE_NAME + " (id int NOT NULL, PRIMARY KEY (id))");
+            statement.execute("delete from " + OTHER_APP_TABLE_NAME);
+            statement.execute("insert into " + OTHER_APP_TABLE_NAME + " values (1), (2)");
+        }
+
+        Map<String, Long> rowNumMap = writeDb(H2_DB_FILE_PATH_OTHER_APP, true);
+        Assert.assertEquals(Long.valueOf(2L), rowNumMap.get(OTHER_APP_TABLE_NAME));
+        Assert.assertTrue(rowNumMap.size() > 1);
+        Assert.assertFalse(JACGFileUtil.isFileExists(H2_DB_FILE_PATH_OTHER_APP + JACGConstants.H2_FOREIGN_SCRIPT_FILE_SUFFIX + JACGConstants.H2_SCRIPT_FILE_EXT));
+    }
+
+    /**
+     * 写入数据库，并查询H2数据库文件中各个表的记录数
+     *
+     * @param h2DbFilePath H2数据库文件路径
+     * @param inMemory     是否先写入H2内存数据库
+     * @return key: 表名，value: 记录数
+     * @throws Exception
+     */
+    private Map<String, Long> writeDb(String h2DbFilePath, boolean inMemory) throws Exception {
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH, h2DbFilePath);
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_IN_MEMORY, String.valueOf(inMemory));
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_MAX_HEAP_PERCENT, String.valueOf(JACGConstants.H2_MEM_DB_MAX_HEAP_PERCENT));
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.FALSE.toString());
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+        Assert.assertTrue(JACGFileUtil.isFileExists(h2DbFilePath + JACGConstants.H2_FILE_EXT));
+
+        Map<String, Long> rowNumMap = new TreeMap<>();
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(h2DbFilePath), "", "")) {
+            List<String> tableNameList = new ArrayList<>();
+            try (PreparedStatement preparedStatement = connection.prepareStatement("select table_name from information_schema.tables where table_schema = ?")) {
+                preparedStatement.setString(1, JACGConstants.H2_SCHEMA);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        tableNameList.add(resultSet.getString(1));
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                for (String tableName : tableNameList) {
+                    try (ResultSet resultSet = statement.executeQuery("select count(*) from " + tableName)) {
+                        Assert.assertTrue(resultSet.next());
+                        rowNumMap.put(tableName, resultSet.getLong(1));
+                    }
+                }
+            }
+        }
+        printMapContent(rowNumMap, h2DbFilePath);
+        return rowNumMap;
+    }
+}
@@ -0,0 +1,183 @@
+package test.run_by_code.handler.call_graph;
+
+import com.adrninistrator.jacg.call_graph_binary.CallGraphBinaryReader;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
+import com.adrninistrator.jacg.dto.call_graph.CallGraphEdge;
+import com.adrninistrator.jacg.dto.call_line.CallGraphLineParsed;
+import com.adrninistrator.jacg.handler.call_graph.CallGraphQueryHandler;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.util.JACGCallGraphFileUtil;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import test.call_graph.extend_complex.AbstractSuperClassA;
+import test.call_graph.extend_complex.ChildClassA1;
+import test.call_graph.extend_complex.ChildClassA2;
+import test.call_graph.extend_complex.TestExtendComplex;
+import test.call_graph.method_call.TestMCCallee;
+import test.call_graph.method_call.TestMCCaller;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 通过代码查询方法向下或向上的调用链
+ * 查询结果需要与生成的调用链文件中的方法调用一致（包含需要忽略的方法，及将父类方法替换为子类方法的处理）
+ */
+public class TestCallGraphQueryHandler extends TestRunByCodeBase {
+
+    @Test
+    public void testCallees() {
+        try (CallGraphQueryHandler callGraphQueryHandler = new CallGraphQueryHandler(configureWrapper)) {
+            List<CallGraphEdge> edgeList = callGraphQueryHandler.callees(TestMCCaller.class.getName() + ":test1a()")
+                    .depth(3)
+                    .stream()
+                    .limit(10)
+                    .collect(Collectors.toList());
+            Assert.assertTrue(edgeList.size() <= 10);
+            for (CallGraphEdge edge : edgeList) {
+                Assert.assertTrue(edge.getLevel() <= 3);
+            }
+            printListContent(edgeList, "callees");
+        }
+    }
+
+    @Test
+    public void testCallers() {
+        try (CallGraphQueryHandler callGraphQueryHandler = new CallGraphQueryHandler(configureWrapper)) {
+            for (CallGraphEdge edge : callGraphQueryHandler.callers(TestMCCallee.class.getName() + ":test1(java.lang.String)")
+                    .depth(1)
+                    .filter(edge -> edge.getCallerFullMethod().startsWith(TestMCCaller.class.getName()))) {
+                Assert.assertEquals(1, edge.getLevel());
+                printObjectContent(edge, "callers");
+            }
+        }
+    }
+
+    // 查询向下的调用链，与生成的向下的调用链文件比较
+    @Test
+    public void testCalleesSameAsRunner() throws IOException {
+        initConfig4SameAsRunner();
+        configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_METHOD_CLASS_4CALLER,
+                ChildClassA1.class.getName(),
+                ChildClassA2.class.getName(),
+                TestExtendComplex.class.getName(),
+                TestMCCaller.class.getName()
+        );
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_GEN_BINARY, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, currentClassName + JACGConstants.FLAG_AT + currentMethodName);
+
+        RunnerGenAllGraph4Caller runnerGenAllGraph4Caller = new RunnerGenAllGraph4Caller();
+        Assert.assertTrue(runnerGenAllGraph4Caller.run(configureWrapper));
+
+        List<String> binaryFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(runnerGenAllGraph4Caller.getCurrentOutputDirPath(), new HashSet<>(), binaryFilePathList, JACGConstants.EXT_CALL_GRAPH_BINARY);
+        Assert.assertFalse(binaryFilePathList.isEmpty());
+
+        try (CallGraphQueryHandler callGraphQueryHandler = new CallGraphQueryHandler(configureWrapper)) {
+            for (String binaryFilePath : binaryFilePathList) {
+                String entryFullMethod = null;
+                List<String> runnerLineList = new ArrayList<>();
+                try (CallGraphBinaryReader callGraphBinaryReader = new CallGraphBinaryReader(binaryFilePath)) {
+                    CallGraphLineParsed callGraphLineParsed;
+                    while ((callGraphLineParsed = callGraphBinaryReader.next()) != null) {
+                        String fullMethod = callGraphLineParsed.getMethodDetail().getFullMethod();
+                        if (callGraphLineParsed.getMethodLevel() == JACGConstants.CALL_GRAPH_METHOD_LEVEL_START) {
+                            entryFullMethod = fullMethod;
+                            continue;
+                        }
+                        runnerLineList.add(genLine(callGraphLineParsed.getMethodLevel(), callGraphLineParsed.getCallId(), fullMethod));
+                    }
+                }
+                Assert.assertNotNull(binaryFilePath, entryFullMethod);
+
+                List<String> queryLineList = callGraphQueryHandler.callees(entryFullMethod)
+                        .stream()
+                        .map(edge -> genLine(edge.getLevel(), edge.getMethodCallId(), edge.getCalleeFullMethod()))
+                        .collect(Collectors.toList());
+                printListContent(queryLineList, entryFullMethod);
+                Assert.assertEquals(entryFullMethod, runnerLineList, queryLineList);
+            }
+        }
+    }
+
+    // 查询向上的调用链，与生成的向上的调用链文件比较
+    @Test
+    public void testCallersSameAsRunner() {
+        initConfig4SameAsRunner();
+        configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_METHOD_CLASS_4CALLEE,
+                ChildClassA1.class.getName(),
+                AbstractSuperClassA.class.getName(),
+                TestMCCallee.class.getName()
+        );
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, currentClassName + JACGConstants.FLAG_AT + currentMethodName);
+
+        RunnerGenAllGraph4Callee runnerGenAllGraph4Callee = new RunnerGenAllGraph4Callee();
+        Assert.assertTrue(runnerGenAllGraph4Callee.run(configureWrapper));
+
+        List<String> filePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(runnerGenAllGraph4Callee.getCurrentOutputDirPath() + File.separator + JACGConstants.DIR_OUTPUT_METHODS, new HashSet<>(), filePathList,
+                JACGConstants.EXT_TXT);
+        Assert.assertFalse(filePathList.isEmpty());
+
+        try (CallGraphQueryHandler callGraphQueryHandler = new CallGraphQueryHandler(configureWrapper)) {
+            int checkedNum = 0;
+            for (String filePath : filePathList) {
+                String entryFullMethod = null;
+                List<String> runnerLineList = new ArrayList<>();
+                for (String line : JACGFileUtil.readFile2List(filePath)) {
+                    if (!JACGCallGraphFileUtil.isCallGraphLine(line)) {
+                        continue;
+                    }
+                    CallGraphLineParsed callGraphLineParsed = JACGCallGraphFileUtil.parseCallGraphLine4ee(line);
+                    String fullMethod = callGraphLineParsed.getMethodDetail().getFullMethod();
+                    if (callGraphLineParsed.getMethodLevel() == JACGConstants.CALL_GRAPH_METHOD_LEVEL_START) {
+                        entryFullMethod = fullMethod;
+                        continue;
+                    }
+                    runnerLineList.add(genLine(callGraphLineParsed.getMethodLevel(), 0, fullMethod));
+                }
+                if (entryFullMethod == null) {
+                    // 内容为空的调用链文件
+                    continue;
+                }
+
+                List<String> queryLineList = callGraphQueryHandler.callers(entryFullMethod)
+                        .stream()
+                        .map(edge -> genLine(edge.getLevel(), 0, edge.getCallerFullMethod()))
+                        .collect(Collectors.toList());
+                printListContent(queryLineList, entryFullMethod);
+                Assert.assertEquals(entryFullMethod, runnerLineList, queryLineList);
+                checkedNum++;
+            }
+            Assert.assertTrue(checkedNum > 0);
+        }
+    }
+
+    // 调用链文件中输出完整方法，并指定需要忽略的方法，检查查询时使用相同的规则
+    private void initConfig4SameAsRunner() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_OUTPUT_DETAIL, OutputDetailEnum.ODE_1.getDetail());
+        configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_FULL_METHOD_PREFIX,
+                PrintStream.class.getName() + ":println("
+        );
+        configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_METHOD_PREFIX,
+                "runB("
+        );
+    }
+
+    private static String genLine(int level, int methodCallId, String fullMethod) {
+        return level + JACGConstants.FLAG_TAB + methodCallId + JACGConstants.FLAG_TAB + fullMethod;
+    }
+}
@@ -0,0 +1,164 @@
+package test.run_by_code.handler.change_impact;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.common.enums.MethodChangeTypeEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.handler.base.BaseHandler;
+import com.adrninistrator.jacg.handler.change_impact.ChangeImpactHandler;
+import com.adrninistrator.jacg.handler.dto.change_impact.AffectedEntryPoint;
+import com.adrninistrator.jacg.handler.dto.change_impact.ChangeImpactResult;
+import com.adrninistrator.jacg.handler.dto.change_impact.ChangedMethod;
+import com.adrninistrator.jacg.handler.method.MethodCodeHashHandler;
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import com.adrninistrator.javacg.common.enums.JavaCGYesNoEnum;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/29
+ * @description: 比较当前与上一次写入数据库时的方法字节码HASH，分析受影响的入口方法
+ */
+public class TestChangeImpactHandler extends TestRunByCodeBase {
+
+    // 模拟方法发生变化时，修改上一次的方法字节码HASH使用的值
+    private static final String MODIFIED_CODE_HASH = "modified";
+
+    @Test
+    public void testQueryChangedMethods() {
+        try (ChangeImpactHandler changeImpactHandler = new ChangeImpactHandler(configureWrapper)) {
+            List<ChangedMethod> changedMethodList = changeImpactHandler.queryChangedMethods();
+            Assert.assertNotNull(changedMethodList);
+            printListContent(changedMethodList, "changedMethodList");
+        }
+    }
+
+    @Test
+    public void testAnalyseChangeImpact() {
+        try (ChangeImpactHandler changeImpactHandler = new ChangeImpactHandler(configureWrapper)) {
+            ChangeImpactResult changeImpactResult = changeImpactHandler.analyseChangeImpact(10);
+            Assert.assertNotNull(changeImpactResult);
+            for (AffectedEntryPoint affectedEntryPoint : changeImpactResult.getAffectedEntryPointList()) {
+                Assert.assertTrue(affectedEntryPoint.getLevel() <= 10);
+            }
+            printListContent(changeImpactResult.getAffectedEntryPointList(), "affectedEntryPointList");
+        }
+    }
+
+    // 修改一个被Spring Controller方法调用的方法，需要识别为修改的方法，并关联到对应的Spring Controller方法
+    @Test
+    public void testModifiedMethod() {
+        // 执行两次写数据库，代码未变化时不存在发生变化的方法
+        writeDbTwice();
+        try (ChangeImpactHandler changeImpactHandler = new ChangeImpactHandler(configureWrapper)) {
+            List<ChangedMethod> changedMethodList = changeImpactHandler.queryChangedMethods();
+            Assert.assertNotNull(changedMethodList);
+            Assert.assertTrue(changedMethodList.isEmpty());
+        }
+
+        WriteDbData4MethodCall controllerCall;
+        try (ChangeImpactTestHandler changeImpactTestHandler = new ChangeImpactTestHandler(configureWrapper)) {
+            controllerCall = changeImpactTestHandler.queryControllerCallee();
+            Assert.assertNotNull(controllerCall);
+            // 修改上一次的方法字节码HASH，模拟被调用方法发生变化
+            Assert.assertTrue(changeImpactTestHandler.updateLastCodeHash(controllerCall.getCalleeMethodHash(), MODIFIED_CODE_HASH));
+        }
+
+        try (ChangeImpactHandler changeImpactHandler = new ChangeImpactHandler(configureWrapper)) {
+            ChangeImpactResult changeImpactResult = changeImpactHandler.analyseChangeImpact();
+            Assert.assertNotNull(changeImpactResult);
+            printListContent(changeImpactResult.getAffectedEntryPointList(), controllerCall.getCalleeFullMethod());
+
+            List<ChangedMethod> changedMethodList = changeImpactResult.getChangedMethodList();
+            Assert.assertEquals(1, changedMethodList.size());
+            Assert.assertEquals(controllerCall.getCalleeFullMethod(), changedMethodList.get(0).getFullMethod());
+            Assert.assertEquals(MethodChangeTypeEnum.MCTE_MODIFIED, changedMethodList.get(0).getChangeType());
+
+            boolean found = false;
+            for (AffectedEntryPoint affectedEntryPoint : changeImpactResult.getAffectedEntryPointList()) {
+                Assert.assertEquals(controllerCall.getCalleeFullMethod(), affectedEntryPoint.getChangedFullMethod());
+                if (controllerCall.getCallerFullMethod().equals(affectedEntryPoint.getFullMethod())) {
+                    Assert.assertFalse(affectedEntryPoint.getUriList().isEmpty());
+                    found = true;
+                }
+            }
+            Assert.assertTrue(found);
+        }
+    }
+
+    // 上一次写入数据库未完成生成方法字节码HASH时，保留原有的上一次的方法字节码HASH
+    @Test
+    public void testKeepLastWhenNotDone() {
+        writeDbTwice();
+
+        try (ChangeImpactTestHandler changeImpactTestHandler = new ChangeImpactTestHandler(configureWrapper)) {
+            WriteDbData4MethodCall controllerCall = changeImpactTestHandler.queryControllerCallee();
+            Assert.assertNotNull(controllerCall);
+            Assert.assertTrue(changeImpactTestHandler.updateLastCodeHash(controllerCall.getCalleeMethodHash(), MODIFIED_CODE_HASH));
+            // 删除生成方法字节码HASH阶段的检查点，模拟上一次写入数据库未完成
+            Assert.assertTrue(changeImpactTestHandler.deleteCheckpoint(MethodCodeHashHandler.STAGE_GEN_METHOD_CODE_HASH));
+
+            try (MethodCodeHashHandler methodCodeHashHandler = new MethodCodeHashHandler(configureWrapper)) {
+                Assert.assertTrue(methodCodeHashHandler.backupMethodCodeHash());
+            }
+            Assert.assertEquals(MODIFIED_CODE_HASH, changeImpactTestHandler.queryLastCodeHash(controllerCall.getCalleeMethodHash()));
+        }
+    }
+
+    // 执行两次写数据库，第二次执行时保存第一次生成的方法字节码HASH
+    private void writeDbTwice() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.FALSE.toString());
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+    }
+
+    // 用于修改数据库中的方法字节码HASH及检查点的处理类
+    private static class ChangeImpactTestHandler extends BaseHandler {
+
+        ChangeImpactTestHandler(ConfigureWrapper configureWrapper) {
+            super(configureWrapper);
+        }
+
+        // 查询Spring Controller方法调用的、存在上一次的方法字节码HASH的方法
+        WriteDbData4MethodCall queryControllerCallee() {
+            String sql = "select mc." + DC.MC_CALLER_FULL_METHOD + ", mc." + DC.MC_CALLEE_METHOD_HASH + ", mc." + DC.MC_CALLEE_FULL_METHOD +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CALL.getTableName() + " mc" +
+                    " join " + DbTableInfoEnum.DTIE_SPRING_CONTROLLER.getTableName() + " spc" +
+                    " on mc." + DC.MC_CALLER_METHOD_HASH + " = spc." + DC.SPC_METHOD_HASH +
+                    " join " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName() + " l" +
+                    " on mc." + DC.MC_CALLEE_METHOD_HASH + " = l." + DC.MCH_METHOD_HASH +
+                    " where mc." + DC.MC_ENABLED + " = ?" +
+                    " order by mc." + DC.MC_CALL_ID +
+                    " limit 1";
+            return dbOperator.queryObject(dbOperWrapper.formatSql(sql), WriteDbData4MethodCall.class, JavaCGYesNoEnum.YES.getIntValue());
+        }
+
+        boolean updateLastCodeHash(String methodHash, String codeHash) {
+            String sql = "update " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName() +
+                    " set " + DC.MCH_CODE_HASH + " = ?" +
+                    " where " + DC.MCH_METHOD_HASH + " = ?";
+            Integer row = dbOperator.update(dbOperWrapper.formatSql(sql), codeHash, methodHash);
+            return row != null && row > 0;
+        }
+
+        String queryLastCodeHash(String methodHash) {
+            String sql = "select " + DC.MCH_CODE_HASH +
+                    " from " + DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST.getTableName() +
+                    " where " + DC.MCH_METHOD_HASH + " = ?";
+            return dbOperator.queryObjectOneColumn(dbOperWrapper.formatSql(sql), String.class, methodHash);
+        }
+
+        boolean deleteCheckpoint(String checkpointName) {
+            String sql = "delete from " + DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT.getTableName() +
+                    " where " + DC.WDC_CHECKPOINT_NAME + " = ?";
+            Integer row = dbOperator.update(dbOperWrapper.formatSql(sql), checkpointName);
+            return row != null && row > 0;
+        }
+    }
+}
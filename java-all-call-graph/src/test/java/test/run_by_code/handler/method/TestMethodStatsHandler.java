@@ -0,0 +1,40 @@
+package test.run_by_code.handler.method;
+
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodStats;
+import com.adrninistrator.jacg.handler.method.MethodStatsHandler;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/28
+ * @description: 查询被调用最多、调用其他方法最多的热点方法
+ */
+public class TestMethodStatsHandler extends TestRunByCodeBase {
+
+    @Test
+    public void testQueryTop() {
+        try (MethodStatsHandler methodStatsHandler = new MethodStatsHandler(configureWrapper)) {
+            List<WriteDbData4MethodStats> topInDegreeList = methodStatsHandler.queryTopByInDegree(10);
+            Assert.assertNotNull(topInDegreeList);
+            for (int i = 1; i < topInDegreeList.size(); i++) {
+                Assert.assertTrue(topInDegreeList.get(i - 1).getInDegree() >= topInDegreeList.get(i).getInDegree());
+            }
+            printListContent(topInDegreeList, "in_degree");
+
+            List<WriteDbData4MethodStats> topOutDegreeList = methodStatsHandler.queryTopByOutDegree(10);
+            Assert.assertNotNull(topOutDegreeList);
+            printListContent(topOutDegreeList, "out_degree");
+
+            List<WriteDbData4MethodStats> topCallerClassNumList = methodStatsHandler.queryTopByCallerClassNum(10);
+            Assert.assertNotNull(topCallerClassNumList);
+            for (WriteDbData4MethodStats methodStats : topCallerClassNumList) {
+                Assert.assertTrue(methodStats.getCallerClassNum() <= methodStats.getInDegree());
+            }
+            printListContent(topCallerClassNumList, "caller_class_num");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package test.run_by_code.spring_tx;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseListEnum;
+import com.adrninistrator.jacg.common.enums.OtherConfigFileUseSetEnum;
+import com.adrninistrator.jacg.common.enums.OutputDetailEnum;
+import com.adrninistrator.jacg.extractor.dto.common.extract.BaseCalleeExtractedMethod;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract.SpTxCalleeInfo;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_combined.SpTxCallCombined;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_combined.SpTxNestedCombined;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxCallByAnnotationFile;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxCallByTplFile;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxNestedByAnnotationFile;
+import com.adrninistrator.jacg.extractor.dto.spring_tx.extract_file.SpTxNestedByTplFile;
+import com.adrninistrator.jacg.extractor.entry.spring.SpringTxCallExtractor;
+import com.adrninistrator.jacg.extractor.entry.spring.SpringTxNestedExtractor;
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 直接通过数据库中的方法调用关系查找Spring事务相关调用情况
+ * 查找结果需要与生成方法完整调用链文件及调用堆栈文件后查找的结果一致（包含需要忽略的方法，及将父类方法替换为子类方法的处理），数据序号及行号不比较
+ */
+public class TestSpringTxGraph extends TestRunByCodeBase {
+
+    private static final String H2_DB_FILE_PATH = "./build/jacg_h2db_rbc_spring_tx";
+
+    @Before
+    public void initTestSpringTxGraph() {
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH, H2_DB_FILE_PATH);
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_OUTPUT_DETAIL, OutputDetailEnum.ODE_1.getDetail());
+        configureWrapper.setOtherConfigSet(OtherConfigFileUseSetEnum.OCFUSE_IGNORE_FULL_METHOD_PREFIX,
+                PrintStream.class.getName() + ":println("
+        );
+        configureWrapper.setOtherConfigList(OtherConfigFileUseListEnum.OCFULE_FIND_STACK_KEYWORD_4ER,
+                System.class.getName() + ":",
+                PrintStream.class.getName() + ":"
+        );
+
+        // 需要处理Spring事务模板类
+        new SpringTxCallExtractor().setAllowedClassNamePrefix(configureWrapper);
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+    }
+
+    @Test
+    public void testCall() {
+        doTestCall(false);
+    }
+
+    @Test
+    public void testCallSubtreeRef() {
+        doTestCall(true);
+    }
+
+    @Test
+    public void testNested() {
+        doTestNested(false);
+    }
+
+    @Test
+    public void testNestedSubtreeRef() {
+        doTestNested(true);
+    }
+
+    private void doTestCall(boolean subtreeRef) {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF, String.valueOf(subtreeRef));
+
+        SpTxCallCombined byFile = new SpringTxCallExtractor().extract(configureWrapper.copy());
+        SpTxCallCombined byGraph = new SpringTxCallExtractor().extractByGraph(configureWrapper.copy());
+
+        Map<String, List<String>> byFileMap = genCallResultMap(byFile);
+        Assert.assertFalse(byFileMap.isEmpty());
+        printMapContent(byFileMap, "byFile");
+        Assert.assertEquals(byFileMap, genCallResultMap(byGraph));
+    }
+
+    private void doTestNested(boolean subtreeRef) {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF, String.valueOf(subtreeRef));
+
+        SpTxNestedCombined byFile = new SpringTxNestedExtractor().extract(configureWrapper.copy());
+        SpTxNestedCombined byGraph = new SpringTxNestedExtractor().extractByGraph(configureWrapper.copy());
+
+        Map<String, List<String>> byFileMap = genNestedResultMap(byFile);
+        Assert.assertFalse(byFileMap.isEmpty());
+        printMapContent(byFileMap, "byFile");
+        Assert.assertEquals(byFileMap, genNestedResultMap(byGraph));
+    }
+
+    // key: 入口方法，value: 查找到的被调用方法信息
+    private Map<String, List<String>> genCallResultMap(SpTxCallCombined spTxCallCombined) {
+        Map<String, List<String>> resultMap = new TreeMap<>();
+        for (SpTxCallByAnnotationFile spTxCallByAnnotationFile : spTxCallCombined.getSpTxCallByAnnotationFileList()) {
+            resultMap.put(JACGConstants.SPRING_TX_TYPE_ANNOTATION + JACGConstants.FLAG_AT + spTxCallByAnnotationFile.getFullMethod(),
+                    genCalleeLineList(spTxCallByAnnotationFile.getCalleeExtractedMethodList()));
+        }
+        for (SpTxCallByTplFile spTxCallByTplFile : spTxCallCombined.getSpTxCallByTplFileList()) {
+            resultMap.put(JACGConstants.SPRING_TX_TYPE_TEMPLATE + JACGConstants.FLAG_AT + spTxCallByTplFile.getFullMethod(),
+                    genCalleeLineList(spTxCallByTplFile.getCalleeExtractedMethodList()));
+        }
+        return resultMap;
+    }
+
+    // key: 入口方法，value: 查找到的被调用方法信息
+    private Map<String, List<String>> genNestedResultMap(SpTxNestedCombined spTxNestedCombined) {
+        Map<String, List<String>> resultMap = new TreeMap<>();
+        for (SpTxNestedByAnnotationFile spTxNestedByAnnotationFile : spTxNestedCombined.getSpTxNestedByAnnotationFileList()) {
+            resultMap.put(JACGConstants.SPRING_TX_TYPE_ANNOTATION + JACGConstants.FLAG_AT + spTxNestedByAnnotationFile.getFullMethod(),
+                    genCalleeLineList(spTxNestedByAnnotationFile.getSpTxCalleeInfoList()));
+        }
+        for (SpTxNestedByTplFile spTxNestedByTplFile : spTxNestedCombined.getSpTxNestedByTplFileList()) {
+            resultMap.put(JACGConstants.SPRING_TX_TYPE_TEMPLATE + JACGConstants.FLAG_AT + spTxNestedByTplFile.getFullMethod(),
+                    genCalleeLineList(spTxNestedByTplFile.getSpTxCalleeInfoList()));
+        }
+        return resultMap;
+    }
+
+    private List<String> genCalleeLineList(List<? extends BaseCalleeExtractedMethod> calleeExtractedMethodList) {
+        return calleeExtractedMethodList.stream().map(this::genCalleeLine).collect(Collectors.toList());
+    }
+
+    // 数据序号及行号在两种方式中含义不同，不比较
+    private String genCalleeLine(BaseCalleeExtractedMethod calleeExtractedMethod) {
+        StringBuilder line = new StringBuilder();
+        line.append(calleeExtractedMethod.getCalleeFullMethod()).append(JACGConstants.FLAG_TAB)
+                .append(calleeExtractedMethod.getCalleeUpperFullMethod()).append(JACGConstants.FLAG_TAB)
+                .append(calleeExtractedMethod.isRunInOtherThread()).append(JACGConstants.FLAG_TAB)
+                .append(calleeExtractedMethod.isRunInTransaction());
+        if (calleeExtractedMethod instanceof SpTxCalleeInfo) {
+            SpTxCalleeInfo spTxCalleeInfo = (SpTxCalleeInfo) calleeExtractedMethod;
+            line.append(JACGConstants.FLAG_TAB).append(spTxCalleeInfo.getSpringTxTypeEnum())
+                    .append(JACGConstants.FLAG_TAB).append(spTxCalleeInfo.getTxPropagation());
+        }
+        return line.toString();
+    }
+}
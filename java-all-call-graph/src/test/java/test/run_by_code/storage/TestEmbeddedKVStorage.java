@@ -0,0 +1,135 @@
+package test.run_by_code.storage;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.StorageTypeEnum;
+import com.adrninistrator.jacg.conf.ConfigureWrapper;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodCall;
+import com.adrninistrator.jacg.handler.method.MethodCallHandler;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 使用本地文件及内存存储方法调用关系，生成调用链
+ * 生成的调用链文件需要与使用数据库存储时生成的调用链文件相同
+ */
+public class TestEmbeddedKVStorage extends TestRunByCodeBase {
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    @Test
+    public void test() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE, StorageTypeEnum.STE_EMBEDDED_KV.getType());
+        // 需要重新写入数据库，生成保存方法调用关系的本地文件
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.FALSE.toString());
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+
+        compare(new RunnerGenAllGraph4Caller(), new RunnerGenAllGraph4Caller(), "-4caller");
+        compare(new RunnerGenAllGraph4Callee(), new RunnerGenAllGraph4Callee(), "-4callee");
+    }
+
+    /**
+     * 在新的存储中人工添加、删除方法调用，存储中原有的方法调用需要仍然可以查询到，修改需要保存到本地文件
+     */
+    @Test
+    public void testModify() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE, StorageTypeEnum.STE_EMBEDDED_KV.getType());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.FALSE.toString());
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+
+        int manualCallId;
+        try (StorageMethodCallHandler methodCallHandler = new StorageMethodCallHandler(configureWrapper)) {
+            manualCallId = methodCallHandler.getMaxMethodCallId() + 1;
+            Assert.assertTrue(methodCallHandler.manualAddMethodCall(TestEmbeddedKVStorage.class.getName() + ":caller()",
+                    TestEmbeddedKVStorage.class.getName() + ":callee()"));
+            Assert.assertNotNull(methodCallHandler.queryMethodCallById(1));
+            Assert.assertNotNull(methodCallHandler.queryMethodCallById(manualCallId));
+        }
+
+        try (StorageMethodCallHandler methodCallHandler = new StorageMethodCallHandler(configureWrapper)) {
+            Assert.assertNotNull(methodCallHandler.queryMethodCallById(manualCallId));
+            Assert.assertTrue(methodCallHandler.deleteManualAddedMethodCall());
+            Assert.assertNull(methodCallHandler.queryMethodCallById(manualCallId));
+            Assert.assertNotNull(methodCallHandler.queryMethodCallById(1));
+        }
+
+        try (StorageMethodCallHandler methodCallHandler = new StorageMethodCallHandler(configureWrapper)) {
+            Assert.assertNull(methodCallHandler.queryMethodCallById(manualCallId));
+            Assert.assertNotNull(methodCallHandler.queryMethodCallById(1));
+        }
+    }
+
+    // 分别使用本地文件及内存、数据库存储生成调用链，比较生成的调用链文件
+    private void compare(AbstractRunnerGenCallGraph runnerKV, AbstractRunnerGenCallGraph runnerSql, String subDirFlag) {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE, StorageTypeEnum.STE_EMBEDDED_KV.getType());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + subDirFlag + "-kv");
+        Assert.assertTrue(runnerKV.run(configureWrapper));
+        Map<String, String> fileMapKV = readOutputFile(runnerKV.getCurrentOutputDirPath());
+
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_STORAGE_TYPE, StorageTypeEnum.STE_SQL.getType());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + subDirFlag + "-sql");
+        Assert.assertTrue(runnerSql.run(configureWrapper));
+        Map<String, String> fileMapSql = readOutputFile(runnerSql.getCurrentOutputDirPath());
+
+        Assert.assertFalse(fileMapSql.isEmpty());
+        Assert.assertEquals(fileMapSql.keySet(), fileMapKV.keySet());
+        for (Map.Entry<String, String> entry : fileMapSql.entrySet()) {
+            Assert.assertEquals(entry.getKey(), entry.getValue(), fileMapKV.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * 读取输出目录中的调用链文件
+     *
+     * @param outputDirPath
+     * @return key: 调用链文件相对于输出目录的路径，value: 调用链文件内容
+     */
+    private Map<String, String> readOutputFile(String outputDirPath) {
+        List<String> outputFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(outputDirPath, null, outputFilePathList, JACGConstants.EXT_TXT);
+        printListContent(outputFilePathList, outputDirPath);
+
+        Map<String, String> fileMap = new TreeMap<>();
+        for (String outputFilePath : outputFilePathList) {
+            String relativePath = outputFilePath.substring(outputDirPath.length() + File.separator.length());
+            if (JACGConstants.FILE_JACG_GEN_MANIFEST.equals(relativePath)) {
+                // 跳过生成调用链清单文件
+                continue;
+            }
+            String content = JACGFileUtil.readFile2String(outputFilePath);
+            Assert.assertNotNull(content);
+            fileMap.put(relativePath, content);
+        }
+        return fileMap;
+    }
+
+    // 通过方法调用关系存储查询方法调用的处理类
+    private static class StorageMethodCallHandler extends MethodCallHandler {
+
+        StorageMethodCallHandler(ConfigureWrapper configureWrapper) {
+            super(configureWrapper);
+        }
+
+        int getMaxMethodCallId() {
+            return dbOperWrapper.getMaxMethodCallId();
+        }
+
+        WriteDbData4MethodCall queryMethodCallById(int methodCallId) {
+            return dbOperWrapper.getStorage().queryMethodCallById(methodCallId);
+        }
+    }
+}
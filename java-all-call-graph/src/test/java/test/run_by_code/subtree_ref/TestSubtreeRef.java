@@ -0,0 +1,116 @@
+package test.run_by_code.subtree_ref;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.find_stack.FindCallStackTrace;
+import com.adrninistrator.jacg.markdown.JACGMarkdownConstants;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/17
+ * @description: 生成向下的调用链时，重复出现的子树输出对第一次出现的行号的引用，并根据关键字生成调用堆栈
+ * 展开引用的子树后生成的调用堆栈，需要与不引用子树时生成的调用堆栈相同
+ */
+public class TestSubtreeRef extends TestRunByCodeBase {
+
+    // 调用链文件中引用之前出现的子树的标志
+    private static final Pattern PATTERN_SUBTREE_REF = Pattern.compile(JACGConstants.FLAG_TAB + Pattern.quote(JACGConstants.CALL_FLAG_SUBTREE_REF_START) + "\\d+" +
+            Pattern.quote(JACGConstants.CALL_FLAG_SUBTREE_REF_END));
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    @Test
+    public void test() {
+        FindCallStackTrace findCallStackTraceRef = new FindCallStackTrace();
+        Map<String, List<String>> stackMapRef = findStack(findCallStackTraceRef, true);
+        FindCallStackTrace findCallStackTraceNoRef = new FindCallStackTrace();
+        Map<String, List<String>> stackMapNoRef = findStack(findCallStackTraceNoRef, false);
+
+        // 引用子树时，调用链文件中需要出现引用的标志，不引用时不出现
+        Assert.assertTrue(countSubtreeRefLine(findCallStackTraceRef.getCallGraphOutputDirPath()) > 0);
+        Assert.assertEquals(0, countSubtreeRefLine(findCallStackTraceNoRef.getCallGraphOutputDirPath()));
+
+        // 展开后的调用堆栈需要相同
+        Assert.assertFalse(stackMapNoRef.isEmpty());
+        Assert.assertEquals(stackMapNoRef.keySet(), stackMapRef.keySet());
+        for (Map.Entry<String, List<String>> entry : stackMapNoRef.entrySet()) {
+            Assert.assertEquals(entry.getKey(), entry.getValue(), stackMapRef.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * 生成调用堆栈
+     *
+     * @param findCallStackTrace
+     * @param subtreeRef         是否引用之前出现的子树
+     * @return key: 调用堆栈文件名，value: 调用堆栈文件中的各个调用堆栈（已去掉引用子树的标志），已排序
+     */
+    private Map<String, List<String>> findStack(FindCallStackTrace findCallStackTrace, boolean subtreeRef) {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CALL_GRAPH_SUBTREE_REF, String.valueOf(subtreeRef));
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + (subtreeRef ? "-ref" : "-no-ref"));
+
+        List<String> stackFilePathList = findCallStackTrace.find(false, configureWrapper);
+        Assert.assertFalse(stackFilePathList.isEmpty());
+        printListContent(stackFilePathList, String.valueOf(subtreeRef));
+
+        Map<String, List<String>> stackMap = new TreeMap<>();
+        for (String stackFilePath : stackFilePathList) {
+            stackMap.put(new File(stackFilePath).getName(), readStackList(stackFilePath));
+        }
+        return stackMap;
+    }
+
+    // 读取调用堆栈文件中代码块中的内容
+    private List<String> readStackList(String stackFilePath) {
+        List<String> lineList = JACGFileUtil.readFile2List(stackFilePath, null);
+        Assert.assertNotNull(lineList);
+
+        List<String> stackList = new ArrayList<>();
+        StringBuilder stack = null;
+        for (String line : lineList) {
+            if (line.equals(JACGMarkdownConstants.FLAG_CODE)) {
+                if (stack == null) {
+                    stack = new StringBuilder();
+                } else {
+                    stackList.add(stack.toString());
+                    stack = null;
+                }
+                continue;
+            }
+            if (stack != null) {
+                stack.append(PATTERN_SUBTREE_REF.matcher(line).replaceAll("")).append(JACGConstants.NEW_LINE);
+            }
+        }
+        Collections.sort(stackList);
+        return stackList;
+    }
+
+    // 统计调用链文件中引用之前出现的子树的行数
+    private int countSubtreeRefLine(String callGraphOutputDirPath) {
+        List<String> callGraphFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(callGraphOutputDirPath, null, callGraphFilePathList, JACGConstants.EXT_TXT);
+        int count = 0;
+        for (String callGraphFilePath : callGraphFilePathList) {
+            List<String> lineList = JACGFileUtil.readFile2List(callGraphFilePath, null);
+            Assert.assertNotNull(lineList);
+            for (String line : lineList) {
+                if (PATTERN_SUBTREE_REF.matcher(line).find()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,77 @@
+package test.run_by_code.task_order;
+
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4MethodStats;
+import com.adrninistrator.jacg.handler.method.MethodStatsHandler;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import org.junit.Assert;
+import org.junit.Test;
+import test.call_graph.method_call.TestMCCallee;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/25
+ * @description: 生成调用链时按照写数据库时记录的预估开销从大到小的顺序执行任务
+ */
+public class TestTaskOrderByCost extends TestRunByCodeBase {
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    // 用于调用按预估开销对任务排序的方法
+    private static class SortTaskRunner extends RunnerGenAllGraph4Caller {
+        <T> void sort(List<T> taskList, ToLongFunction<T> costFunction) {
+            sortTaskByCost(taskList, costFunction);
+        }
+    }
+
+    @Test
+    public void testSortTaskByCost() {
+        Map<String, Long> costMap = new HashMap<>();
+        costMap.put("a", 1L);
+        costMap.put("b", 3L);
+        costMap.put("c", 3L);
+        costMap.put("d", -1L);
+        costMap.put("e", 3L);
+        costMap.put("f", 1L);
+        costMap.put("g", 0L);
+        List<String> taskList = new ArrayList<>(Arrays.asList("a", "b", "c", "d", "e", "f", "g"));
+
+        new SortTaskRunner().sort(taskList, costMap::get);
+        // 按预估开销从大到小排序，预估开销相同时保持提交顺序，未预估的任务在最后
+        Assert.assertEquals(Arrays.asList("b", "c", "e", "a", "f", "g", "d"), taskList);
+    }
+
+    @Test
+    public void testQueryMethodStats() {
+        try (MethodStatsHandler methodStatsHandler = new MethodStatsHandler(configureWrapper)) {
+            List<WriteDbData4MethodStats> methodStatsList = methodStatsHandler.queryMethodStatsByClass(TestMCCallee.class.getSimpleName());
+            Assert.assertNotNull(methodStatsList);
+            for (WriteDbData4MethodStats methodStats : methodStatsList) {
+                printObjectContent(methodStats, methodStats.getFullMethod());
+            }
+        }
+    }
+
+    @Test
+    public void test4Caller() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_ORDER_BY_COST, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4caller");
+        Assert.assertTrue(new RunnerGenAllGraph4Caller().run(configureWrapper));
+    }
+
+    @Test
+    public void test4Callee() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_ORDER_BY_COST, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4callee");
+        Assert.assertTrue(new RunnerGenAllGraph4Callee().run(configureWrapper));
+    }
+}
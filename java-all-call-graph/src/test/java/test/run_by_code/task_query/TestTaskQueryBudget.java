@@ -0,0 +1,70 @@
+package test.run_by_code.task_query;
+
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.runner.base.AbstractRunnerGenCallGraph;
+import com.adrninistrator.jacg.util.JACGFileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/14
+ * @description: 生成调用链时限制每个任务的数据库查询次数
+ */
+public class TestTaskQueryBudget extends TestRunByCodeBase {
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    @Test
+    public void test4Caller() {
+        // 超过数据库查询次数限制时截断调用链，不会导致执行失败
+        Assert.assertTrue(run(new RunnerGenAllGraph4Caller(), "1", "-4caller"));
+        // 不限制数据库查询次数时不截断调用链
+        Assert.assertFalse(run(new RunnerGenAllGraph4Caller(), "0", "-4caller-no-budget"));
+    }
+
+    @Test
+    public void test4Callee() {
+        // 超过数据库查询次数限制时截断调用链，不会导致执行失败
+        Assert.assertTrue(run(new RunnerGenAllGraph4Callee(), "1", "-4callee"));
+        // 不限制数据库查询次数时不截断调用链
+        Assert.assertFalse(run(new RunnerGenAllGraph4Callee(), "0", "-4callee-no-budget"));
+    }
+
+    /**
+     * 生成调用链
+     *
+     * @param runner      生成调用链的类
+     * @param budget      每个任务允许执行的最大数据库查询次数
+     * @param subDirFlag  输出子目录名的后缀
+     * @return 生成的调用链文件中是否有被截断的调用链
+     */
+    private boolean run(AbstractRunnerGenCallGraph runner, String budget, String subDirFlag) {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_QUERY_RATIO_THRESHOLD, "1");
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_TASK_QUERY_BUDGET, budget);
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + subDirFlag);
+        Assert.assertTrue(runner.run(configureWrapper));
+
+        List<String> outputFilePathList = new ArrayList<>();
+        JACGFileUtil.searchDir(runner.getCurrentOutputDirPath(), null, outputFilePathList, JACGConstants.EXT_TXT);
+        Assert.assertFalse(outputFilePathList.isEmpty());
+
+        List<String> truncatedFilePathList = new ArrayList<>();
+        for (String outputFilePath : outputFilePathList) {
+            String content = JACGFileUtil.readFile2String(outputFilePath);
+            Assert.assertNotNull(content);
+            if (content.contains(JACGConstants.CALL_GRAPH_TRUNCATED_BY_QUERY_BUDGET)) {
+                truncatedFilePathList.add(outputFilePath);
+            }
+        }
+        printListContent(truncatedFilePathList, budget);
+        return !truncatedFilePathList.isEmpty();
+    }
+}
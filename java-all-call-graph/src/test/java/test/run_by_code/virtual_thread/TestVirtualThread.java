@@ -0,0 +1,44 @@
+package test.run_by_code.virtual_thread;
+
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Callee;
+import com.adrninistrator.jacg.runner.RunnerGenAllGraph4Caller;
+import com.adrninistrator.jacg.thread.VirtualThreadSupport;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/26
+ * @description: 使用虚拟线程生成调用链，需要在Java 21及以上版本使用jar包运行，不支持虚拟线程时跳过
+ */
+public class TestVirtualThread extends TestRunByCodeBase {
+
+    private final String simpleClassName = this.getClass().getSimpleName();
+
+    @Before
+    public void checkSupported() {
+        Assume.assumeTrue("当前运行环境不支持虚拟线程 " + System.getProperty("java.version"), VirtualThreadSupport.isSupported());
+    }
+
+    @Test
+    public void test4Caller() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_THREAD_USE_VIRTUAL, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4caller");
+        RunnerGenAllGraph4Caller runnerGenAllGraph4Caller = new RunnerGenAllGraph4Caller();
+        Assert.assertTrue(runnerGenAllGraph4Caller.run(configureWrapper));
+        Assert.assertTrue(runnerGenAllGraph4Caller.isUseVirtualThread());
+    }
+
+    @Test
+    public void test4Callee() {
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_THREAD_USE_VIRTUAL, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_OUTPUT_SUB_DIR_NAME, simpleClassName + "-4callee");
+        RunnerGenAllGraph4Callee runnerGenAllGraph4Callee = new RunnerGenAllGraph4Callee();
+        Assert.assertTrue(runnerGenAllGraph4Callee.run(configureWrapper));
+        Assert.assertTrue(runnerGenAllGraph4Callee.isUseVirtualThread());
+    }
+}
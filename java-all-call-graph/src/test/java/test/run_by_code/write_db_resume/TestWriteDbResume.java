@@ -0,0 +1,200 @@
+package test.run_by_code.write_db_resume;
+
+import com.adrninistrator.jacg.common.DC;
+import com.adrninistrator.jacg.common.JACGConstants;
+import com.adrninistrator.jacg.common.enums.ConfigDbKeyEnum;
+import com.adrninistrator.jacg.common.enums.ConfigKeyEnum;
+import com.adrninistrator.jacg.common.enums.DbTableInfoEnum;
+import com.adrninistrator.jacg.dboper.DbOperator;
+import com.adrninistrator.jacg.dto.write_db.WriteDbData4WriteDbCheckpoint;
+import com.adrninistrator.jacg.handler.checkpoint.WriteDbCheckpointHandler;
+import com.adrninistrator.jacg.runner.RunnerWriteDb;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import test.run_by_code.base.TestRunByCodeBase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author adrninistrator
+ * @date 2023/6/30
+ * @description: 写数据库时记录检查点，并根据检查点恢复执行
+ * 写数据库在指定阶段中断后恢复执行，各个表的内容需要与完整执行一次时相同
+ */
+public class TestWriteDbResume extends TestRunByCodeBase {
+
+    private static final String H2_DB_FILE_PATH_CLEAN = "./build/jacg_h2db_rbc_resume_clean";
+
+    private static final String H2_DB_FILE_PATH_RESUME = "./build/jacg_h2db_rbc_resume";
+
+    @Test
+    public void test() {
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+        printCheckpoint();
+
+        // 根据检查点恢复执行，已完成的阶段会跳过
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME, Boolean.TRUE.toString());
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+        printCheckpoint();
+    }
+
+    // 方法调用关系文件处理完毕，但之前各阶段的检查点未记录时中断
+    @Test
+    public void testInterruptAfterMethodCall() throws Exception {
+        testInterrupt("handleMethodCall", true);
+    }
+
+    // 记录检查点的阶段执行前中断
+    @Test
+    public void testInterruptBeforeMethodStats() throws Exception {
+        testInterrupt("handleMethodStats", false);
+    }
+
+    // 记录检查点的阶段已写入数据，但检查点未记录时中断
+    @Test
+    public void testInterruptAfterMethodCodeHash() throws Exception {
+        testInterrupt("handleMethodCodeHash", true);
+    }
+
+    /**
+     * 在指定阶段中断写数据库，再根据检查点恢复执行，各个表的内容需要与完整执行一次时相同
+     *
+     * @param interruptStageName 中断的阶段名称
+     * @param runStage           中断前是否执行该阶段
+     * @throws Exception
+     */
+    private void testInterrupt(String interruptStageName, boolean runStage) throws Exception {
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_USE_H2, Boolean.TRUE.toString());
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_IMPORT_IN_MEMORY, Boolean.FALSE.toString());
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_CHECK_JAR_FILE_UPDATED, Boolean.FALSE.toString());
+
+        // 完整执行一次
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH, H2_DB_FILE_PATH_CLEAN);
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME, Boolean.FALSE.toString());
+        Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+        Map<String, String> tableContentMapClean = queryTableContent(H2_DB_FILE_PATH_CLEAN);
+
+        // 在指定阶段中断后恢复执行
+        configureWrapper.setMainConfig(ConfigDbKeyEnum.CDKE_DB_H2_FILE_PATH, H2_DB_FILE_PATH_RESUME);
+        InterruptedRunnerWriteDb interruptedRunnerWriteDb = new InterruptedRunnerWriteDb(interruptStageName, runStage);
+        Assert.assertFalse(interruptedRunnerWriteDb.run(configureWrapper));
+        Assert.assertTrue(interruptedRunnerWriteDb.interrupted);
+
+        configureWrapper.setMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME, Boolean.TRUE.toString());
+        try {
+            Assert.assertTrue(new RunnerWriteDb().run(configureWrapper));
+        } finally {
+            configureWrapper.setMainConfig(ConfigKeyEnum.CKE_WRITE_DB_RESUME, Boolean.FALSE.toString());
+        }
+        Map<String, String> tableContentMapResume = queryTableContent(H2_DB_FILE_PATH_RESUME);
+
+        Assert.assertFalse(tableContentMapClean.isEmpty());
+        Assert.assertEquals(tableContentMapClean, tableContentMapResume);
+    }
+
+    /**
+     * 查询H2数据库文件中各个表的内容，不包含写数据库检查点表，以及上一次执行时的方法字节码HASH表
+     * jar包的修改时间在每次执行时可能不同，不比较
+     *
+     * @param h2DbFilePath H2数据库文件路径
+     * @return key: 表名，value: 记录数及各记录内容排序后的HASH
+     * @throws Exception
+     */
+    private Map<String, String> queryTableContent(String h2DbFilePath) throws Exception {
+        String appName = configureWrapper.getMainConfig(ConfigKeyEnum.CKE_APP_NAME);
+        List<String> skipTableNameList = new ArrayList<>();
+        for (DbTableInfoEnum dbTableInfoEnum : new DbTableInfoEnum[]{DbTableInfoEnum.DTIE_WRITE_DB_CHECKPOINT, DbTableInfoEnum.DTIE_METHOD_CODE_HASH_LAST}) {
+            skipTableNameList.add(StringUtils.replace(dbTableInfoEnum.getTableName(), JACGConstants.APP_NAME_IN_SQL, appName));
+        }
+
+        Map<String, String> tableContentMap = new TreeMap<>();
+        try (Connection connection = DriverManager.getConnection(DbOperator.genH2DbJdbcUrl(h2DbFilePath), "", "")) {
+            List<String> tableNameList = new ArrayList<>();
+            try (PreparedStatement preparedStatement = connection.prepareStatement("select table_name from information_schema.tables where table_schema = ?")) {
+                preparedStatement.setString(1, JACGConstants.H2_SCHEMA);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        String tableName = resultSet.getString(1);
+                        if (skipTableNameList.stream().noneMatch(tableName::equalsIgnoreCase)) {
+                            tableNameList.add(tableName);
+                        }
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                for (String tableName : tableNameList) {
+                    List<String> rowList = new ArrayList<>();
+                    try (ResultSet resultSet = statement.executeQuery("select * from " + tableName)) {
+                        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+                        while (resultSet.next()) {
+                            StringBuilder row = new StringBuilder();
+                            for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
+                                if (DC.JI_LAST_MODIFIED.equalsIgnoreCase(resultSetMetaData.getColumnName(i))) {
+                                    continue;
+                                }
+                                row.append(resultSet.getString(i)).append(JACGConstants.FLAG_TAB);
+                            }
+                            rowList.add(row.toString());
+                        }
+                    }
+                    Collections.sort(rowList);
+                    tableContentMap.put(tableName, rowList.size() + JACGConstants.FLAG_TAB + DigestUtils.md5Hex(StringUtils.join(rowList,
+                            JACGConstants.NEW_LINE)));
+                }
+            }
+        }
+        printMapContent(tableContentMap, h2DbFilePath);
+        return tableContentMap;
+    }
+
+    private void printCheckpoint() {
+        try (WriteDbCheckpointHandler writeDbCheckpointHandler = new WriteDbCheckpointHandler(configureWrapper)) {
+            Assert.assertTrue(writeDbCheckpointHandler.loadLastCheckpoints());
+            Assert.assertTrue(writeDbCheckpointHandler.isStageDone("handleMethodCall"));
+            Assert.assertTrue(writeDbCheckpointHandler.isStageDone("handleMethodCodeHash"));
+            WriteDbData4WriteDbCheckpoint checkpoint = writeDbCheckpointHandler.getLastCheckpoint("WriteDbHandler4MethodCall");
+            Assert.assertNotNull(checkpoint);
+            printObjectContent(checkpoint, "WriteDbHandler4MethodCall");
+        }
+    }
+
+    // 在指定阶段中断的写数据库类，模拟执行过程中进程退出
+    private static class InterruptedRunnerWriteDb extends RunnerWriteDb {
+
+        private final String interruptStageName;
+
+        private final boolean runStage;
+
+        private boolean interrupted;
+
+        InterruptedRunnerWriteDb(String interruptStageName, boolean runStage) {
+            this.interruptStageName = interruptStageName;
+            this.runStage = runStage;
+        }
+
+        @Override
+        protected boolean runStage(String stageName, BooleanSupplier stage) {
+            if (!interruptStageName.equals(stageName)) {
+                return super.runStage(stageName, stage);
+            }
+            if (runStage) {
+                Assert.assertTrue(super.runStage(stageName, stage));
+            }
+            interrupted = true;
+            return false;
+        }
+    }
+}